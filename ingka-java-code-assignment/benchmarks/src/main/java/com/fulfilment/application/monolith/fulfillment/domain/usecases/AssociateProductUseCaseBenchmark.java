@@ -0,0 +1,76 @@
+package com.fulfilment.application.monolith.fulfillment.domain.usecases;
+
+import com.fulfilment.application.monolith.fulfillment.adapters.memory.InMemoryFulfillmentIndex;
+import com.fulfilment.application.monolith.fulfillment.adapters.memory.InMemoryFulfillmentStore;
+import com.fulfilment.application.monolith.fulfillment.domain.models.Fulfillment;
+import jakarta.validation.ValidationException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Associates against a store seeded like {@code import.sql}, with the constraint index disabled so the
+ * rules are evaluated against the stored counters on every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AssociateProductUseCaseBenchmark {
+
+    private InMemoryFulfillmentStore store;
+    private AssociateProductUseCase useCase;
+
+    private Fulfillment fresh;
+    private Fulfillment existing;
+    private Fulfillment overLimit;
+
+    @Setup
+    public void setUp() {
+        store = new InMemoryFulfillmentStore(
+                Set.of("TONSTAD", "KALLAX")::contains,
+                Set.of("HAARLEM", "AMSTERDAM")::contains,
+                Set.of("MWH.001", "MWH.012", "MWH.023")::contains);
+        store.save(new Fulfillment("TONSTAD", "AMSTERDAM", "MWH.001"));
+        store.save(new Fulfillment("TONSTAD", "AMSTERDAM", "MWH.012"));
+        useCase = new AssociateProductUseCase(store, new InMemoryFulfillmentIndex(store, null, false));
+
+        fresh = new Fulfillment("KALLAX", "HAARLEM", "MWH.023");
+        existing = new Fulfillment("TONSTAD", "AMSTERDAM", "MWH.001");
+        // TONSTAD already comes to AMSTERDAM from two warehouses
+        overLimit = new Fulfillment("TONSTAD", "AMSTERDAM", "MWH.023");
+    }
+
+    /** Validates and stores a new association; deleting it again is part of the measurement. */
+    @Benchmark
+    public void associateNew() {
+        useCase.associate(fresh);
+        store.remove(fresh);
+    }
+
+    @Benchmark
+    public void associateExisting() {
+        useCase.associate(existing);
+    }
+
+    @Benchmark
+    public String associateRejected() {
+        try {
+            useCase.associate(overLimit);
+            return null;
+        } catch (ValidationException e) {
+            return e.getMessage();
+        }
+    }
+}
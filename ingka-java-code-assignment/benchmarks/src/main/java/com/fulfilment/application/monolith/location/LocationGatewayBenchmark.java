@@ -0,0 +1,45 @@
+package com.fulfilment.application.monolith.location;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class LocationGatewayBenchmark {
+
+    private static final String[] KNOWN = {"ZWOLLE-001", "AMSTERDAM-001", "AMSTERDAM-002", "ZWOLLE-002"};
+
+    private LocationGateway gateway;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        // the bundled catalog
+        gateway = new LocationGateway();
+    }
+
+    @Benchmark
+    public Location resolveKnown() {
+        next = (next + 1) & (KNOWN.length - 1);
+        return gateway.resolveByIdentifier(KNOWN[next]);
+    }
+
+    @Benchmark
+    public Location resolveUnknown() {
+        return gateway.resolveByIdentifier("NOWHERE-001");
+    }
+}
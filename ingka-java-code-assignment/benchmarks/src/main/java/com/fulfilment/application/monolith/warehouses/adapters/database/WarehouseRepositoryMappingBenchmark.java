@@ -0,0 +1,60 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class WarehouseRepositoryMappingBenchmark {
+
+    private WarehouseRepository repository;
+
+    private DbWarehouse active;
+    private DbWarehouse archived;
+
+    @Setup
+    public void setUp() {
+        // toDomain does not touch the cache or the database
+        repository = new WarehouseRepository(null);
+
+        active = entity("MWH.001", null);
+        archived = entity("MWH.002", LocalDateTime.of(2024, 3, 1, 12, 0));
+    }
+
+    @Benchmark
+    public Warehouse toDomainActive() {
+        return repository.toDomain(active);
+    }
+
+    @Benchmark
+    public Warehouse toDomainArchived() {
+        return repository.toDomain(archived);
+    }
+
+    private static DbWarehouse entity(String businessUnitCode, LocalDateTime archivedAt) {
+        DbWarehouse entity = new DbWarehouse();
+        entity.id = 1L;
+        entity.businessUnitCode = businessUnitCode;
+        entity.location = "AMSTERDAM-001";
+        entity.capacity = 100;
+        entity.stock = 10;
+        entity.createdAt = LocalDateTime.of(2023, 10, 1, 9, 30);
+        entity.archivedAt = archivedAt;
+        return entity;
+    }
+}
@@ -0,0 +1,49 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.warehouse.api.beans.Warehouse;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class WarehouseResourceMappingBenchmark {
+
+    private WarehouseResourceImpl resource;
+
+    private com.fulfilment.application.monolith.warehouses.domain.models.Warehouse domain;
+    private Warehouse api;
+
+    @Setup
+    public void setUp() {
+        // the mappings use none of the ports
+        resource = new WarehouseResourceImpl(null, null, null, null, null, new ObjectMapper());
+
+        domain = new com.fulfilment.application.monolith.warehouses.domain.models.Warehouse(
+                "MWH.001", "AMSTERDAM-001", 100, 10);
+        api = resource.toApi(domain);
+    }
+
+    @Benchmark
+    public Warehouse toApi() {
+        return resource.toApi(domain);
+    }
+
+    @Benchmark
+    public com.fulfilment.application.monolith.warehouses.domain.models.Warehouse fromApi() {
+        return resource.fromApi(api);
+    }
+}
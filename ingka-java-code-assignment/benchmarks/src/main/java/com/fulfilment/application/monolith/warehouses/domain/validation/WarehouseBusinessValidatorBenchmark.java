@@ -0,0 +1,66 @@
+package com.fulfilment.application.monolith.warehouses.domain.validation;
+
+import com.fulfilment.application.monolith.location.LocationGateway;
+import com.fulfilment.application.monolith.warehouses.adapters.memory.InMemoryWarehouseStore;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import jakarta.validation.ValidationException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class WarehouseBusinessValidatorBenchmark {
+
+    private WarehouseBusinessValidator validator;
+
+    private Warehouse creation;
+    private Warehouse replacement;
+    private Warehouse overCapacity;
+
+    @Setup
+    public void setUp() {
+        InMemoryWarehouseStore store = new InMemoryWarehouseStore();
+        store.create(new Warehouse("MWH.001", "ZWOLLE-001", 40, 10));
+
+        validator = new WarehouseBusinessValidator();
+        validator.warehouseStore = store;
+        validator.locationResolver = new LocationGateway();
+
+        creation = new Warehouse("MWH.NEW", "AMSTERDAM-001", 80, 20);
+        replacement = new Warehouse("MWH.001", "AMSTERDAM-001", 60, 10);
+        overCapacity = new Warehouse("MWH.NEW", "ZWOLLE-001", 500, 20);
+    }
+
+    @Benchmark
+    public Warehouse validateCreation() {
+        return validator.validate(creation, false);
+    }
+
+    @Benchmark
+    public Warehouse validateReplacement() {
+        return validator.validate(replacement, true);
+    }
+
+    @Benchmark
+    public String validateRejected() {
+        try {
+            validator.validate(overCapacity, false);
+            return null;
+        } catch (ValidationException e) {
+            return e.getMessage();
+        }
+    }
+}
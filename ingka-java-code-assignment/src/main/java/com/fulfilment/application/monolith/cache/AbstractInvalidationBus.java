@@ -0,0 +1,37 @@
+package com.fulfilment.application.monolith.cache;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import org.jboss.logging.Logger;
+
+/**
+ * Keeps the listeners of an {@link InvalidationBus} and hands them what the bus delivers.
+ */
+abstract class AbstractInvalidationBus implements InvalidationBus {
+
+  private static final Logger LOGGER = Logger.getLogger(AbstractInvalidationBus.class);
+
+  private final ConcurrentMap<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>();
+
+  @Override
+  public void subscribe(String region, Consumer<String> listener) {
+    listeners.computeIfAbsent(region, key -> new CopyOnWriteArrayList<>()).add(listener);
+  }
+
+  void deliver(String region, String key) {
+    for (Consumer<String> listener : listeners.getOrDefault(region, List.of())) {
+      try {
+        listener.accept(key);
+      } catch (RuntimeException e) {
+        LOGGER.errorf(e, "Failed to invalidate '%s' in cache region '%s'", key, region);
+      }
+    }
+  }
+
+  void deliverToAll(String key) {
+    listeners.keySet().forEach(region -> deliver(region, key));
+  }
+}
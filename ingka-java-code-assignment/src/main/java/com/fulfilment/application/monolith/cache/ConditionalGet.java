@@ -0,0 +1,24 @@
+package com.fulfilment.application.monolith.cache;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Gives the responses of a GET endpoint a strong ETag, the version its {@link VersionProbe} reads, and
+ * answers a request whose {@code If-None-Match} matches it with 304 Not Modified before the endpoint runs.
+ * See {@link ConditionalGetFilter}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ConditionalGet {
+
+  Class<? extends VersionProbe> value();
+
+  /**
+   * Whether the version can be taken from the entity the endpoint responds with, so that requests
+   * without {@code If-None-Match} are not probed; lists are probed before every request instead.
+   */
+  boolean versionedEntity() default false;
+}
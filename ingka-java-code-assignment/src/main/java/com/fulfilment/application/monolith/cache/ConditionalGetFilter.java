@@ -0,0 +1,109 @@
+package com.fulfilment.application.monolith.cache;
+
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.jboss.resteasy.reactive.server.ServerRequestFilter;
+import org.jboss.resteasy.reactive.server.ServerResponseFilter;
+import org.jboss.resteasy.reactive.server.SimpleResourceInfo;
+
+/**
+ * Conditional GETs for the {@link ConditionalGet} endpoints.
+ *
+ * <p>A request with {@code If-None-Match} is probed for the current version before the endpoint runs;
+ * when a tag matches, it is answered with 304 and the ETag, and nothing is loaded or serialized. A 200
+ * response is tagged with the version of its entity, or with the version probed before the endpoint ran.
+ * As the probe runs first, a change in between leaves the response with an older tag than its content,
+ * which only costs the next request a full response; it never answers 304 to outdated content.
+ */
+@ApplicationScoped
+public class ConditionalGetFilter {
+
+  private static final String TAG = ConditionalGetFilter.class.getName() + ".tag";
+
+  private final ConcurrentMap<SimpleResourceInfo, Optional<Endpoint>> endpoints = new ConcurrentHashMap<>();
+
+  private final Instance<VersionProbe> probes;
+
+  public ConditionalGetFilter(Instance<VersionProbe> probes) {
+    this.probes = probes;
+  }
+
+  @ServerRequestFilter
+  public Uni<Response> probe(ContainerRequestContext request, SimpleResourceInfo resource) {
+    if (!HttpMethod.GET.equals(request.getMethod()) || resource == null) {
+      return Uni.createFrom().nullItem();
+    }
+    Endpoint endpoint = endpoint(resource).orElse(null);
+    if (endpoint == null
+        || endpoint.versionedEntity && request.getHeaderString(HttpHeaders.IF_NONE_MATCH) == null) {
+      return Uni.createFrom().nullItem();
+    }
+    return Uni.createFrom().completionStage(() -> endpoint.probe.version(request.getUriInfo()))
+        .map(version -> {
+          if (version == null) {
+            return null;
+          }
+          EntityTag tag = new EntityTag(version);
+          request.setProperty(TAG, tag);
+          Response.ResponseBuilder notModified = request.getRequest().evaluatePreconditions(tag);
+          return notModified != null ? notModified.tag(tag).build() : null;
+        });
+  }
+
+  @ServerResponseFilter
+  public void tag(ContainerRequestContext request, ContainerResponseContext response, SimpleResourceInfo resource) {
+    if (response.getStatus() != Response.Status.OK.getStatusCode() || resource == null
+        || response.getHeaders().containsKey(HttpHeaders.ETAG)) {
+      return;
+    }
+    Endpoint endpoint = endpoint(resource).orElse(null);
+    if (endpoint == null) {
+      return;
+    }
+    String version = response.hasEntity() ? endpoint.probe.versionOf(response.getEntity()) : null;
+    Object tag = version != null ? new EntityTag(version) : request.getProperty(TAG);
+    if (tag != null) {
+      response.getHeaders().putSingle(HttpHeaders.ETAG, tag);
+    }
+  }
+
+  private Optional<Endpoint> endpoint(SimpleResourceInfo resource) {
+    return endpoints.computeIfAbsent(resource, this::lookup);
+  }
+
+  private Optional<Endpoint> lookup(SimpleResourceInfo resource) {
+    Method method;
+    try {
+      method = resource.getResourceClass().getMethod(resource.getMethodName(), resource.parameterTypes());
+    } catch (NoSuchMethodException | RuntimeException e) {
+      return Optional.empty();
+    }
+    ConditionalGet conditional = method.getAnnotation(ConditionalGet.class);
+    if (conditional == null) {
+      return Optional.empty();
+    }
+    VersionProbe probe = probes.select(conditional.value()).get();
+    return Optional.of(new Endpoint(probe, conditional.versionedEntity()));
+  }
+
+  private static final class Endpoint {
+    final VersionProbe probe;
+    final boolean versionedEntity;
+
+    Endpoint(VersionProbe probe, boolean versionedEntity) {
+      this.probe = probe;
+      this.versionedEntity = versionedEntity;
+    }
+  }
+}
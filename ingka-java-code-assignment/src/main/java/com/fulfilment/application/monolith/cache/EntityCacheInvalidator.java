@@ -0,0 +1,62 @@
+package com.fulfilment.application.monolith.cache;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.metamodel.EntityType;
+
+/**
+ * Keeps the second-level cache of {@code @Cacheable} entities consistent across nodes: writes
+ * {@link #invalidate} the entity, and every node evicts it from its own cache once the write commits.
+ */
+@ApplicationScoped
+public class EntityCacheInvalidator {
+
+  static final String REGION_PREFIX = "entity:";
+
+  private final InvalidationBus invalidationBus;
+  private final EntityManagerFactory entityManagerFactory;
+
+  public EntityCacheInvalidator(InvalidationBus invalidationBus, EntityManagerFactory entityManagerFactory) {
+    this.invalidationBus = invalidationBus;
+    this.entityManagerFactory = entityManagerFactory;
+  }
+
+  void onStart(@Observes StartupEvent event) {
+    for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+      if (entity.getJavaType().isAnnotationPresent(Cacheable.class)) {
+        invalidationBus.subscribe(region(entity.getJavaType()), key -> evict(entity, key));
+      }
+    }
+  }
+
+  public void invalidate(Class<?> entityClass, Object id) {
+    invalidationBus.publish(region(entityClass), String.valueOf(id));
+  }
+
+  private void evict(EntityType<?> entity, String key) {
+    Class<?> type = entity.getJavaType();
+    if (InvalidationBus.ALL.equals(key)) {
+      entityManagerFactory.getCache().evict(type);
+    } else {
+      entityManagerFactory.getCache().evict(type, id(entity, key));
+    }
+  }
+
+  private static Object id(EntityType<?> entity, String key) {
+    Class<?> idType = entity.getIdType().getJavaType();
+    if (idType == Long.class || idType == long.class) {
+      return Long.valueOf(key);
+    }
+    if (idType == Integer.class || idType == int.class) {
+      return Integer.valueOf(key);
+    }
+    return key;
+  }
+
+  private static String region(Class<?> entityClass) {
+    return REGION_PREFIX + entityClass.getName();
+  }
+}
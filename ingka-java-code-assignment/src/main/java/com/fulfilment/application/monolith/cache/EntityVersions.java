@@ -0,0 +1,31 @@
+package com.fulfilment.application.monolith.cache;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Versions of whole tables, for the ETags of list endpoints.
+ *
+ * <p>A table's version is its row count, the sum of its ids and the sum of its row versions. An update
+ * raises the version sum; inserts and deletes change the count unless there are as many of each, and
+ * then the id sum grows, since new ids are higher than every id before them. So the version of a table
+ * never repeats once any of its rows changed.
+ */
+public final class EntityVersions {
+
+  private EntityVersions() {
+  }
+
+  /**
+   * Reads the version of the table of {@code entity}, an entity with a numeric {@code id} and
+   * {@code version}, in one statement.
+   */
+  public static String ofTable(EntityManager entityManager, String entity) {
+    Object[] row = entityManager.createQuery("select count(e), coalesce(sum(e.id), 0), coalesce(sum(e.version), 0)"
+        + " from " + entity + " e", Object[].class).getSingleResult();
+    return ofTable(((Number) row[0]).longValue(), ((Number) row[1]).longValue(), ((Number) row[2]).longValue());
+  }
+
+  public static String ofTable(long rows, long idSum, long versionSum) {
+    return rows + "-" + Long.toHexString(idSum) + "-" + Long.toHexString(versionSum);
+  }
+}
@@ -0,0 +1,21 @@
+package com.fulfilment.application.monolith.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts cache invalidations to every node running the application.
+ *
+ * <p>An invalidation names a region (one kind of cached object) and the key to drop from it. It is
+ * delivered only once the publishing transaction has committed, and never if it rolls back; outside a
+ * transaction it is delivered right away. Listeners are called for invalidations published by any
+ * node, this one included, on a thread of the bus, so they must be quick and thread-safe.
+ */
+public interface InvalidationBus {
+
+  /** Key that invalidates a whole region. */
+  String ALL = "*";
+
+  void publish(String region, String key);
+
+  void subscribe(String region, Consumer<String> listener);
+}
@@ -0,0 +1,41 @@
+package com.fulfilment.application.monolith.cache;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Disposes;
+import jakarta.enterprise.inject.Instance;
+import jakarta.enterprise.inject.Produces;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import javax.sql.DataSource;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Picks the {@link InvalidationBus} named by {@code cache.invalidation.bus}: {@code LOCAL} for a single
+ * node, {@code POSTGRES} when several replicas share the database.
+ */
+@ApplicationScoped
+public class InvalidationBusProducer {
+
+  public enum Kind {
+    LOCAL,
+    POSTGRES
+  }
+
+  @Produces
+  @ApplicationScoped
+  InvalidationBus invalidationBus(TransactionSynchronizationRegistry transactions, Instance<DataSource> dataSource,
+      @ConfigProperty(name = "cache.invalidation.bus", defaultValue = "LOCAL") Kind kind,
+      @ConfigProperty(name = "cache.invalidation.channel", defaultValue = "cache_invalidation") String channel) {
+    if (kind == Kind.POSTGRES) {
+      PostgresInvalidationBus bus = new PostgresInvalidationBus(dataSource.get(), channel);
+      bus.start();
+      return bus;
+    }
+    return new LocalInvalidationBus(transactions);
+  }
+
+  void close(@Disposes InvalidationBus bus) {
+    if (bus instanceof PostgresInvalidationBus) {
+      ((PostgresInvalidationBus) bus).stop();
+    }
+  }
+}
@@ -0,0 +1,38 @@
+package com.fulfilment.application.monolith.cache;
+
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+/**
+ * Delivers invalidations to the listeners of this JVM only, once the publishing transaction has
+ * committed. Enough for a single node, and for tests.
+ */
+public class LocalInvalidationBus extends AbstractInvalidationBus {
+
+  private final TransactionSynchronizationRegistry transactions;
+
+  public LocalInvalidationBus(TransactionSynchronizationRegistry transactions) {
+    this.transactions = transactions;
+  }
+
+  @Override
+  public void publish(String region, String key) {
+    if (transactions == null || transactions.getTransactionStatus() != Status.STATUS_ACTIVE) {
+      deliver(region, key);
+      return;
+    }
+    transactions.registerInterposedSynchronization(new Synchronization() {
+      @Override
+      public void beforeCompletion() {
+      }
+
+      @Override
+      public void afterCompletion(int status) {
+        if (status == Status.STATUS_COMMITTED) {
+          deliver(region, key);
+        }
+      }
+    });
+  }
+}
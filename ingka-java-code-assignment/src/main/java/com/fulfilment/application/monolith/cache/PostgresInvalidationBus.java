@@ -0,0 +1,116 @@
+package com.fulfilment.application.monolith.cache;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.regex.Pattern;
+import javax.sql.DataSource;
+import org.jboss.logging.Logger;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+/**
+ * Broadcasts invalidations through Postgres {@code NOTIFY} on {@code cache.invalidation.channel}.
+ *
+ * <p>The notification is sent on the publishing transaction's connection, and Postgres only hands it
+ * to listeners when that transaction commits. Each node keeps one connection of the pool listening
+ * on the channel. Invalidations sent while that connection is down are lost, so after (re)connecting
+ * every region is told to drop everything.
+ */
+public class PostgresInvalidationBus extends AbstractInvalidationBus {
+
+  private static final Logger LOGGER = Logger.getLogger(PostgresInvalidationBus.class);
+
+  private static final Pattern CHANNEL = Pattern.compile("[a-z_][a-z0-9_]*");
+  private static final int POLL_MILLIS = 500;
+  private static final Duration RECONNECT_DELAY = Duration.ofSeconds(5);
+
+  private final DataSource dataSource;
+  private final String channel;
+  private final Thread listener;
+
+  private volatile boolean running;
+
+  public PostgresInvalidationBus(DataSource dataSource, String channel) {
+    if (!CHANNEL.matcher(channel).matches()) {
+      throw new IllegalArgumentException("Invalid cache invalidation channel: " + channel);
+    }
+    this.dataSource = dataSource;
+    this.channel = channel;
+    this.listener = new Thread(this::listen, "cache-invalidation-listener");
+    this.listener.setDaemon(true);
+  }
+
+  public void start() {
+    running = true;
+    listener.start();
+  }
+
+  public void stop() {
+    running = false;
+    try {
+      listener.join(RECONNECT_DELAY.toMillis());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public void publish(String region, String key) {
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement notify = connection.prepareStatement("select pg_notify(?, ?)")) {
+      notify.setString(1, channel);
+      notify.setString(2, region + '\t' + key);
+      notify.execute();
+    } catch (SQLException e) {
+      throw new IllegalStateException("Failed to publish invalidation of '" + key + "' in cache region '"
+          + region + "'", e);
+    }
+  }
+
+  private void listen() {
+    while (running) {
+      try (Connection connection = dataSource.getConnection();
+          Statement statement = connection.createStatement()) {
+        statement.execute("LISTEN " + channel);
+        PGConnection notifications = connection.unwrap(PGConnection.class);
+        LOGGER.infof("Listening for cache invalidations on channel '%s'", channel);
+        deliverToAll(ALL);
+        while (running) {
+          PGNotification[] received = notifications.getNotifications(POLL_MILLIS);
+          if (received == null) {
+            continue;
+          }
+          for (PGNotification notification : received) {
+            receive(notification.getParameter());
+          }
+        }
+      } catch (SQLException e) {
+        if (running) {
+          LOGGER.errorf(e, "Cache invalidation listener lost its connection, reconnecting in %s", RECONNECT_DELAY);
+          sleep();
+        }
+      }
+    }
+  }
+
+  private void receive(String payload) {
+    int separator = payload.indexOf('\t');
+    if (separator < 0) {
+      LOGGER.warnf("Ignoring malformed cache invalidation '%s'", payload);
+      return;
+    }
+    deliver(payload.substring(0, separator), payload.substring(separator + 1));
+  }
+
+  private void sleep() {
+    try {
+      Thread.sleep(RECONNECT_DELAY.toMillis());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      running = false;
+    }
+  }
+}
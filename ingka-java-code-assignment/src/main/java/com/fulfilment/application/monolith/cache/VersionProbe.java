@@ -0,0 +1,26 @@
+package com.fulfilment.application.monolith.cache;
+
+import jakarta.ws.rs.core.UriInfo;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Reads the version of what a {@link ConditionalGet} endpoint responds with, which must change whenever
+ * the response does. Probes run on the endpoint's thread, so those of non-blocking endpoints must not
+ * block.
+ */
+public interface VersionProbe {
+
+  /**
+   * Completes with the version of what a request for {@code uri} reads, without loading it where
+   * possible, or with {@code null} when there is nothing to version (e.g. it does not exist).
+   */
+  CompletionStage<String> version(UriInfo uri);
+
+  /**
+   * Returns the version of an entity the endpoint responded with, as {@link #version} reports it, or
+   * {@code null} when it carries none.
+   */
+  default String versionOf(Object entity) {
+    return null;
+  }
+}
@@ -0,0 +1,13 @@
+package com.fulfilment.application.monolith.database;
+
+/**
+ * Thrown when a row changed between being read and being written, so the write, made conditional on
+ * the version that was read, updated nothing. {@link OptimisticRetry} tries again; a conflict that is
+ * still thrown after that answers 409.
+ */
+public class ConcurrentUpdateException extends RuntimeException {
+
+  public ConcurrentUpdateException(String message) {
+    super(message);
+  }
+}
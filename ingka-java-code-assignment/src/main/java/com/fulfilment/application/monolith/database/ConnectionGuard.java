@@ -0,0 +1,97 @@
+package com.fulfilment.application.monolith.database;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Lets at most {@code database.guard.permits} threads use the database at once, by default as many as
+ * the JDBC pool has connections less {@code database.guard.reserved-connections}.
+ *
+ * <p>The reserved connections are the ones taken outside the guard by background threads, one each: the
+ * cache invalidation listener holding its {@code LISTEN} connection while {@code cache.invalidation.bus}
+ * is {@code POSTGRES}, the store outbox relay and the warm start snapshot writer. Without them a request
+ * holding a permit could still find the pool empty and wait inside it.
+ *
+ * <p>Requests beyond that wait, parked, on a fair semaphore instead of inside the connection pool, and
+ * get a 503 after {@code database.guard.timeout}. The wait holds no connection and no pool lock, so it
+ * stays cheap however many requests pile up, which is what lets blocking endpoints run on virtual
+ * threads. A thread that already holds a permit enters again without taking another, so nested calls
+ * cannot deadlock.
+ */
+@ApplicationScoped
+public class ConnectionGuard {
+
+  // permits held by the current thread: 0, or 1 plus the nested entries
+  private static final ThreadLocal<int[]> DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+  private final boolean enabled;
+  private final Semaphore permits;
+  private final long timeoutNanos;
+
+  @Inject
+  public ConnectionGuard(
+      @ConfigProperty(name = "database.guard.enabled", defaultValue = "false") boolean enabled,
+      @ConfigProperty(name = "database.guard.permits") Optional<Integer> permits,
+      @ConfigProperty(name = "quarkus.datasource.jdbc.max-size", defaultValue = "20") int poolSize,
+      @ConfigProperty(name = "database.guard.reserved-connections", defaultValue = "3") int reservedConnections,
+      @ConfigProperty(name = "database.guard.timeout", defaultValue = "5s") Duration timeout) {
+    this(enabled, permits.orElse(Math.max(1, poolSize - reservedConnections)), timeout);
+  }
+
+  public ConnectionGuard(boolean enabled, int permits, Duration timeout) {
+    this.enabled = enabled;
+    this.permits = new Semaphore(permits, true);
+    this.timeoutNanos = timeout.toNanos();
+  }
+
+  /**
+   * Waits for a permit, unless the guard is disabled or the thread holds one already. Every call must
+   * be followed by {@link #exit}.
+   *
+   * @throws WebApplicationException 503 when no permit was free within the timeout
+   */
+  public void enter() {
+    if (!enabled) {
+      return;
+    }
+    int[] depth = DEPTH.get();
+    if (depth[0] == 0) {
+      boolean acquired;
+      try {
+        acquired = permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        acquired = false;
+      }
+      if (!acquired) {
+        throw new WebApplicationException("Database busy, try again later", 503);
+      }
+    }
+    depth[0]++;
+  }
+
+  public void exit() {
+    if (!enabled) {
+      return;
+    }
+    int[] depth = DEPTH.get();
+    if (--depth[0] == 0) {
+      permits.release();
+    }
+  }
+
+  public int availablePermits() {
+    return permits.availablePermits();
+  }
+
+  /** Threads waiting for a permit. */
+  public int queueLength() {
+    return permits.getQueueLength();
+  }
+}
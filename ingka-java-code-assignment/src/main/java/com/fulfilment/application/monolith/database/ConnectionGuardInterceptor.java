@@ -0,0 +1,32 @@
+package com.fulfilment.application.monolith.database;
+
+import jakarta.annotation.Priority;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+
+/**
+ * Holds a {@link ConnectionGuard} permit around {@link DatabaseBound} calls. It runs outside
+ * {@code @Transactional}, so the permit is only given back once the connection has been.
+ */
+@DatabaseBound
+@Interceptor
+@Priority(Interceptor.Priority.PLATFORM_BEFORE + 100)
+public class ConnectionGuardInterceptor {
+
+  private final ConnectionGuard guard;
+
+  public ConnectionGuardInterceptor(ConnectionGuard guard) {
+    this.guard = guard;
+  }
+
+  @AroundInvoke
+  Object guard(InvocationContext context) throws Exception {
+    guard.enter();
+    try {
+      return context.proceed();
+    } finally {
+      guard.exit();
+    }
+  }
+}
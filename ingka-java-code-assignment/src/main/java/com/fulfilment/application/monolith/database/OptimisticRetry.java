@@ -0,0 +1,145 @@
+package com.fulfilment.application.monolith.database;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.StaleStateException;
+import org.jboss.logging.Logger;
+
+/**
+ * Runs a read, validate and write sequence in a transaction of its own, and runs it again when it lost
+ * an optimistic version check to a concurrent writer.
+ *
+ * <p>An attempt lost when it threw a {@link ConcurrentUpdateException}, or an {@link OptimisticLockException}
+ * or {@link StaleStateException} anywhere in its cause chain. At most {@code database.optimistic-retry.max-attempts}
+ * attempts are made; before the next one the thread waits a random time between half and all of the
+ * backoff, which starts at {@code database.optimistic-retry.backoff} and doubles up to
+ * {@code database.optimistic-retry.max-backoff}, so writers that collided do not collide again. No row is
+ * locked meanwhile. The conflict of the last attempt is thrown; any other failure is thrown right away.
+ *
+ * <p>What an attempt claims outside the database, it gives back through {@link #onRollback}, so nothing
+ * is held by an attempt that lost, failed or did not commit.
+ */
+@ApplicationScoped
+public class OptimisticRetry {
+
+  private static final Logger LOGGER = Logger.getLogger(OptimisticRetry.class);
+
+  private final int maxAttempts;
+  private final long backoffNanos;
+  private final long maxBackoffNanos;
+  private final TransactionSynchronizationRegistry transactions;
+
+  @Inject
+  public OptimisticRetry(
+      @ConfigProperty(name = "database.optimistic-retry.max-attempts", defaultValue = "4") int maxAttempts,
+      @ConfigProperty(name = "database.optimistic-retry.backoff", defaultValue = "10ms") Duration backoff,
+      @ConfigProperty(name = "database.optimistic-retry.max-backoff", defaultValue = "200ms") Duration maxBackoff,
+      TransactionSynchronizationRegistry transactions) {
+    this.maxAttempts = Math.max(1, maxAttempts);
+    this.backoffNanos = backoff.toNanos();
+    this.maxBackoffNanos = Math.max(backoffNanos, maxBackoff.toNanos());
+    this.transactions = transactions;
+  }
+
+  protected OptimisticRetry(int maxAttempts, Duration backoff, Duration maxBackoff) {
+    this(maxAttempts, backoff, maxBackoff, null);
+  }
+
+  /**
+   * Runs {@code attempt} until it commits without a conflict, or the attempts are used up.
+   *
+   * @return what the committed attempt returned
+   */
+  public <T> T call(Supplier<T> attempt) {
+    return call(number -> attempt.get());
+  }
+
+  /**
+   * Runs {@code attempt}, given the number of the attempt from 1, until it commits without a conflict, or
+   * the attempts are used up; an attempt after the first knows that what it was given has gone stale.
+   *
+   * @return what the committed attempt returned
+   */
+  public <T> T call(IntFunction<T> attempt) {
+    long backoff = backoffNanos;
+    for (int attempts = 1; ; attempts++) {
+      int number = attempts;
+      try {
+        return inNewTransaction(() -> attempt.apply(number));
+      } catch (RuntimeException e) {
+        if (!isConflict(e) || attempts >= maxAttempts) {
+          throw e;
+        }
+        LOGGER.debugf("Attempt %d lost to a concurrent update, retrying: %s", attempts, e.getMessage());
+        if (!pause(backoff)) {
+          throw e;
+        }
+        backoff = Math.min(backoff * 2, maxBackoffNanos);
+      }
+    }
+  }
+
+  /**
+   * Whether {@code exception} means another transaction changed a versioned row after it was read.
+   */
+  public static boolean isConflict(Throwable exception) {
+    for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+      if (cause instanceof ConcurrentUpdateException || cause instanceof OptimisticLockException
+          || cause instanceof StaleStateException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Runs {@code action} once the transaction of the current attempt has been rolled back, whether the
+   * attempt threw or its commit failed.
+   */
+  public void onRollback(Runnable action) {
+    transactions.registerInterposedSynchronization(new Synchronization() {
+      @Override
+      public void beforeCompletion() {
+      }
+
+      @Override
+      public void afterCompletion(int status) {
+        if (status != Status.STATUS_COMMITTED) {
+          action.run();
+        }
+      }
+    });
+  }
+
+  /**
+   * Runs one attempt in a transaction of its own, so a lost one is rolled back before the next starts.
+   */
+  protected <T> T inNewTransaction(Supplier<T> attempt) {
+    return QuarkusTransaction.requiringNew().call(attempt::get);
+  }
+
+  // false when interrupted
+  private static boolean pause(long backoff) {
+    if (backoff <= 0) {
+      return true;
+    }
+    try {
+      TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1));
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}
@@ -2,6 +2,7 @@ package com.fulfilment.application.monolith.exceptions;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fulfilment.application.monolith.database.OptimisticRetry;
 import jakarta.inject.Inject;
 import jakarta.validation.ValidationException;
 import jakarta.ws.rs.WebApplicationException;
@@ -32,6 +33,9 @@ public class GlobalExceptionMapper implements ExceptionMapper<Exception> {
             code = ((WebApplicationException) exception).getResponse().getStatus();
         } else if (exception instanceof ValidationException) {
             code = Response.Status.BAD_REQUEST.getStatusCode();
+        } else if (OptimisticRetry.isConflict(exception)) {
+            // another transaction changed the versioned row after it was read, and retrying did not help
+            code = Response.Status.CONFLICT.getStatusCode();
         }
 
         if (code >= 500) {
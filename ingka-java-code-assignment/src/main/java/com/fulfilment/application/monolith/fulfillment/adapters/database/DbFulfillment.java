@@ -1,28 +1,51 @@
 package com.fulfilment.application.monolith.fulfillment.adapters.database;
 
+import com.fulfilment.application.monolith.products.Product;
+import com.fulfilment.application.monolith.stores.Store;
+import com.fulfilment.application.monolith.warehouses.adapters.database.DbWarehouse;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 
 @Entity
-@Table(name = "fulfillment")
+@Table(name = "fulfillment",
+        // the unique key also serves every lookup that starts with product (and store)
+        uniqueConstraints = @UniqueConstraint(name = "uk_fulfillment_product_store_warehouse",
+                columnNames = {"product_id", "store_id", "warehouse_id"}),
+        indexes = {
+                @Index(name = "ix_fulfillment_store_warehouse", columnList = "store_id, warehouse_id"),
+                @Index(name = "ix_fulfillment_warehouse_product", columnList = "warehouse_id, product_id")
+        })
 public class DbFulfillment {
 
     @Id
     @GeneratedValue
     public Long id;
 
-    public String productName;
-    public String storeName;
-    public String warehouseBusinessUnitCode;
+    // associations follow renames and go away with the product, store or warehouse they reference
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "product_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    public Product product;
 
-    public DbFulfillment() {
-    }
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "store_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    public Store store;
 
-    public DbFulfillment(String productName, String storeName, String warehouseBusinessUnitCode) {
-        this.productName = productName;
-        this.storeName = storeName;
-        this.warehouseBusinessUnitCode = warehouseBusinessUnitCode;
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "warehouse_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    public DbWarehouse warehouse;
+
+    public DbFulfillment() {
     }
 }
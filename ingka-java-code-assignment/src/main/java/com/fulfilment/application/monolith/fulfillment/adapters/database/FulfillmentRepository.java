@@ -1,58 +1,202 @@
 package com.fulfilment.application.monolith.fulfillment.adapters.database;
 
+import com.fulfilment.application.monolith.database.DatabaseBound;
 import com.fulfilment.application.monolith.fulfillment.domain.models.Fulfillment;
+import com.fulfilment.application.monolith.fulfillment.domain.models.FulfillmentConstraints;
 import com.fulfilment.application.monolith.fulfillment.domain.ports.FulfillmentStore;
+import com.fulfilment.application.monolith.metrics.Measured;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.Session;
 
 @ApplicationScoped
+@Measured
+@DatabaseBound
 public class FulfillmentRepository implements FulfillmentStore, PanacheRepository<DbFulfillment> {
 
+    // relies on uk_fulfillment_product_store_warehouse, so a concurrent duplicate is skipped rather than stored
+    private static final String INSERT_IF_ABSENT = "insert into fulfillment"
+            + " (id, product_id, store_id, warehouse_id)"
+            + " values (nextval('fulfillment_seq'), ?, ?, ?)"
+            + " on conflict do nothing";
+
+    // the existence checks match id and name together, which also tells whether a cached id is still current
+    private static final String EXISTENCE_QUERY = "select"
+            + " (select count(*) from product p where p.id = :productId and p.name = :product),"
+            + " (select count(*) from store s where s.id = :storeId and s.name = :store),"
+            + " (select count(*) from warehouse w where w.id = :warehouseId and w.businessUnitCode = :warehouse)";
+
+    // one scalar subquery per flag or counter, so the whole snapshot costs a single round trip
+    private static final String CONSTRAINTS_QUERY = EXISTENCE_QUERY + ","
+            + " (select count(*) from fulfillment f where f.product_id = :productId and f.store_id = :storeId"
+            + "   and f.warehouse_id = :warehouseId),"
+            + " (select count(distinct f.warehouse_id) from fulfillment f"
+            + "   where f.product_id = :productId and f.store_id = :storeId),"
+            + " (select count(distinct f.warehouse_id) from fulfillment f where f.store_id = :storeId),"
+            + " (select count(distinct f.product_id) from fulfillment f where f.warehouse_id = :warehouseId),"
+            + " (select count(*) from fulfillment f where f.warehouse_id = :warehouseId and f.store_id = :storeId),"
+            + " (select count(*) from fulfillment f where f.product_id = :productId and f.warehouse_id = :warehouseId)";
+
+    @Inject
+    ReferenceKeyCache keys;
+
+    @ConfigProperty(name = "quarkus.hibernate-orm.jdbc.statement-batch-size", defaultValue = "100")
+    int batchSize;
+
     @Override
     @Transactional
-    public void save(Fulfillment fulfillment) {
-        DbFulfillment entity = new DbFulfillment(
-                fulfillment.productName,
-                fulfillment.storeName,
-                fulfillment.warehouseBusinessUnitCode);
-        this.persist(entity);
+    public boolean save(Fulfillment fulfillment) {
+        long[] ids = resolve(fulfillment);
+        return getEntityManager().createNativeQuery(INSERT_IF_ABSENT)
+                .setParameter(1, ids[0])
+                .setParameter(2, ids[1])
+                .setParameter(3, ids[2])
+                .executeUpdate() > 0;
     }
 
     @Override
-    public long countWarehousesByProductAndStore(String productName, String storeName) {
-        return count("productName = ?1 and storeName = ?2", productName, storeName);
+    @Transactional
+    public boolean[] saveAll(List<Fulfillment> fulfillments) {
+        boolean[] created = new boolean[fulfillments.size()];
+        getEntityManager().unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_IF_ABSENT)) {
+                int sent = 0;
+                for (int i = 0; i < fulfillments.size(); i++) {
+                    long[] ids = resolve(fulfillments.get(i));
+                    insert.setLong(1, ids[0]);
+                    insert.setLong(2, ids[1]);
+                    insert.setLong(3, ids[2]);
+                    insert.addBatch();
+                    if ((i + 1) % batchSize == 0 || i == fulfillments.size() - 1) {
+                        sent = executeBatch(insert, created, sent);
+                    }
+                }
+            }
+        });
+        return created;
     }
 
-    @Override
-    public long countUniqueWarehousesByStore(String storeName) {
-        return find("select count(distinct f.warehouseBusinessUnitCode) from DbFulfillment f where f.storeName = ?1",
-                storeName)
-                .project(Long.class)
-                .singleResult();
+    /**
+     * Sends the batched inserts and records which created a row. Skipped duplicates count 0 rows, so the
+     * driver has to report per-statement counts: with {@code reWriteBatchedInserts} the PostgreSQL driver
+     * answers {@link Statement#SUCCESS_NO_INFO} instead, which cannot tell a new association from an
+     * existing one, and the batch fails rather than report either wrongly.
+     */
+    static int executeBatch(PreparedStatement insert, boolean[] created, int offset) throws SQLException {
+        int[] counts = insert.executeBatch();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == Statement.SUCCESS_NO_INFO) {
+                throw new IllegalStateException("The JDBC driver reported no row count for a batched insert;"
+                        + " reWriteBatchedInserts must stay disabled");
+            }
+            created[offset + i] = counts[i] > 0;
+        }
+        return offset + counts.length;
     }
 
-    @Override
-    public long countUniqueProductsByWarehouse(String warehouseBusinessUnitCode) {
-        return find("select count(distinct f.productName) from DbFulfillment f where f.warehouseBusinessUnitCode = ?1",
-                warehouseBusinessUnitCode)
-                .project(Long.class)
-                .singleResult();
+    private long[] resolve(Fulfillment fulfillment) {
+        long[] ids = {
+                keys.productId(fulfillment.productName),
+                keys.storeId(fulfillment.storeName),
+                keys.warehouseId(fulfillment.warehouseBusinessUnitCode)
+        };
+        for (long id : ids) {
+            if (id == ReferenceKeyCache.UNKNOWN) {
+                // callers validate the association first, so this only happens on a concurrent delete
+                throw new IllegalStateException("Cannot store association " + fulfillment.productName + "/"
+                        + fulfillment.storeName + "/" + fulfillment.warehouseBusinessUnitCode
+                        + ": it references an unknown product, store or warehouse");
+            }
+        }
+        return ids;
     }
 
     @Override
-    public boolean exists(String productName, String storeName, String warehouseBusinessUnitCode) {
-        return count("productName = ?1 and storeName = ?2 and warehouseBusinessUnitCode = ?3",
-                productName, storeName, warehouseBusinessUnitCode) > 0;
+    public List<Fulfillment> getAll() {
+        return getEntityManager()
+                .createQuery("select p.name, s.name, w.businessUnitCode from DbFulfillment f"
+                        + " join f.product p join f.store s join f.warehouse w", Object[].class)
+                .getResultStream()
+                .map(row -> new Fulfillment((String) row[0], (String) row[1], (String) row[2]))
+                .collect(Collectors.toList());
     }
 
     @Override
-    public boolean isWarehouseAssociatedWithStore(String warehouseCode, String storeName) {
-        return count("warehouseBusinessUnitCode = ?1 and storeName = ?2", warehouseCode, storeName) > 0;
+    public FulfillmentConstraints loadConstraints(String productName, String storeName,
+            String warehouseBusinessUnitCode) {
+        Object[] row = load(CONSTRAINTS_QUERY, productName, storeName, warehouseBusinessUnitCode);
+        return new FulfillmentConstraints(
+                asLong(row[0]) > 0,
+                asLong(row[1]) > 0,
+                asLong(row[2]) > 0,
+                asLong(row[3]) > 0,
+                asLong(row[4]),
+                asLong(row[5]),
+                asLong(row[6]),
+                asLong(row[7]) > 0,
+                asLong(row[8]) > 0);
     }
 
     @Override
-    public boolean isProductAssociatedWithWarehouse(String productName, String warehouseCode) {
-        return count("productName = ?1 and warehouseBusinessUnitCode = ?2", productName, warehouseCode) > 0;
+    public FulfillmentConstraints loadExistence(String productName, String storeName,
+            String warehouseBusinessUnitCode) {
+        Object[] row = load(EXISTENCE_QUERY, productName, storeName, warehouseBusinessUnitCode);
+        return new FulfillmentConstraints(asLong(row[0]) > 0, asLong(row[1]) > 0, asLong(row[2]) > 0,
+                false, 0, 0, 0, false, false);
+    }
+
+    // runs a query starting with the existence columns, again with fresh ids when a cached one was stale
+    private Object[] load(String query, String productName, String storeName, String warehouseBusinessUnitCode) {
+        long productId = keys.productId(productName);
+        long storeId = keys.storeId(storeName);
+        long warehouseId = keys.warehouseId(warehouseBusinessUnitCode);
+        Object[] row = query(query, productName, productId, storeName, storeId, warehouseBusinessUnitCode,
+                warehouseId);
+
+        // a cached id that no longer carries its name belongs to a renamed or deleted entity
+        boolean stale = false;
+        if (asLong(row[0]) == 0 && productId != ReferenceKeyCache.UNKNOWN) {
+            keys.evictProduct(productName);
+            productId = keys.productId(productName);
+            stale = true;
+        }
+        if (asLong(row[1]) == 0 && storeId != ReferenceKeyCache.UNKNOWN) {
+            keys.evictStore(storeName);
+            storeId = keys.storeId(storeName);
+            stale = true;
+        }
+        if (asLong(row[2]) == 0 && warehouseId != ReferenceKeyCache.UNKNOWN) {
+            keys.evictWarehouse(warehouseBusinessUnitCode);
+            warehouseId = keys.warehouseId(warehouseBusinessUnitCode);
+            stale = true;
+        }
+        if (stale) {
+            row = query(query, productName, productId, storeName, storeId, warehouseBusinessUnitCode, warehouseId);
+        }
+        return row;
+    }
+
+    private Object[] query(String query, String productName, long productId, String storeName, long storeId,
+            String warehouseBusinessUnitCode, long warehouseId) {
+        return (Object[]) getEntityManager().createNativeQuery(query)
+                .setParameter("product", productName)
+                .setParameter("productId", productId)
+                .setParameter("store", storeName)
+                .setParameter("storeId", storeId)
+                .setParameter("warehouse", warehouseBusinessUnitCode)
+                .setParameter("warehouseId", warehouseId)
+                .getSingleResult();
+    }
+
+    private static long asLong(Object column) {
+        return ((Number) column).longValue();
     }
 }
@@ -0,0 +1,83 @@
+package com.fulfilment.application.monolith.fulfillment.adapters.database;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Caches the ids of products, stores and warehouses by name (business unit code for
+ * warehouses), so fulfillment rows can be written and filtered by key without a lookup.
+ *
+ * <p>Only names that exist are cached. An entry can go stale when the entity is renamed or
+ * deleted; callers that detect this {@code evict} it and resolve again.
+ */
+@ApplicationScoped
+public class ReferenceKeyCache {
+
+    /** Returned for a name that does not resolve to any entity; never a generated id. */
+    public static final long UNKNOWN = -1L;
+
+    private final EntityManager entityManager;
+
+    private final ConcurrentMap<String, Long> products = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Long> stores = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Long> warehouses = new ConcurrentHashMap<>();
+
+    public ReferenceKeyCache(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public long productId(String name) {
+        return resolve(products, "select p.id from Product p where p.name = ?1", name);
+    }
+
+    public long storeId(String name) {
+        return resolve(stores, "select s.id from Store s where s.name = ?1", name);
+    }
+
+    public long warehouseId(String businessUnitCode) {
+        return resolve(warehouses, "select w.id from DbWarehouse w where w.businessUnitCode = ?1", businessUnitCode);
+    }
+
+    /**
+     * Adds known ids by name, e.g. from a warm start snapshot; entries already cached are kept.
+     */
+    public void seed(Map<String, Long> productIds, Map<String, Long> storeIds, Map<String, Long> warehouseIds) {
+        productIds.forEach(products::putIfAbsent);
+        storeIds.forEach(stores::putIfAbsent);
+        warehouseIds.forEach(warehouses::putIfAbsent);
+    }
+
+    public void evictProduct(String name) {
+        products.remove(name);
+    }
+
+    public void evictStore(String name) {
+        stores.remove(name);
+    }
+
+    public void evictWarehouse(String businessUnitCode) {
+        warehouses.remove(businessUnitCode);
+    }
+
+    private long resolve(ConcurrentMap<String, Long> cache, String query, String name) {
+        if (name == null) {
+            return UNKNOWN;
+        }
+        Long id = cache.get(name);
+        if (id != null) {
+            return id;
+        }
+        List<Long> ids = entityManager.createQuery(query, Long.class)
+                .setParameter(1, name)
+                .getResultList();
+        if (ids.isEmpty()) {
+            return UNKNOWN;
+        }
+        cache.put(name, ids.get(0));
+        return ids.get(0);
+    }
+}
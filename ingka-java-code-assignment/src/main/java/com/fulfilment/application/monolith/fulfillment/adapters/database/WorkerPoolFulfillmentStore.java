@@ -0,0 +1,31 @@
+package com.fulfilment.application.monolith.fulfillment.adapters.database;
+
+import com.fulfilment.application.monolith.fulfillment.domain.models.Fulfillment;
+import com.fulfilment.application.monolith.fulfillment.domain.ports.FulfillmentStore;
+import com.fulfilment.application.monolith.fulfillment.domain.ports.ReactiveFulfillmentStore;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link ReactiveFulfillmentStore} over the blocking {@link FulfillmentStore}: each read runs on a
+ * worker thread in a transaction of its own.
+ */
+public class WorkerPoolFulfillmentStore implements ReactiveFulfillmentStore {
+
+    private final FulfillmentStore fulfillmentStore;
+    private final Executor workers;
+
+    public WorkerPoolFulfillmentStore(FulfillmentStore fulfillmentStore, Executor workers) {
+        this.fulfillmentStore = fulfillmentStore;
+        this.workers = workers;
+    }
+
+    @Override
+    public CompletionStage<List<Fulfillment>> getAll() {
+        return CompletableFuture.supplyAsync(
+                () -> QuarkusTransaction.requiringNew().call(fulfillmentStore::getAll), workers);
+    }
+}
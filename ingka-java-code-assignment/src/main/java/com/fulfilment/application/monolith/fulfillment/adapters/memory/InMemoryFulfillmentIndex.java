@@ -0,0 +1,325 @@
+package com.fulfilment.application.monolith.fulfillment.adapters.memory;
+
+import com.fulfilment.application.monolith.fulfillment.domain.models.Fulfillment;
+import com.fulfilment.application.monolith.fulfillment.domain.models.FulfillmentConstraints;
+import com.fulfilment.application.monolith.fulfillment.domain.ports.FulfillmentIndex;
+import com.fulfilment.application.monolith.fulfillment.domain.ports.FulfillmentStore;
+import com.fulfilment.application.monolith.snapshot.ReferenceSnapshot;
+import com.fulfilment.application.monolith.snapshot.WarmStart;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Concurrent in-memory index of the fulfillment graph, built from the stored
+ * associations at startup, or from the warm start snapshot when there is one.
+ *
+ * <p>Everything keyed by a store is guarded by that store's lock stripe and everything keyed
+ * by a warehouse by that warehouse's stripe. Associations are indexed as soon as they are saved,
+ * so concurrent callers see each other's in-flight associations and can never exceed a limit
+ * together; an association whose transaction rolls back is removed again.
+ *
+ * <p>The index is keyed by name, so renaming or deleting a product, store or warehouse re-keys or
+ * drops its associations once that change commits. These are rare and take every stripe.
+ *
+ * <p>With {@code fulfillment.constraint-index.enabled=false} (e.g. with several replicas writing
+ * the same database) the rules are evaluated against the stored counters instead.
+ */
+@ApplicationScoped
+public class InMemoryFulfillmentIndex implements FulfillmentIndex {
+
+    private static final Logger LOGGER = Logger.getLogger(InMemoryFulfillmentIndex.class);
+
+    static final int STRIPES = 64;
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    // [product, store] -> warehouses fulfilling that product for that store
+    private final ConcurrentMap<List<String>, Map<String, Integer>> warehousesByProductAndStore =
+            new ConcurrentHashMap<>();
+    // store -> warehouse -> number of products it fulfils for the store
+    private final ConcurrentMap<String, Map<String, Integer>> warehousesByStore = new ConcurrentHashMap<>();
+    // warehouse -> product -> number of stores it is fulfilled for
+    private final ConcurrentMap<String, Map<String, Integer>> productsByWarehouse = new ConcurrentHashMap<>();
+
+    private final FulfillmentStore fulfillmentStore;
+    private final TransactionSynchronizationRegistry transactionRegistry;
+    private final WarmStart warmStart;
+    private final boolean enabled;
+
+    public InMemoryFulfillmentIndex(FulfillmentStore fulfillmentStore,
+            TransactionSynchronizationRegistry transactionRegistry, boolean enabled) {
+        this(fulfillmentStore, transactionRegistry, null, enabled);
+    }
+
+    @Inject
+    public InMemoryFulfillmentIndex(FulfillmentStore fulfillmentStore,
+            TransactionSynchronizationRegistry transactionRegistry, WarmStart warmStart,
+            @ConfigProperty(name = "fulfillment.constraint-index.enabled", defaultValue = "true") boolean enabled) {
+        this.fulfillmentStore = fulfillmentStore;
+        this.transactionRegistry = transactionRegistry;
+        this.warmStart = warmStart;
+        this.enabled = enabled;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Optional<ReferenceSnapshot> warm = warmStart != null ? warmStart.current() : Optional.empty();
+        if (warm.isPresent()) {
+            rebuild(warm.get().fulfillments());
+        } else {
+            rebuild();
+        }
+    }
+
+    /**
+     * Discards the index and reloads it from the stored associations.
+     */
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        rebuild(fulfillmentStore.getAll());
+    }
+
+    private void rebuild(List<Fulfillment> fulfillments) {
+        warehousesByProductAndStore.clear();
+        warehousesByStore.clear();
+        productsByWarehouse.clear();
+        int indexed = 0;
+        for (Fulfillment fulfillment : fulfillments) {
+            try (Guard guard = lock(fulfillment)) {
+                if (index(fulfillment)) {
+                    indexed++;
+                }
+            }
+        }
+        LOGGER.infof("Fulfillment index built with %d associations", indexed);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public Guard lock(Fulfillment fulfillment) {
+        int storeStripe = stripe("S|" + fulfillment.storeName);
+        int warehouseStripe = stripe("W|" + fulfillment.warehouseBusinessUnitCode);
+        if (storeStripe == warehouseStripe) {
+            ReentrantLock only = stripes[storeStripe];
+            only.lock();
+            return only::unlock;
+        }
+        // always take stripes in index order so two callers cannot deadlock
+        ReentrantLock first = stripes[Math.min(storeStripe, warehouseStripe)];
+        ReentrantLock second = stripes[Math.max(storeStripe, warehouseStripe)];
+        first.lock();
+        second.lock();
+        return () -> {
+            second.unlock();
+            first.unlock();
+        };
+    }
+
+    @Override
+    public FulfillmentConstraints constraintsFor(Fulfillment fulfillment, FulfillmentConstraints stored) {
+        if (!enabled) {
+            return stored;
+        }
+        Map<String, Integer> productWarehouses = view(warehousesByProductAndStore,
+                productStoreKey(fulfillment.productName, fulfillment.storeName));
+        Map<String, Integer> storeWarehouses = view(warehousesByStore, fulfillment.storeName);
+        Map<String, Integer> warehouseProducts = view(productsByWarehouse, fulfillment.warehouseBusinessUnitCode);
+        return new FulfillmentConstraints(
+                stored.productExists,
+                stored.storeExists,
+                stored.warehouseExists,
+                productWarehouses.containsKey(fulfillment.warehouseBusinessUnitCode),
+                productWarehouses.size(),
+                storeWarehouses.size(),
+                warehouseProducts.size(),
+                storeWarehouses.containsKey(fulfillment.warehouseBusinessUnitCode),
+                warehouseProducts.containsKey(fulfillment.productName));
+    }
+
+    @Override
+    public void add(Fulfillment fulfillment) {
+        if (!enabled || !index(fulfillment)) {
+            return;
+        }
+        if (transactionRegistry.getTransactionStatus() == Status.STATUS_ACTIVE) {
+            transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != Status.STATUS_COMMITTED) {
+                        try (Guard guard = lock(fulfillment)) {
+                            unindex(fulfillment);
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    @Override
+    public void renameStore(String previousName, String newName) {
+        if (previousName != null && !previousName.equals(newName)) {
+            afterCommit(() -> rekey(f -> previousName.equals(f.storeName),
+                    f -> new Fulfillment(f.productName, newName, f.warehouseBusinessUnitCode)));
+        }
+    }
+
+    @Override
+    public void renameProduct(String previousName, String newName) {
+        if (previousName != null && !previousName.equals(newName)) {
+            afterCommit(() -> rekey(f -> previousName.equals(f.productName),
+                    f -> new Fulfillment(newName, f.storeName, f.warehouseBusinessUnitCode)));
+        }
+    }
+
+    @Override
+    public void removeStore(String name) {
+        afterCommit(() -> rekey(f -> f.storeName.equals(name), null));
+    }
+
+    @Override
+    public void removeProduct(String name) {
+        afterCommit(() -> rekey(f -> f.productName.equals(name), null));
+    }
+
+    @Override
+    public void removeWarehouse(String businessUnitCode) {
+        afterCommit(() -> rekey(f -> f.warehouseBusinessUnitCode.equals(businessUnitCode), null));
+    }
+
+    private void afterCommit(Runnable change) {
+        if (!enabled) {
+            return;
+        }
+        if (transactionRegistry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            change.run();
+            return;
+        }
+        transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    change.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * Moves every matching association to {@code renamed}, or drops it when that is {@code null}.
+     */
+    private void rekey(Predicate<Fulfillment> matches, UnaryOperator<Fulfillment> renamed) {
+        for (ReentrantLock stripe : stripes) {
+            stripe.lock();
+        }
+        try {
+            List<Fulfillment> affected = new ArrayList<>();
+            warehousesByProductAndStore.forEach((key, warehouses) -> {
+                for (String warehouse : warehouses.keySet()) {
+                    Fulfillment f = new Fulfillment(key.get(0), key.get(1), warehouse);
+                    if (matches.test(f)) {
+                        affected.add(f);
+                    }
+                }
+            });
+            for (Fulfillment f : affected) {
+                unindex(f);
+            }
+            if (renamed != null) {
+                for (Fulfillment f : affected) {
+                    index(renamed.apply(f));
+                }
+            }
+        } finally {
+            for (int i = STRIPES - 1; i >= 0; i--) {
+                stripes[i].unlock();
+            }
+        }
+    }
+
+    /**
+     * Adds the association to all three maps; callers hold its stripes.
+     *
+     * @return {@code false} when it was already indexed
+     */
+    private boolean index(Fulfillment f) {
+        Map<String, Integer> productWarehouses = warehousesByProductAndStore
+                .computeIfAbsent(productStoreKey(f.productName, f.storeName), key -> new HashMap<>());
+        if (productWarehouses.putIfAbsent(f.warehouseBusinessUnitCode, 1) != null) {
+            return false;
+        }
+        increment(warehousesByStore, f.storeName, f.warehouseBusinessUnitCode);
+        increment(productsByWarehouse, f.warehouseBusinessUnitCode, f.productName);
+        return true;
+    }
+
+    private void unindex(Fulfillment f) {
+        List<String> key = productStoreKey(f.productName, f.storeName);
+        Map<String, Integer> productWarehouses = warehousesByProductAndStore.get(key);
+        if (productWarehouses == null || productWarehouses.remove(f.warehouseBusinessUnitCode) == null) {
+            return;
+        }
+        decrement(warehousesByStore, f.storeName, f.warehouseBusinessUnitCode);
+        decrement(productsByWarehouse, f.warehouseBusinessUnitCode, f.productName);
+    }
+
+    private static void increment(ConcurrentMap<String, Map<String, Integer>> index, String key, String member) {
+        index.computeIfAbsent(key, k -> new HashMap<>()).merge(member, 1, Integer::sum);
+    }
+
+    private static void decrement(ConcurrentMap<String, Map<String, Integer>> index, String key, String member) {
+        Map<String, Integer> members = index.get(key);
+        if (members != null) {
+            members.computeIfPresent(member, (m, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    private static <K> Map<String, Integer> view(ConcurrentMap<K, Map<String, Integer>> index, K key) {
+        Map<String, Integer> members = index.get(key);
+        return members != null ? members : Map.of();
+    }
+
+    private static List<String> productStoreKey(String productName, String storeName) {
+        return List.of(productName, storeName);
+    }
+
+    private static int stripe(String key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+}
@@ -0,0 +1,311 @@
+package com.fulfilment.application.monolith.fulfillment.adapters.memory;
+
+import com.fulfilment.application.monolith.fulfillment.domain.models.Fulfillment;
+import com.fulfilment.application.monolith.fulfillment.domain.models.FulfillmentConstraints;
+import com.fulfilment.application.monolith.fulfillment.domain.ports.FulfillmentStore;
+import com.fulfilment.application.monolith.metrics.Measured;
+import com.fulfilment.application.monolith.wal.WriteAheadLog;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * {@link FulfillmentStore} kept in memory, for edge deployments and simulation runs that cannot afford a
+ * database round trip per validation; the {@code memory} build profile puts it in place of
+ * {@code FulfillmentRepository}.
+ *
+ * <p>Associations are indexed by product and store, by store and by warehouse, so every counter the
+ * rules need is a map lookup. Each association is added or removed inside {@code compute} on its entry,
+ * together with the indexes and its record in the {@link WriteAheadLog}; the indexes are concurrent maps,
+ * so associations sharing a store or warehouse are counted correctly when they change in parallel.
+ * Whether a product, store or warehouse exists is answered by the predicates the store is created with.
+ *
+ * <p>An association saved or removed in a JTA transaction is changed right away and changed back when the
+ * transaction rolls back, unless it was removed or saved again meanwhile.
+ */
+@Measured
+public class InMemoryFulfillmentStore implements FulfillmentStore, AutoCloseable {
+
+    private static final char SEPARATOR = '\u001f';
+    private static final String ADD = "+";
+    private static final String REMOVE = "-";
+
+    // product|store|warehouse -> association
+    private final ConcurrentMap<String, Fulfillment> associations = new ConcurrentHashMap<>();
+    // product|store -> warehouses fulfilling that product for that store
+    private final ConcurrentMap<String, Set<String>> warehousesByProductAndStore = new ConcurrentHashMap<>();
+    // store -> warehouse -> number of products it fulfils for the store
+    private final ConcurrentMap<String, ConcurrentMap<String, Integer>> warehousesByStore = new ConcurrentHashMap<>();
+    // warehouse -> product -> number of stores it is fulfilled for
+    private final ConcurrentMap<String, ConcurrentMap<String, Integer>> productsByWarehouse = new ConcurrentHashMap<>();
+
+    private final Predicate<String> productExists;
+    private final Predicate<String> storeExists;
+    private final Predicate<String> warehouseExists;
+    private final WriteAheadLog log;
+    private final TransactionSynchronizationRegistry transactions;
+
+    public InMemoryFulfillmentStore(Predicate<String> productExists, Predicate<String> storeExists,
+            Predicate<String> warehouseExists) {
+        this(productExists, storeExists, warehouseExists, WriteAheadLog.disabled());
+    }
+
+    public InMemoryFulfillmentStore(Predicate<String> productExists, Predicate<String> storeExists,
+            Predicate<String> warehouseExists, WriteAheadLog log) {
+        this(productExists, storeExists, warehouseExists, log, null);
+    }
+
+    /**
+     * Creates the store with the associations recovered from {@code log}, which records its changes from
+     * then on; without {@code transactions} changes are never undone.
+     */
+    public InMemoryFulfillmentStore(Predicate<String> productExists, Predicate<String> storeExists,
+            Predicate<String> warehouseExists, WriteAheadLog log, TransactionSynchronizationRegistry transactions) {
+        this.productExists = productExists;
+        this.storeExists = storeExists;
+        this.warehouseExists = warehouseExists;
+        this.log = log;
+        this.transactions = transactions;
+        log.recover(this::replay);
+    }
+
+    @Override
+    public boolean save(Fulfillment fulfillment) {
+        return saveAll(List.of(fulfillment))[0];
+    }
+
+    @Override
+    public boolean[] saveAll(List<Fulfillment> fulfillments) {
+        List<Fulfillment> stored = log.update(records -> {
+            List<Fulfillment> added = new ArrayList<>(fulfillments.size());
+            for (Fulfillment fulfillment : fulfillments) {
+                added.add(add(fulfillment, records));
+            }
+            return added;
+        });
+        log.compactIfNeeded(this::snapshot);
+        boolean[] created = new boolean[stored.size()];
+        for (int i = 0; i < created.length; i++) {
+            Fulfillment added = stored.get(i);
+            if (added != null) {
+                created[i] = true;
+                onRollback(() -> restore(added, null));
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Removes the association, if it exists; the port has no removal, but simulation runs reset with it.
+     *
+     * @return {@code true} when it existed
+     */
+    public boolean remove(Fulfillment fulfillment) {
+        Fulfillment removed = log.update(records -> {
+            Fulfillment[] existed = {null};
+            associations.computeIfPresent(key(fulfillment), (key, existing) -> {
+                records.accept(record(REMOVE, existing));
+                unindex(existing);
+                existed[0] = existing;
+                return null;
+            });
+            return existed[0];
+        });
+        log.compactIfNeeded(this::snapshot);
+        if (removed == null) {
+            return false;
+        }
+        onRollback(() -> restore(null, removed));
+        return true;
+    }
+
+    @Override
+    public List<Fulfillment> getAll() {
+        List<Fulfillment> all = new ArrayList<>(associations.size());
+        for (Fulfillment fulfillment : associations.values()) {
+            all.add(copy(fulfillment));
+        }
+        return all;
+    }
+
+    @Override
+    public FulfillmentConstraints loadConstraints(String productName, String storeName,
+            String warehouseBusinessUnitCode) {
+        Map<String, Integer> storeWarehouses = members(warehousesByStore, storeName);
+        Map<String, Integer> warehouseProducts = members(productsByWarehouse, warehouseBusinessUnitCode);
+        return new FulfillmentConstraints(
+                productName != null && productExists.test(productName),
+                storeName != null && storeExists.test(storeName),
+                warehouseBusinessUnitCode != null && warehouseExists.test(warehouseBusinessUnitCode),
+                associations.containsKey(key(productName, storeName, warehouseBusinessUnitCode)),
+                warehousesFor(productName, storeName).size(),
+                storeWarehouses.size(),
+                warehouseProducts.size(),
+                contains(storeWarehouses, warehouseBusinessUnitCode),
+                contains(warehouseProducts, productName));
+    }
+
+    @Override
+    public FulfillmentConstraints loadExistence(String productName, String storeName,
+            String warehouseBusinessUnitCode) {
+        return new FulfillmentConstraints(
+                productName != null && productExists.test(productName),
+                storeName != null && storeExists.test(storeName),
+                warehouseBusinessUnitCode != null && warehouseExists.test(warehouseBusinessUnitCode),
+                false, 0, 0, 0, false, false);
+    }
+
+    /**
+     * Writes the associations to a new snapshot of the log and closes it.
+     */
+    @Override
+    public void close() {
+        log.compact(this::snapshot);
+        log.close();
+    }
+
+    // the stored association, or null when it existed already
+    private Fulfillment add(Fulfillment fulfillment, Consumer<String> records) {
+        Fulfillment[] added = {null};
+        associations.computeIfAbsent(key(fulfillment), key -> {
+            Fulfillment stored = copy(fulfillment);
+            records.accept(record(ADD, stored));
+            index(stored);
+            added[0] = stored;
+            return stored;
+        });
+        return added[0];
+    }
+
+    private void onRollback(Runnable undo) {
+        if (transactions == null || transactions.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            return;
+        }
+        transactions.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != Status.STATUS_COMMITTED) {
+                    undo.run();
+                }
+            }
+        });
+    }
+
+    // removes an association a rolled back transaction added, or adds back one it removed, unless that
+    // association changed again meanwhile
+    private void restore(Fulfillment added, Fulfillment removed) {
+        Fulfillment association = added != null ? added : removed;
+        log.update(records -> associations.compute(key(association), (key, current) -> {
+            if (current != added) {
+                return current;
+            }
+            if (added != null) {
+                records.accept(record(REMOVE, added));
+                unindex(added);
+                return null;
+            }
+            records.accept(record(ADD, removed));
+            index(removed);
+            return removed;
+        }));
+        log.compactIfNeeded(this::snapshot);
+    }
+
+    private void snapshot(Consumer<String> records) {
+        associations.values().forEach(fulfillment -> records.accept(record(ADD, fulfillment)));
+    }
+
+    // runs before the store is shared
+    private void replay(String record) {
+        String[] fields = record.split(String.valueOf(SEPARATOR), -1);
+        Fulfillment fulfillment = new Fulfillment(fields[1], fields[2], fields[3]);
+        if (ADD.equals(fields[0])) {
+            if (associations.putIfAbsent(key(fulfillment), fulfillment) == null) {
+                index(fulfillment);
+            }
+        } else if (REMOVE.equals(fields[0])) {
+            if (associations.remove(key(fulfillment)) != null) {
+                unindex(fulfillment);
+            }
+        } else {
+            throw new IllegalStateException("Unknown fulfillment record: " + record);
+        }
+    }
+
+    private void index(Fulfillment f) {
+        warehousesByProductAndStore
+                .computeIfAbsent(productStoreKey(f.productName, f.storeName), key -> ConcurrentHashMap.newKeySet())
+                .add(f.warehouseBusinessUnitCode);
+        increment(warehousesByStore, f.storeName, f.warehouseBusinessUnitCode);
+        increment(productsByWarehouse, f.warehouseBusinessUnitCode, f.productName);
+    }
+
+    private void unindex(Fulfillment f) {
+        Set<String> warehouses = warehousesByProductAndStore.get(productStoreKey(f.productName, f.storeName));
+        if (warehouses != null) {
+            warehouses.remove(f.warehouseBusinessUnitCode);
+        }
+        decrement(warehousesByStore, f.storeName, f.warehouseBusinessUnitCode);
+        decrement(productsByWarehouse, f.warehouseBusinessUnitCode, f.productName);
+    }
+
+    private static void increment(ConcurrentMap<String, ConcurrentMap<String, Integer>> index, String key,
+            String member) {
+        index.computeIfAbsent(key, k -> new ConcurrentHashMap<>()).merge(member, 1, Integer::sum);
+    }
+
+    private static void decrement(ConcurrentMap<String, ConcurrentMap<String, Integer>> index, String key,
+            String member) {
+        Map<String, Integer> members = index.get(key);
+        if (members != null) {
+            members.computeIfPresent(member, (m, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    private Set<String> warehousesFor(String productName, String storeName) {
+        Set<String> warehouses = warehousesByProductAndStore.get(productStoreKey(productName, storeName));
+        return warehouses != null ? warehouses : Set.of();
+    }
+
+    private static Map<String, Integer> members(ConcurrentMap<String, ConcurrentMap<String, Integer>> index,
+            String key) {
+        Map<String, Integer> members = key != null ? index.get(key) : null;
+        return members != null ? members : Map.of();
+    }
+
+    private static boolean contains(Map<String, Integer> members, String member) {
+        return member != null && members.containsKey(member);
+    }
+
+    private static String record(String operation, Fulfillment f) {
+        return operation + SEPARATOR + f.productName + SEPARATOR + f.storeName + SEPARATOR + f.warehouseBusinessUnitCode;
+    }
+
+    private static String key(Fulfillment f) {
+        return key(f.productName, f.storeName, f.warehouseBusinessUnitCode);
+    }
+
+    private static String key(String productName, String storeName, String warehouseBusinessUnitCode) {
+        return productName + '|' + storeName + '|' + warehouseBusinessUnitCode;
+    }
+
+    private static String productStoreKey(String productName, String storeName) {
+        return productName + '|' + storeName;
+    }
+
+    private static Fulfillment copy(Fulfillment f) {
+        return new Fulfillment(f.productName, f.storeName, f.warehouseBusinessUnitCode);
+    }
+}
@@ -0,0 +1,55 @@
+package com.fulfilment.application.monolith.fulfillment.adapters.memory;
+
+import com.fulfilment.application.monolith.fulfillment.adapters.database.ReferenceKeyCache;
+import com.fulfilment.application.monolith.wal.WriteAheadLog;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.quarkus.arc.InterceptionProxy;
+import io.quarkus.arc.profile.IfBuildProfile;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Alternative;
+import jakarta.enterprise.inject.Disposes;
+import jakarta.enterprise.inject.Produces;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.nio.file.Path;
+import java.util.Optional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Stores fulfillment associations in memory instead of the database when the application is built with
+ * the {@code memory} profile, logged like the warehouses when {@code persistence.memory.wal.dir} is set.
+ *
+ * <p>Warehouses are checked against the {@link WarehouseStore}, which is in memory as well. Products and
+ * stores stay in the database and are looked up once per name through the {@link ReferenceKeyCache}, so
+ * one deleted after it was first associated is still accepted until the next restart.
+ *
+ * <p>Like the warehouses, the store is wrapped in an interception proxy, so its calls are timed, and undoes
+ * the changes of transactions that roll back.
+ */
+@ApplicationScoped
+@IfBuildProfile("memory")
+public class InMemoryFulfillmentStoreProducer {
+
+    @Produces
+    @ApplicationScoped
+    @Alternative
+    @Priority(1)
+    InMemoryFulfillmentStore fulfillmentStore(InterceptionProxy<InMemoryFulfillmentStore> proxy,
+            TransactionSynchronizationRegistry transactions, ReferenceKeyCache keys, WarehouseStore warehouseStore,
+            @ConfigProperty(name = "persistence.memory.wal.dir") Optional<Path> directory,
+            @ConfigProperty(name = "persistence.memory.wal.fsync", defaultValue = "BATCH") WriteAheadLog.FsyncPolicy fsync,
+            @ConfigProperty(name = "persistence.memory.wal.compact-after", defaultValue = "67108864") long compactAfter) {
+        return proxy.create(new InMemoryFulfillmentStore(
+                product -> keys.productId(product) != ReferenceKeyCache.UNKNOWN,
+                store -> keys.storeId(store) != ReferenceKeyCache.UNKNOWN,
+                warehouse -> warehouseStore.findByBusinessUnitCode(warehouse) != null,
+                directory
+                        .map(dir -> WriteAheadLog.in(dir, "fulfillments", fsync, compactAfter))
+                        .orElse(WriteAheadLog.disabled()),
+                transactions));
+    }
+
+    void close(@Disposes InMemoryFulfillmentStore store) {
+        store.close();
+    }
+}
@@ -0,0 +1,39 @@
+package com.fulfilment.application.monolith.fulfillment.adapters.reactive;
+
+import com.fulfilment.application.monolith.fulfillment.domain.models.Fulfillment;
+import com.fulfilment.application.monolith.fulfillment.domain.ports.ReactiveFulfillmentStore;
+import io.vertx.mutiny.pgclient.PgPool;
+import io.vertx.mutiny.sqlclient.Row;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Reads fulfillment associations through the reactive Postgres client, so no thread waits for the
+ * database.
+ */
+public class ReactiveFulfillmentRepository implements ReactiveFulfillmentStore {
+
+    private final PgPool pool;
+
+    public ReactiveFulfillmentRepository(PgPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public CompletionStage<List<Fulfillment>> getAll() {
+        return pool.query("select p.name, s.name, w.businessUnitCode from fulfillment f"
+                        + " join product p on p.id = f.product_id"
+                        + " join store s on s.id = f.store_id"
+                        + " join warehouse w on w.id = f.warehouse_id")
+                .execute()
+                .map(rows -> {
+                    List<Fulfillment> fulfillments = new ArrayList<>(rows.size());
+                    for (Row row : rows) {
+                        fulfillments.add(new Fulfillment(row.getString(0), row.getString(1), row.getString(2)));
+                    }
+                    return fulfillments;
+                })
+                .subscribeAsCompletionStage();
+    }
+}
@@ -0,0 +1,29 @@
+package com.fulfilment.application.monolith.fulfillment.adapters.reactive;
+
+import com.fulfilment.application.monolith.fulfillment.adapters.database.WorkerPoolFulfillmentStore;
+import com.fulfilment.application.monolith.fulfillment.domain.ports.FulfillmentStore;
+import com.fulfilment.application.monolith.fulfillment.domain.ports.ReactiveFulfillmentStore;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import io.vertx.mutiny.pgclient.PgPool;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.enterprise.inject.Produces;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Reads fulfillments through the reactive Postgres client when {@code persistence.reactive.enabled} is
+ * set, and otherwise through the blocking {@link FulfillmentStore} on worker threads.
+ */
+@ApplicationScoped
+public class ReactiveFulfillmentStoreProducer {
+
+    @Produces
+    @ApplicationScoped
+    ReactiveFulfillmentStore reactiveFulfillmentStore(FulfillmentStore fulfillmentStore, Instance<PgPool> pool,
+            @ConfigProperty(name = "persistence.reactive.enabled", defaultValue = "false") boolean reactive) {
+        if (reactive) {
+            return new ReactiveFulfillmentRepository(pool.get());
+        }
+        return new WorkerPoolFulfillmentStore(fulfillmentStore, Infrastructure.getDefaultWorkerPool());
+    }
+}
@@ -1,16 +1,41 @@
 package com.fulfilment.application.monolith.fulfillment.adapters.restapi;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fulfilment.application.monolith.database.ConnectionGuard;
+import com.fulfilment.application.monolith.database.DatabaseBound;
+import com.fulfilment.application.monolith.fulfillment.domain.models.AssociationResult;
 import com.fulfilment.application.monolith.fulfillment.domain.models.Fulfillment;
 import com.fulfilment.application.monolith.fulfillment.domain.ports.AssociateProductOperation;
+import com.fulfilment.application.monolith.fulfillment.domain.ports.BulkAssociateProductOperation;
+import com.fulfilment.application.monolith.fulfillment.domain.ports.ReactiveFulfillmentStore;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import jakarta.enterprise.context.RequestScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Collectors;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
 
 @Path("fulfillment")
 @RequestScoped
@@ -18,17 +43,142 @@ import jakarta.ws.rs.core.Response;
 @Consumes(MediaType.APPLICATION_JSON)
 public class FulfillmentResource {
 
+    static final String NDJSON = "application/x-ndjson";
+
+    private static final Logger LOGGER = Logger.getLogger(FulfillmentResource.class);
+
     private final AssociateProductOperation associateProductOperation;
+    private final BulkAssociateProductOperation bulkAssociateProductOperation;
+    private final ReactiveFulfillmentStore reactiveFulfillmentStore;
+    private final ConnectionGuard connectionGuard;
+    private final ObjectMapper objectMapper;
+    private final int bulkChunkSize;
 
     @Inject
-    public FulfillmentResource(AssociateProductOperation associateProductOperation) {
+    public FulfillmentResource(AssociateProductOperation associateProductOperation,
+            BulkAssociateProductOperation bulkAssociateProductOperation,
+            ReactiveFulfillmentStore reactiveFulfillmentStore,
+            ConnectionGuard connectionGuard,
+            ObjectMapper objectMapper,
+            @ConfigProperty(name = "fulfillment.bulk.chunk-size", defaultValue = "500") int bulkChunkSize) {
         this.associateProductOperation = associateProductOperation;
+        this.bulkAssociateProductOperation = bulkAssociateProductOperation;
+        this.reactiveFulfillmentStore = reactiveFulfillmentStore;
+        this.connectionGuard = connectionGuard;
+        this.objectMapper = objectMapper;
+        this.bulkChunkSize = bulkChunkSize;
+    }
+
+    /**
+     * Lists every association without blocking the event loop.
+     */
+    @GET
+    public CompletionStage<List<Fulfillment>> list() {
+        return reactiveFulfillmentStore.getAll();
     }
 
     @POST
+    @DatabaseBound
     @Transactional
     public Response associate(Fulfillment fulfillment) {
         associateProductOperation.associate(fulfillment);
         return Response.ok(fulfillment).status(201).build();
     }
+
+    /**
+     * Associates one fulfillment per NDJSON line. Lines are read and validated in order,
+     * committed in chunks of {@code fulfillment.bulk.chunk-size} (one transaction each), and
+     * one result line per input line is streamed back as soon as its chunk is done.
+     */
+    @POST
+    @Path("bulk")
+    @Consumes(NDJSON)
+    @Produces(NDJSON)
+    public Response associateBulk(InputStream body) {
+        StreamingOutput results = output -> {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+            List<BulkLine> chunk = new ArrayList<>(bulkChunkSize);
+            int lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                chunk.add(parse(lineNumber, line));
+                if (chunk.size() == bulkChunkSize) {
+                    process(chunk, output);
+                    chunk.clear();
+                }
+            }
+            process(chunk, output);
+        };
+        return Response.ok(results, NDJSON).build();
+    }
+
+    private BulkLine parse(int lineNumber, String line) {
+        try {
+            return new BulkLine(lineNumber, objectMapper.readValue(line, Fulfillment.class), null);
+        } catch (JsonProcessingException e) {
+            return new BulkLine(lineNumber, null, "Malformed line: " + e.getOriginalMessage());
+        }
+    }
+
+    private void process(List<BulkLine> chunk, OutputStream output) throws IOException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<Fulfillment> fulfillments = chunk.stream()
+                .filter(line -> line.fulfillment != null)
+                .map(line -> line.fulfillment)
+                .collect(Collectors.toList());
+
+        List<AssociationResult> outcomes;
+        try {
+            outcomes = fulfillments.isEmpty() ? List.of() : associateAll(fulfillments);
+        } catch (RuntimeException e) {
+            LOGGER.errorf(e, "Bulk association chunk starting at line %d failed", chunk.get(0).lineNumber);
+            outcomes = Collections.nCopies(fulfillments.size(),
+                    AssociationResult.rejected("Chunk could not be stored: " + e.getMessage()));
+        }
+
+        Iterator<AssociationResult> outcome = outcomes.iterator();
+        for (BulkLine line : chunk) {
+            AssociationResult result = line.fulfillment != null
+                    ? outcome.next()
+                    : AssociationResult.rejected(line.parseError);
+            ObjectNode json = objectMapper.createObjectNode();
+            json.put("line", line.lineNumber);
+            json.put("status", result.status.name());
+            if (result.error != null) {
+                json.put("error", result.error);
+            }
+            output.write(objectMapper.writeValueAsBytes(json));
+            output.write('\n');
+        }
+        output.flush();
+    }
+
+    // the response is written after the method returns, so the chunk holds the guard itself
+    private List<AssociationResult> associateAll(List<Fulfillment> fulfillments) {
+        connectionGuard.enter();
+        try {
+            return QuarkusTransaction.requiringNew()
+                    .call(() -> bulkAssociateProductOperation.associateAll(fulfillments));
+        } finally {
+            connectionGuard.exit();
+        }
+    }
+
+    private static final class BulkLine {
+        final int lineNumber;
+        final Fulfillment fulfillment;
+        final String parseError;
+
+        BulkLine(int lineNumber, Fulfillment fulfillment, String parseError) {
+            this.lineNumber = lineNumber;
+            this.fulfillment = fulfillment;
+            this.parseError = parseError;
+        }
+    }
 }
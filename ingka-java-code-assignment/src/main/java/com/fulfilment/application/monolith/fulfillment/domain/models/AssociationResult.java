@@ -0,0 +1,37 @@
+package com.fulfilment.application.monolith.fulfillment.domain.models;
+
+/**
+ * Outcome of one association within a bulk request.
+ */
+public class AssociationResult {
+
+    public enum Status {
+        CREATED,
+        ALREADY_ASSOCIATED,
+        REJECTED
+    }
+
+    private static final AssociationResult CREATED = new AssociationResult(Status.CREATED, null);
+    private static final AssociationResult ALREADY_ASSOCIATED = new AssociationResult(Status.ALREADY_ASSOCIATED, null);
+
+    public final Status status;
+    // reason of a rejection, null otherwise
+    public final String error;
+
+    private AssociationResult(Status status, String error) {
+        this.status = status;
+        this.error = error;
+    }
+
+    public static AssociationResult created() {
+        return CREATED;
+    }
+
+    public static AssociationResult alreadyAssociated() {
+        return ALREADY_ASSOCIATED;
+    }
+
+    public static AssociationResult rejected(String error) {
+        return new AssociationResult(Status.REJECTED, error);
+    }
+}
@@ -0,0 +1,38 @@
+package com.fulfilment.application.monolith.fulfillment.domain.models;
+
+/**
+ * Point-in-time view of everything the association rules need for one
+ * (product, store, warehouse) triple: whether the referenced entities exist,
+ * whether the association is already there, and the current counters and
+ * memberships the three fulfillment constraints are evaluated against.
+ */
+public class FulfillmentConstraints {
+    public final boolean productExists;
+    public final boolean storeExists;
+    public final boolean warehouseExists;
+    public final boolean alreadyAssociated;
+
+    // distinct warehouses fulfilling the product for the store
+    public final long warehousesForProductInStore;
+    // distinct warehouses fulfilling the store
+    public final long warehousesForStore;
+    // distinct products stored in the warehouse
+    public final long productsInWarehouse;
+
+    public final boolean warehouseAssociatedWithStore;
+    public final boolean productAssociatedWithWarehouse;
+
+    public FulfillmentConstraints(boolean productExists, boolean storeExists, boolean warehouseExists,
+            boolean alreadyAssociated, long warehousesForProductInStore, long warehousesForStore,
+            long productsInWarehouse, boolean warehouseAssociatedWithStore, boolean productAssociatedWithWarehouse) {
+        this.productExists = productExists;
+        this.storeExists = storeExists;
+        this.warehouseExists = warehouseExists;
+        this.alreadyAssociated = alreadyAssociated;
+        this.warehousesForProductInStore = warehousesForProductInStore;
+        this.warehousesForStore = warehousesForStore;
+        this.productsInWarehouse = productsInWarehouse;
+        this.warehouseAssociatedWithStore = warehouseAssociatedWithStore;
+        this.productAssociatedWithWarehouse = productAssociatedWithWarehouse;
+    }
+}
@@ -0,0 +1,15 @@
+package com.fulfilment.application.monolith.fulfillment.domain.ports;
+
+import com.fulfilment.application.monolith.fulfillment.domain.models.AssociationResult;
+import com.fulfilment.application.monolith.fulfillment.domain.models.Fulfillment;
+import java.util.List;
+
+public interface BulkAssociateProductOperation {
+    /**
+     * Validates the associations in order, each one seeing the ones accepted before it, and
+     * stores the accepted ones together. A rejected association does not stop the others.
+     *
+     * @return one result per association, in the same order
+     */
+    List<AssociationResult> associateAll(List<Fulfillment> fulfillments);
+}
@@ -0,0 +1,65 @@
+package com.fulfilment.application.monolith.fulfillment.domain.ports;
+
+import com.fulfilment.application.monolith.fulfillment.domain.models.Fulfillment;
+import com.fulfilment.application.monolith.fulfillment.domain.models.FulfillmentConstraints;
+
+/**
+ * Live view of the fulfillment graph used to evaluate the association rules
+ * without counting rows in the database.
+ */
+public interface FulfillmentIndex {
+
+    /**
+     * Whether associations recorded with {@link #add} are reflected by {@link #constraintsFor};
+     * when not, rules are evaluated against the stored snapshot as is.
+     */
+    boolean isEnabled();
+
+    /**
+     * Locks what the rules read for the association's store and warehouse, so that
+     * checking and recording an association is atomic with respect to other associations.
+     */
+    Guard lock(Fulfillment fulfillment);
+
+    /**
+     * Returns {@code stored} with the association flag, counters and memberships taken from
+     * the index, which also reflects associations whose transaction has not committed yet.
+     */
+    FulfillmentConstraints constraintsFor(Fulfillment fulfillment, FulfillmentConstraints stored);
+
+    /**
+     * Records a new association; it is dropped again if the surrounding transaction rolls back.
+     */
+    void add(Fulfillment fulfillment);
+
+    /**
+     * Moves the associations of a renamed store to its new name once the surrounding transaction commits.
+     */
+    void renameStore(String previousName, String newName);
+
+    /**
+     * Moves the associations of a renamed product to its new name once the surrounding transaction commits.
+     */
+    void renameProduct(String previousName, String newName);
+
+    /**
+     * Drops the associations of a deleted store once the surrounding transaction commits, as the database
+     * removes their rows along with it.
+     */
+    void removeStore(String name);
+
+    /**
+     * Drops the associations of a deleted product once the surrounding transaction commits.
+     */
+    void removeProduct(String name);
+
+    /**
+     * Drops the associations of a deleted warehouse once the surrounding transaction commits.
+     */
+    void removeWarehouse(String businessUnitCode);
+
+    interface Guard extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -1,19 +1,35 @@
 package com.fulfilment.application.monolith.fulfillment.domain.ports;
 
 import com.fulfilment.application.monolith.fulfillment.domain.models.Fulfillment;
+import com.fulfilment.application.monolith.fulfillment.domain.models.FulfillmentConstraints;
+import java.util.List;
 
 public interface FulfillmentStore {
-    void save(Fulfillment fulfillment);
-
-    long countWarehousesByProductAndStore(String productName, String storeName);
-
-    long countUniqueWarehousesByStore(String storeName);
-
-    long countUniqueProductsByWarehouse(String warehouseBusinessUnitCode);
-
-    boolean exists(String productName, String storeName, String warehouseBusinessUnitCode);
-
-    boolean isWarehouseAssociatedWithStore(String warehouseCode, String storeName);
-
-    boolean isProductAssociatedWithWarehouse(String productName, String warehouseCode);
+    /**
+     * Stores the association unless it already exists, in a single statement.
+     *
+     * @return {@code true} when a new association was created
+     */
+    boolean save(Fulfillment fulfillment);
+
+    /**
+     * Stores the associations that do not exist yet, sent as batched inserts.
+     *
+     * @return for each association, in order, whether it was created
+     */
+    boolean[] saveAll(List<Fulfillment> fulfillments);
+
+    List<Fulfillment> getAll();
+
+    /**
+     * Loads, in a single round trip, the existence flags, counters and memberships
+     * needed to validate associating the given product, store and warehouse.
+     */
+    FulfillmentConstraints loadConstraints(String productName, String storeName, String warehouseBusinessUnitCode);
+
+    /**
+     * Loads, in a single round trip, only whether the given product, store and warehouse exist; the
+     * association flag, counters and memberships are left empty for a {@link FulfillmentIndex} to fill in.
+     */
+    FulfillmentConstraints loadExistence(String productName, String storeName, String warehouseBusinessUnitCode);
 }
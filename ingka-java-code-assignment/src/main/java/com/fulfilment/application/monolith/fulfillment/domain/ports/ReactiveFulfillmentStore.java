@@ -0,0 +1,13 @@
+package com.fulfilment.application.monolith.fulfillment.domain.ports;
+
+import com.fulfilment.application.monolith.fulfillment.domain.models.Fulfillment;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Non-blocking reads of the fulfillment associations, with the same results as the
+ * {@link FulfillmentStore} methods of the same name.
+ */
+public interface ReactiveFulfillmentStore {
+    CompletionStage<List<Fulfillment>> getAll();
+}
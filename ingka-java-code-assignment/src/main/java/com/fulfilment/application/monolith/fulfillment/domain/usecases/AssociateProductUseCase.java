@@ -1,106 +1,150 @@
 package com.fulfilment.application.monolith.fulfillment.domain.usecases;
 
+import com.fulfilment.application.monolith.database.DatabaseBound;
+import com.fulfilment.application.monolith.fulfillment.domain.models.AssociationResult;
 import com.fulfilment.application.monolith.fulfillment.domain.models.Fulfillment;
+import com.fulfilment.application.monolith.fulfillment.domain.models.FulfillmentConstraints;
 import com.fulfilment.application.monolith.fulfillment.domain.ports.AssociateProductOperation;
+import com.fulfilment.application.monolith.fulfillment.domain.ports.BulkAssociateProductOperation;
+import com.fulfilment.application.monolith.fulfillment.domain.ports.FulfillmentIndex;
 import com.fulfilment.application.monolith.fulfillment.domain.ports.FulfillmentStore;
-import com.fulfilment.application.monolith.products.Product;
-import com.fulfilment.application.monolith.products.ProductRepository;
-import com.fulfilment.application.monolith.stores.Store;
-import com.fulfilment.application.monolith.stores.StoreRepository;
-import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
-import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import com.fulfilment.application.monolith.metrics.Measured;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.validation.ValidationException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
 
 @ApplicationScoped
-public class AssociateProductUseCase implements AssociateProductOperation {
+@Measured
+@DatabaseBound
+public class AssociateProductUseCase implements AssociateProductOperation, BulkAssociateProductOperation {
 
     private final FulfillmentStore fulfillmentStore;
-    private final ProductRepository productRepository;
-    private final StoreRepository storeRepository;
-    private final WarehouseStore warehouseStore;
+    private final FulfillmentIndex fulfillmentIndex;
 
     @Inject
-    public AssociateProductUseCase(
-            FulfillmentStore fulfillmentStore,
-            ProductRepository productRepository,
-            StoreRepository storeRepository,
-            WarehouseStore warehouseStore) {
+    public AssociateProductUseCase(FulfillmentStore fulfillmentStore, FulfillmentIndex fulfillmentIndex) {
         this.fulfillmentStore = fulfillmentStore;
-        this.productRepository = productRepository;
-        this.storeRepository = storeRepository;
-        this.warehouseStore = warehouseStore;
+        this.fulfillmentIndex = fulfillmentIndex;
     }
 
     @Override
     public void associate(Fulfillment fulfillment) {
-        // 1. Validate existence
-        validateEntitiesExist(fulfillment);
-
-        // 2. Check if already exists
-        if (fulfillmentStore.exists(
-                fulfillment.productName,
-                fulfillment.storeName,
-                fulfillment.warehouseBusinessUnitCode)) {
-            return; // Already associated
+        admit(fulfillment, fulfillmentStore::save);
+    }
+
+    @Override
+    public List<AssociationResult> associateAll(List<Fulfillment> fulfillments) {
+        // With a live index the associations of the batch see each other through it, so their inserts
+        // can be sent together at the end; otherwise each one is stored before the next is checked.
+        List<AssociationResult> results = new ArrayList<>(fulfillments.size());
+        List<Fulfillment> accepted = new ArrayList<>();
+        List<Integer> acceptedAt = new ArrayList<>();
+        Predicate<Fulfillment> store = fulfillmentIndex.isEnabled()
+                ? fulfillment -> {
+                    accepted.add(fulfillment);
+                    acceptedAt.add(results.size());
+                    return true;
+                }
+                : fulfillmentStore::save;
+
+        for (Fulfillment fulfillment : fulfillments) {
+            try {
+                results.add(admit(fulfillment, store)
+                        ? AssociationResult.created()
+                        : AssociationResult.alreadyAssociated());
+            } catch (ValidationException e) {
+                results.add(AssociationResult.rejected(e.getMessage()));
+            }
         }
 
-        // 3. Enforce constraints
-        enforceConstraints(fulfillment);
+        if (!accepted.isEmpty()) {
+            boolean[] created = fulfillmentStore.saveAll(accepted);
+            for (int i = 0; i < created.length; i++) {
+                if (!created[i]) {
+                    results.set(acceptedAt.get(i), AssociationResult.alreadyAssociated());
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Validates one association and hands it to {@code store} when it is new.
+     *
+     * @return {@code false} when the association already exists
+     */
+    private boolean admit(Fulfillment fulfillment, Predicate<Fulfillment> store) {
+        // Everything the rules need, loaded in one round trip; with a live index only whether the
+        // entities exist, since the index supplies the rest
+        FulfillmentConstraints stored = fulfillmentIndex.isEnabled()
+                ? fulfillmentStore.loadExistence(
+                        fulfillment.productName,
+                        fulfillment.storeName,
+                        fulfillment.warehouseBusinessUnitCode)
+                : fulfillmentStore.loadConstraints(
+                        fulfillment.productName,
+                        fulfillment.storeName,
+                        fulfillment.warehouseBusinessUnitCode);
 
-        // 4. Save
-        fulfillmentStore.save(fulfillment);
+        // 1. Validate existence
+        validateEntitiesExist(fulfillment, stored);
+
+        // Rules are checked and the association recorded while holding the store and warehouse locks
+        try (FulfillmentIndex.Guard guard = fulfillmentIndex.lock(fulfillment)) {
+            FulfillmentConstraints constraints = fulfillmentIndex.constraintsFor(fulfillment, stored);
+
+            // 2. Check if already exists
+            if (constraints.alreadyAssociated) {
+                return false; // Already associated
+            }
+
+            // 3. Enforce constraints
+            enforceConstraints(fulfillment, constraints);
+
+            // 4. Save; the insert is skipped when another writer stored the same association first
+            if (!store.test(fulfillment)) {
+                return false;
+            }
+            fulfillmentIndex.add(fulfillment);
+            return true;
+        }
     }
 
-    private void validateEntitiesExist(Fulfillment fulfillment) {
-        Product product = productRepository.find("name", fulfillment.productName).firstResult();
-        if (product == null) {
+    private void validateEntitiesExist(Fulfillment fulfillment, FulfillmentConstraints constraints) {
+        if (!constraints.productExists) {
             throw new ValidationException("Product not found: " + fulfillment.productName);
         }
 
-        Store store = storeRepository.find("name", fulfillment.storeName).firstResult();
-        if (store == null) {
+        if (!constraints.storeExists) {
             throw new ValidationException("Store not found: " + fulfillment.storeName);
         }
 
-        Warehouse warehouse = warehouseStore.findByBusinessUnitCode(fulfillment.warehouseBusinessUnitCode);
-        if (warehouse == null) {
+        if (!constraints.warehouseExists) {
             throw new ValidationException("Warehouse not found: " + fulfillment.warehouseBusinessUnitCode);
         }
     }
 
-    private void enforceConstraints(Fulfillment fulfillment) {
+    private void enforceConstraints(Fulfillment fulfillment, FulfillmentConstraints constraints) {
         // Constraint 1: Max 2 warehouses per product per store
-        long warehousesForProductInStore = fulfillmentStore.countWarehousesByProductAndStore(fulfillment.productName,
-                fulfillment.storeName);
-        if (warehousesForProductInStore >= 2) {
+        if (constraints.warehousesForProductInStore >= 2) {
             throw new ValidationException("Product '" + fulfillment.productName
                     + "' can be fulfilled by a maximum of 2 different Warehouses per Store '" + fulfillment.storeName
                     + "'");
         }
 
         // Constraint 2: Max 3 warehouses per store
-        long warehousesForStore = fulfillmentStore.countUniqueWarehousesByStore(fulfillment.storeName);
-        if (warehousesForStore >= 3 && !warehouseAlreadyAssociatedWithStore(fulfillment)) {
+        if (constraints.warehousesForStore >= 3 && !constraints.warehouseAssociatedWithStore) {
             throw new ValidationException(
                     "Store '" + fulfillment.storeName + "' can be fulfilled by a maximum of 3 different Warehouses");
         }
 
         // Constraint 3: Max 5 types of products per warehouse
-        long productsInWarehouse = fulfillmentStore
-                .countUniqueProductsByWarehouse(fulfillment.warehouseBusinessUnitCode);
-        if (productsInWarehouse >= 5 && !productAlreadyInWarehouse(fulfillment)) {
+        if (constraints.productsInWarehouse >= 5 && !constraints.productAssociatedWithWarehouse) {
             throw new ValidationException("Warehouse '" + fulfillment.warehouseBusinessUnitCode
                     + "' can store maximally 5 types of Products");
         }
     }
-
-    private boolean warehouseAlreadyAssociatedWithStore(Fulfillment f) {
-        return fulfillmentStore.isWarehouseAssociatedWithStore(f.warehouseBusinessUnitCode, f.storeName);
-    }
-
-    private boolean productAlreadyInWarehouse(Fulfillment f) {
-        return fulfillmentStore.isProductAssociatedWithWarehouse(f.productName, f.warehouseBusinessUnitCode);
-    }
 }
@@ -2,30 +2,165 @@ package com.fulfilment.application.monolith.location;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
 import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
-import java.util.ArrayList;
-import java.util.List;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
 
+/**
+ * Resolves locations from a catalog kept as an immutable hash index.
+ *
+ * <p>The catalog is read from the {@code locations.csv} classpath resource, or from the file
+ * configured with {@code location.catalog.path}. A configured file is watched and, when it changes,
+ * re-read and swapped in atomically; a catalog that fails to parse leaves the previous one active.
+ */
 @jakarta.enterprise.context.ApplicationScoped
 public class LocationGateway implements LocationResolver {
 
-  private static final List<Location> locations = new ArrayList<>();
-
-  static {
-    locations.add(new Location("ZWOLLE-001", 1, 40));
-    locations.add(new Location("ZWOLLE-002", 2, 50));
-    locations.add(new Location("AMSTERDAM-001", 5, 100));
-    locations.add(new Location("AMSTERDAM-002", 3, 75));
-    locations.add(new Location("TILBURG-001", 1, 40));
-    locations.add(new Location("HELMOND-001", 1, 45));
-    locations.add(new Location("EINDHOVEN-001", 2, 70));
-    locations.add(new Location("VETSBY-001", 1, 90));
+  private static final Logger LOGGER = Logger.getLogger(LocationGateway.class);
+
+  static final String DEFAULT_CATALOG = "locations.csv";
+
+  @ConfigProperty(name = "location.catalog.path")
+  Optional<Path> catalogPath;
+
+  private volatile Map<String, Location> locations;
+
+  private WatchService watchService;
+
+  public LocationGateway() {
+    try (InputStream in = LocationGateway.class.getClassLoader().getResourceAsStream(DEFAULT_CATALOG)) {
+      if (in == null) {
+        throw new IllegalStateException("Location catalog resource not found: " + DEFAULT_CATALOG);
+      }
+      locations = parse(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read location catalog " + DEFAULT_CATALOG, e);
+    }
+  }
+
+  @PostConstruct
+  void init() {
+    if (catalogPath != null && catalogPath.isPresent()) {
+      Path file = catalogPath.get().toAbsolutePath();
+      if (!reload(file)) {
+        throw new IllegalStateException("Location catalog could not be loaded from " + file);
+      }
+      watch(file);
+    }
+  }
+
+  @PreDestroy
+  void stopWatching() {
+    if (watchService != null) {
+      try {
+        watchService.close();
+      } catch (IOException e) {
+        LOGGER.warn("Failed to close location catalog watcher", e);
+      }
+    }
   }
 
   @Override
   public Location resolveByIdentifier(String identifier) {
-    return locations.stream()
-        .filter(location -> location.identification.equals(identifier))
-        .findFirst()
-        .orElse(null);
+    return identifier != null ? locations.get(identifier) : null;
+  }
+
+  /**
+   * Reads the catalog from {@code file} and makes it the active one.
+   *
+   * @return {@code false} when the file could not be read or parsed; the active catalog is kept
+   */
+  boolean reload(Path file) {
+    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      Map<String, Location> loaded = parse(reader);
+      locations = loaded;
+      LOGGER.infof("Loaded %d locations from %s", loaded.size(), file);
+      return true;
+    } catch (IOException | IllegalArgumentException e) {
+      LOGGER.errorf(e, "Failed to load location catalog from %s, keeping the previous one", file);
+      return false;
+    }
+  }
+
+  private void watch(Path file) {
+    try {
+      watchService = file.getFileSystem().newWatchService();
+      file.getParent().register(watchService,
+          StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to watch location catalog " + file, e);
+    }
+
+    Thread watcher = new Thread(() -> {
+      try {
+        while (true) {
+          WatchKey key = watchService.take();
+          boolean changed = false;
+          for (WatchEvent<?> event : key.pollEvents()) {
+            changed |= file.getFileName().equals(event.context());
+          }
+          if (changed) {
+            reload(file);
+          }
+          if (!key.reset()) {
+            LOGGER.warnf("Location catalog directory %s is no longer watched", file.getParent());
+            return;
+          }
+        }
+      } catch (InterruptedException | ClosedWatchServiceException e) {
+        // shutting down
+      }
+    }, "location-catalog-watcher");
+    watcher.setDaemon(true);
+    watcher.start();
+  }
+
+  /**
+   * Parses {@code identification,maxNumberOfWarehouses,maxCapacity} lines; blank lines and lines
+   * starting with {@code #} are ignored.
+   */
+  static Map<String, Location> parse(BufferedReader reader) throws IOException {
+    Map<String, Location> index = new HashMap<>();
+    String line;
+    int lineNumber = 0;
+    while ((line = reader.readLine()) != null) {
+      lineNumber++;
+      line = line.strip();
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      String[] fields = line.split(",");
+      if (fields.length != 3) {
+        throw new IllegalArgumentException("Line " + lineNumber + ": expected 3 fields but got " + fields.length);
+      }
+      String identification = fields[0].strip();
+      try {
+        Location location = new Location(identification,
+            Integer.parseInt(fields[1].strip()), Integer.parseInt(fields[2].strip()));
+        if (index.put(identification, location) != null) {
+          throw new IllegalArgumentException("Line " + lineNumber + ": duplicate location " + identification);
+        }
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage(), e);
+      }
+    }
+    return Map.copyOf(index);
   }
 }
@@ -0,0 +1,30 @@
+package com.fulfilment.application.monolith.metrics;
+
+import com.fulfilment.application.monolith.database.ConnectionGuard;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.inject.Singleton;
+
+/**
+ * Publishes how many {@link ConnectionGuard} permits are free and how many threads wait for one.
+ */
+@Singleton
+public class ConnectionGuardMetrics implements MeterBinder {
+
+  private final ConnectionGuard guard;
+
+  public ConnectionGuardMetrics(ConnectionGuard guard) {
+    this.guard = guard;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("database.guard.available", guard, ConnectionGuard::availablePermits)
+        .description("Database permits free")
+        .register(registry);
+    Gauge.builder("database.guard.waiting", guard, ConnectionGuard::queueLength)
+        .description("Threads waiting for a database permit")
+        .register(registry);
+  }
+}
@@ -0,0 +1,44 @@
+package com.fulfilment.application.monolith.metrics;
+
+import com.fulfilment.application.monolith.stores.LegacyStoreSyncDispatcher;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.inject.Singleton;
+
+/**
+ * Publishes the queue depth and counters of the {@link LegacyStoreSyncDispatcher}.
+ */
+@Singleton
+public class LegacyStoreSyncMetrics implements MeterBinder {
+
+  private final LegacyStoreSyncDispatcher dispatcher;
+
+  public LegacyStoreSyncMetrics(LegacyStoreSyncDispatcher dispatcher) {
+    this.dispatcher = dispatcher;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("legacy.store.sync.queue.depth", dispatcher, LegacyStoreSyncDispatcher::queueDepth)
+        .description("Stores whose latest change waits in memory to be sent to the legacy system")
+        .register(registry);
+    FunctionCounter.builder("legacy.store.sync.changes", dispatcher, LegacyStoreSyncDispatcher::dispatchedCount)
+        .description("Store changes sent to the legacy system")
+        .tag("outcome", "dispatched")
+        .register(registry);
+    FunctionCounter.builder("legacy.store.sync.changes", dispatcher, LegacyStoreSyncDispatcher::coalescedCount)
+        .description("Store changes replaced by a newer change to the same store before they were sent")
+        .tag("outcome", "coalesced")
+        .register(registry);
+    FunctionCounter.builder("legacy.store.sync.changes", dispatcher, LegacyStoreSyncDispatcher::droppedCount)
+        .description("Store changes discarded because the queue was full or they could not be spilled")
+        .tag("outcome", "dropped")
+        .register(registry);
+    FunctionCounter.builder("legacy.store.sync.changes", dispatcher, LegacyStoreSyncDispatcher::spilledCount)
+        .description("Store changes written to the spill file because the queue was full")
+        .tag("outcome", "spilled")
+        .register(registry);
+  }
+}
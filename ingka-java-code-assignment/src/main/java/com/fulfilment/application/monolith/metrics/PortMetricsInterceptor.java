@@ -0,0 +1,106 @@
+package com.fulfilment.application.monolith.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.Priority;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records, for every call to a method of a domain port ({@code *.domain.ports}) implemented by a
+ * {@link Measured} bean, its duration in {@value #CALLS} and the number of SQL statements it prepared
+ * in {@value #STATEMENTS}, both tagged with the port and method. The timer is also tagged with the
+ * outcome: {@code success} or the simple name of the exception thrown. Other methods of the bean are
+ * not recorded.
+ *
+ * <p>It runs outside {@code @Transactional}, so the commit and the statements flushed by it are
+ * included.
+ */
+@Measured
+@Interceptor
+@Priority(Interceptor.Priority.PLATFORM_BEFORE)
+public class PortMetricsInterceptor {
+
+  static final String CALLS = "port.calls";
+  static final String STATEMENTS = "port.calls.sql.statements";
+
+  private static final String SUCCESS = "success";
+
+  private final MeterRegistry registry;
+  private final ConcurrentMap<Method, Optional<PortMeters>> meters = new ConcurrentHashMap<>();
+
+  public PortMetricsInterceptor(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  @AroundInvoke
+  Object record(InvocationContext context) throws Exception {
+    PortMeters portMeters = meters.computeIfAbsent(context.getMethod(), this::metersFor).orElse(null);
+    if (portMeters == null) {
+      return context.proceed();
+    }
+    long statementsBefore = SqlStatementCounter.onCurrentThread();
+    long start = System.nanoTime();
+    String outcome = SUCCESS;
+    try {
+      return context.proceed();
+    } catch (Exception e) {
+      outcome = e.getClass().getSimpleName();
+      throw e;
+    } finally {
+      portMeters.timer(outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      portMeters.statements.record(SqlStatementCounter.onCurrentThread() - statementsBefore);
+    }
+  }
+
+  private Optional<PortMeters> metersFor(Method method) {
+    for (Class<?> port : method.getDeclaringClass().getInterfaces()) {
+      if (!port.getPackageName().endsWith(".domain.ports")) {
+        continue;
+      }
+      try {
+        port.getMethod(method.getName(), method.getParameterTypes());
+        return Optional.of(new PortMeters(port.getSimpleName(), method.getName()));
+      } catch (NoSuchMethodException e) {
+        // declared by another port, if any
+      }
+    }
+    return Optional.empty();
+  }
+
+  private final class PortMeters {
+
+    final String port;
+    final String method;
+    final Timer success;
+    final DistributionSummary statements;
+
+    PortMeters(String port, String method) {
+      this.port = port;
+      this.method = method;
+      this.success = timer(SUCCESS);
+      this.statements = DistributionSummary.builder(STATEMENTS)
+          .description("SQL statements prepared per call to a domain port")
+          .tags("port", port, "method", method)
+          .register(registry);
+    }
+
+    Timer timer(String outcome) {
+      if (SUCCESS.equals(outcome) && success != null) {
+        return success;
+      }
+      return Timer.builder(CALLS)
+          .description("Calls to a domain port")
+          .tags("port", port, "method", method, "outcome", outcome)
+          .publishPercentileHistogram()
+          .register(registry);
+    }
+  }
+}
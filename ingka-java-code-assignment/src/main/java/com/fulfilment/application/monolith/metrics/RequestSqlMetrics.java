@@ -0,0 +1,55 @@
+package com.fulfilment.application.monolith.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.vertx.core.Context;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import org.jboss.resteasy.reactive.server.ServerRequestFilter;
+import org.jboss.resteasy.reactive.server.ServerResponseFilter;
+import org.jboss.resteasy.reactive.server.SimpleResourceInfo;
+
+/**
+ * Records the number of SQL statements each REST request prepared in {@value #STATEMENTS}, tagged
+ * with the resource class and method that handled it, next to the {@code http.server.requests} timer.
+ *
+ * <p>Blocking endpoints run their filters on the same worker thread as the method, so the count is
+ * the difference between two readings of the thread's {@link SqlStatementCounter}. Non-blocking
+ * endpoints read on other threads, or through the reactive client, and are not recorded.
+ */
+@ApplicationScoped
+public class RequestSqlMetrics {
+
+  static final String STATEMENTS = "http.server.requests.sql.statements";
+
+  private static final String STATEMENTS_BEFORE = RequestSqlMetrics.class.getName() + ".statementsBefore";
+
+  private final MeterRegistry registry;
+
+  public RequestSqlMetrics(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  @ServerRequestFilter
+  public void start(ContainerRequestContext request) {
+    if (Context.isOnEventLoopThread()) {
+      return;
+    }
+    request.setProperty(STATEMENTS_BEFORE, SqlStatementCounter.onCurrentThread());
+  }
+
+  @ServerResponseFilter
+  public void record(ContainerRequestContext request, ContainerResponseContext response,
+      SimpleResourceInfo resource) {
+    Object before = request.getProperty(STATEMENTS_BEFORE);
+    if (!(before instanceof Long) || resource == null || resource.getResourceClass() == null) {
+      return;
+    }
+    DistributionSummary.builder(STATEMENTS)
+        .description("SQL statements prepared per REST request")
+        .tags("resource", resource.getResourceClass().getSimpleName(), "method", resource.getMethodName())
+        .register(registry)
+        .record(SqlStatementCounter.onCurrentThread() - (Long) before);
+  }
+}
@@ -0,0 +1,54 @@
+package com.fulfilment.application.monolith.metrics;
+
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares, per thread.
+ *
+ * <p>Hibernate's own statistics only count statements for the whole session factory, which cannot be
+ * split between concurrent requests. A batch of inserts is prepared, and counted, once; statements sent
+ * through plain JDBC in {@code Session.doWork} are not seen.
+ */
+@PersistenceUnitExtension
+@ApplicationScoped
+public class SqlStatementCounter implements StatementInspector {
+
+  private static final ThreadLocal<long[]> PREPARED = ThreadLocal.withInitial(() -> new long[1]);
+  private static final List<Consumer<String>> LISTENERS = new CopyOnWriteArrayList<>();
+
+  @Override
+  public String inspect(String sql) {
+    PREPARED.get()[0]++;
+    if (!LISTENERS.isEmpty()) {
+      for (Consumer<String> listener : LISTENERS) {
+        listener.accept(sql);
+      }
+    }
+    return sql;
+  }
+
+  /**
+   * Returns the number of statements prepared on the calling thread so far; the difference between
+   * two readings is what ran in between.
+   */
+  public static long onCurrentThread() {
+    return PREPARED.get()[0];
+  }
+
+  /**
+   * Hands every statement prepared from now on, on any thread, to {@code listener} until it is
+   * {@link #removeListener removed}. Meant for tests that check how many statements a call makes.
+   */
+  public static void addListener(Consumer<String> listener) {
+    LISTENERS.add(listener);
+  }
+
+  public static void removeListener(Consumer<String> listener) {
+    LISTENERS.remove(listener);
+  }
+}
@@ -0,0 +1,39 @@
+package com.fulfilment.application.monolith.metrics;
+
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseNearCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.inject.Singleton;
+
+/**
+ * Publishes the counters of the {@link WarehouseNearCache}.
+ */
+@Singleton
+public class WarehouseCacheMetrics implements MeterBinder {
+
+  private final WarehouseNearCache cache;
+
+  public WarehouseCacheMetrics(WarehouseNearCache cache) {
+    this.cache = cache;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("warehouse.cache.gets", cache, WarehouseNearCache::hitCount)
+        .description("Warehouse lookups by business unit code answered by the cache")
+        .tag("result", "hit")
+        .register(registry);
+    FunctionCounter.builder("warehouse.cache.gets", cache, WarehouseNearCache::missCount)
+        .description("Warehouse lookups by business unit code that had to query the database")
+        .tag("result", "miss")
+        .register(registry);
+    FunctionCounter.builder("warehouse.cache.evictions", cache, WarehouseNearCache::evictionCount)
+        .description("Warehouses dropped from the cache because they expired or it was full")
+        .register(registry);
+    Gauge.builder("warehouse.cache.size", cache, WarehouseNearCache::size)
+        .description("Warehouses in the cache")
+        .register(registry);
+  }
+}
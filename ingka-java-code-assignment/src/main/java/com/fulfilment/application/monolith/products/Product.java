@@ -1,10 +1,12 @@
 package com.fulfilment.application.monolith.products;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Version;
 import java.math.BigDecimal;
 
 @Entity
@@ -24,6 +26,11 @@ public class Product {
 
   public int stock;
 
+  // incremented on every change, also by the stock adjustment statements; the ETag of the product
+  @Version
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  public long version;
+
   public Product() {}
 
   public Product(String name) {
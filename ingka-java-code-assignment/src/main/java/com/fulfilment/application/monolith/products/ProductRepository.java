@@ -1,7 +1,41 @@
 package com.fulfilment.application.monolith.products;
 
+import com.fulfilment.application.monolith.cache.EntityVersions;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
 
 @ApplicationScoped
-public class ProductRepository implements PanacheRepository<Product> {}
+public class ProductRepository implements PanacheRepository<Product> {
+
+  /**
+   * Adds {@code delta} to the product's stock in a single statement, unless that would make it negative.
+   *
+   * @return the number of rows updated
+   */
+  public int adjustStock(Long id, int delta) {
+    return update("stock = stock + ?1, version = version + 1 where id = ?2 and stock + ?1 >= 0", delta, id);
+  }
+
+  /**
+   * Returns the version of the product, taken from the second-level cache when it holds the product and
+   * otherwise read without loading it, or {@code null} when there is no product with that id.
+   */
+  public Long findVersion(Long id) {
+    if (getEntityManager().getEntityManagerFactory().getCache().contains(Product.class, id)) {
+      Product cached = findById(id);
+      return cached != null ? cached.version : null;
+    }
+    return getEntityManager().createQuery("select e.version from Product e where e.id = ?1", Long.class)
+        .setParameter(1, id)
+        .getResultStream()
+        .findFirst()
+        .orElse(null);
+  }
+
+  /**
+   * Returns the version of all products together; see {@link EntityVersions}.
+   */
+  public String listVersion() {
+    return EntityVersions.ofTable(getEntityManager(), "Product");
+  }
+}
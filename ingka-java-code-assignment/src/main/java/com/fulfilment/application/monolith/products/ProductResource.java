@@ -1,5 +1,11 @@
 package com.fulfilment.application.monolith.products;
 
+import com.fulfilment.application.monolith.cache.ConditionalGet;
+import com.fulfilment.application.monolith.cache.EntityCacheInvalidator;
+import com.fulfilment.application.monolith.database.DatabaseBound;
+import com.fulfilment.application.monolith.fulfillment.domain.ports.FulfillmentIndex;
+import com.fulfilment.application.monolith.stock.StockAdjuster;
+import com.fulfilment.application.monolith.stock.StockAdjustment;
 import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -20,20 +26,32 @@ import org.jboss.logging.Logger;
 @ApplicationScoped
 @Produces("application/json")
 @Consumes("application/json")
+@DatabaseBound
 public class ProductResource {
 
   @Inject
   ProductRepository productRepository;
 
+  @Inject
+  ProductStock productStock;
+
+  @Inject
+  EntityCacheInvalidator entityCaches;
+
+  @Inject
+  FulfillmentIndex fulfillmentIndex;
+
   private static final Logger LOGGER = Logger.getLogger(ProductResource.class.getName());
 
   @GET
+  @ConditionalGet(ProductVersions.class)
   public List<Product> get() {
     return productRepository.listAll(Sort.by("name"));
   }
 
   @GET
   @Path("{id}")
+  @ConditionalGet(value = ProductVersions.class, versionedEntity = true)
   public Product getSingle(Long id) {
     Product entity = productRepository.findById(id);
     if (entity == null) {
@@ -67,16 +85,44 @@ public class ProductResource {
       throw new WebApplicationException("Product with id of " + id + " does not exist.", 404);
     }
 
+    String previousName = entity.name;
     entity.name = product.name;
     entity.description = product.description;
     entity.price = product.price;
     entity.stock = product.stock;
 
     productRepository.persist(entity);
+    fulfillmentIndex.renameProduct(previousName, entity.name);
+    entityCaches.invalidate(Product.class, id);
 
     return entity;
   }
 
+  /**
+   * Adds a signed delta to the stock in one conditional statement; 202 when the restock is only
+   * accumulated and written shortly after, and 404 for an unknown id either way.
+   */
+  @POST
+  @Path("{id}/stock-adjustments")
+  @Transactional
+  public Response adjustStock(Long id, StockAdjustment adjustment) {
+    if (adjustment == null || adjustment.delta == 0) {
+      throw new WebApplicationException("Stock adjustment delta was not set on request.", 422);
+    }
+
+    StockAdjuster.Result result = productStock.adjust(id, adjustment.delta);
+    if (result == StockAdjuster.Result.ACCUMULATED) {
+      return Response.accepted().build();
+    }
+    if (result == StockAdjuster.Result.REJECTED) {
+      if (productRepository.findById(id) == null) {
+        throw new WebApplicationException("Product with id of " + id + " does not exist.", 404);
+      }
+      throw new WebApplicationException("Product with id of " + id + " does not have enough stock.", 409);
+    }
+    return Response.noContent().build();
+  }
+
   @DELETE
   @Path("{id}")
   @Transactional
@@ -86,6 +132,8 @@ public class ProductResource {
       throw new WebApplicationException("Product with id of " + id + " does not exist.", 404);
     }
     productRepository.delete(entity);
+    fulfillmentIndex.removeProduct(entity.name);
+    entityCaches.invalidate(Product.class, id);
     return Response.status(204).build();
   }
 
@@ -0,0 +1,38 @@
+package com.fulfilment.application.monolith.products;
+
+import com.fulfilment.application.monolith.cache.EntityCacheInvalidator;
+import com.fulfilment.application.monolith.stock.StockAdjuster;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.time.Duration;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+@ApplicationScoped
+public class ProductStock extends StockAdjuster {
+
+  private final ProductRepository productRepository;
+  private final EntityCacheInvalidator entityCaches;
+
+  public ProductStock(ProductRepository productRepository, EntityCacheInvalidator entityCaches,
+      @ConfigProperty(name = "stock.accumulator.enabled", defaultValue = "false") boolean accumulate,
+      @ConfigProperty(name = "stock.accumulator.flush-interval", defaultValue = "100ms") Duration flushInterval) {
+    super("product", accumulate, flushInterval);
+    this.productRepository = productRepository;
+    this.entityCaches = entityCaches;
+  }
+
+  // the version probe is answered from the second-level cache when the product is in it
+  @Override
+  protected boolean exists(Long id) {
+    return productRepository.findVersion(id) != null;
+  }
+
+  @Override
+  protected int applyDelta(Long id, int delta) {
+    return productRepository.adjustStock(id, delta);
+  }
+
+  @Override
+  protected void applied(Long id) {
+    entityCaches.invalidate(Product.class, id);
+  }
+}
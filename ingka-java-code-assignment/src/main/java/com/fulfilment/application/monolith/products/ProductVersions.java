@@ -0,0 +1,43 @@
+package com.fulfilment.application.monolith.products;
+
+import com.fulfilment.application.monolith.cache.VersionProbe;
+import com.fulfilment.application.monolith.database.DatabaseBound;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.ws.rs.core.UriInfo;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Versions of a product ({@code GET /product/{id}}) and of all products ({@code GET /product}), for the ETags of
+ * {@link ProductResource}; they are read on the worker thread the endpoint runs on.
+ */
+@ApplicationScoped
+@DatabaseBound
+public class ProductVersions implements VersionProbe {
+
+  private final ProductRepository productRepository;
+
+  public ProductVersions(ProductRepository productRepository) {
+    this.productRepository = productRepository;
+  }
+
+  @Override
+  public CompletionStage<String> version(UriInfo uri) {
+    String id = uri.getPathParameters().getFirst("id");
+    if (id == null) {
+      return CompletableFuture.completedFuture(productRepository.listVersion());
+    }
+    Long version;
+    try {
+      version = productRepository.findVersion(Long.valueOf(id));
+    } catch (NumberFormatException e) {
+      version = null;
+    }
+    return CompletableFuture.completedFuture(version != null ? version.toString() : null);
+  }
+
+  @Override
+  public String versionOf(Object entity) {
+    return entity instanceof Product ? Long.toString(((Product) entity).version) : null;
+  }
+}
@@ -0,0 +1,240 @@
+package com.fulfilment.application.monolith.snapshot;
+
+import com.fulfilment.application.monolith.fulfillment.domain.models.Fulfillment;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Point-in-time copy of the reference data (products, stores, warehouses and fulfillment associations)
+ * as of {@link #takenAt}, kept by id so that rows changed later can be merged in.
+ *
+ * <p>On disk it is a compact binary file: a header (magic, format, time taken), one section per table
+ * and a CRC32 of everything before it. Strings are a 4-byte length and UTF-8, an absent value is a
+ * length of -1 or {@link #NONE}; associations are four ids. Files are written to a temporary file and
+ * moved into place, and read through a read-only memory mapping.
+ */
+public final class ReferenceSnapshot {
+
+  static final int MAGIC = 0x57534e50; // "WSNP"
+  static final int FORMAT = 2;
+  static final long NONE = Long.MIN_VALUE;
+
+  private final Instant takenAt;
+  private final Map<Long, String> products;
+  private final Map<Long, String> stores;
+  private final Map<Long, Warehouse> warehouses;
+  private final long[][] fulfillments;
+
+  /**
+   * @param fulfillments the id, product id, store id and warehouse id of every association
+   */
+  public ReferenceSnapshot(Instant takenAt, Map<Long, String> products, Map<Long, String> stores,
+      Map<Long, Warehouse> warehouses, long[][] fulfillments) {
+    this.takenAt = takenAt;
+    this.products = products;
+    this.stores = stores;
+    this.warehouses = warehouses;
+    this.fulfillments = fulfillments;
+  }
+
+  public Instant takenAt() {
+    return takenAt;
+  }
+
+  /** Product names by id. */
+  public Map<Long, String> products() {
+    return products;
+  }
+
+  /** Store names by id. */
+  public Map<Long, String> stores() {
+    return stores;
+  }
+
+  /** Warehouses by id. */
+  public Map<Long, Warehouse> warehouses() {
+    return warehouses;
+  }
+
+  /** The id, product id, store id and warehouse id of every association. */
+  public long[][] fulfillmentIds() {
+    return fulfillments;
+  }
+
+  /**
+   * Returns the associations by name; those referencing an id the snapshot does not know are left out.
+   */
+  public List<Fulfillment> fulfillments() {
+    List<Fulfillment> named = new ArrayList<>(fulfillments.length);
+    for (long[] ids : fulfillments) {
+      String product = products.get(ids[1]);
+      String store = stores.get(ids[2]);
+      Warehouse warehouse = warehouses.get(ids[3]);
+      if (product != null && store != null && warehouse != null) {
+        named.add(new Fulfillment(product, store, warehouse.getBusinessUnitCode()));
+      }
+    }
+    return named;
+  }
+
+  /** Returns the ids by name, as the reference key cache holds them. */
+  public static Map<String, Long> byName(Map<Long, String> names) {
+    Map<String, Long> ids = new HashMap<>(names.size() * 2);
+    names.forEach((id, name) -> ids.put(name, id));
+    return ids;
+  }
+
+  /**
+   * Writes the snapshot to {@code file}, replacing it only once it is complete.
+   */
+  public void write(Path file) throws IOException {
+    Path next = file.resolveSibling(file.getFileName() + ".tmp");
+    CRC32 crc = new CRC32();
+    try (FileOutputStream stream = new FileOutputStream(next.toFile())) {
+      DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(stream, crc)));
+      out.writeInt(MAGIC);
+      out.writeInt(FORMAT);
+      out.writeLong(takenAt.toEpochMilli());
+      writeNames(out, products);
+      writeNames(out, stores);
+      out.writeInt(warehouses.size());
+      for (Map.Entry<Long, Warehouse> entry : warehouses.entrySet()) {
+        Warehouse warehouse = entry.getValue();
+        out.writeLong(entry.getKey());
+        writeString(out, warehouse.getBusinessUnitCode());
+        writeString(out, warehouse.getLocation());
+        out.writeLong(warehouse.getCapacity() != null ? warehouse.getCapacity() : NONE);
+        out.writeLong(warehouse.getStock() != null ? warehouse.getStock() : NONE);
+        out.writeLong(warehouse.getCreationAt() != null ? warehouse.getCreationAt().toInstant().toEpochMilli() : NONE);
+        out.writeLong(warehouse.getArchivedAt() != null ? warehouse.getArchivedAt().toInstant().toEpochMilli() : NONE);
+        out.writeLong(warehouse.getVersion() != null ? warehouse.getVersion() : NONE);
+      }
+      out.writeInt(fulfillments.length);
+      for (long[] ids : fulfillments) {
+        for (long id : ids) {
+          out.writeLong(id);
+        }
+      }
+      out.flush();
+      // the checksum covers everything before it
+      new DataOutputStream(stream).writeInt((int) crc.getValue());
+      stream.getFD().sync();
+    }
+    Files.move(next, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Reads a snapshot written by {@link #write}.
+   *
+   * @throws IOException when the file cannot be read, or is not a complete snapshot of this format
+   */
+  public static ReferenceSnapshot read(Path file) throws IOException {
+    MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    if (buffer.capacity() < 20 || buffer.getInt(0) != MAGIC) {
+      throw new IOException(file + " is not a reference snapshot");
+    }
+    if (buffer.getInt(4) != FORMAT) {
+      throw new IOException(file + " has snapshot format " + buffer.getInt(4) + ", expected " + FORMAT);
+    }
+    int end = buffer.capacity() - 4;
+    CRC32 crc = new CRC32();
+    crc.update(buffer.slice(0, end));
+    if ((int) crc.getValue() != buffer.getInt(end)) {
+      throw new IOException(file + " is incomplete or corrupt");
+    }
+
+    buffer.position(8);
+    Instant takenAt = Instant.ofEpochMilli(buffer.getLong());
+    Map<Long, String> products = readNames(buffer);
+    Map<Long, String> stores = readNames(buffer);
+    int warehouseCount = buffer.getInt();
+    Map<Long, Warehouse> warehouses = new LinkedHashMap<>(warehouseCount * 2);
+    for (int i = 0; i < warehouseCount; i++) {
+      long id = buffer.getLong();
+      Warehouse warehouse = new Warehouse();
+      warehouse.setBusinessUnitCode(readString(buffer));
+      warehouse.setLocation(readString(buffer));
+      warehouse.setCapacity(integer(buffer.getLong()));
+      warehouse.setStock(integer(buffer.getLong()));
+      warehouse.setCreationAt(timestamp(buffer.getLong()));
+      warehouse.setArchivedAt(timestamp(buffer.getLong()));
+      long version = buffer.getLong();
+      warehouse.setVersion(version == NONE ? null : version);
+      warehouses.put(id, warehouse);
+    }
+    long[][] fulfillments = new long[buffer.getInt()][];
+    for (int i = 0; i < fulfillments.length; i++) {
+      fulfillments[i] = new long[] {buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong()};
+    }
+    return new ReferenceSnapshot(takenAt, products, stores, warehouses, fulfillments);
+  }
+
+  private static void writeNames(DataOutputStream out, Map<Long, String> names) throws IOException {
+    out.writeInt(names.size());
+    for (Map.Entry<Long, String> entry : names.entrySet()) {
+      out.writeLong(entry.getKey());
+      writeString(out, entry.getValue());
+    }
+  }
+
+  private static Map<Long, String> readNames(ByteBuffer buffer) {
+    int count = buffer.getInt();
+    Map<Long, String> names = new LinkedHashMap<>(count * 2);
+    for (int i = 0; i < count; i++) {
+      names.put(buffer.getLong(), readString(buffer));
+    }
+    return names;
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(ByteBuffer buffer) {
+    int length = buffer.getInt();
+    if (length < 0) {
+      return null;
+    }
+    String value = StandardCharsets.UTF_8.decode(buffer.slice(buffer.position(), length)).toString();
+    buffer.position(buffer.position() + length);
+    return value;
+  }
+
+  private static Integer integer(long value) {
+    return value == NONE ? null : (int) value;
+  }
+
+  private static ZonedDateTime timestamp(long epochMilli) {
+    return epochMilli == NONE ? null : Instant.ofEpochMilli(epochMilli).atZone(ZoneId.systemDefault());
+  }
+}
@@ -0,0 +1,270 @@
+package com.fulfilment.application.monolith.snapshot;
+
+import com.fulfilment.application.monolith.fulfillment.adapters.database.ReferenceKeyCache;
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseNearCache;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.interceptor.Interceptor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Starts a node with warm caches and indexes from a {@link ReferenceSnapshot} instead of full table scans.
+ *
+ * <p>The snapshot is read on first use at startup and caught up with the database: rows with a higher
+ * id than any in the snapshot are added, and so are warehouses updated since the snapshot was taken, less
+ * {@code warm-start.catch-up-overlap} for transactions that were still open then. When the caught-up
+ * number of rows of a table differs from the one in the database, rows were deleted and that table is
+ * read in full. Product and store names are always read in full, one id and name per row, so renames
+ * are caught up as well and the associations are indexed by their current names. The fulfillment index,
+ * the location occupancy, the reference key cache and the warehouse cache are seeded from the result.
+ *
+ * <p>The snapshot is written, caught up the same way, every {@code warm-start.snapshot.interval} and on
+ * shutdown. With {@code warm-start.enabled=false} nothing is read or written.
+ */
+@ApplicationScoped
+public class WarmStart {
+
+  private static final Logger LOGGER = Logger.getLogger(WarmStart.class);
+
+  // one round trip for the number of rows and the highest id of the tables caught up by id
+  private static final String WATERMARKS_QUERY = "select"
+      + " (select count(*) from warehouse), (select coalesce(max(id), 0) from warehouse),"
+      + " (select count(*) from fulfillment), (select coalesce(max(id), 0) from fulfillment)";
+
+  private static final String WAREHOUSE_COLUMNS =
+      "select w.id, w.businessUnitCode, w.location, w.capacity, w.stock, w.createdAt, w.archivedAt, w.version"
+      + " from DbWarehouse w";
+
+  private final EntityManager entityManager;
+  private final ReferenceKeyCache keys;
+  private final WarehouseNearCache warehouseCache;
+  private final boolean enabled;
+  private final Path file;
+  private final Duration interval;
+  private final Duration overlap;
+
+  // the caught-up snapshot, from the first use at startup until startup is over
+  private ReferenceSnapshot current;
+  private boolean loaded;
+  private ScheduledExecutorService writer;
+
+  public WarmStart(EntityManager entityManager, ReferenceKeyCache keys, WarehouseNearCache warehouseCache,
+      @ConfigProperty(name = "warm-start.enabled", defaultValue = "false") boolean enabled,
+      @ConfigProperty(name = "warm-start.snapshot.path") Optional<Path> file,
+      @ConfigProperty(name = "warm-start.snapshot.interval", defaultValue = "5m") Duration interval,
+      @ConfigProperty(name = "warm-start.catch-up-overlap", defaultValue = "1m") Duration overlap) {
+    this.entityManager = entityManager;
+    this.keys = keys;
+    this.warehouseCache = warehouseCache;
+    this.enabled = enabled;
+    this.file = file.orElse(Path.of(System.getProperty("java.io.tmpdir"), "warm-start.snapshot"));
+    this.interval = interval;
+    this.overlap = overlap;
+  }
+
+  /**
+   * Returns the reference data as of now, from the snapshot caught up with the database, while the
+   * application starts; empty when warm starts are disabled, there is no readable snapshot, or startup
+   * is over.
+   */
+  public synchronized Optional<ReferenceSnapshot> current() {
+    if (!enabled) {
+      return Optional.empty();
+    }
+    if (!loaded) {
+      loaded = true;
+      current = readSnapshot().map(this::catchUp).orElse(null);
+    }
+    return Optional.ofNullable(current);
+  }
+
+  void onStart(@Observes StartupEvent event) {
+    if (!enabled) {
+      return;
+    }
+    current().ifPresent(snapshot -> {
+      keys.seed(ReferenceSnapshot.byName(snapshot.products()), ReferenceSnapshot.byName(snapshot.stores()),
+          warehouseIds(snapshot.warehouses()));
+      long token = warehouseCache.loadToken();
+      snapshot.warehouses().values().forEach(warehouse -> warehouseCache.put(warehouse, token));
+    });
+    writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "warm-start-snapshot");
+      thread.setDaemon(true);
+      return thread;
+    });
+    writer.scheduleWithFixedDelay(this::writeQuietly, interval.toMillis(), interval.toMillis(),
+        TimeUnit.MILLISECONDS);
+  }
+
+  // after every other startup observer took what it needed
+  synchronized void onStarted(@Observes @Priority(Interceptor.Priority.PLATFORM_AFTER) StartupEvent event) {
+    current = null;
+  }
+
+  void onStop(@Observes ShutdownEvent event) {
+    if (writer != null) {
+      writer.shutdownNow();
+      writeQuietly();
+    }
+  }
+
+  /**
+   * Brings the snapshot on disk up to date, reading only what changed since it was written.
+   */
+  public synchronized void write() throws IOException {
+    ReferenceSnapshot snapshot = readSnapshot().map(this::catchUp).orElseGet(this::loadAll);
+    Files.createDirectories(file.toAbsolutePath().getParent());
+    snapshot.write(file);
+    LOGGER.debugf("Wrote warm start snapshot %s with %d warehouses and %d associations", file,
+        snapshot.warehouses().size(), snapshot.fulfillmentIds().length);
+  }
+
+  private void writeQuietly() {
+    try {
+      write();
+    } catch (Exception e) {
+      LOGGER.warnf(e, "Failed to write warm start snapshot %s", file);
+    }
+  }
+
+  private Optional<ReferenceSnapshot> readSnapshot() {
+    try {
+      return Optional.of(ReferenceSnapshot.read(file));
+    } catch (NoSuchFileException e) {
+      LOGGER.infof("No warm start snapshot at %s", file);
+    } catch (IOException | RuntimeException e) {
+      LOGGER.warnf("Ignoring warm start snapshot %s: %s", file, e.getMessage());
+    }
+    return Optional.empty();
+  }
+
+  ReferenceSnapshot catchUp(ReferenceSnapshot snapshot) {
+    return QuarkusTransaction.requiringNew().call(() -> {
+      Instant now = Instant.now();
+      long[] marks = watermarks();
+
+      // names carry no updatedAt, so a rename is only seen by reading them all
+      Map<Long, String> products = names("Product");
+      Map<Long, String> stores = names("Store");
+
+      LocalDateTime since = LocalDateTime.ofInstant(snapshot.takenAt().minus(overlap), ZoneId.systemDefault());
+      Map<Long, Warehouse> warehouses = new LinkedHashMap<>(snapshot.warehouses());
+      warehouses.putAll(warehouses(" where w.id > ?1 or w.updatedAt >= ?2", maxKey(snapshot.warehouses()), since));
+      if (warehouses.size() != marks[0]) {
+        warehouses = warehouses("", null, null);
+      }
+
+      long[][] known = snapshot.fulfillmentIds();
+      long[][] added = fulfillmentIds(known.length > 0 ? maxId(known) : 0);
+      long[][] fulfillments = Arrays.copyOf(known, known.length + added.length);
+      System.arraycopy(added, 0, fulfillments, known.length, added.length);
+      if (fulfillments.length != marks[2]) {
+        fulfillments = fulfillmentIds(0);
+      }
+
+      LOGGER.infof("Warm start snapshot of %s caught up with %d new associations", snapshot.takenAt(),
+          added.length);
+      return new ReferenceSnapshot(now, products, stores, warehouses, fulfillments);
+    });
+  }
+
+  ReferenceSnapshot loadAll() {
+    return QuarkusTransaction.requiringNew().call(() -> new ReferenceSnapshot(Instant.now(),
+        names("Product"), names("Store"), warehouses("", null, null), fulfillmentIds(0)));
+  }
+
+  private long[] watermarks() {
+    Object[] row = (Object[]) entityManager.createNativeQuery(WATERMARKS_QUERY).getSingleResult();
+    long[] marks = new long[row.length];
+    for (int i = 0; i < row.length; i++) {
+      marks[i] = ((Number) row[i]).longValue();
+    }
+    return marks;
+  }
+
+  private Map<Long, String> names(String entity) {
+    Map<Long, String> names = new LinkedHashMap<>();
+    entityManager.createQuery("select e.id, e.name from " + entity + " e", Object[].class)
+        .getResultStream()
+        .forEach(row -> names.put((Long) row[0], (String) row[1]));
+    return names;
+  }
+
+  private Map<Long, Warehouse> warehouses(String where, Long afterId, LocalDateTime updatedSince) {
+    TypedQuery<Object[]> query = entityManager.createQuery(WAREHOUSE_COLUMNS + where, Object[].class);
+    if (afterId != null) {
+      query.setParameter(1, afterId).setParameter(2, updatedSince);
+    }
+    Map<Long, Warehouse> warehouses = new LinkedHashMap<>();
+    query.getResultStream().forEach(row -> {
+      Warehouse warehouse = new Warehouse((String) row[1], (String) row[2], (Integer) row[3], (Integer) row[4]);
+      if (row[5] != null) {
+        warehouse.setCreationAt(((LocalDateTime) row[5]).atZone(ZoneId.systemDefault()));
+      }
+      if (row[6] != null) {
+        warehouse.setArchivedAt(((LocalDateTime) row[6]).atZone(ZoneId.systemDefault()));
+      }
+      warehouse.setVersion((Long) row[7]);
+      warehouses.put((Long) row[0], warehouse);
+    });
+    return warehouses;
+  }
+
+  private long[][] fulfillmentIds(long afterId) {
+    List<long[]> ids = new ArrayList<>();
+    entityManager.createQuery("select f.id, f.product.id, f.store.id, f.warehouse.id from DbFulfillment f"
+            + " where f.id > ?1", Object[].class)
+        .setParameter(1, afterId)
+        .getResultStream()
+        .forEach(row -> ids.add(new long[] {(Long) row[0], (Long) row[1], (Long) row[2], (Long) row[3]}));
+    return ids.toArray(new long[0][]);
+  }
+
+  private static Map<String, Long> warehouseIds(Map<Long, Warehouse> warehouses) {
+    Map<String, Long> ids = new LinkedHashMap<>(warehouses.size() * 2);
+    warehouses.forEach((id, warehouse) -> ids.put(warehouse.getBusinessUnitCode(), id));
+    return ids;
+  }
+
+  private static long maxKey(Map<Long, ?> byId) {
+    long max = 0;
+    for (Long id : byId.keySet()) {
+      max = Math.max(max, id);
+    }
+    return max;
+  }
+
+  private static long maxId(long[][] rows) {
+    long max = 0;
+    for (long[] row : rows) {
+      max = Math.max(max, row[0]);
+    }
+    return max;
+  }
+}
@@ -0,0 +1,170 @@
+package com.fulfilment.application.monolith.stock;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.jboss.logging.Logger;
+
+/**
+ * Applies signed stock deltas to one table, each as a single conditional UPDATE that refuses to take
+ * stock below zero, so concurrent adjustments never overwrite each other.
+ *
+ * <p>With {@code stock.accumulator.enabled}, restocks (positive deltas) are summed in memory and
+ * written once per id every {@code stock.accumulator.flush-interval}; a restock can never break the
+ * non-negative guard, so it is safe to defer. Only restocks of an id that {@link #exists} are accepted. Withdrawals are always applied immediately, and one that
+ * finds too little stock first writes the id's pending restocks and tries again.
+ */
+public abstract class StockAdjuster {
+
+  private static final Logger LOGGER = Logger.getLogger(StockAdjuster.class);
+
+  public enum Result {
+    APPLIED,
+    ACCUMULATED,
+    REJECTED
+  }
+
+  private final String table;
+  private final StripedStockAccumulator accumulator;
+  private final Duration flushInterval;
+
+  private ScheduledExecutorService flusher;
+
+  // for client proxies
+  protected StockAdjuster() {
+    this(null, false, null);
+  }
+
+  protected StockAdjuster(String table, boolean accumulate, Duration flushInterval) {
+    this.table = table;
+    this.accumulator = accumulate ? new StripedStockAccumulator() : null;
+    this.flushInterval = flushInterval;
+  }
+
+  /**
+   * Adds {@code delta} to the stock of {@code id} unless that would make it negative.
+   *
+   * @return the number of rows updated
+   */
+  protected abstract int applyDelta(Long id, int delta);
+
+  /**
+   * Whether {@code id} is a row of the table, checked before a restock is accumulated; a cheap lookup, as
+   * it runs for every restock.
+   */
+  protected abstract boolean exists(Long id);
+
+  /**
+   * Called in the applying transaction after a delta was written to {@code id}.
+   */
+  protected void applied(Long id) {
+  }
+
+  public Result adjust(Long id, int delta) {
+    if (accumulator != null && delta > 0) {
+      // rejected like an immediate write, rather than accumulated and discarded by the flush
+      if (!exists(id)) {
+        return Result.REJECTED;
+      }
+      accumulator.add(id, delta);
+      return Result.ACCUMULATED;
+    }
+    if (apply(id, delta)) {
+      return Result.APPLIED;
+    }
+    if (accumulator != null && delta < 0 && flush(id) && apply(id, delta)) {
+      return Result.APPLIED;
+    }
+    return Result.REJECTED;
+  }
+
+  @PostConstruct
+  void start() {
+    if (accumulator == null) {
+      return;
+    }
+    flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, table + "-stock-flusher");
+      thread.setDaemon(true);
+      return thread;
+    });
+    flusher.scheduleWithFixedDelay(this::flushAll, flushInterval.toMillis(), flushInterval.toMillis(),
+        TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  void stop() {
+    if (flusher != null) {
+      flusher.shutdownNow();
+      flushAll();
+    }
+  }
+
+  /**
+   * Writes every pending restock, in one transaction.
+   */
+  public void flushAll() {
+    if (accumulator == null) {
+      return;
+    }
+    Map<Long, Long> pending = accumulator.drainAll();
+    if (pending.isEmpty()) {
+      return;
+    }
+    try {
+      inNewTransaction(() -> {
+        pending.forEach(this::write);
+        return null;
+      });
+    } catch (RuntimeException e) {
+      LOGGER.errorf(e, "Failed to write pending %s stock, will retry", table);
+      pending.forEach(accumulator::add);
+    }
+  }
+
+  /**
+   * Runs {@code work} in a transaction of its own, so flushed restocks stay written whatever happens
+   * to the caller's transaction.
+   */
+  protected <T> T inNewTransaction(Supplier<T> work) {
+    return QuarkusTransaction.requiringNew().call(work::get);
+  }
+
+  // writes the pending restock of one id; false when there was none
+  private boolean flush(Long id) {
+    long pending = accumulator.drain(id);
+    if (pending == 0) {
+      return false;
+    }
+    try {
+      inNewTransaction(() -> {
+        write(id, pending);
+        return null;
+      });
+      return true;
+    } catch (RuntimeException e) {
+      accumulator.add(id, pending);
+      throw e;
+    }
+  }
+
+  private void write(Long id, long delta) {
+    if (!apply(id, Math.toIntExact(delta))) {
+      LOGGER.warnf("Discarding %d pending %s stock of unknown id %d", delta, table, id);
+    }
+  }
+
+  private boolean apply(Long id, int delta) {
+    if (applyDelta(id, delta) == 0) {
+      return false;
+    }
+    applied(id);
+    return true;
+  }
+}
@@ -0,0 +1,15 @@
+package com.fulfilment.application.monolith.stock;
+
+/**
+ * Request body of a stock adjustment: the signed number of items to add to (or remove from) stock.
+ */
+public class StockAdjustment {
+
+  public int delta;
+
+  public StockAdjustment() {}
+
+  public StockAdjustment(int delta) {
+    this.delta = delta;
+  }
+}
@@ -0,0 +1,49 @@
+package com.fulfilment.application.monolith.stock;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sums stock deltas per id in memory. Each id has a few cells picked by the calling thread, so
+ * concurrent adds to a hot id rarely contend; draining swaps every cell to zero atomically, so no
+ * delta is lost or counted twice.
+ */
+final class StripedStockAccumulator {
+
+  static final int STRIPES = 16;
+
+  private final ConcurrentMap<Long, AtomicLongArray> cells = new ConcurrentHashMap<>();
+
+  void add(Long id, long delta) {
+    cells.computeIfAbsent(id, key -> new AtomicLongArray(STRIPES))
+        .addAndGet((int) (Thread.currentThread().getId() & (STRIPES - 1)), delta);
+  }
+
+  /** Removes and returns the pending delta of one id. */
+  long drain(Long id) {
+    AtomicLongArray stripes = cells.get(id);
+    if (stripes == null) {
+      return 0;
+    }
+    long sum = 0;
+    for (int i = 0; i < STRIPES; i++) {
+      sum += stripes.getAndSet(i, 0);
+    }
+    return sum;
+  }
+
+  /** Removes and returns every non-zero pending delta. */
+  Map<Long, Long> drainAll() {
+    Map<Long, Long> drained = new HashMap<>();
+    for (Long id : cells.keySet()) {
+      long delta = drain(id);
+      if (delta != 0) {
+        drained.put(id, delta);
+      }
+    }
+    return drained;
+  }
+}
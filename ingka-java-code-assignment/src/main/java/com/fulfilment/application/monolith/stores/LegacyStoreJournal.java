@@ -0,0 +1,257 @@
+package com.fulfilment.application.monolith.stores;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Append-only journal of legacy store records, written sequentially into preallocated,
+ * memory-mapped segment files.
+ *
+ * <p>Each record is a 4-byte payload length, the payload's CRC32 and the UTF-8 payload. The length is
+ * written last, so a reader never sees a record before it is complete; a length of 0 marks the end of
+ * the written data and -1 a segment that was closed before it was full. Segments are named after the
+ * journal position of their first byte, so a position identifies a record across segments.
+ *
+ * <p>{@code legacy-store.journal.fsync} decides when mapped pages are forced to disk: after every
+ * record ({@code ALWAYS}), after every batch ({@code BATCH}) or only when the OS writes them back
+ * ({@code NEVER}). Use {@link LegacyStoreJournalReader} to tail it.
+ *
+ * <p>Whenever the journal rolls to a new segment, it deletes the segments that lie wholly before the
+ * position the reader last {@linkplain LegacyStoreJournalReader#commit() committed}, and then the
+ * oldest segments beyond {@code legacy-store.journal.max-segments}, consumed or not, so a reader that
+ * stopped cannot fill the disk.
+ */
+@ApplicationScoped
+public class LegacyStoreJournal {
+
+  private static final Logger LOGGER = Logger.getLogger(LegacyStoreJournal.class);
+
+  public enum FsyncPolicy {
+    ALWAYS,
+    BATCH,
+    NEVER
+  }
+
+  static final int HEADER_BYTES = 8;
+  static final int END_OF_SEGMENT = -1;
+  static final String SEGMENT_SUFFIX = ".journal";
+  static final String CONSUMER_POSITION = "consumer.position";
+
+  private final Path directory;
+  private final int segmentSize;
+  private final int maxSegments;
+  private final FsyncPolicy fsyncPolicy;
+
+  private MappedByteBuffer segment;
+  private long segmentBase;
+  private boolean unforced;
+
+  public LegacyStoreJournal(
+      @ConfigProperty(name = "legacy-store.journal.dir") Optional<Path> directory,
+      @ConfigProperty(name = "legacy-store.journal.segment-size", defaultValue = "16777216") int segmentSize,
+      @ConfigProperty(name = "legacy-store.journal.max-segments", defaultValue = "64") int maxSegments,
+      @ConfigProperty(name = "legacy-store.journal.fsync", defaultValue = "BATCH") FsyncPolicy fsyncPolicy) {
+    // tmpdir is cleaned on reboot, which would lose records the legacy side has not read yet
+    this.directory = directory.orElse(Path.of("data", "legacy-store-journal"));
+    this.segmentSize = segmentSize;
+    this.maxSegments = Math.max(1, maxSegments);
+    this.fsyncPolicy = fsyncPolicy;
+  }
+
+  /**
+   * Appends a record, opening (or recovering) the journal on first use.
+   *
+   * @return the journal position of the record
+   */
+  public synchronized long append(String record) {
+    byte[] payload = record.getBytes(StandardCharsets.UTF_8);
+    if (HEADER_BYTES + payload.length > segmentSize) {
+      throw new IllegalArgumentException("Journal record of " + payload.length
+          + " bytes does not fit in a segment of " + segmentSize + " bytes");
+    }
+    if (segment == null) {
+      open();
+    }
+    if (segment.remaining() < HEADER_BYTES + payload.length) {
+      roll();
+    }
+
+    int offset = segment.position();
+    segment.put(offset + HEADER_BYTES, payload);
+    segment.putInt(offset + 4, checksum(payload, 0, payload.length));
+    segment.putInt(offset, payload.length);
+    segment.position(offset + HEADER_BYTES + payload.length);
+
+    if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+      segment.force();
+    } else {
+      unforced = true;
+    }
+    return segmentBase + offset;
+  }
+
+  /**
+   * Marks the end of a batch of records, forcing them to disk under the {@code BATCH} policy.
+   */
+  public synchronized void endBatch() {
+    if (fsyncPolicy == FsyncPolicy.BATCH && unforced) {
+      segment.force();
+      unforced = false;
+    }
+  }
+
+  @PreDestroy
+  synchronized void close() {
+    if (segment != null) {
+      segment.force();
+      segment = null;
+    }
+  }
+
+  private void open() {
+    try {
+      Files.createDirectories(directory);
+      List<Path> existing = segments(directory);
+      if (existing.isEmpty()) {
+        map(0);
+        return;
+      }
+      map(baseOf(existing.get(existing.size() - 1)));
+      recover();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to open legacy store journal in " + directory, e);
+    }
+  }
+
+  // moves to the end of the written data; a record torn by a crash is wiped so it is written over
+  private void recover() throws IOException {
+    int offset = 0;
+    while (offset + HEADER_BYTES <= segment.capacity()) {
+      int length = segment.getInt(offset);
+      if (length == 0) {
+        break;
+      }
+      if (length == END_OF_SEGMENT) {
+        map(segmentBase + segment.capacity());
+        recover();
+        return;
+      }
+      if (length < 0 || offset + HEADER_BYTES + length > segment.capacity()
+          || segment.getInt(offset + 4) != checksum(segment, offset + HEADER_BYTES, length)) {
+        LOGGER.warnf("Discarding torn record at position %d of the legacy store journal", segmentBase + offset);
+        int end = length > 0
+            ? Math.min(segment.capacity(), offset + HEADER_BYTES + length)
+            : offset + HEADER_BYTES;
+        for (int i = offset; i < end; i++) {
+          segment.put(i, (byte) 0);
+        }
+        break;
+      }
+      offset += HEADER_BYTES + length;
+    }
+    segment.position(Math.min(offset, segment.capacity()));
+  }
+
+  private void roll() {
+    if (segment.remaining() >= 4) {
+      segment.putInt(segment.position(), END_OF_SEGMENT);
+    }
+    segment.force();
+    unforced = false;
+    try {
+      map(segmentBase + segment.capacity());
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to roll legacy store journal in " + directory, e);
+    }
+    try {
+      deleteOldSegments();
+    } catch (IOException e) {
+      LOGGER.warnf(e, "Failed to delete old segments of the legacy store journal in %s", directory);
+    }
+  }
+
+  // never deletes the segment being written
+  private void deleteOldSegments() throws IOException {
+    List<Path> existing = segments(directory);
+    long consumed = readConsumerPosition(directory);
+    int deleted = 0;
+    while (deleted < existing.size() - 1 && baseOf(existing.get(deleted + 1)) <= consumed) {
+      Files.deleteIfExists(existing.get(deleted++));
+    }
+    while (existing.size() - deleted > maxSegments && deleted < existing.size() - 1) {
+      LOGGER.warnf("Deleting legacy store journal segment %s before it was consumed (the reader is at %d)",
+          existing.get(deleted).getFileName(), consumed);
+      Files.deleteIfExists(existing.get(deleted++));
+    }
+  }
+
+  private void map(long base) throws IOException {
+    Path file = directory.resolve(segmentName(base));
+    try (FileChannel channel = FileChannel.open(file,
+        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      // an existing segment keeps the size it was created with
+      long size = channel.size() > 0 ? channel.size() : segmentSize;
+      segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+    segmentBase = base;
+  }
+
+  static String segmentName(long base) {
+    return String.format("%020d%s", base, SEGMENT_SUFFIX);
+  }
+
+  static long baseOf(Path segment) {
+    String name = segment.getFileName().toString();
+    return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+  }
+
+  // 0 when no reader has committed a position yet
+  static long readConsumerPosition(Path directory) throws IOException {
+    Path file = directory.resolve(CONSUMER_POSITION);
+    if (!Files.exists(file)) {
+      return 0;
+    }
+    try {
+      return Long.parseLong(Files.readString(file, StandardCharsets.US_ASCII).trim());
+    } catch (NumberFormatException e) {
+      LOGGER.warnf("Ignoring unreadable legacy store journal consumer position in %s", file);
+      return 0;
+    }
+  }
+
+  static List<Path> segments(Path directory) throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+          .sorted()
+          .collect(Collectors.toList());
+    }
+  }
+
+  static int checksum(byte[] bytes, int offset, int length) {
+    CRC32 crc = new CRC32();
+    crc.update(bytes, offset, length);
+    return (int) crc.getValue();
+  }
+
+  static int checksum(ByteBuffer buffer, int offset, int length) {
+    CRC32 crc = new CRC32();
+    crc.update(buffer.slice(offset, length));
+    return (int) crc.getValue();
+  }
+}
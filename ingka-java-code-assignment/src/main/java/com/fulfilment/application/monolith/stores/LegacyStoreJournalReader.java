@@ -0,0 +1,145 @@
+package com.fulfilment.application.monolith.stores;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Tails a {@link LegacyStoreJournal} from a given position, for the legacy side to consume.
+ *
+ * <p>{@link #poll()} returns the next complete record, or {@code null} once it has caught up with
+ * the writer; call it again later to pick up new records. {@link #position()} is the position to
+ * resume from after a restart; {@link #commit()} records it in the journal directory, where
+ * {@link #committed(Path)} finds it again and the journal deletes the segments before it. A reader whose
+ * position was deleted anyway, because the journal kept no more than its maximum number of segments,
+ * continues at the oldest remaining record.
+ *
+ * <p>Run {@code main} with the journal directory (and optionally a start position, by default the
+ * committed one) to print the records as they are written, committing whenever it has caught up.
+ */
+public class LegacyStoreJournalReader {
+
+  private final Path directory;
+
+  private MappedByteBuffer segment;
+  private long segmentBase;
+  private long position;
+
+  public LegacyStoreJournalReader(Path directory, long position) {
+    this.directory = directory;
+    this.position = position;
+  }
+
+  public long position() {
+    return position;
+  }
+
+  /**
+   * Records the current position as consumed, so the journal may delete the segments before it.
+   */
+  public void commit() throws IOException {
+    Path file = directory.resolve(LegacyStoreJournal.CONSUMER_POSITION);
+    Path written = directory.resolve(LegacyStoreJournal.CONSUMER_POSITION + ".tmp");
+    Files.writeString(written, Long.toString(position), StandardCharsets.US_ASCII);
+    Files.move(written, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * The position a reader of the journal in {@code directory} last committed, or 0.
+   */
+  public static long committed(Path directory) throws IOException {
+    return LegacyStoreJournal.readConsumerPosition(directory);
+  }
+
+  public String poll() throws IOException {
+    while (true) {
+      if (segment == null && !openSegment()) {
+        return null;
+      }
+      int offset = (int) (position - segmentBase);
+      if (offset + LegacyStoreJournal.HEADER_BYTES > segment.capacity()) {
+        nextSegment();
+        continue;
+      }
+      int length = segment.getInt(offset);
+      if (length == 0) {
+        return null;
+      }
+      if (length == LegacyStoreJournal.END_OF_SEGMENT) {
+        nextSegment();
+        continue;
+      }
+      int start = offset + LegacyStoreJournal.HEADER_BYTES;
+      if (length < 0 || start + length > segment.capacity()
+          || segment.getInt(offset + 4) != LegacyStoreJournal.checksum(segment, start, length)) {
+        // not completely written yet
+        return null;
+      }
+      byte[] payload = new byte[length];
+      segment.get(start, payload);
+      position += LegacyStoreJournal.HEADER_BYTES + length;
+      return new String(payload, StandardCharsets.UTF_8);
+    }
+  }
+
+  private void nextSegment() {
+    position = segmentBase + segment.capacity();
+    segment = null;
+  }
+
+  // maps the segment holding the current position, if it has been created yet
+  private boolean openSegment() throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return false;
+    }
+    List<Path> segments = LegacyStoreJournal.segments(directory);
+    if (!segments.isEmpty() && position < LegacyStoreJournal.baseOf(segments.get(0))) {
+      // the records up to the oldest segment were deleted before they were read
+      position = LegacyStoreJournal.baseOf(segments.get(0));
+    }
+    for (int i = segments.size() - 1; i >= 0; i--) {
+      long base = LegacyStoreJournal.baseOf(segments.get(i));
+      if (base > position) {
+        continue;
+      }
+      try (FileChannel channel = FileChannel.open(segments.get(i), StandardOpenOption.READ)) {
+        if (position >= base + channel.size()) {
+          return false;
+        }
+        segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      }
+      segmentBase = base;
+      return true;
+    }
+    return false;
+  }
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    if (args.length < 1) {
+      System.err.println("Usage: LegacyStoreJournalReader <journal-dir> [start-position]");
+      System.exit(2);
+    }
+    Path directory = Path.of(args[0]);
+    LegacyStoreJournalReader reader =
+        new LegacyStoreJournalReader(directory, args.length > 1 ? Long.parseLong(args[1]) : committed(directory));
+    long committed = reader.position();
+    while (true) {
+      String record = reader.poll();
+      if (record == null) {
+        if (reader.position() != committed) {
+          reader.commit();
+          committed = reader.position();
+        }
+        Thread.sleep(100);
+        continue;
+      }
+      System.out.println(reader.position() + "\t" + record);
+    }
+  }
+}
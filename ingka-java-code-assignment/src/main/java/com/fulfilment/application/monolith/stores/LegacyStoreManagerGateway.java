@@ -3,6 +3,8 @@ package com.fulfilment.application.monolith.stores;
 import jakarta.enterprise.context.ApplicationScoped;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
 @ApplicationScoped
@@ -10,26 +12,74 @@ public class LegacyStoreManagerGateway {
 
   private static final Logger LOGGER = Logger.getLogger(LegacyStoreManagerGateway.class);
 
+  private final LegacyStoreJournal journal;
+  private final boolean journalEnabled;
+
+  public LegacyStoreManagerGateway(LegacyStoreJournal journal,
+      @ConfigProperty(name = "legacy-store.journal.enabled", defaultValue = "true") boolean journalEnabled) {
+    this.journal = journal;
+    this.journalEnabled = journalEnabled;
+  }
+
   public void createStoreOnLegacySystem(Store store) {
-    LOGGER.infof("Creating store '%s' on legacy system", store.name);
-    writeToFile(store);
+    create(store);
+    endBatch();
   }
 
   public void updateStoreOnLegacySystem(Store store) {
+    update(store);
+    endBatch();
+  }
+
+  /**
+   * Applies a batch of store changes, in order.
+   */
+  public void syncStoresOnLegacySystem(List<StoreLegacyUpdateEvent> events) {
+    for (StoreLegacyUpdateEvent event : events) {
+      if (event.isCreation()) {
+        create(event.getStore());
+      } else {
+        update(event.getStore());
+      }
+    }
+    endBatch();
+  }
+
+  private void create(Store store) {
+    LOGGER.infof("Creating store '%s' on legacy system", store.name);
+    write(store);
+  }
+
+  private void update(Store store) {
     LOGGER.infof("Updating store '%s' on legacy system", store.name);
-    writeToFile(store);
+    write(store);
+  }
+
+  private void write(Store store) {
+    String content = "Store created. [ name ="
+        + store.name
+        + " ] [ items on stock ="
+        + store.quantityProductsInStock
+        + "]";
+    if (journalEnabled) {
+      long position = journal.append(content);
+      LOGGER.debugf("Data appended to legacy store journal at %d: %s", position, content);
+    } else {
+      writeToFile(store, content);
+    }
+  }
+
+  private void endBatch() {
+    if (journalEnabled) {
+      journal.endBatch();
+    }
   }
 
-  private void writeToFile(Store store) {
+  private void writeToFile(Store store, String content) {
     try {
       Path tempFile = Files.createTempFile(store.name, ".txt");
       LOGGER.debugf("Temporary file created at: %s", tempFile);
 
-      String content = "Store created. [ name ="
-          + store.name
-          + " ] [ items on stock ="
-          + store.quantityProductsInStock
-          + "]";
       Files.write(tempFile, content.getBytes());
       LOGGER.debugf("Data written to temporary file: %s", content);
 
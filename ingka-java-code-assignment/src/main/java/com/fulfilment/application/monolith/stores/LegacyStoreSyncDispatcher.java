@@ -0,0 +1,497 @@
+package com.fulfilment.application.monolith.stores;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Hands committed store changes to the legacy system off the request thread.
+ *
+ * <p>Changes are partitioned by store id over a fixed set of worker threads, so the changes of one
+ * store are always applied in order. While a change waits, a newer change to the same store replaces
+ * it (a pending creation stays a creation), and each worker sends whatever is pending in batches of
+ * {@code legacy-store.sync.batch-size}.
+ *
+ * <p>Each partition holds at most its share of {@code legacy-store.sync.queue-capacity} stores. When it
+ * is full, {@code legacy-store.sync.overflow} decides: {@code BLOCK} waits for room, {@code DROP_OLDEST}
+ * discards the longest-waiting change, and {@code SPILL} appends changes to a file in
+ * {@code legacy-store.sync.spill-dir}, which then has to be set, until the worker has caught up with it.
+ * A spilled change is handed to a spill thread per partition, so neither the caller nor the partition
+ * lock waits for the file; a change is on disk once that thread has written it, and files that fail to
+ * be written or read are retried, never discarded. Spill files left by a previous run are replayed at
+ * startup.
+ */
+@ApplicationScoped
+public class LegacyStoreSyncDispatcher {
+
+  private static final Logger LOGGER = Logger.getLogger(LegacyStoreSyncDispatcher.class);
+
+  public enum OverflowPolicy {
+    BLOCK,
+    DROP_OLDEST,
+    SPILL
+  }
+
+  private final LegacyStoreManagerGateway legacyStoreManagerGateway;
+  private final int batchSize;
+  private final OverflowPolicy overflowPolicy;
+  private final Partition[] partitions;
+
+  private final AtomicLong dispatched = new AtomicLong();
+  private final AtomicLong coalesced = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLong spilled = new AtomicLong();
+
+  private volatile boolean running;
+
+  public LegacyStoreSyncDispatcher(LegacyStoreManagerGateway legacyStoreManagerGateway,
+      @ConfigProperty(name = "legacy-store.sync.workers", defaultValue = "2") int workers,
+      @ConfigProperty(name = "legacy-store.sync.queue-capacity", defaultValue = "1000") int queueCapacity,
+      @ConfigProperty(name = "legacy-store.sync.batch-size", defaultValue = "100") int batchSize,
+      @ConfigProperty(name = "legacy-store.sync.overflow", defaultValue = "BLOCK") OverflowPolicy overflowPolicy,
+      @ConfigProperty(name = "legacy-store.sync.spill-dir") Optional<Path> spillDir) {
+    this.legacyStoreManagerGateway = legacyStoreManagerGateway;
+    this.batchSize = batchSize;
+    this.overflowPolicy = overflowPolicy;
+    // a shared default would have instances on one host replay each other's files
+    if (overflowPolicy == OverflowPolicy.SPILL && spillDir.isEmpty()) {
+      throw new IllegalStateException(
+          "legacy-store.sync.spill-dir must be set when legacy-store.sync.overflow is SPILL");
+    }
+    this.partitions = new Partition[workers];
+    for (int i = 0; i < workers; i++) {
+      int index = i;
+      partitions[i] = new Partition(i, Math.max(1, queueCapacity / workers),
+          spillDir.map(dir -> dir.resolve("legacy-store-sync-" + index + ".spill")).orElse(null));
+    }
+  }
+
+  @PostConstruct
+  void start() {
+    running = true;
+    for (Partition partition : partitions) {
+      partition.worker.start();
+    }
+  }
+
+  /**
+   * Stops the workers once they have sent what is pending, and the spill threads once they have
+   * written what was handed to them; what the workers did not get to stays on disk.
+   */
+  @PreDestroy
+  void stop() {
+    running = false;
+    for (Partition partition : partitions) {
+      partition.wakeUp();
+    }
+    for (Partition partition : partitions) {
+      try {
+        partition.worker.join(TimeUnit.SECONDS.toMillis(10));
+        partition.awaitSpilled(TimeUnit.SECONDS.toMillis(10));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  public void submit(StoreLegacyUpdateEvent event) {
+    Store store = event.getStore();
+    partitionOf(store.id).offer(store.id, new StoreLegacyUpdateEvent(snapshot(store), event.isCreation()));
+  }
+
+  /** Number of stores whose latest change is waiting in memory. */
+  public int queueDepth() {
+    int depth = 0;
+    for (Partition partition : partitions) {
+      depth += partition.size();
+    }
+    return depth;
+  }
+
+  public long dispatchedCount() {
+    return dispatched.get();
+  }
+
+  /** Changes that replaced a pending change to the same store instead of being sent on their own. */
+  public long coalescedCount() {
+    return coalesced.get();
+  }
+
+  public long droppedCount() {
+    return dropped.get();
+  }
+
+  public long spilledCount() {
+    return spilled.get();
+  }
+
+  private Partition partitionOf(Long storeId) {
+    return partitions[Math.floorMod(Long.hashCode(storeId), partitions.length)];
+  }
+
+  // the entity may be changed again by a later request before it is sent
+  private static Store snapshot(Store store) {
+    Store copy = new Store(store.name);
+    copy.id = store.id;
+    copy.quantityProductsInStock = store.quantityProductsInStock;
+    return copy;
+  }
+
+  private static StoreLegacyUpdateEvent merge(StoreLegacyUpdateEvent pending, StoreLegacyUpdateEvent next) {
+    return new StoreLegacyUpdateEvent(next.getStore(), pending.isCreation() || next.isCreation());
+  }
+
+  private final class Partition implements Runnable {
+
+    private final int index;
+    private final int capacity;
+    private final Path spillFile;
+    private final Thread worker;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Condition spillReady = lock.newCondition();
+    private final LinkedHashMap<Long, StoreLegacyUpdateEvent> pending = new LinkedHashMap<>();
+
+    // once anything is spilled, later changes follow it to the file so they are never applied out of order
+    private boolean spilling;
+    // spilled changes not in the file yet, and how many of them the spill thread is writing
+    private final ArrayDeque<StoreLegacyUpdateEvent> unwritten = new ArrayDeque<>();
+    private int writing;
+    // started on the first spill, and again after it finished idle while the dispatcher was stopped
+    private Thread spillWriter;
+    // the file is read up to spillReadOffset, and holds complete lines up to spillLength
+    private long spillReadOffset;
+    private long spillLength;
+
+    Partition(int index, int capacity, Path spillFile) {
+      this.index = index;
+      this.capacity = capacity;
+      this.spillFile = spillFile;
+      if (spillFile != null && Files.exists(spillFile)) {
+        spilling = true;
+        try {
+          spillLength = Files.size(spillFile);
+        } catch (IOException e) {
+          throw new UncheckedIOException("Failed to open spill file " + spillFile, e);
+        }
+      }
+      this.worker = new Thread(this, "legacy-store-sync-" + index);
+      this.worker.setDaemon(true);
+    }
+
+    void offer(Long storeId, StoreLegacyUpdateEvent event) {
+      lock.lock();
+      try {
+        if (spilling) {
+          handOff(event);
+          return;
+        }
+        StoreLegacyUpdateEvent previous = pending.get(storeId);
+        if (previous != null) {
+          pending.put(storeId, merge(previous, event));
+          coalesced.incrementAndGet();
+          return;
+        }
+        while (pending.size() >= capacity) {
+          if (overflowPolicy == OverflowPolicy.DROP_OLDEST) {
+            Iterator<Map.Entry<Long, StoreLegacyUpdateEvent>> oldest = pending.entrySet().iterator();
+            LOGGER.warnf("Legacy store sync queue full, dropping pending change to store '%s'",
+                oldest.next().getValue().getStore().name);
+            oldest.remove();
+            dropped.incrementAndGet();
+          } else if (overflowPolicy == OverflowPolicy.SPILL) {
+            spilling = true;
+            handOff(event);
+            return;
+          } else {
+            notFull.awaitUninterruptibly();
+          }
+        }
+        pending.put(storeId, event);
+        notEmpty.signal();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    int size() {
+      lock.lock();
+      try {
+        return pending.size();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void wakeUp() {
+      lock.lock();
+      try {
+        notEmpty.signalAll();
+        spillReady.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void awaitSpilled(long millis) throws InterruptedException {
+      Thread writer;
+      lock.lock();
+      try {
+        writer = spillWriter;
+      } finally {
+        lock.unlock();
+      }
+      if (writer != null) {
+        writer.join(millis);
+      }
+    }
+
+    @Override
+    public void run() {
+      while (true) {
+        List<StoreLegacyUpdateEvent> batch = nextBatch();
+        if (batch.isEmpty()) {
+          return;
+        }
+        try {
+          legacyStoreManagerGateway.syncStoresOnLegacySystem(batch);
+          dispatched.addAndGet(batch.size());
+        } catch (RuntimeException e) {
+          LOGGER.errorf(e, "Failed to send %d store changes to the legacy system", batch.size());
+        }
+      }
+    }
+
+    // empty only when the dispatcher is stopping and nothing is left in memory or in the spill file
+    private List<StoreLegacyUpdateEvent> nextBatch() {
+      lock.lock();
+      try {
+        while (pending.isEmpty()) {
+          if (spilling) {
+            if (!refill()) {
+              return List.of();
+            }
+            continue;
+          }
+          if (!running) {
+            return List.of();
+          }
+          notEmpty.awaitUninterruptibly();
+        }
+        List<StoreLegacyUpdateEvent> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+        Iterator<StoreLegacyUpdateEvent> events = pending.values().iterator();
+        while (events.hasNext() && batch.size() < batchSize) {
+          batch.add(events.next());
+          events.remove();
+        }
+        notFull.signalAll();
+        return batch;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /**
+     * Moves up to one partition's worth of spilled changes back into memory, reading the file without
+     * the lock; waits for the spill thread when it has not written them yet, and ends spilling once
+     * everything handed to it has been read. Called with the lock held.
+     *
+     * @return {@code false} when interrupted, or when the file cannot be read while stopping
+     */
+    private boolean refill() {
+      if (spillReadOffset < spillLength) {
+        long from = spillReadOffset;
+        long to = spillLength;
+        SpillRead read;
+        lock.unlock();
+        try {
+          read = readSpill(from, to, capacity);
+        } finally {
+          lock.lock();
+        }
+        if (read == null) {
+          // keep the file and try again, or leave it to the next start
+          if (!running) {
+            return false;
+          }
+          try {
+            notEmpty.await(1, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+          }
+          return true;
+        }
+        spillReadOffset = read.offset;
+        for (StoreLegacyUpdateEvent event : read.events) {
+          pending.merge(event.getStore().id, event, LegacyStoreSyncDispatcher::merge);
+        }
+        return true;
+      }
+      if (!unwritten.isEmpty() || writing > 0) {
+        notEmpty.awaitUninterruptibly();
+        return true;
+      }
+      // the spill thread is idle and nothing can be handed to it while the lock is held
+      try {
+        Files.deleteIfExists(spillFile);
+      } catch (IOException e) {
+        LOGGER.errorf(e, "Failed to delete spill file %s", spillFile);
+      }
+      spilling = false;
+      spillReadOffset = 0;
+      spillLength = 0;
+      return true;
+    }
+
+    // reads the complete lines between from and to, at most max changes; null when the file cannot be read
+    private SpillRead readSpill(long from, long to, int max) {
+      List<StoreLegacyUpdateEvent> events = new ArrayList<>();
+      try (RandomAccessFile file = new RandomAccessFile(spillFile.toFile(), "r")) {
+        file.seek(from);
+        String line;
+        while (events.size() < max && file.getFilePointer() < to && (line = file.readLine()) != null) {
+          StoreLegacyUpdateEvent event = parse(line);
+          if (event != null) {
+            events.add(event);
+          }
+        }
+        return new SpillRead(events, file.getFilePointer());
+      } catch (IOException e) {
+        LOGGER.errorf(e, "Failed to read spilled store changes from %s, will retry", spillFile);
+        return null;
+      }
+    }
+
+    // called with the lock held
+    private void handOff(StoreLegacyUpdateEvent event) {
+      unwritten.add(event);
+      spilled.incrementAndGet();
+      if (spillWriter == null) {
+        spillWriter = new Thread(this::writeSpills, "legacy-store-spill-" + index);
+        spillWriter.setDaemon(true);
+        spillWriter.start();
+      }
+      spillReady.signal();
+    }
+
+    private void writeSpills() {
+      while (true) {
+        List<StoreLegacyUpdateEvent> events;
+        lock.lock();
+        try {
+          while (unwritten.isEmpty()) {
+            if (!running) {
+              spillWriter = null;
+              return;
+            }
+            spillReady.awaitUninterruptibly();
+          }
+          events = new ArrayList<>(unwritten);
+          unwritten.clear();
+          writing = events.size();
+        } finally {
+          lock.unlock();
+        }
+        long length = append(events);
+        lock.lock();
+        try {
+          if (length >= 0) {
+            spillLength = length;
+          }
+          writing = 0;
+          notEmpty.signal();
+        } finally {
+          lock.unlock();
+        }
+      }
+    }
+
+    // appends the changes as lines, retrying until they are written; returns the new file length, or -1
+    // when the dispatcher stopped before they could be
+    private long append(List<StoreLegacyUpdateEvent> events) {
+      StringBuilder lines = new StringBuilder();
+      for (StoreLegacyUpdateEvent event : events) {
+        Store store = event.getStore();
+        lines.append(event.isCreation()).append('\t').append(store.id).append('\t')
+            .append(store.quantityProductsInStock).append('\t')
+            .append(URLEncoder.encode(store.name, StandardCharsets.UTF_8)).append('\n');
+      }
+      while (true) {
+        try {
+          try (Writer writer = Files.newBufferedWriter(spillFile, StandardCharsets.US_ASCII,
+              StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(lines.toString());
+          }
+          return Files.size(spillFile);
+        } catch (IOException e) {
+          if (!running) {
+            LOGGER.errorf(e, "Failed to spill %d store changes to %s while stopping, dropping them",
+                events.size(), spillFile);
+            dropped.addAndGet(events.size());
+            return -1;
+          }
+          LOGGER.errorf(e, "Failed to spill %d store changes to %s, will retry", events.size(), spillFile);
+          try {
+            TimeUnit.SECONDS.sleep(1);
+          } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            dropped.addAndGet(events.size());
+            return -1;
+          }
+        }
+      }
+    }
+  }
+
+  // a line torn by a crash while it was written is skipped
+  private static StoreLegacyUpdateEvent parse(String line) {
+    String[] fields = line.split("\t", 4);
+    try {
+      Store store = new Store(URLDecoder.decode(fields[3], StandardCharsets.UTF_8));
+      store.id = Long.valueOf(fields[1]);
+      store.quantityProductsInStock = Integer.parseInt(fields[2]);
+      return new StoreLegacyUpdateEvent(store, Boolean.parseBoolean(fields[0]));
+    } catch (RuntimeException e) {
+      LOGGER.warnf("Skipping malformed spilled store change: %s", line);
+      return null;
+    }
+  }
+
+  private static final class SpillRead {
+
+    final List<StoreLegacyUpdateEvent> events;
+    final long offset;
+
+    SpillRead(List<StoreLegacyUpdateEvent> events, long offset) {
+      this.events = events;
+      this.offset = offset;
+    }
+  }
+}
@@ -1,9 +1,11 @@
 package com.fulfilment.application.monolith.stores;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.quarkus.hibernate.orm.panache.PanacheEntity;
 import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Version;
 
 @Entity
 @Cacheable
@@ -14,6 +16,11 @@ public class Store extends PanacheEntity {
 
   public int quantityProductsInStock;
 
+  // incremented on every change, also by the stock adjustment statements; the ETag of the store
+  @Version
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  public long version;
+
   public Store() {}
 
   public Store(String name) {
@@ -4,6 +4,7 @@ import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.event.Observes;
 import jakarta.enterprise.event.TransactionPhase;
 import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
 @ApplicationScoped
@@ -12,15 +13,35 @@ public class StoreLegacyUpdateEventListener {
     private static final Logger LOGGER = Logger.getLogger(StoreLegacyUpdateEventListener.class);
 
     @Inject
-    LegacyStoreManagerGateway legacyStoreManagerGateway;
+    LegacyStoreSyncDispatcher legacyStoreSyncDispatcher;
 
-    public void onStoreUpdate(@Observes(during = TransactionPhase.AFTER_SUCCESS) StoreLegacyUpdateEvent event) {
-        LOGGER.infof("Handling legacy store update for store %s (creation=%s)", event.getStore().name,
+    @Inject
+    StoreOutboxRepository storeOutboxRepository;
+
+    @ConfigProperty(name = "legacy-store.outbox.enabled", defaultValue = "true")
+    boolean outboxEnabled;
+
+    /**
+     * Records the change in the outbox as part of the store change's own transaction.
+     */
+    public void onStoreChange(@Observes(during = TransactionPhase.IN_PROGRESS) StoreLegacyUpdateEvent event) {
+        if (!outboxEnabled) {
+            return;
+        }
+        LOGGER.infof("Recording legacy store update for store %s (creation=%s)", event.getStore().name,
                 event.isCreation());
-        if (event.isCreation()) {
-            legacyStoreManagerGateway.createStoreOnLegacySystem(event.getStore());
-        } else {
-            legacyStoreManagerGateway.updateStoreOnLegacySystem(event.getStore());
+        storeOutboxRepository.persist(new StoreOutboxEntry(event.getStore().id, event.isCreation()));
+    }
+
+    /**
+     * Without the outbox, hands the committed change straight to the in-memory dispatcher.
+     */
+    public void onStoreUpdate(@Observes(during = TransactionPhase.AFTER_SUCCESS) StoreLegacyUpdateEvent event) {
+        if (outboxEnabled) {
+            return;
         }
+        LOGGER.infof("Queueing legacy store update for store %s (creation=%s)", event.getStore().name,
+                event.isCreation());
+        legacyStoreSyncDispatcher.submit(event);
     }
 }
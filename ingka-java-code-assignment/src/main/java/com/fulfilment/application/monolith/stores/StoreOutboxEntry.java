@@ -0,0 +1,29 @@
+package com.fulfilment.application.monolith.stores;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * A store change waiting to be sent to the legacy system, written in the same transaction as the
+ * change itself. The relay sends the store's state as it is when the entry is relayed.
+ */
+@Entity
+@Table(name = "store_outbox", indexes = @Index(name = "ix_store_outbox_store", columnList = "storeId, id"))
+public class StoreOutboxEntry {
+
+  @Id @GeneratedValue public Long id;
+
+  public Long storeId;
+
+  public boolean creation;
+
+  public StoreOutboxEntry() {}
+
+  public StoreOutboxEntry(Long storeId, boolean creation) {
+    this.storeId = storeId;
+    this.creation = creation;
+  }
+}
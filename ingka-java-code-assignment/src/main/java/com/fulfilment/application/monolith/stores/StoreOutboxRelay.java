@@ -0,0 +1,126 @@
+package com.fulfilment.application.monolith.stores;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Relays the store outbox to the legacy system.
+ *
+ * <p>Every {@code legacy-store.outbox.poll-interval} it claims the pending entries of up to
+ * {@code legacy-store.outbox.batch-size} stores, sends the current state of each of those stores once
+ * (as a creation if any of its entries was one) in a single batch, and deletes the entries, all in one
+ * transaction. Entries are only removed once the legacy system took them, so delivery is at least once.
+ */
+@ApplicationScoped
+public class StoreOutboxRelay {
+
+  private static final Logger LOGGER = Logger.getLogger(StoreOutboxRelay.class);
+
+  private final StoreOutboxRepository storeOutboxRepository;
+  private final StoreRepository storeRepository;
+  private final LegacyStoreManagerGateway legacyStoreManagerGateway;
+  private final boolean enabled;
+  private final Duration pollInterval;
+  private final int batchSize;
+
+  private ScheduledExecutorService poller;
+
+  public StoreOutboxRelay(StoreOutboxRepository storeOutboxRepository, StoreRepository storeRepository,
+      LegacyStoreManagerGateway legacyStoreManagerGateway,
+      @ConfigProperty(name = "legacy-store.outbox.enabled", defaultValue = "true") boolean enabled,
+      @ConfigProperty(name = "legacy-store.outbox.poll-interval", defaultValue = "1s") Duration pollInterval,
+      @ConfigProperty(name = "legacy-store.outbox.batch-size", defaultValue = "100") int batchSize) {
+    this.storeOutboxRepository = storeOutboxRepository;
+    this.storeRepository = storeRepository;
+    this.legacyStoreManagerGateway = legacyStoreManagerGateway;
+    this.enabled = enabled;
+    this.pollInterval = pollInterval;
+    this.batchSize = batchSize;
+  }
+
+  void onStart(@Observes StartupEvent event) {
+    if (!enabled) {
+      return;
+    }
+    poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "store-outbox-relay");
+      thread.setDaemon(true);
+      return thread;
+    });
+    poller.scheduleWithFixedDelay(this::drain, pollInterval.toMillis(), pollInterval.toMillis(),
+        TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  void stop() {
+    if (poller != null) {
+      poller.shutdownNow();
+    }
+  }
+
+  /**
+   * Relays one batch of stores.
+   *
+   * @return the number of stores claimed
+   */
+  public int relayOnce() {
+    return QuarkusTransaction.requiringNew().call(this::relayBatch);
+  }
+
+  private void drain() {
+    try {
+      while (relayOnce() == batchSize) {
+        // a full batch means there may be more waiting
+      }
+    } catch (RuntimeException e) {
+      LOGGER.error("Failed to relay store changes to the legacy system, will retry", e);
+    }
+  }
+
+  private int relayBatch() {
+    List<Long> storeIds = storeOutboxRepository.claimStores(batchSize);
+    if (storeIds.isEmpty()) {
+      return 0;
+    }
+    List<StoreOutboxEntry> entries = storeOutboxRepository.lockEntries(storeIds);
+
+    // one change per store, in the order the stores were first changed
+    Map<Long, Boolean> creations = new LinkedHashMap<>();
+    for (StoreOutboxEntry entry : entries) {
+      creations.merge(entry.storeId, entry.creation, Boolean::logicalOr);
+    }
+    Map<Long, Store> stores = storeRepository.list("id in ?1", creations.keySet()).stream()
+        .collect(Collectors.toMap(store -> store.id, Function.identity()));
+
+    List<StoreLegacyUpdateEvent> events = new ArrayList<>(creations.size());
+    creations.forEach((storeId, creation) -> {
+      Store store = stores.get(storeId);
+      if (store != null) {
+        events.add(new StoreLegacyUpdateEvent(store, creation));
+      }
+    });
+    if (!events.isEmpty()) {
+      legacyStoreManagerGateway.syncStoresOnLegacySystem(events);
+    }
+
+    storeOutboxRepository.delete("id in ?1",
+        entries.stream().map(entry -> entry.id).collect(Collectors.toList()));
+    LOGGER.debugf("Relayed %d outbox entries as %d store changes", entries.size(), events.size());
+    return storeIds.size();
+  }
+}
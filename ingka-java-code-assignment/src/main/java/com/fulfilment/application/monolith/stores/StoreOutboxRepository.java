@@ -0,0 +1,40 @@
+package com.fulfilment.application.monolith.stores;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@ApplicationScoped
+public class StoreOutboxRepository implements PanacheRepository<StoreOutboxEntry> {
+
+  // only a store's oldest entry can be claimed, so a store is never relayed by two nodes at once
+  private static final String CLAIM_QUERY = "select o.storeId from store_outbox o"
+      + " where not exists (select 1 from store_outbox older where older.storeId = o.storeId and older.id < o.id)"
+      + " order by o.id limit :limit for update skip locked";
+
+  /**
+   * Locks the oldest entry of up to {@code limit} stores not being relayed elsewhere.
+   *
+   * @return the ids of those stores, oldest entry first
+   */
+  public List<Long> claimStores(int limit) {
+    List<?> storeIds = getEntityManager().createNativeQuery(CLAIM_QUERY)
+        .setParameter("limit", limit)
+        .getResultList();
+    return storeIds.stream().map(id -> ((Number) id).longValue()).collect(Collectors.toList());
+  }
+
+  /**
+   * Locks every entry of the given stores, including those added since they were claimed.
+   */
+  public List<StoreOutboxEntry> lockEntries(Collection<Long> storeIds) {
+    return getEntityManager()
+        .createQuery("from StoreOutboxEntry e where e.storeId in :storeIds order by e.id", StoreOutboxEntry.class)
+        .setParameter("storeIds", storeIds)
+        .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+        .getResultList();
+  }
+}
@@ -1,8 +1,42 @@
 package com.fulfilment.application.monolith.stores;
 
+import com.fulfilment.application.monolith.cache.EntityVersions;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
 
 @ApplicationScoped
 public class StoreRepository implements PanacheRepository<Store> {
+
+  /**
+   * Adds {@code delta} to the store's stock in a single statement, unless that would make it negative.
+   *
+   * @return the number of rows updated
+   */
+  public int adjustStock(Long id, int delta) {
+    return update("quantityProductsInStock = quantityProductsInStock + ?1, version = version + 1"
+        + " where id = ?2 and quantityProductsInStock + ?1 >= 0", delta, id);
+  }
+
+  /**
+   * Returns the version of the store, taken from the second-level cache when it holds the store and
+   * otherwise read without loading it, or {@code null} when there is no store with that id.
+   */
+  public Long findVersion(Long id) {
+    if (getEntityManager().getEntityManagerFactory().getCache().contains(Store.class, id)) {
+      Store cached = findById(id);
+      return cached != null ? cached.version : null;
+    }
+    return getEntityManager().createQuery("select e.version from Store e where e.id = ?1", Long.class)
+        .setParameter(1, id)
+        .getResultStream()
+        .findFirst()
+        .orElse(null);
+  }
+
+  /**
+   * Returns the version of all stores together; see {@link EntityVersions}.
+   */
+  public String listVersion() {
+    return EntityVersions.ofTable(getEntityManager(), "Store");
+  }
 }
@@ -1,5 +1,11 @@
 package com.fulfilment.application.monolith.stores;
 
+import com.fulfilment.application.monolith.cache.ConditionalGet;
+import com.fulfilment.application.monolith.cache.EntityCacheInvalidator;
+import com.fulfilment.application.monolith.database.DatabaseBound;
+import com.fulfilment.application.monolith.fulfillment.domain.ports.FulfillmentIndex;
+import com.fulfilment.application.monolith.stock.StockAdjuster;
+import com.fulfilment.application.monolith.stock.StockAdjustment;
 import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -21,6 +27,7 @@ import org.jboss.logging.Logger;
 @ApplicationScoped
 @Produces("application/json")
 @Consumes("application/json")
+@DatabaseBound
 public class StoreResource {
 
   @Inject
@@ -29,15 +36,26 @@ public class StoreResource {
   @Inject
   StoreRepository storeRepository;
 
+  @Inject
+  StoreStock storeStock;
+
+  @Inject
+  EntityCacheInvalidator entityCaches;
+
+  @Inject
+  FulfillmentIndex fulfillmentIndex;
+
   private static final Logger LOGGER = Logger.getLogger(StoreResource.class.getName());
 
   @GET
+  @ConditionalGet(StoreVersions.class)
   public List<Store> get() {
     return storeRepository.listAll(Sort.by("name"));
   }
 
   @GET
   @Path("{id}")
+  @ConditionalGet(value = StoreVersions.class, versionedEntity = true)
   public Store getSingle(Long id) {
     Store entity = storeRepository.findById(id);
     if (entity == null) {
@@ -74,9 +92,12 @@ public class StoreResource {
       throw new WebApplicationException("Store with id of " + id + " does not exist.", 404);
     }
 
+    String previousName = entity.name;
     entity.name = updatedStore.name;
     entity.quantityProductsInStock = updatedStore.quantityProductsInStock;
 
+    fulfillmentIndex.renameStore(previousName, entity.name);
+    entityCaches.invalidate(Store.class, id);
     legacyStoreUpdateEvent.fire(new StoreLegacyUpdateEvent(entity, false));
 
     return entity;
@@ -96,6 +117,7 @@ public class StoreResource {
       throw new WebApplicationException("Store with id of " + id + " does not exist.", 404);
     }
 
+    String previousName = entity.name;
     if (entity.name != null) {
       entity.name = updatedStore.name;
     }
@@ -104,11 +126,38 @@ public class StoreResource {
       entity.quantityProductsInStock = updatedStore.quantityProductsInStock;
     }
 
+    fulfillmentIndex.renameStore(previousName, entity.name);
+    entityCaches.invalidate(Store.class, id);
     legacyStoreUpdateEvent.fire(new StoreLegacyUpdateEvent(entity, false));
 
     return entity;
   }
 
+  /**
+   * Adds a signed delta to the stock in one conditional statement; 202 when the restock is only
+   * accumulated and written shortly after, and 404 for an unknown id either way.
+   */
+  @POST
+  @Path("{id}/stock-adjustments")
+  @Transactional
+  public Response adjustStock(Long id, StockAdjustment adjustment) {
+    if (adjustment == null || adjustment.delta == 0) {
+      throw new WebApplicationException("Stock adjustment delta was not set on request.", 422);
+    }
+
+    StockAdjuster.Result result = storeStock.adjust(id, adjustment.delta);
+    if (result == StockAdjuster.Result.ACCUMULATED) {
+      return Response.accepted().build();
+    }
+    if (result == StockAdjuster.Result.REJECTED) {
+      if (storeRepository.findById(id) == null) {
+        throw new WebApplicationException("Store with id of " + id + " does not exist.", 404);
+      }
+      throw new WebApplicationException("Store with id of " + id + " does not have enough stock.", 409);
+    }
+    return Response.noContent().build();
+  }
+
   @DELETE
   @Path("{id}")
   @Transactional
@@ -118,6 +167,8 @@ public class StoreResource {
       throw new WebApplicationException("Store with id of " + id + " does not exist.", 404);
     }
     storeRepository.delete(entity);
+    fulfillmentIndex.removeStore(entity.name);
+    entityCaches.invalidate(Store.class, id);
     return Response.status(204).build();
   }
 
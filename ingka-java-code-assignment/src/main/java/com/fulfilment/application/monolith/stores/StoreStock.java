@@ -0,0 +1,44 @@
+package com.fulfilment.application.monolith.stores;
+
+import com.fulfilment.application.monolith.cache.EntityCacheInvalidator;
+import com.fulfilment.application.monolith.stock.StockAdjuster;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import java.time.Duration;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+@ApplicationScoped
+public class StoreStock extends StockAdjuster {
+
+  private final StoreRepository storeRepository;
+  private final Event<StoreLegacyUpdateEvent> legacyStoreUpdateEvent;
+  private final EntityCacheInvalidator entityCaches;
+
+  public StoreStock(StoreRepository storeRepository, Event<StoreLegacyUpdateEvent> legacyStoreUpdateEvent,
+      EntityCacheInvalidator entityCaches,
+      @ConfigProperty(name = "stock.accumulator.enabled", defaultValue = "false") boolean accumulate,
+      @ConfigProperty(name = "stock.accumulator.flush-interval", defaultValue = "100ms") Duration flushInterval) {
+    super("store", accumulate, flushInterval);
+    this.storeRepository = storeRepository;
+    this.legacyStoreUpdateEvent = legacyStoreUpdateEvent;
+    this.entityCaches = entityCaches;
+  }
+
+  // the version probe is answered from the second-level cache when the store is in it
+  @Override
+  protected boolean exists(Long id) {
+    return storeRepository.findVersion(id) != null;
+  }
+
+  @Override
+  protected int applyDelta(Long id, int delta) {
+    return storeRepository.adjustStock(id, delta);
+  }
+
+  // the legacy system keeps the stock of every store
+  @Override
+  protected void applied(Long id) {
+    entityCaches.invalidate(Store.class, id);
+    legacyStoreUpdateEvent.fire(new StoreLegacyUpdateEvent(storeRepository.findById(id), false));
+  }
+}
@@ -0,0 +1,43 @@
+package com.fulfilment.application.monolith.stores;
+
+import com.fulfilment.application.monolith.cache.VersionProbe;
+import com.fulfilment.application.monolith.database.DatabaseBound;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.ws.rs.core.UriInfo;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Versions of a store ({@code GET /stores/{id}}) and of all stores ({@code GET /stores}), for the ETags of
+ * {@link StoreResource}; they are read on the worker thread the endpoint runs on.
+ */
+@ApplicationScoped
+@DatabaseBound
+public class StoreVersions implements VersionProbe {
+
+  private final StoreRepository storeRepository;
+
+  public StoreVersions(StoreRepository storeRepository) {
+    this.storeRepository = storeRepository;
+  }
+
+  @Override
+  public CompletionStage<String> version(UriInfo uri) {
+    String id = uri.getPathParameters().getFirst("id");
+    if (id == null) {
+      return CompletableFuture.completedFuture(storeRepository.listVersion());
+    }
+    Long version;
+    try {
+      version = storeRepository.findVersion(Long.valueOf(id));
+    } catch (NumberFormatException e) {
+      version = null;
+    }
+    return CompletableFuture.completedFuture(version != null ? version.toString() : null);
+  }
+
+  @Override
+  public String versionOf(Object entity) {
+    return entity instanceof Store ? Long.toString(((Store) entity).version) : null;
+  }
+}
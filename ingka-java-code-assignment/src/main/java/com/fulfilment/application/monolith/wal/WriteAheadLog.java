@@ -0,0 +1,305 @@
+package com.fulfilment.application.monolith.wal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+import org.jboss.logging.Logger;
+
+/**
+ * Append-only log of the changes made to an in-memory store, so that the store can be rebuilt after a
+ * restart: {@link #recover} replays the last snapshot and then every record appended since.
+ *
+ * <p>Each record is a 4-byte payload length, the payload's CRC32 and the UTF-8 payload, as in the legacy
+ * store journal. Replay stops at the first torn or corrupt record, which is cut off so that new records
+ * are not appended behind it. Records must describe the new state of an entry rather than a delta: a
+ * crash between writing a snapshot and emptying the log replays the log on top of the snapshot.
+ *
+ * <p>{@code fsync} decides when records are forced to disk: after every record ({@code ALWAYS}), after
+ * every {@link #update} ({@code BATCH}) or only when the OS writes them back ({@code NEVER}). {@link #compact}
+ * writes the whole state to a new snapshot and empties the log; stores call {@link #compactIfNeeded}
+ * after their changes and {@code compact} on shutdown.
+ */
+public final class WriteAheadLog implements AutoCloseable {
+
+  private static final Logger LOGGER = Logger.getLogger(WriteAheadLog.class);
+
+  public enum FsyncPolicy {
+    ALWAYS,
+    BATCH,
+    NEVER
+  }
+
+  static final int HEADER_BYTES = 8;
+  static final String LOG_SUFFIX = ".wal";
+  static final String SNAPSHOT_SUFFIX = ".snapshot";
+
+  private static final WriteAheadLog DISABLED = new WriteAheadLog(null, null, FsyncPolicy.NEVER, Long.MAX_VALUE);
+  private static final Consumer<String> DISCARD = record -> {
+  };
+
+  private final Path directory;
+  private final String name;
+  private final FsyncPolicy fsyncPolicy;
+  private final long compactAfterBytes;
+
+  // changes hold the read lock while they apply and log themselves, compaction the write lock
+  private final ReadWriteLock compaction = new ReentrantReadWriteLock();
+
+  private FileChannel channel;
+  private volatile long size;
+  private boolean unforced;
+
+  private WriteAheadLog(Path directory, String name, FsyncPolicy fsyncPolicy, long compactAfterBytes) {
+    this.directory = directory;
+    this.name = name;
+    this.fsyncPolicy = fsyncPolicy;
+    this.compactAfterBytes = compactAfterBytes;
+  }
+
+  /**
+   * Returns a log that keeps nothing, for stores that only live as long as the process.
+   */
+  public static WriteAheadLog disabled() {
+    return DISABLED;
+  }
+
+  /**
+   * Returns the log {@code name} in {@code directory}; nothing is read or written before {@link #recover}.
+   */
+  public static WriteAheadLog in(Path directory, String name, FsyncPolicy fsyncPolicy, long compactAfterBytes) {
+    return new WriteAheadLog(directory, name, fsyncPolicy, compactAfterBytes);
+  }
+
+  public boolean isEnabled() {
+    return directory != null;
+  }
+
+  /**
+   * Hands every record of the snapshot and then of the log to {@code replay}, in order, and opens the log
+   * for appending.
+   */
+  public synchronized void recover(Consumer<String> replay) {
+    if (!isEnabled()) {
+      return;
+    }
+    try {
+      Files.createDirectories(directory);
+      long[] replayed = {0};
+      Consumer<String> counting = record -> {
+        replay.accept(record);
+        replayed[0]++;
+      };
+      Path snapshot = snapshotFile();
+      if (Files.exists(snapshot)) {
+        read(snapshot, counting);
+      }
+      Path log = logFile();
+      long valid = Files.exists(log) ? read(log, counting) : 0;
+
+      channel = FileChannel.open(log, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+      if (channel.size() > valid) {
+        LOGGER.warnf("Discarding %d bytes of torn records at the end of %s", channel.size() - valid, log);
+        channel.truncate(valid);
+        channel.force(true);
+      }
+      channel.position(valid);
+      size = valid;
+      LOGGER.infof("Recovered %d records from %s", replayed[0], log);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to recover write-ahead log " + name + " in " + directory, e);
+    }
+  }
+
+  /**
+   * Runs a change to the store, which logs its records through the consumer it is given, atomically with
+   * respect to {@link #compact}; a record that cannot be written fails the change.
+   */
+  public <T> T update(Function<Consumer<String>, T> change) {
+    if (!isEnabled()) {
+      return change.apply(DISCARD);
+    }
+    compaction.readLock().lock();
+    try {
+      T result = change.apply(this::append);
+      if (fsyncPolicy == FsyncPolicy.BATCH) {
+        force();
+      }
+      return result;
+    } finally {
+      compaction.readLock().unlock();
+    }
+  }
+
+  /**
+   * {@link #compact Compacts} the log once it has grown past {@code compactAfterBytes}.
+   */
+  public void compactIfNeeded(Consumer<Consumer<String>> state) {
+    if (isEnabled() && size >= compactAfterBytes) {
+      compaction.writeLock().lock();
+      try {
+        if (size >= compactAfterBytes) {
+          compact(state);
+        }
+      } finally {
+        compaction.writeLock().unlock();
+      }
+    }
+  }
+
+  /**
+   * Replaces the snapshot with the records {@code state} hands over, which must describe the whole store,
+   * and empties the log.
+   */
+  public void compact(Consumer<Consumer<String>> state) {
+    if (!isEnabled()) {
+      return;
+    }
+    compaction.writeLock().lock();
+    try {
+      Path snapshot = snapshotFile();
+      Path next = directory.resolve(name + SNAPSHOT_SUFFIX + ".tmp");
+      long[] written = {0};
+      try (FileOutputStream file = new FileOutputStream(next.toFile());
+          DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+        state.accept(record -> {
+          try {
+            write(out, record);
+            written[0]++;
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+        out.flush();
+        file.getFD().sync();
+      }
+      Files.move(next, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      synchronized (this) {
+        channel.truncate(0);
+        channel.force(true);
+        size = 0;
+        unforced = false;
+      }
+      LOGGER.debugf("Compacted %s into a snapshot of %d records", logFile(), written[0]);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to compact write-ahead log " + name + " in " + directory, e);
+    } finally {
+      compaction.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    if (channel == null) {
+      return;
+    }
+    try {
+      channel.force(true);
+      channel.close();
+    } catch (IOException e) {
+      LOGGER.warnf(e, "Failed to close write-ahead log %s", logFile());
+    }
+    channel = null;
+  }
+
+  private synchronized void append(String record) {
+    if (channel == null) {
+      throw new IllegalStateException("Write-ahead log " + name + " is not open; recover it first");
+    }
+    byte[] payload = record.getBytes(StandardCharsets.UTF_8);
+    ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+    buffer.putInt(payload.length).putInt(checksum(payload)).put(payload).flip();
+    try {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+        channel.force(false);
+      } else {
+        unforced = true;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to append to write-ahead log " + logFile(), e);
+    }
+    size += buffer.limit();
+  }
+
+  private synchronized void force() {
+    if (!unforced || channel == null) {
+      return;
+    }
+    try {
+      channel.force(false);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to force write-ahead log " + logFile(), e);
+    }
+    unforced = false;
+  }
+
+  // returns the length of the complete, intact records at the start of the file
+  private static long read(Path file, Consumer<String> replay) throws IOException {
+    long length = Files.size(file);
+    long valid = 0;
+    try (InputStream stream = Files.newInputStream(file);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream))) {
+      while (valid + HEADER_BYTES <= length) {
+        int size = in.readInt();
+        int checksum = in.readInt();
+        if (size < 0 || valid + HEADER_BYTES + size > length) {
+          break;
+        }
+        byte[] payload = new byte[size];
+        in.readFully(payload);
+        if (checksum(payload) != checksum) {
+          break;
+        }
+        replay.accept(new String(payload, StandardCharsets.UTF_8));
+        valid += HEADER_BYTES + size;
+      }
+    } catch (EOFException e) {
+      // torn header
+    }
+    if (valid < length) {
+      LOGGER.warnf("Stopped reading %s at a torn or corrupt record after %d of %d bytes", file, valid, length);
+    }
+    return valid;
+  }
+
+  private static void write(DataOutputStream out, String record) throws IOException {
+    byte[] payload = record.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(payload.length);
+    out.writeInt(checksum(payload));
+    out.write(payload);
+  }
+
+  private Path logFile() {
+    return directory.resolve(name + LOG_SUFFIX);
+  }
+
+  private Path snapshotFile() {
+    return directory.resolve(name + SNAPSHOT_SUFFIX);
+  }
+
+  static int checksum(byte[] bytes) {
+    CRC32 crc = new CRC32();
+    crc.update(bytes, 0, bytes.length);
+    return (int) crc.getValue();
+  }
+}
@@ -0,0 +1,59 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationOccupancy;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Typed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.transaction.Transactional;
+
+/**
+ * Location occupancy checked against the database, for several replicas creating warehouses in the same
+ * database. A reservation locks the location's {@code location_lock} row until the transaction ends and
+ * then counts the active warehouses stored at the location, so a reservation for the same location on any
+ * node waits for this transaction and counts its warehouse once it commits.
+ *
+ * <p>The reservation has to run in the transaction that stores the warehouse. Nothing is counted in
+ * memory, so giving a slot back is a no-op: a warehouse that is archived or never committed is simply
+ * not counted any more.
+ */
+@ApplicationScoped
+@Typed(DatabaseLocationOccupancy.class)
+public class DatabaseLocationOccupancy implements LocationOccupancy {
+
+  // a concurrent first reservation of the same location waits on the key instead of failing
+  private static final String INSERT_IF_ABSENT =
+      "insert into location_lock (location) values (?1) on conflict do nothing";
+
+  private final EntityManager entityManager;
+  private final LocationResolver locationResolver;
+
+  public DatabaseLocationOccupancy(EntityManager entityManager, LocationResolver locationResolver) {
+    this.entityManager = entityManager;
+    this.locationResolver = locationResolver;
+  }
+
+  @Override
+  @Transactional(Transactional.TxType.MANDATORY)
+  public boolean tryReserve(String locationIdentifier) {
+    Location location = locationResolver.resolveByIdentifier(locationIdentifier);
+    if (location == null) {
+      return false;
+    }
+    entityManager.createNativeQuery(INSERT_IF_ABSENT)
+        .setParameter(1, locationIdentifier)
+        .executeUpdate();
+    entityManager.find(DbLocationLock.class, locationIdentifier, LockModeType.PESSIMISTIC_WRITE);
+    long active = entityManager.createQuery(
+            "select count(w) from DbWarehouse w where w.location = ?1 and w.archivedAt is null", Long.class)
+        .setParameter(1, locationIdentifier)
+        .getSingleResult();
+    return active < location.maxNumberOfWarehouses;
+  }
+
+  @Override
+  public void release(String locationIdentifier) {
+  }
+}
@@ -0,0 +1,16 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * One row per location that warehouses were created at, locked while a slot there is reserved.
+ */
+@Entity
+@Table(name = "location_lock")
+public class DbLocationLock {
+
+  @Id
+  public String location;
+}
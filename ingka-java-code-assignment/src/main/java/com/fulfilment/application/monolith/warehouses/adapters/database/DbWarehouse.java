@@ -5,6 +5,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.time.LocalDateTime;
 
 @Entity
@@ -29,6 +30,13 @@ public class DbWarehouse {
 
   public LocalDateTime archivedAt;
 
+  // last create, replacement or archive; lets a warm start catch up on what changed after its snapshot
+  public LocalDateTime updatedAt;
+
+  // bumped by every update statement as well; the ETag of the warehouse
+  @Version
+  public long version;
+
   public DbWarehouse() {
   }
 }
@@ -0,0 +1,31 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.adapters.memory.LocationOccupancyRegistry;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationOccupancy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.enterprise.inject.Produces;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Picks the {@link LocationOccupancy} named by {@code warehouse.location-occupancy}: {@code MEMORY} counts
+ * slots in this process, which only holds with a single node creating warehouses; {@code DATABASE} checks
+ * every reservation against the warehouses in the database, for several replicas (not with the
+ * {@code memory} profile, whose warehouses are not in the database).
+ */
+@ApplicationScoped
+public class LocationOccupancyProducer {
+
+  public enum Kind {
+    MEMORY,
+    DATABASE
+  }
+
+  @Produces
+  @ApplicationScoped
+  LocationOccupancy locationOccupancy(Instance<LocationOccupancyRegistry> registry,
+      Instance<DatabaseLocationOccupancy> database,
+      @ConfigProperty(name = "warehouse.location-occupancy", defaultValue = "MEMORY") Kind kind) {
+    return kind == Kind.DATABASE ? database.get() : registry.get();
+  }
+}
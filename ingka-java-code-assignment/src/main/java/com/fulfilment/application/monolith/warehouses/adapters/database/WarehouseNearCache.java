@@ -0,0 +1,209 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.cache.InvalidationBus;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Bounded cache of warehouses by business unit code, so lookups by code do not need a query.
+ *
+ * <p>Entries expire {@code warehouse.cache.ttl} after they were loaded. Once the cache holds
+ * {@code warehouse.cache.max-size} warehouses, adding one evicts the oldest, which is also the one
+ * closest to expiring.
+ *
+ * <p>A write {@link #invalidate invalidates} the code right away and again when its transaction
+ * completes; until then, lookups of that code are not cached, so neither an uncommitted nor a
+ * superseded row can stay in the cache. A lookup that started before an invalidation is not cached
+ * either. Warehouses are copied in and out, so callers may change what they get.
+ *
+ * <p>Invalidations are also published on the {@link InvalidationBus}, so the caches of the other nodes
+ * drop the warehouse once the write commits.
+ */
+@ApplicationScoped
+public class WarehouseNearCache {
+
+  static final String REGION = "warehouse";
+
+  private final TransactionSynchronizationRegistry transactions;
+  private final InvalidationBus invalidationBus;
+  private final boolean enabled;
+  private final int maxSize;
+  private final long ttlNanos;
+  private final LongSupplier clock;
+
+  // insertion order is expiry order, since every entry lives for the same ttl
+  private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+  // codes written by transactions that have not completed yet
+  private final ConcurrentMap<String, Integer> inFlight = new ConcurrentHashMap<>();
+  private final AtomicLong generation = new AtomicLong();
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  @Inject
+  public WarehouseNearCache(TransactionSynchronizationRegistry transactions, InvalidationBus invalidationBus,
+      @ConfigProperty(name = "warehouse.cache.enabled", defaultValue = "true") boolean enabled,
+      @ConfigProperty(name = "warehouse.cache.max-size", defaultValue = "10000") int maxSize,
+      @ConfigProperty(name = "warehouse.cache.ttl", defaultValue = "30s") Duration ttl) {
+    this(transactions, invalidationBus, enabled, maxSize, ttl, System::nanoTime);
+  }
+
+  WarehouseNearCache(TransactionSynchronizationRegistry transactions, InvalidationBus invalidationBus,
+      boolean enabled, int maxSize, Duration ttl, LongSupplier clock) {
+    this.transactions = transactions;
+    this.invalidationBus = invalidationBus;
+    this.enabled = enabled;
+    this.maxSize = maxSize;
+    this.ttlNanos = ttl.toNanos();
+    this.clock = clock;
+    if (enabled) {
+      invalidationBus.subscribe(REGION, this::evict);
+    }
+  }
+
+  /**
+   * Returns a copy of the cached warehouse, or {@code null} when it has to be loaded.
+   */
+  public Warehouse get(String businessUnitCode) {
+    if (!enabled) {
+      return null;
+    }
+    Warehouse cached = null;
+    synchronized (entries) {
+      Entry entry = entries.get(businessUnitCode);
+      if (entry != null) {
+        if (clock.getAsLong() - entry.expiresAt < 0) {
+          cached = entry.warehouse;
+        } else {
+          entries.remove(businessUnitCode);
+          evictions.incrementAndGet();
+        }
+      }
+    }
+    if (cached == null) {
+      misses.incrementAndGet();
+      return null;
+    }
+    hits.incrementAndGet();
+    return copy(cached);
+  }
+
+  /**
+   * To be taken before loading a warehouse and handed to {@link #put}.
+   */
+  public long loadToken() {
+    return generation.get();
+  }
+
+  /**
+   * Caches a loaded warehouse, unless anything was invalidated since {@code token} was taken.
+   */
+  public void put(Warehouse warehouse, long token) {
+    if (!enabled || warehouse == null) {
+      return;
+    }
+    String businessUnitCode = warehouse.getBusinessUnitCode();
+    Entry entry = new Entry(copy(warehouse), clock.getAsLong() + ttlNanos);
+    synchronized (entries) {
+      if (generation.get() != token || inFlight.containsKey(businessUnitCode)) {
+        return;
+      }
+      entries.remove(businessUnitCode);
+      entries.put(businessUnitCode, entry);
+      while (entries.size() > maxSize) {
+        Iterator<String> oldest = entries.keySet().iterator();
+        oldest.next();
+        oldest.remove();
+        evictions.incrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * Drops the warehouse now and, when called in a transaction, once more after it completes.
+   */
+  public void invalidate(String businessUnitCode) {
+    if (!enabled) {
+      return;
+    }
+    if (transactions != null && transactions.getTransactionStatus() == Status.STATUS_ACTIVE) {
+      inFlight.merge(businessUnitCode, 1, Integer::sum);
+      transactions.registerInterposedSynchronization(new Synchronization() {
+        @Override
+        public void beforeCompletion() {
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+          inFlight.computeIfPresent(businessUnitCode, (code, writers) -> writers > 1 ? writers - 1 : null);
+          evict(businessUnitCode);
+        }
+      });
+    }
+    evict(businessUnitCode);
+    invalidationBus.publish(REGION, businessUnitCode);
+  }
+
+  public long hitCount() {
+    return hits.get();
+  }
+
+  public long missCount() {
+    return misses.get();
+  }
+
+  /** Entries dropped because they expired or the cache was full; invalidations are not counted. */
+  public long evictionCount() {
+    return evictions.get();
+  }
+
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  private void evict(String businessUnitCode) {
+    synchronized (entries) {
+      generation.incrementAndGet();
+      if (InvalidationBus.ALL.equals(businessUnitCode)) {
+        entries.clear();
+      } else {
+        entries.remove(businessUnitCode);
+      }
+    }
+  }
+
+  private static Warehouse copy(Warehouse warehouse) {
+    Warehouse copy = new Warehouse(warehouse.getBusinessUnitCode(), warehouse.getLocation(),
+        warehouse.getCapacity(), warehouse.getStock());
+    copy.setCreationAt(warehouse.getCreationAt());
+    copy.setArchivedAt(warehouse.getArchivedAt());
+    copy.setVersion(warehouse.getVersion());
+    return copy;
+  }
+
+  private static final class Entry {
+
+    final Warehouse warehouse;
+    final long expiresAt;
+
+    Entry(Warehouse warehouse, long expiresAt) {
+      this.warehouse = warehouse;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
@@ -1,18 +1,45 @@
 package com.fulfilment.application.monolith.warehouses.adapters.database;
 
+import com.fulfilment.application.monolith.cache.EntityVersions;
+import com.fulfilment.application.monolith.database.DatabaseBound;
+import com.fulfilment.application.monolith.fulfillment.domain.ports.FulfillmentIndex;
+import com.fulfilment.application.monolith.metrics.Measured;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.quarkus.hibernate.orm.panache.PanacheQuery;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Page;
+import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
 
 @ApplicationScoped
+@Measured
+@DatabaseBound
 public class WarehouseRepository implements WarehouseStore, PanacheRepository<DbWarehouse> {
 
+  // rows fetched per JDBC round trip while streaming; the session is cleared at the same interval
+  static final int STREAM_FETCH_SIZE = 500;
+
+  private final WarehouseNearCache cache;
+  private final FulfillmentIndex fulfillmentIndex;
+
+  public WarehouseRepository(WarehouseNearCache cache, FulfillmentIndex fulfillmentIndex) {
+    this.cache = cache;
+    this.fulfillmentIndex = fulfillmentIndex;
+  }
+
   @Override
   @jakarta.transaction.Transactional
   public void create(Warehouse warehouse) {
@@ -22,38 +49,91 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
     entity.capacity = warehouse.getCapacity();
     entity.stock = warehouse.getStock();
     entity.createdAt = LocalDateTime.now();
+    entity.updatedAt = entity.createdAt;
     this.persist(entity);
+    cache.invalidate(warehouse.getBusinessUnitCode());
   }
 
   @Override
   @jakarta.transaction.Transactional
-  public void update(Warehouse warehouse) {
-    DbWarehouse entity = find("businessUnitCode", warehouse.getBusinessUnitCode()).firstResult();
-    if (entity != null) {
-      entity.location = warehouse.getLocation();
-      entity.capacity = warehouse.getCapacity();
-      entity.stock = warehouse.getStock();
-      if (warehouse.getArchivedAt() != null) {
-        entity.archivedAt = warehouse.getArchivedAt().toLocalDateTime();
-      }
+  public int update(Warehouse warehouse) {
+    cache.invalidate(warehouse.getBusinessUnitCode());
+    String set = "location = ?1, capacity = ?2, stock = ?3, updatedAt = ?4, version = version + 1";
+    if (warehouse.getVersion() == null) {
+      return update(set + " where businessUnitCode = ?5",
+          warehouse.getLocation(), warehouse.getCapacity(), warehouse.getStock(), LocalDateTime.now(),
+          warehouse.getBusinessUnitCode());
+    }
+    return update(set + " where businessUnitCode = ?5 and version = ?6",
+        warehouse.getLocation(), warehouse.getCapacity(), warehouse.getStock(), LocalDateTime.now(),
+        warehouse.getBusinessUnitCode(), warehouse.getVersion());
+  }
+
+  @Override
+  @jakarta.transaction.Transactional
+  public int archive(String buCode, Long version, ZonedDateTime archivedAt) {
+    cache.invalidate(buCode);
+    LocalDateTime archived = archivedAt.withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+    String set = "archivedAt = ?1, updatedAt = ?2, version = version + 1";
+    if (version == null) {
+      return update(set + " where businessUnitCode = ?3 and archivedAt is null",
+          archived, LocalDateTime.now(), buCode);
     }
+    return update(set + " where businessUnitCode = ?3 and archivedAt is null and version = ?4",
+        archived, LocalDateTime.now(), buCode, version);
   }
 
   @Override
   @jakarta.transaction.Transactional
   public void remove(Warehouse warehouse) {
+    cache.invalidate(warehouse.getBusinessUnitCode());
     delete("businessUnitCode", warehouse.getBusinessUnitCode());
+    // the database drops the warehouse's associations with it
+    fulfillmentIndex.removeWarehouse(warehouse.getBusinessUnitCode());
   }
 
   @Override
   public Warehouse findByBusinessUnitCode(String buCode) {
+    Warehouse cached = cache.get(buCode);
+    if (cached != null) {
+      return cached;
+    }
+    long token = cache.loadToken();
     DbWarehouse entity = find("businessUnitCode", buCode).firstResult();
-    return entity != null ? toDomain(entity) : null;
+    if (entity == null) {
+      return null;
+    }
+    Warehouse warehouse = toDomain(entity);
+    cache.put(warehouse, token);
+    return warehouse;
   }
 
   @Override
-  public long countByLocation(String locationIdentifier) {
-    return count("location", locationIdentifier);
+  public Long findVersion(String buCode) {
+    Warehouse cached = cache.get(buCode);
+    if (cached != null && cached.getVersion() != null) {
+      return cached.getVersion();
+    }
+    return getEntityManager()
+        .createQuery("select w.version from DbWarehouse w where w.businessUnitCode = ?1", Long.class)
+        .setParameter(1, buCode)
+        .getResultStream()
+        .findFirst()
+        .orElse(null);
+  }
+
+  @Override
+  public String listVersion() {
+    return EntityVersions.ofTable(getEntityManager(), "DbWarehouse");
+  }
+
+  @Override
+  public Map<String, Long> countActiveByLocation() {
+    return getEntityManager()
+        .createQuery("select w.location, count(w) from DbWarehouse w where w.archivedAt is null group by w.location",
+            Object[].class)
+        .getResultStream()
+        .collect(Collectors.toMap(row -> (String) row[0], row -> (Long) row[1]));
   }
 
   @Override
@@ -63,10 +143,42 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
         .collect(Collectors.toList());
   }
 
+  @Override
+  public List<Warehouse> findPage(String afterBusinessUnitCode, int size) {
+    Sort order = Sort.by("businessUnitCode");
+    PanacheQuery<DbWarehouse> query = afterBusinessUnitCode == null
+        ? findAll(order)
+        : find("businessUnitCode > ?1", order, afterBusinessUnitCode);
+    return query.page(Page.ofSize(size)).list().stream()
+        .map(this::toDomain)
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  @jakarta.transaction.Transactional
+  public void streamAll(Consumer<Warehouse> consumer) {
+    Session session = getEntityManager().unwrap(Session.class);
+    try (ScrollableResults<DbWarehouse> rows = session
+        .createSelectionQuery("from DbWarehouse order by businessUnitCode", DbWarehouse.class)
+        .setReadOnly(true)
+        .setCacheMode(CacheMode.IGNORE)
+        .setFetchSize(STREAM_FETCH_SIZE)
+        .scroll(ScrollMode.FORWARD_ONLY)) {
+      int read = 0;
+      while (rows.next()) {
+        consumer.accept(toDomain(rows.get()));
+        if (++read % STREAM_FETCH_SIZE == 0) {
+          // keep the persistence context from growing with the table
+          session.clear();
+        }
+      }
+    }
+  }
+
   /**
    * Maps a {@link DbWarehouse} JPA entity to a {@link Warehouse} domain model.
    */
-  private Warehouse toDomain(DbWarehouse entity) {
+  Warehouse toDomain(DbWarehouse entity) {
     Warehouse warehouse = new Warehouse();
     warehouse.setBusinessUnitCode(entity.businessUnitCode);
     warehouse.setLocation(entity.location);
@@ -78,6 +190,7 @@ public class WarehouseRepository implements WarehouseStore, PanacheRepository<Db
     if (entity.archivedAt != null) {
       warehouse.setArchivedAt(entity.archivedAt.atZone(ZoneId.systemDefault()));
     }
+    warehouse.setVersion(entity.version);
     return warehouse;
   }
 }
@@ -0,0 +1,56 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.ReactiveWarehouseStore;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * {@link ReactiveWarehouseStore} over the blocking {@link WarehouseStore}: each read runs on a worker
+ * thread in a transaction of its own. The event loop is not blocked, but a worker still waits for every
+ * round trip, as it does for the blocking endpoints.
+ */
+public class WorkerPoolWarehouseStore implements ReactiveWarehouseStore {
+
+  private final WarehouseStore warehouseStore;
+  private final Executor workers;
+
+  public WorkerPoolWarehouseStore(WarehouseStore warehouseStore, Executor workers) {
+    this.warehouseStore = warehouseStore;
+    this.workers = workers;
+  }
+
+  @Override
+  public CompletionStage<Warehouse> findByBusinessUnitCode(String buCode) {
+    return offload(() -> warehouseStore.findByBusinessUnitCode(buCode));
+  }
+
+  @Override
+  public CompletionStage<Long> findVersion(String buCode) {
+    return offload(() -> warehouseStore.findVersion(buCode));
+  }
+
+  @Override
+  public CompletionStage<String> listVersion() {
+    return offload(warehouseStore::listVersion);
+  }
+
+  @Override
+  public CompletionStage<List<Warehouse>> getAll() {
+    return offload(warehouseStore::getAll);
+  }
+
+  @Override
+  public CompletionStage<List<Warehouse>> findPage(String afterBusinessUnitCode, int size) {
+    return offload(() -> warehouseStore.findPage(afterBusinessUnitCode, size));
+  }
+
+  private <T> CompletionStage<T> offload(Supplier<T> read) {
+    return CompletableFuture.supplyAsync(() -> QuarkusTransaction.requiringNew().call(read::get), workers);
+  }
+}
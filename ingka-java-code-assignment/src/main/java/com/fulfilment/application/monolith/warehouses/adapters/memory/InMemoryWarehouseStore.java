@@ -0,0 +1,366 @@
+package com.fulfilment.application.monolith.warehouses.adapters.memory;
+
+import com.fulfilment.application.monolith.metrics.Measured;
+import com.fulfilment.application.monolith.wal.WriteAheadLog;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * {@link WarehouseStore} kept in memory, for edge deployments and simulation runs that cannot afford a
+ * database round trip per validation; the {@code memory} build profile puts it in place of
+ * {@code WarehouseRepository}.
+ *
+ * <p>Each warehouse is changed inside {@code compute} on its entry, together with the sorted set of
+ * business unit codes used for paging, the index of active warehouses per location and its record in the
+ * {@link WriteAheadLog}, so changes to one warehouse are applied and logged in order while different
+ * warehouses change in parallel. Reads take no lock. Warehouses are copied in and out, so callers cannot
+ * change what is stored.
+ *
+ * <p>Each warehouse carries a version, starting at 0 and raised by every update and archive, and an update
+ * or archive given a version applies only while the warehouse still has it, as in the database. A change
+ * made in a JTA transaction is applied and logged right away, like the fulfillment index does, and undone
+ * when the transaction rolls back, unless a later change to the warehouse came after it.
+ */
+@Measured
+public class InMemoryWarehouseStore implements WarehouseStore, AutoCloseable {
+
+  private static final char SEPARATOR = '\u001f';
+  private static final String PUT = "P";
+  private static final String REMOVE = "R";
+
+  private final ConcurrentMap<String, Warehouse> warehouses = new ConcurrentHashMap<>();
+  private final NavigableSet<String> businessUnitCodes = new ConcurrentSkipListSet<>();
+  private final ConcurrentMap<String, Set<String>> activeByLocation = new ConcurrentHashMap<>();
+
+  private final WriteAheadLog log;
+  private final TransactionSynchronizationRegistry transactions;
+
+  public InMemoryWarehouseStore() {
+    this(WriteAheadLog.disabled());
+  }
+
+  public InMemoryWarehouseStore(WriteAheadLog log) {
+    this(log, null);
+  }
+
+  /**
+   * Creates the store with the warehouses recovered from {@code log}, which records its changes from then on;
+   * without {@code transactions} changes are never undone.
+   */
+  public InMemoryWarehouseStore(WriteAheadLog log, TransactionSynchronizationRegistry transactions) {
+    this.log = log;
+    this.transactions = transactions;
+    log.recover(this::replay);
+  }
+
+  @Override
+  public void create(Warehouse warehouse) {
+    Warehouse created = copy(warehouse);
+    if (created.getCreationAt() == null) {
+      created.setCreationAt(ZonedDateTime.now());
+    }
+    created.setVersion(0L);
+    write(records -> warehouses.compute(created.getBusinessUnitCode(), (code, existing) -> {
+      if (existing != null) {
+        throw new IllegalStateException("Warehouse '" + code + "' already exists");
+      }
+      records.accept(put(created));
+      index(created);
+      return created;
+    }));
+    undoOnRollback(created.getBusinessUnitCode(), null, created);
+  }
+
+  @Override
+  public int update(Warehouse warehouse) {
+    Warehouse[] previous = {null};
+    Warehouse replaced = write(records -> warehouses.computeIfPresent(warehouse.getBusinessUnitCode(),
+        (code, existing) -> {
+          if (!hasVersion(existing, warehouse.getVersion())) {
+            return existing;
+          }
+          Warehouse changed = nextVersion(existing);
+          changed.setLocation(warehouse.getLocation());
+          changed.setCapacity(warehouse.getCapacity());
+          changed.setStock(warehouse.getStock());
+          records.accept(put(changed));
+          if (!Objects.equals(existing.getLocation(), changed.getLocation())) {
+            unindex(existing);
+            index(changed);
+          }
+          previous[0] = existing;
+          return changed;
+        }));
+    if (previous[0] == null) {
+      return 0;
+    }
+    undoOnRollback(warehouse.getBusinessUnitCode(), previous[0], replaced);
+    return 1;
+  }
+
+  @Override
+  public int archive(String buCode, Long version, ZonedDateTime archivedAt) {
+    Warehouse[] previous = {null};
+    Warehouse archived = write(records -> warehouses.computeIfPresent(buCode, (code, existing) -> {
+      if (existing.getArchivedAt() != null || !hasVersion(existing, version)) {
+        return existing;
+      }
+      Warehouse changed = nextVersion(existing);
+      changed.setArchivedAt(archivedAt);
+      records.accept(put(changed));
+      unindex(existing);
+      previous[0] = existing;
+      return changed;
+    }));
+    if (previous[0] == null) {
+      return 0;
+    }
+    undoOnRollback(buCode, previous[0], archived);
+    return 1;
+  }
+
+  @Override
+  public void remove(Warehouse warehouse) {
+    Warehouse[] previous = {null};
+    write(records -> warehouses.computeIfPresent(warehouse.getBusinessUnitCode(), (code, existing) -> {
+      records.accept(REMOVE + SEPARATOR + code);
+      unindex(existing);
+      businessUnitCodes.remove(code);
+      previous[0] = existing;
+      return null;
+    }));
+    if (previous[0] != null) {
+      undoOnRollback(warehouse.getBusinessUnitCode(), previous[0], null);
+    }
+  }
+
+  @Override
+  public Warehouse findByBusinessUnitCode(String buCode) {
+    Warehouse warehouse = buCode != null ? warehouses.get(buCode) : null;
+    return warehouse != null ? copy(warehouse) : null;
+  }
+
+  @Override
+  public Long findVersion(String buCode) {
+    Warehouse warehouse = buCode != null ? warehouses.get(buCode) : null;
+    return warehouse != null ? warehouse.getVersion() : null;
+  }
+
+  // without ids a removed and a created warehouse could cancel out in any sum, so the list goes without ETag
+  @Override
+  public String listVersion() {
+    return null;
+  }
+
+  @Override
+  public Map<String, Long> countActiveByLocation() {
+    Map<String, Long> counts = new HashMap<>();
+    activeByLocation.forEach((location, codes) -> {
+      int count = codes.size();
+      if (count > 0) {
+        counts.put(location, (long) count);
+      }
+    });
+    return counts;
+  }
+
+  @Override
+  public List<Warehouse> getAll() {
+    List<Warehouse> all = new ArrayList<>(warehouses.size());
+    streamAll(all::add);
+    return all;
+  }
+
+  @Override
+  public List<Warehouse> findPage(String afterBusinessUnitCode, int size) {
+    Set<String> codes = afterBusinessUnitCode == null
+        ? businessUnitCodes
+        : businessUnitCodes.tailSet(afterBusinessUnitCode, false);
+    List<Warehouse> page = new ArrayList<>(Math.min(size, warehouses.size()));
+    for (String code : codes) {
+      if (page.size() >= size) {
+        break;
+      }
+      Warehouse warehouse = warehouses.get(code);
+      // a code can outlive its warehouse for a moment while it is removed
+      if (warehouse != null) {
+        page.add(copy(warehouse));
+      }
+    }
+    return page;
+  }
+
+  @Override
+  public void streamAll(Consumer<Warehouse> consumer) {
+    for (String code : businessUnitCodes) {
+      Warehouse warehouse = warehouses.get(code);
+      if (warehouse != null) {
+        consumer.accept(copy(warehouse));
+      }
+    }
+  }
+
+  /**
+   * Writes the warehouses to a new snapshot of the log and closes it.
+   */
+  @Override
+  public void close() {
+    log.compact(this::snapshot);
+    log.close();
+  }
+
+  private <T> T write(Function<Consumer<String>, T> change) {
+    T result = log.update(change);
+    log.compactIfNeeded(this::snapshot);
+    return result;
+  }
+
+  // registered after the change, so one that failed is never undone
+  private void undoOnRollback(String code, Warehouse previous, Warehouse written) {
+    if (transactions == null || transactions.getTransactionStatus() != Status.STATUS_ACTIVE) {
+      return;
+    }
+    transactions.registerInterposedSynchronization(new Synchronization() {
+      @Override
+      public void beforeCompletion() {
+      }
+
+      @Override
+      public void afterCompletion(int status) {
+        if (status != Status.STATUS_COMMITTED) {
+          restore(code, previous, written);
+        }
+      }
+    });
+  }
+
+  // puts back what a rolled back change replaced, unless the warehouse changed again after it
+  private void restore(String code, Warehouse previous, Warehouse written) {
+    write(records -> warehouses.compute(code, (key, current) -> {
+      if (current != written) {
+        return current;
+      }
+      if (current != null) {
+        unindex(current);
+      }
+      if (previous == null) {
+        records.accept(REMOVE + SEPARATOR + code);
+        businessUnitCodes.remove(code);
+        return null;
+      }
+      records.accept(put(previous));
+      index(previous);
+      return previous;
+    }));
+  }
+
+  private static boolean hasVersion(Warehouse warehouse, Long version) {
+    return version == null || version.equals(warehouse.getVersion());
+  }
+
+  private static Warehouse nextVersion(Warehouse warehouse) {
+    Warehouse next = copy(warehouse);
+    next.setVersion(warehouse.getVersion() + 1);
+    return next;
+  }
+
+  private void snapshot(Consumer<String> records) {
+    warehouses.values().forEach(warehouse -> records.accept(put(warehouse)));
+  }
+
+  // runs before the store is shared, so entries are replaced without compute
+  private void replay(String record) {
+    String[] fields = record.split(String.valueOf(SEPARATOR), -1);
+    Warehouse previous;
+    if (PUT.equals(fields[0])) {
+      Warehouse warehouse = new Warehouse(fields[1], string(fields[2]), integer(fields[3]), integer(fields[4]));
+      warehouse.setCreationAt(timestamp(fields[5]));
+      warehouse.setArchivedAt(timestamp(fields[6]));
+      // logs written before versions were kept start them at 0
+      warehouse.setVersion(fields.length > 7 ? Long.valueOf(fields[7]) : 0L);
+      previous = warehouses.put(warehouse.getBusinessUnitCode(), warehouse);
+      if (previous != null) {
+        unindex(previous);
+      }
+      index(warehouse);
+    } else if (REMOVE.equals(fields[0])) {
+      previous = warehouses.remove(fields[1]);
+      if (previous != null) {
+        unindex(previous);
+      }
+      businessUnitCodes.remove(fields[1]);
+    } else {
+      throw new IllegalStateException("Unknown warehouse record: " + record);
+    }
+  }
+
+  private void index(Warehouse warehouse) {
+    businessUnitCodes.add(warehouse.getBusinessUnitCode());
+    if (warehouse.getArchivedAt() == null && warehouse.getLocation() != null) {
+      activeByLocation.computeIfAbsent(warehouse.getLocation(), location -> ConcurrentHashMap.newKeySet())
+          .add(warehouse.getBusinessUnitCode());
+    }
+  }
+
+  private void unindex(Warehouse warehouse) {
+    if (warehouse.getLocation() != null) {
+      Set<String> codes = activeByLocation.get(warehouse.getLocation());
+      if (codes != null) {
+        codes.remove(warehouse.getBusinessUnitCode());
+      }
+    }
+  }
+
+  private static String put(Warehouse warehouse) {
+    return String.join(String.valueOf(SEPARATOR),
+        PUT,
+        warehouse.getBusinessUnitCode(),
+        text(warehouse.getLocation()),
+        text(warehouse.getCapacity()),
+        text(warehouse.getStock()),
+        text(warehouse.getCreationAt()),
+        text(warehouse.getArchivedAt()),
+        text(warehouse.getVersion()));
+  }
+
+  private static String text(Object value) {
+    return value != null ? value.toString() : "";
+  }
+
+  private static String string(String text) {
+    return text.isEmpty() ? null : text;
+  }
+
+  private static Integer integer(String text) {
+    return text.isEmpty() ? null : Integer.valueOf(text);
+  }
+
+  private static ZonedDateTime timestamp(String text) {
+    return text.isEmpty() ? null : ZonedDateTime.parse(text);
+  }
+
+  private static Warehouse copy(Warehouse warehouse) {
+    Warehouse copy = new Warehouse(warehouse.getBusinessUnitCode(), warehouse.getLocation(),
+        warehouse.getCapacity(), warehouse.getStock());
+    copy.setCreationAt(warehouse.getCreationAt());
+    copy.setArchivedAt(warehouse.getArchivedAt());
+    copy.setVersion(warehouse.getVersion());
+    return copy;
+  }
+}
@@ -0,0 +1,44 @@
+package com.fulfilment.application.monolith.warehouses.adapters.memory;
+
+import com.fulfilment.application.monolith.wal.WriteAheadLog;
+import io.quarkus.arc.InterceptionProxy;
+import io.quarkus.arc.profile.IfBuildProfile;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Alternative;
+import jakarta.enterprise.inject.Disposes;
+import jakarta.enterprise.inject.Produces;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.nio.file.Path;
+import java.util.Optional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Stores warehouses in memory instead of the database when the application is built with the
+ * {@code memory} profile. With {@code persistence.memory.wal.dir} set they are recovered from, and logged
+ * to, a write-ahead log in that directory; otherwise they are lost on shutdown. The store is wrapped in an
+ * interception proxy, so its calls are timed like the repository's, and undoes the changes of transactions
+ * that roll back.
+ */
+@ApplicationScoped
+@IfBuildProfile("memory")
+public class InMemoryWarehouseStoreProducer {
+
+  @Produces
+  @ApplicationScoped
+  @Alternative
+  @Priority(1)
+  InMemoryWarehouseStore warehouseStore(InterceptionProxy<InMemoryWarehouseStore> proxy,
+      TransactionSynchronizationRegistry transactions,
+      @ConfigProperty(name = "persistence.memory.wal.dir") Optional<Path> directory,
+      @ConfigProperty(name = "persistence.memory.wal.fsync", defaultValue = "BATCH") WriteAheadLog.FsyncPolicy fsync,
+      @ConfigProperty(name = "persistence.memory.wal.compact-after", defaultValue = "67108864") long compactAfter) {
+    return proxy.create(new InMemoryWarehouseStore(directory
+        .map(dir -> WriteAheadLog.in(dir, "warehouses", fsync, compactAfter))
+        .orElse(WriteAheadLog.disabled()), transactions));
+  }
+
+  void close(@Disposes InMemoryWarehouseStore store) {
+    store.close();
+  }
+}
@@ -0,0 +1,105 @@
+package com.fulfilment.application.monolith.warehouses.adapters.memory;
+
+import com.fulfilment.application.monolith.snapshot.ReferenceSnapshot;
+import com.fulfilment.application.monolith.snapshot.WarmStart;
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationOccupancy;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.inject.Typed;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jboss.logging.Logger;
+
+/**
+ * In-memory occupancy counters per location, seeded from the active warehouses at startup
+ * (from the warm start snapshot when there is one).
+ * Slots are reserved with a compare-and-set loop on a per-location counter, so concurrent
+ * creations can never push a location past its maximum number of warehouses.
+ *
+ * <p>The counters only see the warehouses created by this process, so with several replicas creating
+ * warehouses use {@code warehouse.location-occupancy=DATABASE} instead.
+ */
+@ApplicationScoped
+@Typed(LocationOccupancyRegistry.class)
+public class LocationOccupancyRegistry implements LocationOccupancy {
+
+  private static final Logger LOGGER = Logger.getLogger(LocationOccupancyRegistry.class);
+
+  private final ConcurrentMap<String, AtomicInteger> occupied = new ConcurrentHashMap<>();
+
+  private final WarehouseStore warehouseStore;
+  private final LocationResolver locationResolver;
+  private final WarmStart warmStart;
+
+  public LocationOccupancyRegistry(WarehouseStore warehouseStore, LocationResolver locationResolver,
+      WarmStart warmStart) {
+    this.warehouseStore = warehouseStore;
+    this.locationResolver = locationResolver;
+    this.warmStart = warmStart;
+  }
+
+  void onStart(@Observes StartupEvent event) {
+    Optional<ReferenceSnapshot> warm = warmStart != null ? warmStart.current() : Optional.empty();
+    if (warm.isEmpty()) {
+      seed();
+      return;
+    }
+    occupied.clear();
+    for (Warehouse warehouse : warm.get().warehouses().values()) {
+      if (warehouse.getArchivedAt() == null && warehouse.getLocation() != null) {
+        occupied.computeIfAbsent(warehouse.getLocation(), key -> new AtomicInteger()).incrementAndGet();
+      }
+    }
+    LOGGER.infof("Location occupancy seeded for %d locations from the warm start snapshot", occupied.size());
+  }
+
+  /**
+   * (Re)loads the counters from the number of active warehouses stored per location.
+   */
+  public void seed() {
+    occupied.clear();
+    warehouseStore.countActiveByLocation()
+        .forEach((location, count) -> occupied.put(location, new AtomicInteger(count.intValue())));
+    LOGGER.infof("Location occupancy seeded for %d locations", occupied.size());
+  }
+
+  @Override
+  public boolean tryReserve(String locationIdentifier) {
+    Location location = locationResolver.resolveByIdentifier(locationIdentifier);
+    if (location == null) {
+      return false;
+    }
+    AtomicInteger counter = occupied.computeIfAbsent(locationIdentifier, key -> new AtomicInteger());
+    int current;
+    do {
+      current = counter.get();
+      if (current >= location.maxNumberOfWarehouses) {
+        return false;
+      }
+    } while (!counter.compareAndSet(current, current + 1));
+    return true;
+  }
+
+  @Override
+  public void release(String locationIdentifier) {
+    AtomicInteger counter = occupied.get(locationIdentifier);
+    if (counter != null) {
+      counter.updateAndGet(current -> current > 0 ? current - 1 : 0);
+    }
+  }
+
+  /**
+   * Returns the number of slots currently taken at the given location.
+   */
+  public int occupancy(String locationIdentifier) {
+    AtomicInteger counter = occupied.get(locationIdentifier);
+    return counter != null ? counter.get() : 0;
+  }
+}
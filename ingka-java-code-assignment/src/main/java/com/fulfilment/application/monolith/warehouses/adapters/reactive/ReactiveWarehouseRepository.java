@@ -0,0 +1,118 @@
+package com.fulfilment.application.monolith.warehouses.adapters.reactive;
+
+import com.fulfilment.application.monolith.cache.EntityVersions;
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseNearCache;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.ReactiveWarehouseStore;
+import io.vertx.mutiny.pgclient.PgPool;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.RowSet;
+import io.vertx.mutiny.sqlclient.Tuple;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Reads warehouses through the reactive Postgres client, so no thread waits for the database. Lookups
+ * by business unit code go through the same {@link WarehouseNearCache} as the blocking repository.
+ */
+public class ReactiveWarehouseRepository implements ReactiveWarehouseStore {
+
+  // in the order toDomain reads them
+  private static final String SELECT = "select businessUnitCode, location, capacity, stock, createdAt, archivedAt,"
+      + " version from warehouse";
+
+  private final PgPool pool;
+  private final WarehouseNearCache cache;
+
+  public ReactiveWarehouseRepository(PgPool pool, WarehouseNearCache cache) {
+    this.pool = pool;
+    this.cache = cache;
+  }
+
+  @Override
+  public CompletionStage<Warehouse> findByBusinessUnitCode(String buCode) {
+    Warehouse cached = cache.get(buCode);
+    if (cached != null) {
+      return CompletableFuture.completedFuture(cached);
+    }
+    long token = cache.loadToken();
+    return pool.preparedQuery(SELECT + " where businessUnitCode = $1 limit 1")
+        .execute(Tuple.of(buCode))
+        .map(rows -> {
+          if (rows.size() == 0) {
+            return null;
+          }
+          Warehouse warehouse = toDomain(rows.iterator().next());
+          cache.put(warehouse, token);
+          return warehouse;
+        })
+        .subscribeAsCompletionStage();
+  }
+
+  @Override
+  public CompletionStage<Long> findVersion(String buCode) {
+    Warehouse cached = cache.get(buCode);
+    if (cached != null && cached.getVersion() != null) {
+      return CompletableFuture.completedFuture(cached.getVersion());
+    }
+    return pool.preparedQuery("select version from warehouse where businessUnitCode = $1 limit 1")
+        .execute(Tuple.of(buCode))
+        .map(rows -> rows.size() == 0 ? null : rows.iterator().next().getLong(0))
+        .subscribeAsCompletionStage();
+  }
+
+  @Override
+  public CompletionStage<String> listVersion() {
+    return pool.query("select count(*), coalesce(sum(id), 0), coalesce(sum(version), 0) from warehouse")
+        .execute()
+        .map(rows -> {
+          Row row = rows.iterator().next();
+          return EntityVersions.ofTable(row.getLong(0), row.getLong(1), row.getLong(2));
+        })
+        .subscribeAsCompletionStage();
+  }
+
+  @Override
+  public CompletionStage<List<Warehouse>> getAll() {
+    return pool.query(SELECT)
+        .execute()
+        .map(ReactiveWarehouseRepository::toDomain)
+        .subscribeAsCompletionStage();
+  }
+
+  @Override
+  public CompletionStage<List<Warehouse>> findPage(String afterBusinessUnitCode, int size) {
+    return (afterBusinessUnitCode == null
+        ? pool.preparedQuery(SELECT + " order by businessUnitCode limit $1").execute(Tuple.of(size))
+        : pool.preparedQuery(SELECT + " where businessUnitCode > $1 order by businessUnitCode limit $2")
+            .execute(Tuple.of(afterBusinessUnitCode, size)))
+        .map(ReactiveWarehouseRepository::toDomain)
+        .subscribeAsCompletionStage();
+  }
+
+  private static List<Warehouse> toDomain(RowSet<Row> rows) {
+    List<Warehouse> warehouses = new ArrayList<>(rows.size());
+    for (Row row : rows) {
+      warehouses.add(toDomain(row));
+    }
+    return warehouses;
+  }
+
+  private static Warehouse toDomain(Row row) {
+    Warehouse warehouse = new Warehouse(row.getString(0), row.getString(1), row.getInteger(2), row.getInteger(3));
+    LocalDateTime createdAt = row.getLocalDateTime(4);
+    if (createdAt != null) {
+      warehouse.setCreationAt(createdAt.atZone(ZoneId.systemDefault()));
+    }
+    LocalDateTime archivedAt = row.getLocalDateTime(5);
+    if (archivedAt != null) {
+      warehouse.setArchivedAt(archivedAt.atZone(ZoneId.systemDefault()));
+    }
+    warehouse.setVersion(row.getLong(6));
+    return warehouse;
+  }
+}
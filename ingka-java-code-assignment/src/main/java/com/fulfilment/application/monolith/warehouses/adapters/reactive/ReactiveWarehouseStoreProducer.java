@@ -0,0 +1,31 @@
+package com.fulfilment.application.monolith.warehouses.adapters.reactive;
+
+import com.fulfilment.application.monolith.warehouses.adapters.database.WarehouseNearCache;
+import com.fulfilment.application.monolith.warehouses.adapters.database.WorkerPoolWarehouseStore;
+import com.fulfilment.application.monolith.warehouses.domain.ports.ReactiveWarehouseStore;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import io.vertx.mutiny.pgclient.PgPool;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.enterprise.inject.Produces;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Reads warehouses through the reactive Postgres client when {@code persistence.reactive.enabled} is
+ * set, and otherwise through the blocking {@link WarehouseStore} on worker threads.
+ */
+@ApplicationScoped
+public class ReactiveWarehouseStoreProducer {
+
+  @Produces
+  @ApplicationScoped
+  ReactiveWarehouseStore reactiveWarehouseStore(WarehouseStore warehouseStore, WarehouseNearCache cache,
+      Instance<PgPool> pool,
+      @ConfigProperty(name = "persistence.reactive.enabled", defaultValue = "false") boolean reactive) {
+    if (reactive) {
+      return new ReactiveWarehouseRepository(pool.get(), cache);
+    }
+    return new WorkerPoolWarehouseStore(warehouseStore, Infrastructure.getDefaultWorkerPool());
+  }
+}
@@ -1,43 +1,118 @@
 package com.fulfilment.application.monolith.warehouses.adapters.restapi;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fulfilment.application.monolith.cache.ConditionalGet;
 import com.warehouse.api.WarehouseResource;
 import com.warehouse.api.beans.Warehouse;
+import com.warehouse.api.beans.WarehousePage;
 import jakarta.validation.constraints.NotNull;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.concurrent.CompletionStage;
 
 /**
  * JAX-RS implementation for the Warehouse resource.
  * Exposes endpoints for managing the warehouse lifecycle (Create, Read, Update,
- * Archive).
+ * Archive). Reads other than the stream are non-blocking and go through the
+ * {@link com.fulfilment.application.monolith.warehouses.domain.ports.ReactiveWarehouseStore};
+ * writes run on worker threads. The list and single reads answer conditional GETs, see
+ * {@link WarehouseVersions}.
  */
 @jakarta.enterprise.context.ApplicationScoped
 public class WarehouseResourceImpl implements WarehouseResource {
 
+  static final int DEFAULT_PAGE_SIZE = 100;
+  static final int MAX_PAGE_SIZE = 500;
+
   private final com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore warehouseStore;
+  private final com.fulfilment.application.monolith.warehouses.domain.ports.ReactiveWarehouseStore reactiveWarehouseStore;
   private final com.fulfilment.application.monolith.warehouses.domain.ports.CreateWarehouseOperation createWarehouseOperation;
   private final com.fulfilment.application.monolith.warehouses.domain.ports.ArchiveWarehouseOperation archiveWarehouseOperation;
   private final com.fulfilment.application.monolith.warehouses.domain.ports.ReplaceWarehouseOperation replaceWarehouseOperation;
+  private final ObjectWriter warehouseWriter;
 
   @jakarta.inject.Inject
   public WarehouseResourceImpl(
       com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore warehouseStore,
+      com.fulfilment.application.monolith.warehouses.domain.ports.ReactiveWarehouseStore reactiveWarehouseStore,
       com.fulfilment.application.monolith.warehouses.domain.ports.CreateWarehouseOperation createWarehouseOperation,
       com.fulfilment.application.monolith.warehouses.domain.ports.ArchiveWarehouseOperation archiveWarehouseOperation,
-      com.fulfilment.application.monolith.warehouses.domain.ports.ReplaceWarehouseOperation replaceWarehouseOperation) {
+      com.fulfilment.application.monolith.warehouses.domain.ports.ReplaceWarehouseOperation replaceWarehouseOperation,
+      ObjectMapper objectMapper) {
     this.warehouseStore = warehouseStore;
+    this.reactiveWarehouseStore = reactiveWarehouseStore;
     this.createWarehouseOperation = createWarehouseOperation;
     this.archiveWarehouseOperation = archiveWarehouseOperation;
     this.replaceWarehouseOperation = replaceWarehouseOperation;
+    // the response stream stays open between rows while streaming
+    this.warehouseWriter = objectMapper.writerFor(Warehouse.class)
+        .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+  }
+
+  @Override
+  @ConditionalGet(WarehouseVersions.class)
+  public CompletionStage<List<Warehouse>> listAllWarehousesUnits() {
+    return reactiveWarehouseStore.getAll().thenApply(warehouses -> warehouses.stream()
+        .map(this::toApi)
+        .collect(java.util.stream.Collectors.toList()));
   }
 
   @Override
-  public List<Warehouse> listAllWarehousesUnits() {
-    return warehouseStore.getAll().stream()
+  public CompletionStage<WarehousePage> listWarehouseUnitsOnePageAtATime(String after, Integer size) {
+    int pageSize = size != null ? size : DEFAULT_PAGE_SIZE;
+    if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+      throw new jakarta.ws.rs.WebApplicationException(
+          "Page size must be between 1 and " + MAX_PAGE_SIZE + ", was " + pageSize, 400);
+    }
+
+    // one extra row tells whether another page follows without a separate count query
+    return reactiveWarehouseStore.findPage(after, pageSize + 1).thenApply(rows -> toPage(rows, pageSize));
+  }
+
+  private WarehousePage toPage(List<com.fulfilment.application.monolith.warehouses.domain.models.Warehouse> rows,
+      int pageSize) {
+    boolean hasMore = rows.size() > pageSize;
+    List<Warehouse> items = rows.stream()
+        .limit(pageSize)
         .map(this::toApi)
         .collect(java.util.stream.Collectors.toList());
+
+    WarehousePage page = new WarehousePage();
+    page.setItems(items);
+    if (hasMore) {
+      page.setNextCursor(items.get(items.size() - 1).getBusinessUnitCode());
+    }
+    return page;
   }
 
   @Override
+  public Response streamAllWarehouseUnits() {
+    StreamingOutput body = output -> {
+      try {
+        warehouseStore.streamAll(warehouse -> {
+          try {
+            warehouseWriter.writeValue(output, toApi(warehouse));
+            output.write('\n');
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+      output.flush();
+    };
+    return Response.ok(body, "application/x-ndjson").build();
+  }
+
+  @Override
+  // one transaction for the location slot and the warehouse, as a database-checked slot needs
+  @jakarta.transaction.Transactional
   public Warehouse createANewWarehouseUnit(@NotNull Warehouse data) {
     com.fulfilment.application.monolith.warehouses.domain.models.Warehouse domainWarehouse = fromApi(data);
     createWarehouseOperation.create(domainWarehouse);
@@ -45,13 +120,14 @@ public class WarehouseResourceImpl implements WarehouseResource {
   }
 
   @Override
-  public Warehouse getAWarehouseUnitByID(String id) {
-    com.fulfilment.application.monolith.warehouses.domain.models.Warehouse domainWarehouse = warehouseStore
-        .findByBusinessUnitCode(id);
-    if (domainWarehouse == null) {
-      throw new jakarta.ws.rs.WebApplicationException("Warehouse not found", 404);
-    }
-    return toApi(domainWarehouse);
+  @ConditionalGet(value = WarehouseVersions.class, versionedEntity = true)
+  public CompletionStage<Warehouse> getAWarehouseUnitByID(String id) {
+    return reactiveWarehouseStore.findByBusinessUnitCode(id).thenApply(domainWarehouse -> {
+      if (domainWarehouse == null) {
+        throw new jakarta.ws.rs.WebApplicationException("Warehouse not found", 404);
+      }
+      return toApi(domainWarehouse);
+    });
   }
 
   @Override
@@ -71,17 +147,18 @@ public class WarehouseResourceImpl implements WarehouseResource {
     return data;
   }
 
-  private Warehouse toApi(com.fulfilment.application.monolith.warehouses.domain.models.Warehouse domain) {
+  Warehouse toApi(com.fulfilment.application.monolith.warehouses.domain.models.Warehouse domain) {
     Warehouse api = new Warehouse();
     api.setId(domain.getBusinessUnitCode());
     api.setBusinessUnitCode(domain.getBusinessUnitCode());
     api.setLocation(domain.getLocation());
     api.setCapacity(domain.getCapacity());
     api.setStock(domain.getStock());
+    api.setVersion(domain.getVersion());
     return api;
   }
 
-  private com.fulfilment.application.monolith.warehouses.domain.models.Warehouse fromApi(Warehouse api) {
+  com.fulfilment.application.monolith.warehouses.domain.models.Warehouse fromApi(Warehouse api) {
     com.fulfilment.application.monolith.warehouses.domain.models.Warehouse domain = new com.fulfilment.application.monolith.warehouses.domain.models.Warehouse();
     domain.setBusinessUnitCode(api.getBusinessUnitCode() != null ? api.getBusinessUnitCode() : api.getId());
     domain.setLocation(api.getLocation());
@@ -0,0 +1,40 @@
+package com.fulfilment.application.monolith.warehouses.adapters.restapi;
+
+import com.fulfilment.application.monolith.cache.VersionProbe;
+import com.fulfilment.application.monolith.warehouses.domain.ports.ReactiveWarehouseStore;
+import com.warehouse.api.beans.Warehouse;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.ws.rs.core.UriInfo;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Versions of a warehouse ({@code GET /warehouse/{id}}) and of all warehouses ({@code GET /warehouse}),
+ * for the ETags of {@link WarehouseResourceImpl}. The endpoints are non-blocking, so the versions are read
+ * through the {@link ReactiveWarehouseStore}.
+ */
+@ApplicationScoped
+public class WarehouseVersions implements VersionProbe {
+
+  private final ReactiveWarehouseStore reactiveWarehouseStore;
+
+  public WarehouseVersions(ReactiveWarehouseStore reactiveWarehouseStore) {
+    this.reactiveWarehouseStore = reactiveWarehouseStore;
+  }
+
+  @Override
+  public CompletionStage<String> version(UriInfo uri) {
+    String id = uri.getPathParameters().getFirst("id");
+    if (id == null) {
+      return reactiveWarehouseStore.listVersion();
+    }
+    return reactiveWarehouseStore.findVersion(id).thenApply(version -> version != null ? version.toString() : null);
+  }
+
+  @Override
+  public String versionOf(Object entity) {
+    if (entity instanceof Warehouse && ((Warehouse) entity).getVersion() != null) {
+      return ((Warehouse) entity).getVersion().toString();
+    }
+    return null;
+  }
+}
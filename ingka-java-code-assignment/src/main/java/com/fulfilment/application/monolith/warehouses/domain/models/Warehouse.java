@@ -22,6 +22,9 @@ public class Warehouse {
 
   private ZonedDateTime archivedAt;
 
+  // incremented on every change by stores that keep versions, null otherwise
+  private Long version;
+
   public Warehouse() {
   }
 
@@ -79,4 +82,12 @@ public class Warehouse {
   public void setArchivedAt(ZonedDateTime archivedAt) {
     this.archivedAt = archivedAt;
   }
+
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
 }
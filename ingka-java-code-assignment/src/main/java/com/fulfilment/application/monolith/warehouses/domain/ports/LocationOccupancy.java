@@ -0,0 +1,18 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+/**
+ * Tracks how many active warehouses occupy each location, so that the
+ * maximum number of warehouses per location can be enforced atomically.
+ */
+public interface LocationOccupancy {
+
+  /**
+   * Claims one warehouse slot at the given location.
+   *
+   * @return {@code false} when the location is unknown or already full
+   */
+  boolean tryReserve(String locationIdentifier);
+
+  /** Gives back a slot previously claimed at the given location. */
+  void release(String locationIdentifier);
+}
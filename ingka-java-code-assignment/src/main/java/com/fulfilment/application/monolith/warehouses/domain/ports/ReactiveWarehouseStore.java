@@ -0,0 +1,21 @@
+package com.fulfilment.application.monolith.warehouses.domain.ports;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Non-blocking reads of the warehouses, with the same results as the {@link WarehouseStore} methods of
+ * the same name. Implementations never block the calling thread, so they can be used from an event loop.
+ */
+public interface ReactiveWarehouseStore {
+  CompletionStage<Warehouse> findByBusinessUnitCode(String buCode);
+
+  CompletionStage<Long> findVersion(String buCode);
+
+  CompletionStage<String> listVersion();
+
+  CompletionStage<List<Warehouse>> getAll();
+
+  CompletionStage<List<Warehouse>> findPage(String afterBusinessUnitCode, int size);
+}
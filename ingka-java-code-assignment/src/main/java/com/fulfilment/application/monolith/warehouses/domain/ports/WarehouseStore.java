@@ -1,17 +1,72 @@
 package com.fulfilment.application.monolith.warehouses.domain.ports;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface WarehouseStore {
   void create(Warehouse warehouse);
 
-  void update(Warehouse warehouse);
+  /**
+   * Overwrites the location, capacity and stock of the warehouse with the same business unit code.
+   * When the warehouse carries a version, it is only overwritten while the stored one still has that
+   * version; stores that do not keep versions ignore it.
+   *
+   * @return the number of warehouses updated, 0 when there is none with that code (and version)
+   */
+  int update(Warehouse warehouse);
+
+  /**
+   * Marks the warehouse with the given business unit code as archived at {@code archivedAt}, unless
+   * it is archived already.
+   *
+   * @return the number of warehouses archived, 0 when there is no active one with that code
+   */
+  default int archive(String buCode, ZonedDateTime archivedAt) {
+    return archive(buCode, null, archivedAt);
+  }
+
+  /**
+   * Like {@link #archive(String, ZonedDateTime)}, but when {@code version} is not {@code null} only
+   * while the stored warehouse still has that version; stores that do not keep versions ignore it.
+   *
+   * @return the number of warehouses archived, 0 when there is no active one with that code (and version)
+   */
+  int archive(String buCode, Long version, ZonedDateTime archivedAt);
 
   void remove(Warehouse warehouse);
 
   Warehouse findByBusinessUnitCode(String buCode);
 
-  long countByLocation(String locationIdentifier);
+  /**
+   * Returns the version of the warehouse with the given business unit code without loading it where
+   * possible, or {@code null} when there is none or the store does not keep versions.
+   */
+  Long findVersion(String buCode);
+
+  /**
+   * Returns a version of all warehouses together, which changes whenever one is created, changed or
+   * removed, or {@code null} when the store does not keep versions.
+   */
+  String listVersion();
+
+  /**
+   * Returns the number of non-archived warehouses per location identifier.
+   */
+  Map<String, Long> countActiveByLocation();
 
   java.util.List<Warehouse> getAll();
+
+  /**
+   * Returns at most {@code size} warehouses ordered by business unit code, starting right after
+   * {@code afterBusinessUnitCode} (or from the first one when it is {@code null}).
+   */
+  java.util.List<Warehouse> findPage(String afterBusinessUnitCode, int size);
+
+  /**
+   * Hands every warehouse, ordered by business unit code, to {@code consumer} as it is read,
+   * without materialising the whole table.
+   */
+  void streamAll(Consumer<Warehouse> consumer);
 }
@@ -1,36 +1,88 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
+import com.fulfilment.application.monolith.database.ConcurrentUpdateException;
+import com.fulfilment.application.monolith.database.DatabaseBound;
+import com.fulfilment.application.monolith.database.OptimisticRetry;
+import com.fulfilment.application.monolith.metrics.Measured;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.ports.ArchiveWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationOccupancy;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import jakarta.enterprise.context.ApplicationScoped;
+import java.time.ZonedDateTime;
 import org.jboss.logging.Logger;
 
 /**
  * Use case for archiving an existing warehouse unit.
- * Sets the archivedAt timestamp to soft-delete the warehouse unit.
+ * Sets the archivedAt timestamp to soft-delete the warehouse unit and frees its
+ * slot at the location. The warehouse is expected as loaded by the caller, so
+ * archiving it is a single UPDATE, applied only to the version the caller loaded;
+ * when the warehouse changed since, it is read again and archiving is retried, so
+ * the slot freed is the one at its current location.
  */
 @ApplicationScoped
+@Measured
+@DatabaseBound
 public class ArchiveWarehouseUseCase implements ArchiveWarehouseOperation {
 
   private static final Logger LOGGER = Logger.getLogger(ArchiveWarehouseUseCase.class);
 
   private final WarehouseStore warehouseStore;
+  private final LocationOccupancy locationOccupancy;
+  private final OptimisticRetry retry;
 
-  public ArchiveWarehouseUseCase(WarehouseStore warehouseStore) {
+  public ArchiveWarehouseUseCase(WarehouseStore warehouseStore, LocationOccupancy locationOccupancy,
+      OptimisticRetry retry) {
     this.warehouseStore = warehouseStore;
+    this.locationOccupancy = locationOccupancy;
+    this.retry = retry;
   }
 
   @Override
   public void archive(Warehouse warehouse) {
     LOGGER.infof("Archiving warehouse with business unit code '%s'", warehouse.getBusinessUnitCode());
-    Warehouse existing = warehouseStore.findByBusinessUnitCode(warehouse.getBusinessUnitCode());
-    if (existing != null) {
-      existing.setArchivedAt(java.time.ZonedDateTime.now());
-      warehouseStore.update(existing);
-      LOGGER.infof("Warehouse '%s' archived successfully", warehouse.getBusinessUnitCode());
-    } else {
-      LOGGER.warnf("Warehouse '%s' not found for archiving", warehouse.getBusinessUnitCode());
+    String code = warehouse.getBusinessUnitCode();
+    // the caller's warehouse for the first attempt; after a conflict it is stale and read again
+    Archival archival = retry.call(attempt ->
+        archiveOnce(code, attempt == 1 ? warehouse : warehouseStore.findByBusinessUnitCode(code)));
+    if (archival == null) {
+      LOGGER.warnf("Warehouse '%s' not found or already archived", code);
+      return;
+    }
+    if (archival.location == null) {
+      LOGGER.warnf("Warehouse '%s' archived, but removed before its location could be read", code);
+      return;
+    }
+    locationOccupancy.release(archival.location);
+    LOGGER.infof("Warehouse '%s' archived successfully", code);
+  }
+
+  // null when nothing was archived
+  private Archival archiveOnce(String code, Warehouse current) {
+    if (current == null || current.getArchivedAt() != null) {
+      return null;
+    }
+    // archived only while still active, so a repeated archive does not free the slot twice
+    if (warehouseStore.archive(code, current.getVersion(), ZonedDateTime.now()) == 0) {
+      if (current.getVersion() != null) {
+        throw new ConcurrentUpdateException("Warehouse changed while it was being archived: " + code);
+      }
+      return null;
+    }
+    if (current.getLocation() != null) {
+      return new Archival(current.getLocation());
+    }
+    Warehouse archived = warehouseStore.findByBusinessUnitCode(code);
+    return new Archival(archived != null ? archived.getLocation() : null);
+  }
+
+  // the location whose slot the archived warehouse held, null when it is not known
+  private static final class Archival {
+
+    final String location;
+
+    Archival(String location) {
+      this.location = location;
     }
   }
 }
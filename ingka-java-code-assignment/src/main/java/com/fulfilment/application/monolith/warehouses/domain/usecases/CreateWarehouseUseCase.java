@@ -1,27 +1,37 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
+import com.fulfilment.application.monolith.database.DatabaseBound;
+import com.fulfilment.application.monolith.metrics.Measured;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 import com.fulfilment.application.monolith.warehouses.domain.ports.CreateWarehouseOperation;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationOccupancy;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import com.fulfilment.application.monolith.warehouses.domain.validation.WarehouseValidator;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.validation.ValidationException;
 import org.jboss.logging.Logger;
 
 /**
  * Use case for creating a new warehouse unit.
- * Coordinates validation and persistence of the new warehouse.
+ * Coordinates validation, the location slot reservation and persistence of the
+ * new warehouse.
  */
 @ApplicationScoped
+@Measured
+@DatabaseBound
 public class CreateWarehouseUseCase implements CreateWarehouseOperation {
 
   private static final Logger LOGGER = Logger.getLogger(CreateWarehouseUseCase.class);
 
   private final WarehouseStore warehouseStore;
   private final WarehouseValidator warehouseValidator;
+  private final LocationOccupancy locationOccupancy;
 
-  public CreateWarehouseUseCase(WarehouseStore warehouseStore, WarehouseValidator warehouseValidator) {
+  public CreateWarehouseUseCase(WarehouseStore warehouseStore, WarehouseValidator warehouseValidator,
+      LocationOccupancy locationOccupancy) {
     this.warehouseStore = warehouseStore;
     this.warehouseValidator = warehouseValidator;
+    this.locationOccupancy = locationOccupancy;
   }
 
   @Override
@@ -29,7 +39,17 @@ public class CreateWarehouseUseCase implements CreateWarehouseOperation {
     LOGGER.infof("Creating warehouse with business unit code '%s' at location '%s'",
         warehouse.getBusinessUnitCode(), warehouse.getLocation());
     warehouseValidator.validate(warehouse, false);
-    warehouseStore.create(warehouse);
+
+    if (!locationOccupancy.tryReserve(warehouse.getLocation())) {
+      throw new ValidationException(
+          "Maximum number of warehouses reached for location: " + warehouse.getLocation());
+    }
+    try {
+      warehouseStore.create(warehouse);
+    } catch (RuntimeException e) {
+      locationOccupancy.release(warehouse.getLocation());
+      throw e;
+    }
     LOGGER.infof("Warehouse '%s' created successfully", warehouse.getBusinessUnitCode());
   }
 }
@@ -1,35 +1,90 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
+import com.fulfilment.application.monolith.database.ConcurrentUpdateException;
+import com.fulfilment.application.monolith.database.DatabaseBound;
+import com.fulfilment.application.monolith.database.OptimisticRetry;
+import com.fulfilment.application.monolith.metrics.Measured;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationOccupancy;
 import com.fulfilment.application.monolith.warehouses.domain.ports.ReplaceWarehouseOperation;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import com.fulfilment.application.monolith.warehouses.domain.validation.WarehouseValidator;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.validation.ValidationException;
 import org.jboss.logging.Logger;
 
 /**
  * Use case for replacing an existing warehouse unit.
  * Validates that the existing stock can be accommodated by the replacement's
- * capacity.
+ * capacity, and moves the location slot when the replacement changes location.
+ * Validation and update run in one transaction, the update only applying to the
+ * version that was validated; when another replacement or archive got there first,
+ * the whole sequence is retried against the new state.
  */
 @ApplicationScoped
+@Measured
+@DatabaseBound
 public class ReplaceWarehouseUseCase implements ReplaceWarehouseOperation {
 
   private static final Logger LOGGER = Logger.getLogger(ReplaceWarehouseUseCase.class);
 
   private final WarehouseStore warehouseStore;
   private final WarehouseValidator warehouseValidator;
+  private final LocationOccupancy locationOccupancy;
+  private final OptimisticRetry retry;
 
-  public ReplaceWarehouseUseCase(WarehouseStore warehouseStore, WarehouseValidator warehouseValidator) {
+  public ReplaceWarehouseUseCase(WarehouseStore warehouseStore, WarehouseValidator warehouseValidator,
+      LocationOccupancy locationOccupancy, OptimisticRetry retry) {
     this.warehouseStore = warehouseStore;
     this.warehouseValidator = warehouseValidator;
+    this.locationOccupancy = locationOccupancy;
+    this.retry = retry;
   }
 
   @Override
   public void replace(Warehouse warehouse) {
     LOGGER.infof("Replacing warehouse with business unit code '%s'", warehouse.getBusinessUnitCode());
-    warehouseValidator.validate(warehouse, true);
-    warehouseStore.update(warehouse);
+    // every attempt validates against the warehouse as stored at that moment
+    Replacement replacement = retry.call(() -> replaceOnce(warehouse));
+    if (replacement.vacated != null) {
+      locationOccupancy.release(replacement.vacated);
+    }
     LOGGER.infof("Warehouse '%s' replaced successfully", warehouse.getBusinessUnitCode());
   }
+
+  private Replacement replaceOnce(Warehouse warehouse) {
+    Warehouse existing = warehouseValidator.validate(warehouse, true);
+
+    // only an active warehouse holds a slot at its location
+    boolean movesSlot = existing != null && existing.getArchivedAt() == null
+        && !existing.getLocation().equals(warehouse.getLocation());
+    if (movesSlot) {
+      if (!locationOccupancy.tryReserve(warehouse.getLocation())) {
+        throw new ValidationException(
+            "Maximum number of warehouses reached for location: " + warehouse.getLocation());
+      }
+      // given back when this attempt fails or does not commit
+      retry.onRollback(() -> locationOccupancy.release(warehouse.getLocation()));
+    }
+    warehouse.setVersion(existing != null ? existing.getVersion() : null);
+    if (warehouseStore.update(warehouse) == 0) {
+      if (warehouse.getVersion() != null) {
+        throw new ConcurrentUpdateException(
+            "Warehouse changed while it was being replaced: " + warehouse.getBusinessUnitCode());
+      }
+      throw new ValidationException(
+          "Warehouse to replace not found: " + warehouse.getBusinessUnitCode());
+    }
+    return new Replacement(movesSlot ? existing.getLocation() : null);
+  }
+
+  // the location the warehouse moved away from, null when it kept its slot
+  private static final class Replacement {
+
+    final String vacated;
+
+    Replacement(String vacated) {
+      this.vacated = vacated;
+    }
+  }
 }
@@ -12,8 +12,9 @@ import jakarta.validation.ValidationException;
  * Validator for warehouse business rules.
  * Enforces constraints such as:
  * - Uniqueness of Business Unit Code (BUC) per location.
- * - Maximum number of warehouses per location.
  * - Minimum capacity requirements for existing stock during replacement.
+ * The maximum number of warehouses per location is enforced when the use cases
+ * reserve a slot in {@link com.fulfilment.application.monolith.warehouses.domain.ports.LocationOccupancy}.
  */
 @ApplicationScoped
 public class WarehouseBusinessValidator implements WarehouseValidator {
@@ -25,7 +26,7 @@ public class WarehouseBusinessValidator implements WarehouseValidator {
     LocationResolver locationResolver;
 
     @Override
-    public void validate(Warehouse warehouse, boolean isReplacement) {
+    public Warehouse validate(Warehouse warehouse, boolean isReplacement) {
         // 1. Business Unit Code Verification
         Warehouse existing = warehouseStore.findByBusinessUnitCode(warehouse.getBusinessUnitCode());
         if (!isReplacement) {
@@ -56,18 +57,7 @@ public class WarehouseBusinessValidator implements WarehouseValidator {
             throw new ValidationException("Invalid Location: " + warehouse.getLocation());
         }
 
-        // 3. Warehouse Creation Feasibility
-        boolean locationChanged = isReplacement && existing != null
-                && !existing.getLocation().equals(warehouse.getLocation());
-        if (!isReplacement || locationChanged) {
-            long currentCount = warehouseStore.countByLocation(warehouse.getLocation());
-            if (currentCount >= location.maxNumberOfWarehouses) {
-                throw new ValidationException(
-                        "Maximum number of warehouses reached for location: " + warehouse.getLocation());
-            }
-        }
-
-        // 4. Capacity and Stock Validation
+        // 3. Capacity and Stock Validation
         if (warehouse.getStock() > warehouse.getCapacity()) {
             throw new ValidationException(
                     "Stock cannot exceed Capacity. Stock: " + warehouse.getStock() + ", Capacity: "
@@ -79,5 +69,7 @@ public class WarehouseBusinessValidator implements WarehouseValidator {
                     "Warehouse capacity exceeds location limit. Capacity: " + warehouse.getCapacity()
                             + ", Max: " + location.maxCapacity);
         }
+
+        return existing;
     }
 }
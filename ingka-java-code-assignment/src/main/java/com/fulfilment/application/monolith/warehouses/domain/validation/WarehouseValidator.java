@@ -3,5 +3,10 @@ package com.fulfilment.application.monolith.warehouses.domain.validation;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
 
 public interface WarehouseValidator {
-    void validate(Warehouse warehouse, boolean isReplacement);
+    /**
+     * Validates a warehouse about to be created or to replace an existing one.
+     *
+     * @return the currently stored warehouse for a replacement, {@code null} for a creation
+     */
+    Warehouse validate(Warehouse warehouse, boolean isReplacement);
 }
@@ -0,0 +1,76 @@
+package com.fulfilment.application.monolith.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class LocalInvalidationBusTest {
+
+    @Mock
+    TransactionSynchronizationRegistry transactions;
+
+    private final List<String> invalidated = new CopyOnWriteArrayList<>();
+
+    private LocalInvalidationBus bus;
+
+    @BeforeEach
+    void setUp() {
+        bus = new LocalInvalidationBus(transactions);
+        bus.subscribe("warehouse", invalidated::add);
+    }
+
+    @Test
+    void testPublish_OutsideTransaction_DeliversRightAway() {
+        when(transactions.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+
+        bus.publish("warehouse", "MWH.001");
+        bus.publish("store", "1");
+
+        assertEquals(List.of("MWH.001"), invalidated);
+    }
+
+    @Test
+    void testPublish_InTransaction_DeliversOnlyOnCommit() {
+        when(transactions.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+
+        bus.publish("warehouse", "MWH.001");
+        bus.publish("warehouse", "MWH.002");
+        assertTrue(invalidated.isEmpty());
+
+        ArgumentCaptor<Synchronization> completions = ArgumentCaptor.forClass(Synchronization.class);
+        verify(transactions, times(2)).registerInterposedSynchronization(completions.capture());
+        completions.getAllValues().get(0).afterCompletion(Status.STATUS_COMMITTED);
+        completions.getAllValues().get(1).afterCompletion(Status.STATUS_ROLLEDBACK);
+
+        assertEquals(List.of("MWH.001"), invalidated);
+    }
+
+    @Test
+    void testFailingListener_DoesNotStopOthers() {
+        when(transactions.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+        LocalInvalidationBus failing = new LocalInvalidationBus(transactions);
+        failing.subscribe("warehouse", key -> {
+            throw new IllegalStateException("boom");
+        });
+        failing.subscribe("warehouse", invalidated::add);
+
+        failing.publish("warehouse", "MWH.001");
+
+        assertEquals(List.of("MWH.001"), invalidated);
+    }
+}
@@ -0,0 +1,82 @@
+package com.fulfilment.application.monolith.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.ws.rs.WebApplicationException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class ConnectionGuardTest {
+
+    @Test
+    void testNestedEntriesTakeOnePermit() {
+        ConnectionGuard guard = new ConnectionGuard(true, 2, Duration.ofMillis(50));
+
+        guard.enter();
+        guard.enter();
+        assertEquals(1, guard.availablePermits());
+
+        guard.exit();
+        assertEquals(1, guard.availablePermits());
+        guard.exit();
+        assertEquals(2, guard.availablePermits());
+    }
+
+    @Test
+    void testFullGuard_WaitsThenRejects() {
+        ConnectionGuard guard = new ConnectionGuard(true, 1, Duration.ofMillis(50));
+        guard.enter();
+
+        CompletionException rejected = assertThrows(CompletionException.class,
+                () -> CompletableFuture.runAsync(guard::enter).join());
+
+        assertEquals(503, ((WebApplicationException) rejected.getCause()).getResponse().getStatus());
+        guard.exit();
+    }
+
+    @Test
+    void testWaitingThreadGetsReleasedPermit() throws Exception {
+        ConnectionGuard guard = new ConnectionGuard(true, 1, Duration.ofSeconds(5));
+        guard.enter();
+        CountDownLatch entered = new CountDownLatch(1);
+
+        Thread waiter = new Thread(() -> {
+            guard.enter();
+            entered.countDown();
+            guard.exit();
+        });
+        waiter.start();
+        while (guard.queueLength() == 0) {
+            Thread.onSpinWait();
+        }
+
+        guard.exit();
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        waiter.join();
+        assertEquals(1, guard.availablePermits());
+    }
+
+    @Test
+    void testDefaultPermits_LeaveTheReservedConnections() {
+        assertEquals(5, new ConnectionGuard(true, Optional.empty(), 8, 3, Duration.ofMillis(50)).availablePermits());
+        assertEquals(1, new ConnectionGuard(true, Optional.empty(), 2, 3, Duration.ofMillis(50)).availablePermits());
+        assertEquals(8, new ConnectionGuard(true, Optional.of(8), 8, 3, Duration.ofMillis(50)).availablePermits());
+    }
+
+    @Test
+    void testDisabled_NeverWaits() {
+        ConnectionGuard guard = new ConnectionGuard(false, 0, Duration.ofMillis(50));
+
+        guard.enter();
+        guard.exit();
+
+        assertEquals(0, guard.availablePermits());
+    }
+}
@@ -0,0 +1,98 @@
+package com.fulfilment.application.monolith.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+
+public class OptimisticRetryTest {
+
+    @Test
+    void testConflict_RetriedUntilAnAttemptCommits() {
+        TrackingRetry retry = new TrackingRetry(4);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = retry.call(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ConcurrentUpdateException("lost");
+            }
+            return "done";
+        });
+
+        assertEquals("done", result);
+        assertEquals(3, attempts.get());
+        assertEquals(3, retry.transactions);
+    }
+
+    @Test
+    void testAttemptsAreNumbered() {
+        TrackingRetry retry = new TrackingRetry(4);
+        List<Integer> numbers = new ArrayList<>();
+
+        int result = retry.call(attempt -> {
+            numbers.add(attempt);
+            if (attempt < 3) {
+                throw new ConcurrentUpdateException("lost");
+            }
+            return attempt;
+        });
+
+        assertEquals(3, result);
+        assertEquals(List.of(1, 2, 3), numbers);
+    }
+
+    @Test
+    void testConflictOnEveryAttempt_ThrowsTheLastOne() {
+        TrackingRetry retry = new TrackingRetry(3);
+        AtomicInteger attempts = new AtomicInteger();
+
+        ConcurrentUpdateException thrown = assertThrows(ConcurrentUpdateException.class, () -> retry.call(() -> {
+            throw new ConcurrentUpdateException("lost " + attempts.incrementAndGet());
+        }));
+
+        assertEquals("lost 3", thrown.getMessage());
+    }
+
+    @Test
+    void testOtherFailure_NotRetried() {
+        TrackingRetry retry = new TrackingRetry(3);
+
+        assertThrows(IllegalStateException.class, () -> retry.call(() -> {
+            throw new IllegalStateException("broken");
+        }));
+
+        assertEquals(1, retry.transactions);
+    }
+
+    @Test
+    void testIsConflict_LooksThroughTheCauseChain() {
+        assertTrue(OptimisticRetry.isConflict(new ConcurrentUpdateException("lost")));
+        assertTrue(OptimisticRetry.isConflict(new PersistenceException(new OptimisticLockException("stale"))));
+        assertFalse(OptimisticRetry.isConflict(new PersistenceException("down")));
+    }
+
+    // runs attempts without a transaction manager, counting them
+    static class TrackingRetry extends OptimisticRetry {
+
+        int transactions;
+
+        TrackingRetry(int maxAttempts) {
+            super(maxAttempts, Duration.ofMillis(1), Duration.ofMillis(2));
+        }
+
+        @Override
+        protected <T> T inNewTransaction(Supplier<T> attempt) {
+            transactions++;
+            return attempt.get();
+        }
+    }
+}
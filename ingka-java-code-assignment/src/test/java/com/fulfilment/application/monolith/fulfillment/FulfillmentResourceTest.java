@@ -0,0 +1,193 @@
+package com.fulfilment.application.monolith.fulfillment;
+
+import com.fulfilment.application.monolith.metrics.SqlStatementRecorder;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+public class FulfillmentResourceTest {
+
+    @Test
+    public void testAssociate_IsIdempotent() {
+        String payload = association("KALLAX", "HENGELO", "MWH.012");
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(payload)
+                .when().post("/fulfillment")
+                .then()
+                .statusCode(201)
+                .body("productName", is("KALLAX"));
+
+        // Same association again is accepted without creating a second one
+        given()
+                .contentType(ContentType.JSON)
+                .body(payload)
+                .when().post("/fulfillment")
+                .then()
+                .statusCode(201);
+    }
+
+    @Test
+    public void testAssociate_StatementBudget() {
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"name\": \"NIJMEGEN\", \"quantityProductsInStock\": 1}")
+                .when().post("/stores")
+                .then()
+                .statusCode(201);
+        String payload = association("KALLAX", "NIJMEGEN", "MWH.023");
+
+        List<String> statements = new ArrayList<>(SqlStatementRecorder.assertAtMost(4, "POST /fulfillment",
+                () -> given()
+                        .contentType(ContentType.JSON)
+                        .body(payload)
+                        .when().post("/fulfillment")
+                        .then()
+                        .statusCode(201)));
+
+        statements.addAll(SqlStatementRecorder.assertAtMost(1, "POST /fulfillment (already associated)", () -> given()
+                .contentType(ContentType.JSON)
+                .body(payload)
+                .when().post("/fulfillment")
+                .then()
+                .statusCode(201)));
+
+        // the index answers every counter, so the database is only asked whether the entities exist
+        for (String statement : statements) {
+            assertFalse(statement.contains("from fulfillment"), statement);
+        }
+    }
+
+    @Test
+    public void testList() {
+        given()
+                .contentType(ContentType.JSON)
+                .body(association("TONSTAD", "AMSTERDAM", "MWH.012"))
+                .when().post("/fulfillment")
+                .then()
+                .statusCode(201);
+
+        given()
+                .when().get("/fulfillment")
+                .then()
+                .statusCode(200)
+                .body("findAll { it.warehouseBusinessUnitCode == 'MWH.012' }.productName", hasItem("TONSTAD"));
+    }
+
+    @Test
+    public void testAssociate_UnknownProduct() {
+        given()
+                .contentType(ContentType.JSON)
+                .body(association("GHOST", "HENGELO", "MWH.012"))
+                .when().post("/fulfillment")
+                .then()
+                .statusCode(400)
+                .body("error", is("Product not found: GHOST"));
+    }
+
+    @Test
+    public void testAssociate_Max2WarehousesPerProductPerStore() {
+        given()
+                .contentType(ContentType.JSON)
+                .body(association("BESTÅ", "HAARLEM", "MWH.001"))
+                .when().post("/fulfillment")
+                .then()
+                .statusCode(201);
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(association("BESTÅ", "HAARLEM", "MWH.012"))
+                .when().post("/fulfillment")
+                .then()
+                .statusCode(201);
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(association("BESTÅ", "HAARLEM", "MWH.023"))
+                .when().post("/fulfillment")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    public void testAssociate_LimitsFollowARenamedStore() {
+        int storeId = given()
+                .contentType(ContentType.JSON)
+                .body("{\"name\": \"ALMERE\", \"quantityProductsInStock\": 1}")
+                .when().post("/stores")
+                .then()
+                .statusCode(201)
+                .extract().path("id");
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"name\": \"HEMNES\", \"stock\": 1}")
+                .when().post("/product")
+                .then()
+                .statusCode(201);
+        for (String warehouse : List.of("MWH.001", "MWH.012")) {
+            given()
+                    .contentType(ContentType.JSON)
+                    .body(association("HEMNES", "ALMERE", warehouse))
+                    .when().post("/fulfillment")
+                    .then()
+                    .statusCode(201);
+        }
+
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"name\": \"ALMERE-CENTRUM\", \"quantityProductsInStock\": 1}")
+                .when().put("/stores/" + storeId)
+                .then()
+                .statusCode(200);
+
+        // The product already has two warehouses for the store under its old name
+        given()
+                .contentType(ContentType.JSON)
+                .body(association("HEMNES", "ALMERE-CENTRUM", "MWH.023"))
+                .when().post("/fulfillment")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    public void testAssociateBulk_ReportsOneResultPerLine() {
+        String body = association("KALLAX", "HAARLEM", "MWH.023") + "\n"
+                + association("KALLAX", "HAARLEM", "MWH.023") + "\n"
+                + "\n"
+                + "{not json\n"
+                + association("GHOST", "HAARLEM", "MWH.023") + "\n";
+
+        String[] results = given()
+                .contentType("application/x-ndjson")
+                .accept("application/x-ndjson")
+                .body(body.getBytes(StandardCharsets.UTF_8))
+                .when().post("/fulfillment/bulk")
+                .then()
+                .statusCode(200)
+                .extract().asString().split("\n");
+
+        // Blank lines are skipped but still counted
+        assertEquals(4, results.length);
+        assertEquals("{\"line\":1,\"status\":\"CREATED\"}", results[0]);
+        assertEquals("{\"line\":2,\"status\":\"ALREADY_ASSOCIATED\"}", results[1]);
+        assertTrue(results[2].startsWith("{\"line\":4,\"status\":\"REJECTED\",\"error\":\"Malformed line"));
+        assertEquals("{\"line\":5,\"status\":\"REJECTED\",\"error\":\"Product not found: GHOST\"}", results[3]);
+    }
+
+    private static String association(String product, String store, String warehouse) {
+        return "{\"productName\": \"" + product + "\", \"storeName\": \"" + store
+                + "\", \"warehouseBusinessUnitCode\": \"" + warehouse + "\"}";
+    }
+}
@@ -0,0 +1,92 @@
+package com.fulfilment.application.monolith.fulfillment.adapters.database;
+
+import com.fulfilment.application.monolith.fulfillment.domain.models.Fulfillment;
+import com.fulfilment.application.monolith.fulfillment.domain.models.FulfillmentConstraints;
+import com.fulfilment.application.monolith.stores.Store;
+import io.quarkus.test.TestTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@QuarkusTest
+public class FulfillmentRepositoryTest {
+
+    @Inject
+    FulfillmentRepository fulfillmentRepository;
+
+    @Test
+    @TestTransaction
+    public void testSave_ReportsWhetherTheRowWasCreated() {
+        Fulfillment fulfillment = new Fulfillment("BESTÅ", "HENGELO", "MWH.001");
+
+        assertTrue(fulfillmentRepository.save(fulfillment));
+        assertFalse(fulfillmentRepository.save(fulfillment));
+        assertEquals(1, fulfillmentRepository.count(
+                "product.name = ?1 and store.name = ?2 and warehouse.businessUnitCode = ?3",
+                "BESTÅ", "HENGELO", "MWH.001"));
+    }
+
+    @Test
+    @TestTransaction
+    public void testSaveAll_SkipsDuplicates() {
+        Fulfillment first = new Fulfillment("KALLAX", "HENGELO", "MWH.023");
+        Fulfillment second = new Fulfillment("BESTÅ", "HENGELO", "MWH.023");
+
+        boolean[] created = fulfillmentRepository.saveAll(List.of(first, second, first));
+
+        assertArrayEquals(new boolean[] {true, true, false}, created);
+    }
+
+    @Test
+    @TestTransaction
+    public void testSaveAll_StoredAssociationInBatch_NotReportedCreated() {
+        Fulfillment stored = new Fulfillment("TONSTAD", "HENGELO", "MWH.023");
+        Fulfillment added = new Fulfillment("KALLAX", "HENGELO", "MWH.023");
+        fulfillmentRepository.save(stored);
+
+        boolean[] created = fulfillmentRepository.saveAll(List.of(stored, added, added));
+
+        assertArrayEquals(new boolean[] {false, true, false}, created);
+    }
+
+    @Test
+    public void testExecuteBatch_RowCountsWithoutInfo_Rejected() throws SQLException {
+        PreparedStatement insert = mock(PreparedStatement.class);
+        when(insert.executeBatch()).thenReturn(new int[] {1, Statement.SUCCESS_NO_INFO});
+
+        // a rewritten batch cannot tell a skipped duplicate from a new row
+        assertThrows(IllegalStateException.class,
+                () -> FulfillmentRepository.executeBatch(insert, new boolean[2], 0));
+    }
+
+    @Test
+    @TestTransaction
+    public void testLoadConstraints_FollowsRenamedStore() {
+        fulfillmentRepository.save(new Fulfillment("KALLAX", "HENGELO", "MWH.001"));
+        assertTrue(fulfillmentRepository.loadConstraints("KALLAX", "HENGELO", "MWH.001").alreadyAssociated);
+
+        // The association references the store, so it moves with the rename
+        Store store = Store.find("name", "HENGELO").firstResult();
+        store.name = "HENGELO-OOST";
+        Store.flush();
+
+        assertFalse(fulfillmentRepository.loadConstraints("KALLAX", "HENGELO", "MWH.001").storeExists);
+        FulfillmentConstraints renamed = fulfillmentRepository.loadConstraints("KALLAX", "HENGELO-OOST", "MWH.001");
+        assertTrue(renamed.storeExists);
+        assertTrue(renamed.alreadyAssociated);
+        assertTrue(fulfillmentRepository.getAll().stream()
+                .anyMatch(f -> f.productName.equals("KALLAX") && f.storeName.equals("HENGELO-OOST")));
+    }
+}
@@ -0,0 +1,211 @@
+package com.fulfilment.application.monolith.fulfillment.adapters.memory;
+
+import com.fulfilment.application.monolith.fulfillment.domain.models.Fulfillment;
+import com.fulfilment.application.monolith.fulfillment.domain.models.FulfillmentConstraints;
+import com.fulfilment.application.monolith.fulfillment.domain.ports.FulfillmentIndex;
+import com.fulfilment.application.monolith.fulfillment.domain.ports.FulfillmentStore;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class InMemoryFulfillmentIndexTest {
+
+    private static final FulfillmentConstraints STORED =
+            new FulfillmentConstraints(true, true, true, false, 0, 0, 0, false, false);
+
+    @Mock
+    FulfillmentStore fulfillmentStore;
+
+    @Mock
+    TransactionSynchronizationRegistry transactionRegistry;
+
+    InMemoryFulfillmentIndex index;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionRegistry.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+        when(fulfillmentStore.getAll()).thenReturn(List.of(
+                new Fulfillment("P1", "S1", "W1"),
+                new Fulfillment("P1", "S1", "W2"),
+                new Fulfillment("P2", "S1", "W1"),
+                new Fulfillment("P2", "S2", "W3")));
+        index = new InMemoryFulfillmentIndex(fulfillmentStore, transactionRegistry, true);
+        index.rebuild();
+    }
+
+    @Test
+    void testConstraintsFor_CountsFromStoredAssociations() {
+        FulfillmentConstraints constraints = index.constraintsFor(new Fulfillment("P1", "S1", "W3"), STORED);
+
+        assertFalse(constraints.alreadyAssociated);
+        assertEquals(2, constraints.warehousesForProductInStore); // W1, W2
+        assertEquals(2, constraints.warehousesForStore); // W1, W2
+        assertEquals(1, constraints.productsInWarehouse); // P2
+        assertFalse(constraints.warehouseAssociatedWithStore);
+        assertFalse(constraints.productAssociatedWithWarehouse);
+        assertTrue(constraints.productExists);
+    }
+
+    @Test
+    void testConstraintsFor_ExistingAssociation() {
+        FulfillmentConstraints constraints = index.constraintsFor(new Fulfillment("P2", "S1", "W1"), STORED);
+
+        assertTrue(constraints.alreadyAssociated);
+        assertTrue(constraints.warehouseAssociatedWithStore);
+        assertTrue(constraints.productAssociatedWithWarehouse);
+        assertEquals(2, constraints.productsInWarehouse); // P1, P2
+    }
+
+    @Test
+    void testAdd_VisibleToNextCheck() {
+        index.add(new Fulfillment("P3", "S2", "W1"));
+
+        FulfillmentConstraints constraints = index.constraintsFor(new Fulfillment("P4", "S2", "W1"), STORED);
+        assertEquals(2, constraints.warehousesForStore); // W3, W1
+        assertEquals(3, constraints.productsInWarehouse); // P1, P2, P3
+        assertTrue(constraints.warehouseAssociatedWithStore);
+    }
+
+    @Test
+    void testAdd_RemovedWhenTransactionRollsBack() {
+        when(transactionRegistry.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+        Fulfillment f = new Fulfillment("P3", "S2", "W1");
+
+        index.add(f);
+
+        ArgumentCaptor<Synchronization> synchronization = ArgumentCaptor.forClass(Synchronization.class);
+        verify(transactionRegistry).registerInterposedSynchronization(synchronization.capture());
+        assertTrue(index.constraintsFor(f, STORED).alreadyAssociated);
+
+        synchronization.getValue().afterCompletion(Status.STATUS_ROLLEDBACK);
+
+        FulfillmentConstraints constraints = index.constraintsFor(f, STORED);
+        assertFalse(constraints.alreadyAssociated);
+        assertEquals(1, constraints.warehousesForStore); // W3 only
+        assertEquals(2, constraints.productsInWarehouse); // P1, P2
+    }
+
+    @Test
+    void testAdd_KeptWhenTransactionCommits() {
+        when(transactionRegistry.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+        Fulfillment f = new Fulfillment("P3", "S2", "W1");
+
+        index.add(f);
+
+        ArgumentCaptor<Synchronization> synchronization = ArgumentCaptor.forClass(Synchronization.class);
+        verify(transactionRegistry).registerInterposedSynchronization(synchronization.capture());
+        synchronization.getValue().afterCompletion(Status.STATUS_COMMITTED);
+
+        assertTrue(index.constraintsFor(f, STORED).alreadyAssociated);
+    }
+
+    @Test
+    void testRenameStore_KeepsItsCountsUnderTheNewName() {
+        index.renameStore("S1", "S1-RENAMED");
+
+        FulfillmentConstraints renamed = index.constraintsFor(new Fulfillment("P1", "S1-RENAMED", "W3"), STORED);
+        assertEquals(2, renamed.warehousesForProductInStore); // W1, W2
+        assertEquals(2, renamed.warehousesForStore);
+        assertEquals(0, index.constraintsFor(new Fulfillment("P1", "S1", "W3"), STORED).warehousesForStore);
+        assertEquals(2, index.constraintsFor(new Fulfillment("P3", "S3", "W1"), STORED).productsInWarehouse);
+    }
+
+    @Test
+    void testRenameProduct_OnlyOnceTheTransactionCommits() {
+        when(transactionRegistry.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+
+        index.renameProduct("P1", "P1-RENAMED");
+
+        ArgumentCaptor<Synchronization> synchronization = ArgumentCaptor.forClass(Synchronization.class);
+        verify(transactionRegistry).registerInterposedSynchronization(synchronization.capture());
+        assertTrue(index.constraintsFor(new Fulfillment("P1", "S1", "W1"), STORED).alreadyAssociated);
+
+        synchronization.getValue().afterCompletion(Status.STATUS_COMMITTED);
+
+        assertFalse(index.constraintsFor(new Fulfillment("P1", "S1", "W1"), STORED).alreadyAssociated);
+        FulfillmentConstraints renamed = index.constraintsFor(new Fulfillment("P1-RENAMED", "S1", "W3"), STORED);
+        assertEquals(2, renamed.warehousesForProductInStore); // W1, W2
+        assertFalse(index.constraintsFor(new Fulfillment("P1", "S3", "W1"), STORED).productAssociatedWithWarehouse);
+    }
+
+    @Test
+    void testRemoveStore_NewStoreWithTheSameNameStartsEmpty() {
+        index.removeStore("S1");
+
+        FulfillmentConstraints constraints = index.constraintsFor(new Fulfillment("P1", "S1", "W1"), STORED);
+        assertFalse(constraints.alreadyAssociated);
+        assertEquals(0, constraints.warehousesForStore);
+        assertEquals(0, constraints.productsInWarehouse); // W1 only fulfilled S1
+    }
+
+    @Test
+    void testRemoveWarehouse_KeptWhenTransactionRollsBack() {
+        when(transactionRegistry.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+
+        index.removeWarehouse("W1");
+
+        ArgumentCaptor<Synchronization> synchronization = ArgumentCaptor.forClass(Synchronization.class);
+        verify(transactionRegistry).registerInterposedSynchronization(synchronization.capture());
+        synchronization.getValue().afterCompletion(Status.STATUS_ROLLEDBACK);
+
+        assertEquals(2, index.constraintsFor(new Fulfillment("P3", "S3", "W1"), STORED).productsInWarehouse);
+    }
+
+    @Test
+    void testDisabled_PassesStoredSnapshotThrough() {
+        InMemoryFulfillmentIndex disabled = new InMemoryFulfillmentIndex(fulfillmentStore, transactionRegistry, false);
+        disabled.rebuild();
+
+        assertSame(STORED, disabled.constraintsFor(new Fulfillment("P1", "S1", "W1"), STORED));
+    }
+
+    @Test
+    void testConcurrentAssociations_NeverExceedStoreLimit() throws Exception {
+        // 50 callers race to attach distinct warehouses to a new store limited to 3 warehouses
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Boolean>> attempts = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                Fulfillment f = new Fulfillment("P9", "S9", "WH-" + i);
+                attempts.add(() -> {
+                    try (FulfillmentIndex.Guard guard = index.lock(f)) {
+                        if (index.constraintsFor(f, STORED).warehousesForStore >= 3) {
+                            return false;
+                        }
+                        index.add(f);
+                        return true;
+                    }
+                });
+            }
+            int accepted = 0;
+            for (Future<Boolean> result : executor.invokeAll(attempts)) {
+                if (result.get()) {
+                    accepted++;
+                }
+            }
+            assertEquals(3, accepted);
+            assertEquals(3, index.constraintsFor(new Fulfillment("P9", "S9", "WH-X"), STORED).warehousesForStore);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
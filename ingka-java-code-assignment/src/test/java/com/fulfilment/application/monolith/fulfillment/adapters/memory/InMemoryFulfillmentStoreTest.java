@@ -0,0 +1,181 @@
+package com.fulfilment.application.monolith.fulfillment.adapters.memory;
+
+import com.fulfilment.application.monolith.fulfillment.domain.models.Fulfillment;
+import com.fulfilment.application.monolith.fulfillment.domain.models.FulfillmentConstraints;
+import com.fulfilment.application.monolith.wal.WriteAheadLog;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class InMemoryFulfillmentStoreTest {
+
+    private static final Set<String> PRODUCTS = Set.of("P1", "P2");
+    private static final Set<String> STORES = Set.of("S1", "S2");
+    private static final Set<String> WAREHOUSES = Set.of("W1", "W2", "W3");
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testSave_SkipsExistingAssociations() {
+        InMemoryFulfillmentStore store = store(WriteAheadLog.disabled());
+
+        assertTrue(store.save(new Fulfillment("P1", "S1", "W1")));
+        assertFalse(store.save(new Fulfillment("P1", "S1", "W1")));
+        assertArrayEquals(new boolean[] {false, true, true}, store.saveAll(List.of(
+                new Fulfillment("P1", "S1", "W1"),
+                new Fulfillment("P1", "S1", "W2"),
+                new Fulfillment("P2", "S1", "W1"))));
+        assertEquals(3, store.getAll().size());
+    }
+
+    @Test
+    void testLoadConstraints_FromIndexes() {
+        InMemoryFulfillmentStore store = store(WriteAheadLog.disabled());
+        store.saveAll(List.of(
+                new Fulfillment("P1", "S1", "W1"),
+                new Fulfillment("P1", "S1", "W2"),
+                new Fulfillment("P2", "S1", "W1"),
+                new Fulfillment("P2", "S2", "W3")));
+
+        FulfillmentConstraints constraints = store.loadConstraints("P1", "S1", "W3");
+
+        assertTrue(constraints.productExists);
+        assertTrue(constraints.storeExists);
+        assertTrue(constraints.warehouseExists);
+        assertFalse(constraints.alreadyAssociated);
+        assertEquals(2, constraints.warehousesForProductInStore); // W1, W2
+        assertEquals(2, constraints.warehousesForStore); // W1, W2
+        assertEquals(1, constraints.productsInWarehouse); // P2
+        assertFalse(constraints.warehouseAssociatedWithStore);
+        assertFalse(constraints.productAssociatedWithWarehouse);
+
+        FulfillmentConstraints existing = store.loadConstraints("P2", "S1", "W1");
+        assertTrue(existing.alreadyAssociated);
+        assertTrue(existing.warehouseAssociatedWithStore);
+        assertTrue(existing.productAssociatedWithWarehouse);
+
+        FulfillmentConstraints unknown = store.loadConstraints("P9", "S9", null);
+        assertFalse(unknown.productExists);
+        assertFalse(unknown.storeExists);
+        assertFalse(unknown.warehouseExists);
+        assertEquals(0, unknown.warehousesForStore);
+    }
+
+    @Test
+    void testRemove_UpdatesIndexes() {
+        InMemoryFulfillmentStore store = store(WriteAheadLog.disabled());
+        store.save(new Fulfillment("P1", "S1", "W1"));
+        store.save(new Fulfillment("P2", "S1", "W1"));
+
+        assertTrue(store.remove(new Fulfillment("P1", "S1", "W1")));
+        assertFalse(store.remove(new Fulfillment("P1", "S1", "W1")));
+
+        FulfillmentConstraints constraints = store.loadConstraints("P1", "S1", "W1");
+        assertEquals(0, constraints.warehousesForProductInStore);
+        assertEquals(1, constraints.warehousesForStore); // still W1, for P2
+        assertEquals(1, constraints.productsInWarehouse);
+        assertFalse(constraints.productAssociatedWithWarehouse);
+        assertTrue(constraints.warehouseAssociatedWithStore);
+    }
+
+    @Test
+    void testSaveAndRemove_UndoneWhenTransactionRollsBack() {
+        TransactionSynchronizationRegistry transactions = mock(TransactionSynchronizationRegistry.class);
+        when(transactions.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+        InMemoryFulfillmentStore store = new InMemoryFulfillmentStore(PRODUCTS::contains, STORES::contains,
+                WAREHOUSES::contains, log(), transactions);
+        store.save(new Fulfillment("P1", "S1", "W1"));
+        store.save(new Fulfillment("P2", "S1", "W1"));
+        assertTrue(store.remove(new Fulfillment("P1", "S1", "W1")));
+
+        ArgumentCaptor<Synchronization> synchronizations = ArgumentCaptor.forClass(Synchronization.class);
+        verify(transactions, times(3)).registerInterposedSynchronization(synchronizations.capture());
+        // the first save commits, the second save and the removal roll back
+        synchronizations.getAllValues().get(0).afterCompletion(Status.STATUS_COMMITTED);
+        synchronizations.getAllValues().get(1).afterCompletion(Status.STATUS_ROLLEDBACK);
+        synchronizations.getAllValues().get(2).afterCompletion(Status.STATUS_ROLLEDBACK);
+
+        assertTrue(store.loadConstraints("P1", "S1", "W1").alreadyAssociated);
+        assertFalse(store.loadConstraints("P2", "S1", "W1").alreadyAssociated);
+        assertEquals(1, store.loadConstraints("P1", "S1", "W1").productsInWarehouse);
+        // the undo is logged as well
+        assertEquals(1, store(log()).getAll().size());
+    }
+
+    @Test
+    void testConcurrentSaves_CountedOnce() throws Exception {
+        InMemoryFulfillmentStore store = store(log());
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Callable<Boolean>> saves = new ArrayList<>();
+        for (int round = 0; round < 50; round++) {
+            for (String product : PRODUCTS) {
+                for (String warehouse : WAREHOUSES) {
+                    saves.add(() -> store.save(new Fulfillment(product, "S1", warehouse)));
+                }
+            }
+        }
+        int created = 0;
+        try {
+            for (Future<Boolean> future : pool.invokeAll(saves)) {
+                if (future.get()) {
+                    created++;
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(6, created);
+        FulfillmentConstraints constraints = store.loadConstraints("P1", "S1", "W1");
+        assertEquals(3, constraints.warehousesForStore);
+        assertEquals(2, constraints.productsInWarehouse);
+        assertEquals(6, store(log()).getAll().size());
+    }
+
+    @Test
+    void testRecover_ReplaysSnapshotAndLog() {
+        InMemoryFulfillmentStore store = store(log());
+        store.save(new Fulfillment("P1", "S1", "W1"));
+        store.save(new Fulfillment("P1", "S1", "W2"));
+        store.close();
+
+        InMemoryFulfillmentStore reopened = store(log());
+        reopened.remove(new Fulfillment("P1", "S1", "W1"));
+        reopened.save(new Fulfillment("P2", "S2", "W3"));
+
+        InMemoryFulfillmentStore recovered = store(log());
+        assertEquals(2, recovered.getAll().size());
+        assertFalse(recovered.loadConstraints("P1", "S1", "W1").alreadyAssociated);
+        assertEquals(1, recovered.loadConstraints("P1", "S1", "W2").warehousesForProductInStore);
+        assertTrue(recovered.loadConstraints("P2", "S2", "W3").productAssociatedWithWarehouse);
+    }
+
+    private InMemoryFulfillmentStore store(WriteAheadLog log) {
+        return new InMemoryFulfillmentStore(PRODUCTS::contains, STORES::contains, WAREHOUSES::contains, log);
+    }
+
+    private WriteAheadLog log() {
+        return WriteAheadLog.in(dir, "fulfillments", WriteAheadLog.FsyncPolicy.NEVER, Long.MAX_VALUE);
+    }
+}
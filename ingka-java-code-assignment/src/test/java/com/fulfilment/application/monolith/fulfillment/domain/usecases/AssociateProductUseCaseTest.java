@@ -1,22 +1,19 @@
 package com.fulfilment.application.monolith.fulfillment.domain.usecases;
 
+import com.fulfilment.application.monolith.fulfillment.domain.models.AssociationResult;
 import com.fulfilment.application.monolith.fulfillment.domain.models.Fulfillment;
+import com.fulfilment.application.monolith.fulfillment.domain.models.FulfillmentConstraints;
+import com.fulfilment.application.monolith.fulfillment.domain.ports.FulfillmentIndex;
 import com.fulfilment.application.monolith.fulfillment.domain.ports.FulfillmentStore;
-import com.fulfilment.application.monolith.products.Product;
-import com.fulfilment.application.monolith.products.ProductRepository;
-import com.fulfilment.application.monolith.stores.Store;
-import com.fulfilment.application.monolith.stores.StoreRepository;
-import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
-import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
-import io.quarkus.hibernate.orm.panache.PanacheQuery;
 import jakarta.validation.ValidationException;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.any;
@@ -28,158 +25,229 @@ public class AssociateProductUseCaseTest {
     FulfillmentStore fulfillmentStore;
 
     @Mock
-    ProductRepository productRepository;
+    FulfillmentIndex fulfillmentIndex;
 
     @Mock
-    StoreRepository storeRepository;
-
-    @Mock
-    WarehouseStore warehouseStore;
+    FulfillmentIndex.Guard guard;
 
     AssociateProductUseCase useCase;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        useCase = new AssociateProductUseCase(fulfillmentStore, productRepository, storeRepository, warehouseStore);
+        useCase = new AssociateProductUseCase(fulfillmentStore, fulfillmentIndex);
+
+        // The index passes the stored snapshot through unchanged
+        when(fulfillmentIndex.lock(any(Fulfillment.class))).thenReturn(guard);
+        when(fulfillmentIndex.constraintsFor(any(Fulfillment.class), any(FulfillmentConstraints.class)))
+                .thenAnswer(invocation -> invocation.getArgument(1));
     }
 
     @Test
-    @SuppressWarnings("unchecked")
     void testAssociate_Success_SavesFulfillment() {
         Fulfillment f = new Fulfillment("Product A", "Store 1", "WH-1");
 
-        // Mock entity existence
-        Product product = new Product("Product A");
-        PanacheQuery<Product> pQuery = org.mockito.Mockito.mock(PanacheQuery.class);
-        when(productRepository.find(anyString(), anyString())).thenReturn(pQuery);
-        when(pQuery.firstResult()).thenReturn(product);
-
-        Store store = new Store("Store 1");
-        PanacheQuery<Store> sQuery = org.mockito.Mockito.mock(PanacheQuery.class);
-        when(storeRepository.find(anyString(), anyString())).thenReturn(sQuery);
-        when(sQuery.firstResult()).thenReturn(store);
-
-        when(warehouseStore.findByBusinessUnitCode("WH-1")).thenReturn(new Warehouse());
-
-        // No existing association
-        when(fulfillmentStore.exists("Product A", "Store 1", "WH-1")).thenReturn(false);
-
-        // All constraints pass
-        when(fulfillmentStore.countWarehousesByProductAndStore("Product A", "Store 1")).thenReturn(0L);
-        when(fulfillmentStore.countUniqueWarehousesByStore("Store 1")).thenReturn(0L);
-        when(fulfillmentStore.countUniqueProductsByWarehouse("WH-1")).thenReturn(0L);
+        // All entities exist, no existing association, all constraints pass
+        when(fulfillmentStore.loadConstraints("Product A", "Store 1", "WH-1"))
+                .thenReturn(constraints(false, 0, 0, 0, false, false));
+        when(fulfillmentStore.save(f)).thenReturn(true);
 
         // when
         useCase.associate(f);
 
-        // then
+        // then - saved, indexed and the lock released
         verify(fulfillmentStore).save(f);
+        verify(fulfillmentIndex).add(f);
+        verify(guard).close();
     }
 
     @Test
-    @SuppressWarnings("unchecked")
     void testAssociate_AlreadyExists_ReturnsWithoutSaving() {
         Fulfillment f = new Fulfillment("Product A", "Store 1", "WH-1");
 
-        // Mock entity existence
-        Product product = new Product("Product A");
-        PanacheQuery<Product> pQuery = org.mockito.Mockito.mock(PanacheQuery.class);
-        when(productRepository.find(anyString(), anyString())).thenReturn(pQuery);
-        when(pQuery.firstResult()).thenReturn(product);
-
-        Store store = new Store("Store 1");
-        PanacheQuery<Store> sQuery = org.mockito.Mockito.mock(PanacheQuery.class);
-        when(storeRepository.find(anyString(), anyString())).thenReturn(sQuery);
-        when(sQuery.firstResult()).thenReturn(store);
-
-        when(warehouseStore.findByBusinessUnitCode("WH-1")).thenReturn(new Warehouse());
-
         // Already associated
-        when(fulfillmentStore.exists("Product A", "Store 1", "WH-1")).thenReturn(true);
+        when(fulfillmentStore.loadConstraints("Product A", "Store 1", "WH-1"))
+                .thenReturn(constraints(true, 1, 1, 1, true, true));
 
         // when
         useCase.associate(f);
 
         // then - save is NOT called
         verify(fulfillmentStore, never()).save(any(Fulfillment.class));
+        verify(fulfillmentIndex, never()).add(any(Fulfillment.class));
     }
 
     @Test
-    @SuppressWarnings("unchecked")
-    void testEnforceMax2WarehousesPerProductPerStore() {
+    void testAssociate_InsertedConcurrently_IsNotIndexed() {
         Fulfillment f = new Fulfillment("Product A", "Store 1", "WH-1");
 
-        // Mock Product existence
-        Product product = new Product("Product A");
-        PanacheQuery<Product> pQuery = org.mockito.Mockito.mock(PanacheQuery.class);
-        when(productRepository.find(anyString(), anyString())).thenReturn(pQuery);
-        when(pQuery.firstResult()).thenReturn(product);
+        when(fulfillmentStore.loadConstraints("Product A", "Store 1", "WH-1"))
+                .thenReturn(constraints(false, 0, 0, 0, false, false));
+        // Another writer stored the same association between the snapshot and the insert
+        when(fulfillmentStore.save(f)).thenReturn(false);
+
+        useCase.associate(f);
+
+        verify(fulfillmentIndex, never()).add(any(Fulfillment.class));
+        verify(guard).close();
+    }
+
+    @Test
+    void testAssociate_ProductNotFound() {
+        Fulfillment f = new Fulfillment("Ghost", "Store 1", "WH-1");
+
+        when(fulfillmentStore.loadConstraints("Ghost", "Store 1", "WH-1"))
+                .thenReturn(new FulfillmentConstraints(false, true, true, false, 0, 0, 0, false, false));
+
+        ValidationException exception = assertThrows(ValidationException.class, () -> useCase.associate(f));
+        assertEquals("Product not found: Ghost", exception.getMessage());
+        verify(fulfillmentStore, never()).save(any(Fulfillment.class));
+        verify(fulfillmentIndex, never()).lock(any(Fulfillment.class));
+    }
+
+    @Test
+    void testAssociate_WarehouseNotFound() {
+        Fulfillment f = new Fulfillment("Product A", "Store 1", "WH-X");
+
+        when(fulfillmentStore.loadConstraints("Product A", "Store 1", "WH-X"))
+                .thenReturn(new FulfillmentConstraints(true, true, false, false, 0, 0, 0, false, false));
 
-        // Mock Store existence
-        Store store = new Store("Store 1");
-        PanacheQuery<Store> sQuery = org.mockito.Mockito.mock(PanacheQuery.class);
-        when(storeRepository.find(anyString(), anyString())).thenReturn(sQuery);
-        when(sQuery.firstResult()).thenReturn(store);
+        ValidationException exception = assertThrows(ValidationException.class, () -> useCase.associate(f));
+        assertEquals("Warehouse not found: WH-X", exception.getMessage());
+    }
 
-        // Mock Warehouse existence
-        when(warehouseStore.findByBusinessUnitCode("WH-1")).thenReturn(new Warehouse());
+    @Test
+    void testEnforceMax2WarehousesPerProductPerStore() {
+        Fulfillment f = new Fulfillment("Product A", "Store 1", "WH-1");
 
         // Constraint violation
-        when(fulfillmentStore.countWarehousesByProductAndStore("Product A", "Store 1")).thenReturn(2L);
+        when(fulfillmentStore.loadConstraints("Product A", "Store 1", "WH-1"))
+                .thenReturn(constraints(false, 2, 2, 1, true, true));
 
         assertThrows(ValidationException.class, () -> useCase.associate(f));
+        verify(guard).close();
     }
 
     @Test
-    @SuppressWarnings("unchecked")
-    void testEnforceMax3WarehousesPerStore() {
-        Fulfillment f = new Fulfillment("Product A", "Store 1", "WH-3");
+    void testConstraintsEvaluatedAgainstIndex() {
+        Fulfillment f = new Fulfillment("Product A", "Store 1", "WH-2");
 
-        // Mock existence
-        Product product = new Product("Product A");
-        PanacheQuery<Product> pQuery = org.mockito.Mockito.mock(PanacheQuery.class);
-        when(productRepository.find(anyString(), anyString())).thenReturn(pQuery);
-        when(pQuery.firstResult()).thenReturn(product);
+        // Stored counters pass, but the index already holds two in-flight warehouses for the product
+        FulfillmentConstraints stored = constraints(false, 0, 0, 0, false, false);
+        when(fulfillmentStore.loadConstraints("Product A", "Store 1", "WH-2")).thenReturn(stored);
+        when(fulfillmentIndex.constraintsFor(f, stored)).thenReturn(constraints(false, 2, 2, 0, false, false));
 
-        Store store = new Store("Store 1");
-        PanacheQuery<Store> sQuery = org.mockito.Mockito.mock(PanacheQuery.class);
-        when(storeRepository.find(anyString(), anyString())).thenReturn(sQuery);
-        when(sQuery.firstResult()).thenReturn(store);
+        assertThrows(ValidationException.class, () -> useCase.associate(f));
+        verify(fulfillmentStore, never()).save(any(Fulfillment.class));
+    }
 
-        when(warehouseStore.findByBusinessUnitCode("WH-3")).thenReturn(new Warehouse());
+    @Test
+    void testEnforceMax3WarehousesPerStore() {
+        Fulfillment f = new Fulfillment("Product A", "Store 1", "WH-3");
 
         // Constraint violation: Store already has 3 unique warehouses
-        when(fulfillmentStore.countUniqueWarehousesByStore("Store 1")).thenReturn(3L);
         // And this warehouse is NOT among them
-        when(fulfillmentStore.isWarehouseAssociatedWithStore("WH-3", "Store 1")).thenReturn(false);
+        when(fulfillmentStore.loadConstraints("Product A", "Store 1", "WH-3"))
+                .thenReturn(constraints(false, 0, 3, 0, false, false));
 
         assertThrows(ValidationException.class, () -> useCase.associate(f));
     }
 
     @Test
-    @SuppressWarnings("unchecked")
-    void testEnforceMax5ProductsPerWarehouse() {
-        Fulfillment f = new Fulfillment("Product New", "Store 1", "WH-1");
+    void testMax3WarehousesPerStore_WarehouseAlreadyInStore_Saves() {
+        Fulfillment f = new Fulfillment("Product B", "Store 1", "WH-3");
 
-        // Mock existence
-        Product product = new Product("Product New");
-        PanacheQuery<Product> pQuery = org.mockito.Mockito.mock(PanacheQuery.class);
-        when(productRepository.find(anyString(), anyString())).thenReturn(pQuery);
-        when(pQuery.firstResult()).thenReturn(product);
+        // Store is at its limit, but WH-3 is one of its warehouses already
+        when(fulfillmentStore.loadConstraints("Product B", "Store 1", "WH-3"))
+                .thenReturn(constraints(false, 0, 3, 1, true, false));
+
+        useCase.associate(f);
 
-        Store store = new Store("Store 1");
-        PanacheQuery<Store> sQuery = org.mockito.Mockito.mock(PanacheQuery.class);
-        when(storeRepository.find(anyString(), anyString())).thenReturn(sQuery);
-        when(sQuery.firstResult()).thenReturn(store);
+        verify(fulfillmentStore).save(f);
+    }
 
-        when(warehouseStore.findByBusinessUnitCode("WH-1")).thenReturn(new Warehouse());
+    @Test
+    void testEnforceMax5ProductsPerWarehouse() {
+        Fulfillment f = new Fulfillment("Product New", "Store 1", "WH-1");
 
         // Constraint violation: Warehouse already has 5 types of products
-        when(fulfillmentStore.countUniqueProductsByWarehouse("WH-1")).thenReturn(5L);
         // And this product is NOT among them
-        when(fulfillmentStore.isProductAssociatedWithWarehouse("Product New", "WH-1")).thenReturn(false);
+        when(fulfillmentStore.loadConstraints("Product New", "Store 1", "WH-1"))
+                .thenReturn(constraints(false, 0, 1, 5, true, false));
 
         assertThrows(ValidationException.class, () -> useCase.associate(f));
     }
+
+    @Test
+    void testAssociateAll_StoresAcceptedRowsTogether() {
+        Fulfillment created = new Fulfillment("Product A", "Store 1", "WH-1");
+        Fulfillment existing = new Fulfillment("Product B", "Store 1", "WH-1");
+        Fulfillment rejected = new Fulfillment("Ghost", "Store 1", "WH-1");
+        Fulfillment alsoCreated = new Fulfillment("Product C", "Store 1", "WH-1");
+
+        when(fulfillmentIndex.isEnabled()).thenReturn(true);
+        when(fulfillmentStore.loadExistence("Product A", "Store 1", "WH-1"))
+                .thenReturn(constraints(false, 0, 0, 0, false, false));
+        when(fulfillmentStore.loadExistence("Product B", "Store 1", "WH-1"))
+                .thenReturn(constraints(true, 1, 1, 1, true, true));
+        when(fulfillmentStore.loadExistence("Ghost", "Store 1", "WH-1"))
+                .thenReturn(new FulfillmentConstraints(false, true, true, false, 0, 0, 0, false, false));
+        when(fulfillmentStore.loadExistence("Product C", "Store 1", "WH-1"))
+                .thenReturn(constraints(false, 0, 1, 1, true, false));
+        when(fulfillmentStore.saveAll(List.of(created, alsoCreated))).thenReturn(new boolean[] {true, true});
+
+        List<AssociationResult> results = useCase.associateAll(List.of(created, existing, rejected, alsoCreated));
+
+        // One result per row, in order; the rejected row does not stop the ones after it
+        assertEquals(AssociationResult.Status.CREATED, results.get(0).status);
+        assertEquals(AssociationResult.Status.ALREADY_ASSOCIATED, results.get(1).status);
+        assertEquals(AssociationResult.Status.REJECTED, results.get(2).status);
+        assertEquals("Product not found: Ghost", results.get(2).error);
+        assertEquals(AssociationResult.Status.CREATED, results.get(3).status);
+
+        // Accepted rows are inserted in a single batch, and the counters come from the index alone
+        verify(fulfillmentStore).saveAll(List.of(created, alsoCreated));
+        verify(fulfillmentStore, never()).loadConstraints(any(String.class), any(String.class), any(String.class));
+        verify(fulfillmentStore, never()).save(any(Fulfillment.class));
+    }
+
+    @Test
+    void testAssociateAll_RowSkippedByInsert_ReportedAsAlreadyAssociated() {
+        Fulfillment first = new Fulfillment("Product A", "Store 1", "WH-1");
+        Fulfillment second = new Fulfillment("Product B", "Store 1", "WH-1");
+
+        when(fulfillmentIndex.isEnabled()).thenReturn(true);
+        when(fulfillmentStore.loadExistence(any(String.class), any(String.class), any(String.class)))
+                .thenReturn(constraints(false, 0, 0, 0, false, false));
+        when(fulfillmentStore.saveAll(List.of(first, second))).thenReturn(new boolean[] {true, false});
+
+        List<AssociationResult> results = useCase.associateAll(List.of(first, second));
+
+        assertEquals(AssociationResult.Status.CREATED, results.get(0).status);
+        assertEquals(AssociationResult.Status.ALREADY_ASSOCIATED, results.get(1).status);
+    }
+
+    @Test
+    void testAssociateAll_IndexDisabled_StoresEachRowBeforeTheNext() {
+        Fulfillment first = new Fulfillment("Product A", "Store 1", "WH-1");
+        Fulfillment second = new Fulfillment("Product B", "Store 1", "WH-1");
+
+        when(fulfillmentIndex.isEnabled()).thenReturn(false);
+        when(fulfillmentStore.loadConstraints(any(String.class), any(String.class), any(String.class)))
+                .thenReturn(constraints(false, 0, 0, 0, false, false));
+        when(fulfillmentStore.save(any(Fulfillment.class))).thenReturn(true);
+
+        useCase.associateAll(List.of(first, second));
+
+        // Without the index the database counters are the only source, so rows cannot be deferred
+        verify(fulfillmentStore).save(first);
+        verify(fulfillmentStore).save(second);
+        verify(fulfillmentStore, never()).saveAll(any());
+    }
+
+    private static FulfillmentConstraints constraints(boolean alreadyAssociated, long warehousesForProductInStore,
+            long warehousesForStore, long productsInWarehouse, boolean warehouseInStore, boolean productInWarehouse) {
+        return new FulfillmentConstraints(true, true, true, alreadyAssociated, warehousesForProductInStore,
+                warehousesForStore, productsInWarehouse, warehouseInStore, productInWarehouse);
+    }
 }
@@ -0,0 +1,73 @@
+package com.fulfilment.application.monolith.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latencies and outcomes of the requests to one endpoint. A latency runs from the moment the request
+ * was due to start, so time spent queued behind slow requests is included.
+ */
+final class EndpointStats {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Histogram latencies = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder clientErrors = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    void record(long latencyNanos, int status) {
+        latencies.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+        completed.increment();
+        if (status >= 500) {
+            errors.increment();
+        } else if (status >= 400) {
+            clientErrors.increment();
+        }
+    }
+
+    void failed(long latencyNanos) {
+        record(latencyNanos, 599);
+    }
+
+    void dropped() {
+        dropped.increment();
+    }
+
+    long completed() {
+        return completed.sum();
+    }
+
+    void addTo(EndpointStats total) {
+        total.latencies.add(latencies);
+        total.completed.add(completed.sum());
+        total.clientErrors.add(clientErrors.sum());
+        total.errors.add(errors.sum());
+        total.dropped.add(dropped.sum());
+    }
+
+    Map<String, Object> summary(double seconds) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", completed.sum());
+        summary.put("throughputPerSecond", completed.sum() / seconds);
+        summary.put("clientErrors", clientErrors.sum());
+        summary.put("errors", errors.sum());
+        summary.put("dropped", dropped.sum());
+        summary.put("meanMillis", latencies.getMean() / 1000.0);
+        summary.put("p50Millis", percentile(50));
+        summary.put("p90Millis", percentile(90));
+        summary.put("p99Millis", percentile(99));
+        summary.put("p999Millis", percentile(99.9));
+        summary.put("maxMillis", latencies.getMaxValue() / 1000.0);
+        return summary;
+    }
+
+    private double percentile(double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
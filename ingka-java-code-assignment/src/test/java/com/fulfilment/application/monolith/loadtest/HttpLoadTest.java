@@ -0,0 +1,209 @@
+package com.fulfilment.application.monolith.loadtest;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.test.junit.QuarkusTest;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * HTTP load test of {@code /warehouse}, {@code /fulfillment}, {@code /stores} and {@code /product}.
+ *
+ * <p>Excluded from the normal build; run it with the {@code load-test} profile, against the test
+ * profile's H2 database or, with the {@code quarkus.datasource.*} overrides, a local Postgres. With
+ * {@code loadtest.base-url} it loads an application that is already running instead. The settings are
+ * described in {@link Workload}; latency percentiles and throughput per endpoint are written as JSON
+ * to {@code loadtest.output}, so runs of different commits can be compared:
+ *
+ * <pre>
+ * ./mvnw test -Pload-test -Dloadtest.rate=500 -Dloadtest.duration=60s -Dloadtest.label=$(git rev-parse --short HEAD)
+ * </pre>
+ */
+@QuarkusTest
+@Tag("load")
+public class HttpLoadTest {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final String SEEDED_WAREHOUSE = "LOAD-MWH-";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService executor = Executors.newFixedThreadPool(16);
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(REQUEST_TIMEOUT)
+            .executor(executor)
+            .build();
+
+    private Workload workload;
+    private URI baseUrl;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testLoad() throws Exception {
+        workload = Workload.fromConfig();
+        baseUrl = URI.create(workload.baseUrl
+                .orElseGet(() -> ConfigProvider.getConfig().getValue("test.url", String.class)) + "/");
+
+        List<Long> stores = new ArrayList<>();
+        List<Long> products = new ArrayList<>();
+        for (int i = 0; i < workload.entities; i++) {
+            stores.add(create("stores", "{\"name\":\"LOAD-STORE-" + i + "\",\"quantityProductsInStock\":10}"));
+            products.add(create("product", "{\"name\":\"LOAD-PRODUCT-" + i + "\",\"stock\":10}"));
+        }
+        List<JsonNode> warehouses = seedWarehouses();
+        // some bundled warehouses break the location rules, so only the seeded ones are replaced
+        List<JsonNode> replaceable = new ArrayList<>();
+        warehouses.stream()
+                .filter(warehouse -> warehouse.get("businessUnitCode").asText().startsWith(SEEDED_WAREHOUSE))
+                .forEach(replaceable::add);
+        List<String> fulfillments = seedFulfillments(stores, products, warehouses);
+
+        List<LoadGenerator.Operation> reads = List.of(
+                new LoadGenerator.Operation("GET /stores/{id}",
+                        random -> get("stores/" + pick(random, stores))),
+                new LoadGenerator.Operation("GET /product/{id}",
+                        random -> get("product/" + pick(random, products))),
+                new LoadGenerator.Operation("GET /warehouse/{id}",
+                        random -> get("warehouse/" + pick(random, warehouses).get("businessUnitCode").asText())));
+        List<LoadGenerator.Operation> writes = new ArrayList<>(List.of(
+                new LoadGenerator.Operation("POST /stores/{id}/stock-adjustments",
+                        random -> post("stores/" + pick(random, stores) + "/stock-adjustments", "{\"delta\":1}")),
+                new LoadGenerator.Operation("POST /product/{id}/stock-adjustments",
+                        random -> post("product/" + pick(random, products) + "/stock-adjustments", "{\"delta\":1}"))));
+        if (!replaceable.isEmpty()) {
+            // replaced by an identical warehouse, so every replacement is valid
+            writes.add(new LoadGenerator.Operation("POST /warehouse/{id}/replacement", random -> {
+                JsonNode warehouse = pick(random, replaceable);
+                return post("warehouse/" + warehouse.get("businessUnitCode").asText() + "/replacement",
+                        warehouse.toString());
+            }));
+        }
+        if (!fulfillments.isEmpty()) {
+            // already associated, so the rules are evaluated without growing the graph
+            writes.add(new LoadGenerator.Operation("POST /fulfillment",
+                    random -> post("fulfillment", pick(random, fulfillments))));
+        }
+
+        LoadGenerator generator = new LoadGenerator(client, workload);
+        generator.run(reads, writes, workload.warmup);
+        Instant startedAt = Instant.now();
+        Map<String, EndpointStats> stats = generator.run(reads, writes, workload.duration);
+
+        writeReport(startedAt, stats);
+        assertTrue(stats.values().stream().mapToLong(EndpointStats::completed).sum() > 0,
+                "No request completed");
+    }
+
+    // the bundled warehouses plus up to loadtest.entities new ones, as far as the locations allow
+    private List<JsonNode> seedWarehouses() throws IOException, InterruptedException {
+        List<String> locations = new ArrayList<>();
+        try (BufferedReader catalog = new BufferedReader(new InputStreamReader(
+                HttpLoadTest.class.getClassLoader().getResourceAsStream("locations.csv"), StandardCharsets.UTF_8))) {
+            catalog.lines()
+                    .filter(line -> !line.isBlank() && !line.startsWith("#"))
+                    .forEach(line -> locations.add(line.split(",")[0].trim()));
+        }
+        for (int i = 0; i < workload.entities; i++) {
+            String location = locations.get(i % locations.size());
+            send(post("warehouse", "{\"businessUnitCode\":\"" + SEEDED_WAREHOUSE + i + "\",\"location\":\"" + location
+                    + "\",\"capacity\":10,\"stock\":0}"));
+        }
+        List<JsonNode> warehouses = new ArrayList<>();
+        objectMapper.readTree(send(get("warehouse")).body()).forEach(warehouses::add);
+        return warehouses;
+    }
+
+    private List<String> seedFulfillments(List<Long> stores, List<Long> products, List<JsonNode> warehouses)
+            throws IOException, InterruptedException {
+        List<String> created = new ArrayList<>();
+        for (int i = 0; i < workload.entities; i++) {
+            String fulfillment = "{\"productName\":\"LOAD-PRODUCT-" + i + "\",\"storeName\":\"LOAD-STORE-" + i
+                    + "\",\"warehouseBusinessUnitCode\":\""
+                    + warehouses.get(i % warehouses.size()).get("businessUnitCode").asText() + "\"}";
+            if (send(post("fulfillment", fulfillment)).statusCode() == 201) {
+                created.add(fulfillment);
+            }
+        }
+        return created;
+    }
+
+    private void writeReport(Instant startedAt, Map<String, EndpointStats> stats) throws IOException {
+        double seconds = workload.duration.toNanos() / 1e9;
+        EndpointStats total = new EndpointStats();
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        stats.forEach((endpoint, endpointStats) -> {
+            endpoints.put(endpoint, endpointStats.summary(seconds));
+            endpointStats.addTo(total);
+        });
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", workload.label);
+        report.put("startedAt", startedAt.toString());
+        report.put("baseUrl", baseUrl.toString());
+        report.put("rate", workload.rate);
+        report.put("durationSeconds", seconds);
+        report.put("readRatio", workload.readRatio);
+        report.put("entities", workload.entities);
+        report.put("seed", workload.seed);
+        report.put("total", total.summary(seconds));
+        report.put("endpoints", endpoints);
+
+        Files.createDirectories(workload.output.toAbsolutePath().getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(workload.output.toFile(), report);
+    }
+
+    private long create(String path, String body) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(post(path, body));
+        if (response.statusCode() != 201) {
+            throw new IllegalStateException("Failed to seed " + path + ": " + response.statusCode() + " "
+                    + response.body());
+        }
+        return objectMapper.readTree(response.body()).get("id").asLong();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(baseUrl.resolve(path)).timeout(REQUEST_TIMEOUT).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(baseUrl.resolve(path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static <T> T pick(Random random, List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+}
@@ -0,0 +1,92 @@
+package com.fulfilment.application.monolith.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Drives an open workload: requests start at a fixed rate whatever the response times, so a slow
+ * server builds a queue instead of slowing the load down. Each arrival is a read with probability
+ * {@link Workload#readRatio} and a write otherwise, picked from a seeded random sequence.
+ */
+final class LoadGenerator {
+
+    /** One kind of request, named after its endpoint. */
+    static final class Operation {
+
+        final String endpoint;
+        final Function<Random, HttpRequest> request;
+
+        Operation(String endpoint, Function<Random, HttpRequest> request) {
+            this.endpoint = endpoint;
+            this.request = request;
+        }
+    }
+
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient client;
+    private final Workload workload;
+
+    LoadGenerator(HttpClient client, Workload workload) {
+        this.client = client;
+        this.workload = workload;
+    }
+
+    /**
+     * Runs the workload for {@code duration} and waits for the outstanding responses.
+     *
+     * @return the statistics per endpoint, by endpoint name
+     */
+    Map<String, EndpointStats> run(List<Operation> reads, List<Operation> writes, Duration duration) {
+        ConcurrentMap<String, EndpointStats> stats = new ConcurrentHashMap<>();
+        AtomicInteger inFlight = new AtomicInteger();
+        Random random = new Random(workload.seed);
+
+        long interval = TimeUnit.SECONDS.toNanos(1) / workload.rate;
+        long arrivals = duration.toNanos() / interval;
+        long start = System.nanoTime();
+        for (long i = 0; i < arrivals; i++) {
+            long due = start + i * interval;
+            long wait;
+            while ((wait = due - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            List<Operation> operations = writes.isEmpty() || random.nextDouble() < workload.readRatio ? reads : writes;
+            Operation operation = operations.get(random.nextInt(operations.size()));
+            EndpointStats endpoint = stats.computeIfAbsent(operation.endpoint, name -> new EndpointStats());
+            if (inFlight.get() >= workload.maxInFlight) {
+                endpoint.dropped();
+                continue;
+            }
+            inFlight.incrementAndGet();
+            client.sendAsync(operation.request.apply(random), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        long latency = System.nanoTime() - due;
+                        if (error != null) {
+                            endpoint.failed(latency);
+                        } else {
+                            endpoint.record(latency, response.statusCode());
+                        }
+                        inFlight.decrementAndGet();
+                    });
+        }
+
+        long deadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        return new TreeMap<>(stats);
+    }
+}
@@ -0,0 +1,47 @@
+package com.fulfilment.application.monolith.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
+
+/**
+ * Settings of a load test run, read from {@code loadtest.*} config (usually {@code -D} on the command line).
+ */
+final class Workload {
+
+    /** Requests started per second, whether or not earlier ones have completed. */
+    final int rate;
+    final Duration warmup;
+    final Duration duration;
+    /** Share of requests that are reads; the rest are writes. */
+    final double readRatio;
+    /** Stores, products, warehouses and fulfillments created before the run. */
+    final int entities;
+    /** Requests still waiting for a response beyond which new arrivals are dropped and counted. */
+    final int maxInFlight;
+    final long seed;
+    /** Application under test; the one started by the test when not set. */
+    final Optional<String> baseUrl;
+    final String label;
+    final Path output;
+
+    private Workload(Config config) {
+        rate = config.getOptionalValue("loadtest.rate", Integer.class).orElse(200);
+        warmup = config.getOptionalValue("loadtest.warmup", Duration.class).orElse(Duration.ofSeconds(10));
+        duration = config.getOptionalValue("loadtest.duration", Duration.class).orElse(Duration.ofSeconds(30));
+        readRatio = config.getOptionalValue("loadtest.read-ratio", Double.class).orElse(0.8);
+        entities = config.getOptionalValue("loadtest.entities", Integer.class).orElse(50);
+        maxInFlight = config.getOptionalValue("loadtest.max-in-flight", Integer.class).orElse(1000);
+        seed = config.getOptionalValue("loadtest.seed", Long.class).orElse(42L);
+        baseUrl = config.getOptionalValue("loadtest.base-url", String.class);
+        label = config.getOptionalValue("loadtest.label", String.class).orElse("local");
+        output = config.getOptionalValue("loadtest.output", Path.class)
+                .orElse(Path.of("target", "loadtest", label + ".json"));
+    }
+
+    static Workload fromConfig() {
+        return new Workload(ConfigProvider.getConfig());
+    }
+}
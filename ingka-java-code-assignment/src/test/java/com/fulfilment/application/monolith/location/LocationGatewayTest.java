@@ -1,12 +1,18 @@
 package com.fulfilment.application.monolith.location;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 public class LocationGatewayTest {
 
@@ -49,4 +55,39 @@ public class LocationGatewayTest {
     // Edge case: null input should not throw, just return null
     assertNull(locationGateway.resolveByIdentifier(null));
   }
+
+  @Test
+  public void testReloadFromFile_ReplacesCatalog(@TempDir Path dir) throws IOException {
+    Path catalog = dir.resolve("locations.csv");
+    Files.writeString(catalog, "# identification,maxNumberOfWarehouses,maxCapacity\nUTRECHT-001, 4, 120\n");
+
+    assertTrue(locationGateway.reload(catalog));
+
+    Location location = locationGateway.resolveByIdentifier("UTRECHT-001");
+    assertNotNull(location);
+    assertEquals(4, location.maxNumberOfWarehouses);
+    assertEquals(120, location.maxCapacity);
+    assertNull(locationGateway.resolveByIdentifier("ZWOLLE-001"), "Previous catalog should be replaced");
+  }
+
+  @Test
+  public void testReloadMalformedFile_KeepsPreviousCatalog(@TempDir Path dir) throws IOException {
+    Path catalog = dir.resolve("locations.csv");
+    Files.writeString(catalog, "UTRECHT-001,4\n");
+
+    assertFalse(locationGateway.reload(catalog));
+
+    assertNotNull(locationGateway.resolveByIdentifier("ZWOLLE-001"));
+    assertNull(locationGateway.resolveByIdentifier("UTRECHT-001"));
+  }
+
+  @Test
+  public void testReloadDuplicateLocation_KeepsPreviousCatalog(@TempDir Path dir) throws IOException {
+    Path catalog = dir.resolve("locations.csv");
+    Files.writeString(catalog, "UTRECHT-001,4,120\nUTRECHT-001,2,60\n");
+
+    assertFalse(locationGateway.reload(catalog));
+
+    assertNotNull(locationGateway.resolveByIdentifier("ZWOLLE-001"));
+  }
 }
@@ -0,0 +1,73 @@
+package com.fulfilment.application.monolith.metrics;
+
+import com.warehouse.api.beans.Warehouse;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.matchesPattern;
+
+@QuarkusTest
+public class MetricsTest {
+
+    @Test
+    public void testPortCallsAndStatementsArePublished() {
+        given()
+                .when().get("/warehouse/MWH.012")
+                .then()
+                .statusCode(200);
+
+        // duplicate business unit code, rejected by the use case
+        Warehouse duplicate = new Warehouse();
+        duplicate.setBusinessUnitCode("MWH.012");
+        duplicate.setLocation("AMSTERDAM-001");
+        duplicate.setCapacity(10);
+        duplicate.setStock(1);
+        given()
+                .contentType(ContentType.JSON)
+                .body(duplicate)
+                .when().post("/warehouse")
+                .then()
+                .statusCode(400);
+
+        // rejected once the constraints are loaded
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"productName\": \"GHOST\", \"storeName\": \"HAARLEM\", \"warehouseBusinessUnitCode\": \"MWH.012\"}")
+                .when().post("/fulfillment")
+                .then()
+                .statusCode(400);
+
+        given()
+                .when().get("/q/metrics")
+                .then()
+                .statusCode(200)
+                .body(allOf(
+                        containsString("port_calls_seconds_count{method=\"findByBusinessUnitCode\""
+                                + ",outcome=\"success\",port=\"WarehouseStore\"}"),
+                        containsString("port_calls_seconds_count{method=\"create\""
+                                + ",outcome=\"ValidationException\",port=\"CreateWarehouseOperation\"}"),
+                        containsString("port_calls_sql_statements_count{method=\"findByBusinessUnitCode\""
+                                + ",port=\"WarehouseStore\"}"),
+                        matchesPattern("(?s).*http_server_requests_sql_statements_sum\\{method=\"associate\""
+                                + ",resource=\"FulfillmentResource\"} [1-9].*"),
+                        containsString("hibernate_statements_total")));
+    }
+
+    @Test
+    public void testLegacyStoreSyncQueueIsPublished() {
+        given()
+                .when().get("/q/metrics")
+                .then()
+                .statusCode(200)
+                .body(allOf(
+                        containsString("legacy_store_sync_queue_depth "),
+                        containsString("legacy_store_sync_changes_total{outcome=\"dispatched\"}"),
+                        containsString("legacy_store_sync_changes_total{outcome=\"coalesced\"}"),
+                        containsString("legacy_store_sync_changes_total{outcome=\"dropped\"}"),
+                        containsString("legacy_store_sync_changes_total{outcome=\"spilled\"}")));
+    }
+}
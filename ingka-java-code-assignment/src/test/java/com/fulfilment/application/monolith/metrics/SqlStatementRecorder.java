@@ -0,0 +1,66 @@
+package com.fulfilment.application.monolith.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Records the SQL statements Hibernate prepares while a block runs, on any thread, so an HTTP call
+ * made through RestAssured in a {@code @QuarkusTest} is covered as well as a direct call to a bean.
+ *
+ * <pre>
+ * SqlStatementRecorder.assertAtMost(4, "POST /fulfillment", () -&gt; given()...post("/fulfillment"));
+ * </pre>
+ *
+ * Tests run one at a time, so whatever runs while recording belongs to the block; statements sent
+ * through plain JDBC ({@code Session.doWork}) are not seen.
+ */
+public final class SqlStatementRecorder implements AutoCloseable {
+
+    private final List<String> statements = Collections.synchronizedList(new ArrayList<>());
+    private final Consumer<String> listener = statements::add;
+
+    private SqlStatementRecorder() {
+        SqlStatementCounter.addListener(listener);
+    }
+
+    public static SqlStatementRecorder start() {
+        return new SqlStatementRecorder();
+    }
+
+    /**
+     * Runs {@code block} and returns the statements it prepared, in order.
+     */
+    public static List<String> record(Runnable block) {
+        try (SqlStatementRecorder recorder = start()) {
+            block.run();
+            return recorder.statements();
+        }
+    }
+
+    /**
+     * Runs {@code block} and fails, listing the statements, when it prepared more than {@code max}.
+     */
+    public static List<String> assertAtMost(int max, String what, Runnable block) {
+        List<String> recorded = record(block);
+        if (recorded.size() > max) {
+            fail(what + " executed " + recorded.size() + " SQL statements, at most " + max + " expected:\n  "
+                    + String.join("\n  ", recorded));
+        }
+        return recorded;
+    }
+
+    public List<String> statements() {
+        synchronized (statements) {
+            return List.copyOf(statements);
+        }
+    }
+
+    @Override
+    public void close() {
+        SqlStatementCounter.removeListener(listener);
+    }
+}
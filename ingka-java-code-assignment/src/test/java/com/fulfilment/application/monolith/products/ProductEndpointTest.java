@@ -2,9 +2,11 @@ package com.fulfilment.application.monolith.products;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.core.IsNot.not;
 
 import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
 import org.junit.jupiter.api.Test;
 
 @QuarkusTest
@@ -33,4 +35,72 @@ public class ProductEndpointTest {
         .statusCode(200)
         .body(not(containsString("TONSTAD")), containsString("KALLAX"), containsString("BESTÅ"));
   }
+
+  @Test
+  public void testAdjustStock() {
+    final String path = "product";
+
+    // KALLAX starts with 5 in stock
+    given()
+        .contentType(ContentType.JSON)
+        .body("{\"delta\": -5}")
+        .when()
+        .post(path + "/2/stock-adjustments")
+        .then()
+        .statusCode(204);
+
+    given()
+        .contentType(ContentType.JSON)
+        .body("{\"delta\": -1}")
+        .when()
+        .post(path + "/2/stock-adjustments")
+        .then()
+        .statusCode(409);
+
+    given()
+        .contentType(ContentType.JSON)
+        .body("{\"delta\": 2}")
+        .when()
+        .post(path + "/2/stock-adjustments")
+        .then()
+        .statusCode(204);
+
+    given().when().get(path + "/2").then().statusCode(200).body("stock", is(2));
+  }
+
+  @Test
+  public void testConditionalGet() {
+    final String path = "product";
+    int id =
+        given()
+            .contentType(ContentType.JSON)
+            .body("{\"name\": \"POÄNG\", \"stock\": 4}")
+            .when()
+            .post(path)
+            .then()
+            .statusCode(201)
+            .extract()
+            .path("id");
+
+    String tag = given().when().get(path + "/" + id).then().statusCode(200).extract().header("ETag");
+    given().header("If-None-Match", tag).when().get(path + "/" + id).then().statusCode(304);
+
+    // The version in the body is ignored, the stored one is incremented
+    given()
+        .contentType(ContentType.JSON)
+        .body("{\"name\": \"POÄNG\", \"stock\": 6, \"version\": 0}")
+        .when()
+        .put(path + "/" + id)
+        .then()
+        .statusCode(200);
+
+    given()
+        .header("If-None-Match", tag)
+        .when()
+        .get(path + "/" + id)
+        .then()
+        .statusCode(200)
+        .header("ETag", not(tag))
+        .body("stock", is(6), "version", is(1));
+  }
 }
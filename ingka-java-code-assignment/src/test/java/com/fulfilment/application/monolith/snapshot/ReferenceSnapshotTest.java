@@ -0,0 +1,76 @@
+package com.fulfilment.application.monolith.snapshot;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ReferenceSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testWriteAndRead_RoundTrips() throws IOException {
+        Warehouse active = new Warehouse("MWH.1", "ZWOLLE-001", 40, 10);
+        active.setCreationAt(ZonedDateTime.now().withNano(0));
+        active.setVersion(7L);
+        Warehouse archived = new Warehouse("MWH.2", "AMSTERDAM-001", null, null);
+        archived.setArchivedAt(ZonedDateTime.now().withNano(0));
+        ReferenceSnapshot snapshot = new ReferenceSnapshot(Instant.ofEpochMilli(1_700_000_000_000L),
+                Map.of(1L, "KALLAX", 2L, "BESTÅ"), Map.of(7L, "HAARLEM"), Map.of(3L, active, 4L, archived),
+                new long[][] {{11, 1, 7, 3}, {12, 2, 7, 4}, {13, 9, 7, 3}});
+        Path file = dir.resolve("reference.snapshot");
+
+        snapshot.write(file);
+        ReferenceSnapshot read = ReferenceSnapshot.read(file);
+
+        assertEquals(snapshot.takenAt(), read.takenAt());
+        assertEquals(snapshot.products(), read.products());
+        assertEquals(snapshot.stores(), read.stores());
+        assertEquals("ZWOLLE-001", read.warehouses().get(3L).getLocation());
+        assertEquals(40, read.warehouses().get(3L).getCapacity());
+        assertEquals(active.getCreationAt().toInstant(), read.warehouses().get(3L).getCreationAt().toInstant());
+        assertEquals(7L, read.warehouses().get(3L).getVersion());
+        assertNull(read.warehouses().get(4L).getCapacity());
+        assertNull(read.warehouses().get(4L).getVersion());
+        assertNull(read.warehouses().get(4L).getCreationAt());
+        assertEquals(archived.getArchivedAt().toInstant(), read.warehouses().get(4L).getArchivedAt().toInstant());
+        assertArrayEquals(snapshot.fulfillmentIds(), read.fulfillmentIds());
+        // product 9 is unknown to the snapshot
+        assertEquals(List.of("KALLAX|HAARLEM|MWH.1", "BESTÅ|HAARLEM|MWH.2"), read.fulfillments().stream()
+                .map(f -> f.productName + "|" + f.storeName + "|" + f.warehouseBusinessUnitCode)
+                .collect(Collectors.toList()));
+        assertEquals(Map.of("KALLAX", 1L, "BESTÅ", 2L), ReferenceSnapshot.byName(read.products()));
+    }
+
+    @Test
+    void testRead_RejectsTruncatedAndForeignFiles() throws IOException {
+        Path file = dir.resolve("reference.snapshot");
+        new ReferenceSnapshot(Instant.now(), Map.of(1L, "KALLAX"), Map.of(), Map.of(), new long[0][]).write(file);
+        byte[] bytes = Files.readAllBytes(file);
+
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+        assertThrows(IOException.class, () -> ReferenceSnapshot.read(file));
+
+        bytes[bytes.length - 10] ^= 1;
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> ReferenceSnapshot.read(file));
+
+        Files.writeString(file, "not a snapshot at all");
+        assertThrows(IOException.class, () -> ReferenceSnapshot.read(file));
+    }
+}
@@ -0,0 +1,136 @@
+package com.fulfilment.application.monolith.snapshot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fulfilment.application.monolith.fulfillment.domain.models.Fulfillment;
+import com.fulfilment.application.monolith.fulfillment.domain.ports.FulfillmentStore;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class WarmStartTest {
+
+    @Inject
+    WarmStart warmStart;
+
+    @Inject
+    WarehouseStore warehouseStore;
+
+    @Inject
+    FulfillmentStore fulfillmentStore;
+
+    @Inject
+    EntityManager entityManager;
+
+    @ConfigProperty(name = "warm-start.snapshot.path")
+    Path file;
+
+    // a snapshot left by an earlier run describes rows of a database that was since recreated
+    @BeforeEach
+    void deleteSnapshot() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testCatchUp_AddsNewAndChangedRowsAndReloadsAfterDeletes() throws Exception {
+        QuarkusTransaction.requiringNew().run(
+                () -> warehouseStore.create(new Warehouse("MWH.WARM.1", "ZWOLLE-001", 40, 10)));
+        try {
+            warmStart.write();
+            ReferenceSnapshot written = ReferenceSnapshot.read(file);
+            assertEquals(10, stock(written, "MWH.WARM.1"));
+
+            QuarkusTransaction.requiringNew().run(() -> {
+                warehouseStore.update(new Warehouse("MWH.WARM.1", "ZWOLLE-001", 40, 25));
+                warehouseStore.create(new Warehouse("MWH.WARM.2", "ZWOLLE-001", 40, 5));
+                fulfillmentStore.save(new Fulfillment("KALLAX", "HAARLEM", "MWH.WARM.2"));
+            });
+            ReferenceSnapshot caughtUp = warmStart.catchUp(written);
+
+            assertEquals(25, stock(caughtUp, "MWH.WARM.1"));
+            assertEquals(5, stock(caughtUp, "MWH.WARM.2"));
+            assertEquals(written.fulfillmentIds().length + 1, caughtUp.fulfillmentIds().length);
+            assertTrue(caughtUp.fulfillments().stream().anyMatch(f -> "MWH.WARM.2".equals(f.warehouseBusinessUnitCode)));
+            assertEquals(fulfillmentStore.getAll().size(), caughtUp.fulfillments().size());
+
+            QuarkusTransaction.requiringNew().run(() -> {
+                warehouseStore.archive("MWH.WARM.1", ZonedDateTime.now());
+                deleteWarmRows("MWH.WARM.2");
+            });
+            ReferenceSnapshot afterDelete = warmStart.catchUp(caughtUp);
+
+            assertTrue(find(afterDelete, "MWH.WARM.1").getArchivedAt() != null);
+            // the deleted warehouse is only noticed by its count, which reloads the table
+            assertFalse(afterDelete.warehouses().values().stream()
+                    .anyMatch(w -> "MWH.WARM.2".equals(w.getBusinessUnitCode())));
+            assertEquals(written.fulfillmentIds().length, afterDelete.fulfillmentIds().length);
+        } finally {
+            QuarkusTransaction.requiringNew().run(() -> deleteWarmRows("MWH.WARM.%"));
+        }
+    }
+
+    @Test
+    public void testCatchUp_IndexesAssociationsByCurrentNames() throws Exception {
+        QuarkusTransaction.requiringNew().run(() -> {
+            warehouseStore.create(new Warehouse("MWH.WARM.3", "ZWOLLE-001", 40, 10));
+            fulfillmentStore.save(new Fulfillment("KALLAX", "HENGELO", "MWH.WARM.3"));
+        });
+        try {
+            warmStart.write();
+            ReferenceSnapshot written = ReferenceSnapshot.read(file);
+
+            QuarkusTransaction.requiringNew().run(() -> renameStore("HENGELO", "HENGELO-CENTRUM"));
+            ReferenceSnapshot caughtUp = warmStart.catchUp(written);
+
+            assertTrue(caughtUp.stores().containsValue("HENGELO-CENTRUM"));
+            assertFalse(caughtUp.stores().containsValue("HENGELO"));
+            assertTrue(caughtUp.fulfillments().stream().anyMatch(f -> "MWH.WARM.3".equals(f.warehouseBusinessUnitCode)
+                    && "HENGELO-CENTRUM".equals(f.storeName)));
+        } finally {
+            QuarkusTransaction.requiringNew().run(() -> {
+                renameStore("HENGELO-CENTRUM", "HENGELO");
+                deleteWarmRows("MWH.WARM.3");
+            });
+        }
+    }
+
+    private void renameStore(String name, String newName) {
+        entityManager.createQuery("update Store s set s.name = ?1 where s.name = ?2")
+                .setParameter(1, newName)
+                .setParameter(2, name)
+                .executeUpdate();
+    }
+
+    private void deleteWarmRows(String businessUnitCodes) {
+        entityManager.createQuery("delete from DbFulfillment f where f.warehouse.id in"
+                + " (select w.id from DbWarehouse w where w.businessUnitCode like ?1)")
+                .setParameter(1, businessUnitCodes)
+                .executeUpdate();
+        entityManager.createQuery("delete from DbWarehouse w where w.businessUnitCode like ?1")
+                .setParameter(1, businessUnitCodes)
+                .executeUpdate();
+    }
+
+    private static Warehouse find(ReferenceSnapshot snapshot, String businessUnitCode) {
+        return snapshot.warehouses().values().stream()
+                .filter(w -> businessUnitCode.equals(w.getBusinessUnitCode()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static int stock(ReferenceSnapshot snapshot, String businessUnitCode) {
+        return find(snapshot, businessUnitCode).getStock();
+    }
+}
@@ -0,0 +1,134 @@
+package com.fulfilment.application.monolith.stock;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StockAdjusterTest {
+
+    @Test
+    void testWithoutAccumulator_AppliesEveryDelta() {
+        InMemoryStock stock = new InMemoryStock(false, Map.of(1L, 5));
+
+        assertEquals(StockAdjuster.Result.APPLIED, stock.adjust(1L, 3));
+        assertEquals(StockAdjuster.Result.APPLIED, stock.adjust(1L, -8));
+        assertEquals(StockAdjuster.Result.REJECTED, stock.adjust(1L, -1));
+        assertEquals(StockAdjuster.Result.REJECTED, stock.adjust(2L, 1));
+        assertEquals(0, stock.rows.get(1L));
+    }
+
+    @Test
+    void testAccumulator_WritesRestocksOncePerFlush() {
+        InMemoryStock stock = new InMemoryStock(true, Map.of(1L, 0, 2L, 0));
+
+        assertEquals(StockAdjuster.Result.ACCUMULATED, stock.adjust(1L, 2));
+        assertEquals(StockAdjuster.Result.ACCUMULATED, stock.adjust(1L, 3));
+        assertEquals(StockAdjuster.Result.ACCUMULATED, stock.adjust(2L, 1));
+        assertEquals(0, stock.rows.get(1L));
+
+        stock.flushAll();
+
+        // One statement per id, carrying the sum
+        assertEquals(5, stock.rows.get(1L));
+        assertEquals(1, stock.rows.get(2L));
+        assertEquals(2, stock.writes.size());
+    }
+
+    @Test
+    void testAccumulator_RejectsRestockOfUnknownId() {
+        InMemoryStock stock = new InMemoryStock(true, Map.of(1L, 0));
+
+        assertEquals(StockAdjuster.Result.REJECTED, stock.adjust(2L, 3));
+        stock.flushAll();
+
+        assertTrue(stock.writes.isEmpty());
+    }
+
+    @Test
+    void testAccumulator_WithdrawalFlushesPendingRestockFirst() {
+        InMemoryStock stock = new InMemoryStock(true, Map.of(1L, 1));
+
+        stock.adjust(1L, 4);
+
+        // 1 in the table is not enough, but 1 + 4 pending is
+        assertEquals(StockAdjuster.Result.APPLIED, stock.adjust(1L, -3));
+        assertEquals(2, stock.rows.get(1L));
+        assertEquals(StockAdjuster.Result.REJECTED, stock.adjust(1L, -3));
+    }
+
+    @Test
+    void testAccumulator_FailedFlushKeepsPendingRestock() {
+        InMemoryStock stock = new InMemoryStock(true, Map.of(1L, 0));
+        stock.adjust(1L, 4);
+
+        stock.failWrites = true;
+        stock.flushAll();
+        stock.failWrites = false;
+        stock.flushAll();
+
+        assertEquals(4, stock.rows.get(1L));
+    }
+
+    @Test
+    void testAccumulator_ConcurrentRestocksAreNotLost() throws InterruptedException {
+        InMemoryStock stock = new InMemoryStock(true, Map.of(1L, 0));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 10_000; i++) {
+            executor.execute(() -> stock.adjust(1L, 1));
+            if (i % 1_000 == 0) {
+                executor.execute(stock::flushAll);
+            }
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        stock.flushAll();
+
+        assertEquals(10_000, stock.rows.get(1L));
+    }
+
+    private static final class InMemoryStock extends StockAdjuster {
+
+        final Map<Long, Integer> rows;
+        final List<Integer> writes = new ArrayList<>();
+        volatile boolean failWrites;
+
+        InMemoryStock(boolean accumulate, Map<Long, Integer> rows) {
+            super("test", accumulate, Duration.ofHours(1));
+            this.rows = new HashMap<>(rows);
+        }
+
+        @Override
+        protected synchronized int applyDelta(Long id, int delta) {
+            if (failWrites) {
+                throw new IllegalStateException("database unavailable");
+            }
+            Integer current = rows.get(id);
+            if (current == null || current + delta < 0) {
+                return 0;
+            }
+            rows.put(id, current + delta);
+            writes.add(delta);
+            return 1;
+        }
+
+        @Override
+        protected synchronized boolean exists(Long id) {
+            return rows.containsKey(id);
+        }
+
+        @Override
+        protected <T> T inNewTransaction(Supplier<T> work) {
+            return work.get();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.fulfilment.application.monolith.stores;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LegacyStoreJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testReaderTailsAppendedRecords() throws IOException {
+        LegacyStoreJournal journal = journal(1024, LegacyStoreJournal.FsyncPolicy.BATCH);
+        LegacyStoreJournalReader reader = new LegacyStoreJournalReader(directory, 0);
+
+        // Nothing written yet
+        assertNull(reader.poll());
+
+        journal.append("HAARLEM");
+        journal.append("AMSTERDAM");
+        journal.endBatch();
+
+        assertEquals("HAARLEM", reader.poll());
+        assertEquals("AMSTERDAM", reader.poll());
+        assertNull(reader.poll());
+
+        // The reader picks up records written after it caught up
+        journal.append("HENGELO");
+        assertEquals("HENGELO", reader.poll());
+        journal.close();
+    }
+
+    @Test
+    void testRollsToANewSegmentWhenFull() throws IOException {
+        // Room for three 8-byte payloads per segment
+        LegacyStoreJournal journal = journal(50, LegacyStoreJournal.FsyncPolicy.ALWAYS);
+        List<Long> positions = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            positions.add(journal.append("STORE-0" + i));
+        }
+        journal.close();
+
+        assertEquals(3, LegacyStoreJournal.segments(directory).size());
+        assertEquals(50, positions.get(3));
+
+        LegacyStoreJournalReader reader = new LegacyStoreJournalReader(directory, 0);
+        for (int i = 0; i < 7; i++) {
+            assertEquals("STORE-0" + i, reader.poll());
+        }
+        assertNull(reader.poll());
+
+        // A reader can resume from any record position
+        assertEquals("STORE-04", new LegacyStoreJournalReader(directory, positions.get(4)).poll());
+    }
+
+    @Test
+    void testReopenedJournalAppendsAfterExistingRecords() throws IOException {
+        LegacyStoreJournal journal = journal(1024, LegacyStoreJournal.FsyncPolicy.BATCH);
+        journal.append("HAARLEM");
+        journal.close();
+
+        LegacyStoreJournal reopened = journal(1024, LegacyStoreJournal.FsyncPolicy.BATCH);
+        reopened.append("AMSTERDAM");
+        reopened.close();
+
+        LegacyStoreJournalReader reader = new LegacyStoreJournalReader(directory, 0);
+        assertEquals("HAARLEM", reader.poll());
+        assertEquals("AMSTERDAM", reader.poll());
+        assertNull(reader.poll());
+    }
+
+    @Test
+    void testTornRecordIsDiscardedOnReopen() throws IOException {
+        LegacyStoreJournal journal = journal(1024, LegacyStoreJournal.FsyncPolicy.BATCH);
+        journal.append("HAARLEM");
+        long torn = journal.append("AMSTERDAM");
+        journal.close();
+
+        // Simulate a crash halfway through writing the second payload
+        try (FileChannel channel = FileChannel.open(directory.resolve(LegacyStoreJournal.segmentName(0)),
+                StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {'X'}), torn + LegacyStoreJournal.HEADER_BYTES + 4);
+        }
+
+        LegacyStoreJournalReader reader = new LegacyStoreJournalReader(directory, 0);
+        assertEquals("HAARLEM", reader.poll());
+        assertNull(reader.poll());
+
+        LegacyStoreJournal reopened = journal(1024, LegacyStoreJournal.FsyncPolicy.BATCH);
+        assertEquals(torn, reopened.append("HENGELO"));
+        reopened.close();
+        assertEquals("HENGELO", reader.poll());
+    }
+
+    @Test
+    void testConsumedSegmentsAreDeletedOnRoll() throws IOException {
+        LegacyStoreJournal journal = journal(50, 64, LegacyStoreJournal.FsyncPolicy.NEVER);
+        for (int i = 0; i < 4; i++) {
+            journal.append("STORE-0" + i);
+        }
+        LegacyStoreJournalReader reader = new LegacyStoreJournalReader(directory, 0);
+        for (int i = 0; i < 4; i++) {
+            reader.poll();
+        }
+        reader.commit();
+        assertEquals(reader.position(), LegacyStoreJournalReader.committed(directory));
+
+        // Rolling into the third segment deletes the first, which the reader has consumed entirely
+        for (int i = 4; i < 7; i++) {
+            journal.append("STORE-0" + i);
+        }
+        journal.close();
+
+        assertEquals(List.of(LegacyStoreJournal.segmentName(50), LegacyStoreJournal.segmentName(100)),
+                segmentNames());
+        assertEquals("STORE-04", reader.poll());
+    }
+
+    @Test
+    void testSegmentsBeyondTheMaximumAreDeletedUnconsumed() throws IOException {
+        LegacyStoreJournal journal = journal(50, 2, LegacyStoreJournal.FsyncPolicy.NEVER);
+        for (int i = 0; i < 7; i++) {
+            journal.append("STORE-0" + i);
+        }
+        journal.close();
+
+        assertEquals(List.of(LegacyStoreJournal.segmentName(50), LegacyStoreJournal.segmentName(100)),
+                segmentNames());
+
+        // A reader behind the deleted segment continues at the oldest remaining record
+        LegacyStoreJournalReader reader = new LegacyStoreJournalReader(directory, 0);
+        assertEquals("STORE-03", reader.poll());
+        assertEquals(50 + LegacyStoreJournal.HEADER_BYTES + 8, reader.position());
+    }
+
+    @Test
+    void testRecordLargerThanASegmentIsRejected() {
+        LegacyStoreJournal journal = journal(16, LegacyStoreJournal.FsyncPolicy.NEVER);
+
+        IllegalArgumentException exception =
+                assertThrows(IllegalArgumentException.class, () -> journal.append("A STORE NAME THAT IS TOO LONG"));
+        assertTrue(exception.getMessage().contains("does not fit"));
+    }
+
+    private LegacyStoreJournal journal(int segmentSize, LegacyStoreJournal.FsyncPolicy fsyncPolicy) {
+        return journal(segmentSize, 64, fsyncPolicy);
+    }
+
+    private LegacyStoreJournal journal(int segmentSize, int maxSegments, LegacyStoreJournal.FsyncPolicy fsyncPolicy) {
+        return new LegacyStoreJournal(Optional.of(directory), segmentSize, maxSegments, fsyncPolicy);
+    }
+
+    private List<String> segmentNames() throws IOException {
+        return LegacyStoreJournal.segments(directory).stream()
+                .map(segment -> segment.getFileName().toString())
+                .collect(Collectors.toList());
+    }
+}
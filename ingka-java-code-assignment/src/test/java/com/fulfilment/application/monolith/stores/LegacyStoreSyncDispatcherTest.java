@@ -0,0 +1,235 @@
+package com.fulfilment.application.monolith.stores;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class LegacyStoreSyncDispatcherTest {
+
+    @Mock
+    LegacyStoreManagerGateway legacyStoreManagerGateway;
+
+    @TempDir
+    Path spillDir;
+
+    private final List<StoreLegacyUpdateEvent> sent = new CopyOnWriteArrayList<>();
+
+    private LegacyStoreSyncDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+    }
+
+    @Test
+    void testRepeatedUpdatesToAStoreAreCoalesced() {
+        dispatcher = dispatcher(10, LegacyStoreSyncDispatcher.OverflowPolicy.BLOCK);
+
+        // Workers are not started yet, so everything waits in the queue
+        dispatcher.submit(event(1L, "HAARLEM", 10, true));
+        dispatcher.submit(event(1L, "HAARLEM", 11, false));
+        dispatcher.submit(event(2L, "AMSTERDAM", 5, false));
+        dispatcher.submit(event(1L, "HAARLEM", 12, false));
+
+        assertEquals(2, dispatcher.queueDepth());
+        assertEquals(2, dispatcher.coalescedCount());
+
+        recordSent();
+        dispatcher.start();
+        dispatcher.stop();
+
+        // Only the latest state of each store is sent, and a pending creation stays a creation
+        assertEquals(2, sent.size());
+        assertEquals("HAARLEM", sent.get(0).getStore().name);
+        assertEquals(12, sent.get(0).getStore().quantityProductsInStock);
+        assertTrue(sent.get(0).isCreation());
+        assertEquals("AMSTERDAM", sent.get(1).getStore().name);
+        assertEquals(0, dispatcher.queueDepth());
+        assertEquals(2, dispatcher.dispatchedCount());
+    }
+
+    @Test
+    void testSubmitDoesNotKeepTheEntity() {
+        dispatcher = dispatcher(10, LegacyStoreSyncDispatcher.OverflowPolicy.BLOCK);
+        Store store = store(1L, "HAARLEM", 10);
+
+        dispatcher.submit(new StoreLegacyUpdateEvent(store, false));
+        store.quantityProductsInStock = 99;
+
+        recordSent();
+        dispatcher.start();
+        dispatcher.stop();
+
+        assertEquals(10, sent.get(0).getStore().quantityProductsInStock);
+    }
+
+    @Test
+    void testDropOldest_DiscardsLongestWaitingStore() {
+        dispatcher = dispatcher(2, LegacyStoreSyncDispatcher.OverflowPolicy.DROP_OLDEST);
+
+        dispatcher.submit(event(1L, "HAARLEM", 10, false));
+        dispatcher.submit(event(2L, "AMSTERDAM", 5, false));
+        dispatcher.submit(event(3L, "HENGELO", 3, false));
+
+        assertEquals(2, dispatcher.queueDepth());
+        assertEquals(1, dispatcher.droppedCount());
+
+        recordSent();
+        dispatcher.start();
+        dispatcher.stop();
+
+        assertEquals(List.of("AMSTERDAM", "HENGELO"), sentNames());
+    }
+
+    @Test
+    void testSpill_ReplaysSpilledChangesInOrder() {
+        dispatcher = dispatcher(1, LegacyStoreSyncDispatcher.OverflowPolicy.SPILL);
+
+        dispatcher.submit(event(1L, "HAARLEM", 10, false));
+        dispatcher.submit(event(2L, "AMSTERDAM", 5, true));
+        dispatcher.submit(event(1L, "HAARLEM", 11, false));
+
+        // Once the queue has spilled, later changes follow to the file, even for queued stores
+        assertEquals(1, dispatcher.queueDepth());
+        assertEquals(2, dispatcher.spilledCount());
+
+        recordSent();
+        dispatcher.start();
+        dispatcher.stop();
+
+        assertEquals(List.of("HAARLEM", "AMSTERDAM", "HAARLEM"), sentNames());
+        assertEquals(11, sent.get(2).getStore().quantityProductsInStock);
+        assertTrue(sent.get(1).isCreation());
+        assertFalse(spillDir.resolve("legacy-store-sync-0.spill").toFile().exists());
+    }
+
+    @Test
+    void testSpill_LeftoverFileIsReplayedOnNextStart() {
+        dispatcher = dispatcher(1, LegacyStoreSyncDispatcher.OverflowPolicy.SPILL);
+        dispatcher.submit(event(1L, "HAARLEM", 10, false));
+        dispatcher.submit(event(2L, "AMSTERDAM", 5, false));
+        dispatcher.stop();
+
+        // A new dispatcher over the same directory picks up what the previous one spilled
+        LegacyStoreSyncDispatcher restarted = dispatcher(1, LegacyStoreSyncDispatcher.OverflowPolicy.SPILL);
+        recordSent();
+        restarted.start();
+        restarted.stop();
+
+        assertEquals(List.of("AMSTERDAM"), sentNames());
+    }
+
+    @Test
+    void testSpill_UnreadableFileIsKept() throws Exception {
+        // a directory in place of the spill file cannot be read
+        Path spillFile = Files.createDirectory(spillDir.resolve("legacy-store-sync-0.spill"));
+        dispatcher = dispatcher(1, LegacyStoreSyncDispatcher.OverflowPolicy.SPILL);
+
+        dispatcher.start();
+        dispatcher.stop();
+
+        verify(legacyStoreManagerGateway, never()).syncStoresOnLegacySystem(anyList());
+        assertTrue(Files.isDirectory(spillFile));
+    }
+
+    @Test
+    void testSpill_SubmitDoesNotWaitForTheFile() throws Exception {
+        // the spill directory is a file, so every write fails
+        Path notADirectory = Files.createFile(spillDir.resolve("not-a-directory"));
+        dispatcher = new LegacyStoreSyncDispatcher(legacyStoreManagerGateway, 1, 1, 100,
+                LegacyStoreSyncDispatcher.OverflowPolicy.SPILL, Optional.of(notADirectory));
+        dispatcher.start();
+        lenient().doAnswer(invocation -> {
+            Thread.sleep(200);
+            return null;
+        }).when(legacyStoreManagerGateway).syncStoresOnLegacySystem(anyList());
+
+        assertTimeoutPreemptively(Duration.ofMillis(500), () -> {
+            for (long id = 1; id <= 10; id++) {
+                dispatcher.submit(event(id, "STORE-" + id, 1, false));
+            }
+        });
+    }
+
+    @Test
+    void testSpill_RequiresASpillDirectory() {
+        assertThrows(IllegalStateException.class, () -> new LegacyStoreSyncDispatcher(legacyStoreManagerGateway,
+                1, 1, 100, LegacyStoreSyncDispatcher.OverflowPolicy.SPILL, Optional.empty()));
+    }
+
+    @Test
+    void testBlock_WaitsForRoom() throws InterruptedException {
+        dispatcher = dispatcher(1, LegacyStoreSyncDispatcher.OverflowPolicy.BLOCK);
+        dispatcher.submit(event(1L, "HAARLEM", 10, false));
+
+        CountDownLatch submitted = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            dispatcher.submit(event(2L, "AMSTERDAM", 5, false));
+            submitted.countDown();
+        });
+        producer.start();
+
+        assertFalse(submitted.await(200, TimeUnit.MILLISECONDS));
+
+        recordSent();
+        dispatcher.start();
+        assertTrue(submitted.await(5, TimeUnit.SECONDS));
+        dispatcher.stop();
+
+        assertEquals(List.of("HAARLEM", "AMSTERDAM"), sentNames());
+    }
+
+    private LegacyStoreSyncDispatcher dispatcher(int capacity, LegacyStoreSyncDispatcher.OverflowPolicy overflow) {
+        return new LegacyStoreSyncDispatcher(legacyStoreManagerGateway, 1, capacity, 100, overflow,
+                Optional.of(spillDir));
+    }
+
+    private void recordSent() {
+        doAnswer(invocation -> {
+            List<StoreLegacyUpdateEvent> batch = invocation.getArgument(0);
+            sent.addAll(batch);
+            return null;
+        }).when(legacyStoreManagerGateway).syncStoresOnLegacySystem(anyList());
+    }
+
+    private List<String> sentNames() {
+        return sent.stream().map(event -> event.getStore().name).collect(Collectors.toList());
+    }
+
+    private static StoreLegacyUpdateEvent event(Long id, String name, int quantity, boolean creation) {
+        return new StoreLegacyUpdateEvent(store(id, name, quantity), creation);
+    }
+
+    private static Store store(Long id, String name, int quantity) {
+        Store store = new Store(name);
+        store.id = id;
+        store.quantityProductsInStock = quantity;
+        return store;
+    }
+}
@@ -0,0 +1,64 @@
+package com.fulfilment.application.monolith.stores;
+
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+
+@QuarkusTest
+public class StoreOutboxRelayTest {
+
+    @Inject
+    StoreOutboxRelay storeOutboxRelay;
+
+    @InjectMock
+    LegacyStoreManagerGateway legacyStoreManagerGateway;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRepeatedEditsAreRelayedOncePerStore() {
+        int id = given()
+                .contentType(ContentType.JSON)
+                .body("{\"name\": \"UTRECHT\", \"quantityProductsInStock\": 1}")
+                .when().post("/stores")
+                .then()
+                .statusCode(201)
+                .extract().path("id");
+        for (int quantity = 2; quantity <= 3; quantity++) {
+            given()
+                    .contentType(ContentType.JSON)
+                    .body("{\"name\": \"UTRECHT\", \"quantityProductsInStock\": " + quantity + "}")
+                    .when().put("/stores/" + id)
+                    .then()
+                    .statusCode(200);
+        }
+
+        // Relay until the outbox is empty, since other tests may have left entries behind
+        while (storeOutboxRelay.relayOnce() > 0) {
+            // keep going
+        }
+
+        ArgumentCaptor<List<StoreLegacyUpdateEvent>> batches = ArgumentCaptor.forClass(List.class);
+        verify(legacyStoreManagerGateway, atLeastOnce()).syncStoresOnLegacySystem(batches.capture());
+        List<StoreLegacyUpdateEvent> utrecht = batches.getAllValues().stream()
+                .flatMap(List::stream)
+                .filter(event -> event.getStore().id == id)
+                .collect(Collectors.toList());
+
+        // Three edits become one change carrying the latest state, still a creation
+        assertEquals(1, utrecht.size());
+        assertEquals(3, utrecht.get(0).getStore().quantityProductsInStock);
+        assertTrue(utrecht.get(0).isCreation());
+        assertEquals(0, storeOutboxRelay.relayOnce());
+    }
+}
@@ -1,5 +1,6 @@
 package com.fulfilment.application.monolith.stores;
 
+import com.fulfilment.application.monolith.metrics.SqlStatementRecorder;
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.http.ContentType;
 import org.junit.jupiter.api.Test;
@@ -8,6 +9,7 @@ import static io.restassured.RestAssured.given;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 
 @QuarkusTest
 public class StoreResourceTest {
@@ -89,4 +91,137 @@ public class StoreResourceTest {
                 .then()
                 .statusCode(404);
     }
+
+    @Test
+    public void testAdjustStock() {
+        int id = given()
+                .contentType(ContentType.JSON)
+                .body("{\"name\": \"DELFT\", \"quantityProductsInStock\": 5}")
+                .when().post("/stores")
+                .then()
+                .statusCode(201)
+                .extract().path("id");
+
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"delta\": 3}")
+                .when().post("/stores/" + id + "/stock-adjustments")
+                .then()
+                .statusCode(204);
+
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"delta\": -8}")
+                .when().post("/stores/" + id + "/stock-adjustments")
+                .then()
+                .statusCode(204);
+
+        // Stock never goes below zero
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"delta\": -1}")
+                .when().post("/stores/" + id + "/stock-adjustments")
+                .then()
+                .statusCode(409);
+
+        given()
+                .when().get("/stores/" + id)
+                .then()
+                .statusCode(200)
+                .body("quantityProductsInStock", is(0));
+    }
+
+    @Test
+    public void testAdjustStock_UnknownStore() {
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"delta\": 1}")
+                .when().post("/stores/99999/stock-adjustments")
+                .then()
+                .statusCode(404);
+    }
+
+    @Test
+    public void testAdjustStock_MissingDelta() {
+        given()
+                .contentType(ContentType.JSON)
+                .body("{}")
+                .when().post("/stores/1/stock-adjustments")
+                .then()
+                .statusCode(422);
+    }
+
+    @Test
+    public void testStatementBudget() {
+        int id = given()
+                .contentType(ContentType.JSON)
+                .body("{\"name\": \"LEIDEN\", \"quantityProductsInStock\": 5}")
+                .when().post("/stores")
+                .then()
+                .statusCode(201)
+                .extract().path("id");
+
+        SqlStatementRecorder.assertAtMost(1, "GET /stores/{id}", () -> given()
+                .when().get("/stores/" + id)
+                .then()
+                .statusCode(200));
+
+        SqlStatementRecorder.assertAtMost(2, "PUT /stores/{id}", () -> given()
+                .contentType(ContentType.JSON)
+                .body("{\"name\": \"LEIDEN\", \"quantityProductsInStock\": 6}")
+                .when().put("/stores/" + id)
+                .then()
+                .statusCode(200));
+
+        SqlStatementRecorder.assertAtMost(3, "POST /stores/{id}/stock-adjustments", () -> given()
+                .contentType(ContentType.JSON)
+                .body("{\"delta\": 2}")
+                .when().post("/stores/" + id + "/stock-adjustments")
+                .then()
+                .statusCode(204));
+    }
+
+    @Test
+    public void testConditionalGet() {
+        int id = given()
+                .contentType(ContentType.JSON)
+                .body("{\"name\": \"GOUDA\", \"quantityProductsInStock\": 5}")
+                .when().post("/stores")
+                .then()
+                .statusCode(201)
+                .extract().path("id");
+
+        String tag = given()
+                .when().get("/stores/" + id)
+                .then()
+                .statusCode(200)
+                .header("ETag", notNullValue())
+                .extract().header("ETag");
+        String listTag = given().when().get("/stores").then().statusCode(200).extract().header("ETag");
+
+        SqlStatementRecorder.assertAtMost(1, "GET /stores/{id} (not modified)", () -> given()
+                .header("If-None-Match", tag)
+                .when().get("/stores/" + id)
+                .then()
+                .statusCode(304));
+        given().header("If-None-Match", listTag).when().get("/stores").then().statusCode(304);
+
+        // stock adjustments are changes too, although they bypass the entity
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"delta\": 1}")
+                .when().post("/stores/" + id + "/stock-adjustments")
+                .then()
+                .statusCode(204);
+
+        String adjusted = given()
+                .header("If-None-Match", tag)
+                .when().get("/stores/" + id)
+                .then()
+                .statusCode(200)
+                .body("quantityProductsInStock", is(6))
+                .extract().header("ETag");
+        assertNotEquals(tag, adjusted);
+        given().header("If-None-Match", listTag).when().get("/stores").then().statusCode(200);
+    }
 }
@@ -1,16 +1,34 @@
 package com.fulfilment.application.monolith.warehouses;
 
+import com.fulfilment.application.monolith.metrics.SqlStatementRecorder;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import com.warehouse.api.beans.Warehouse;
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.junit.jupiter.api.Test;
 
 import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @QuarkusTest
 public class WarehouseResourceTest {
 
+    @Inject
+    WarehouseStore warehouseStore;
+
     @Test
     public void testCreateWarehouse() {
         Warehouse warehouse = new Warehouse();
@@ -84,4 +102,195 @@ public class WarehouseResourceTest {
                 .then()
                 .statusCode(400);
     }
+
+    @Test
+    public void testCreateWarehouseLocationFull() {
+        Warehouse warehouse = new Warehouse();
+        warehouse.setBusinessUnitCode("MW-005");
+        warehouse.setLocation("TILBURG-001"); // maxWH=1, already taken by MWH.023
+        warehouse.setCapacity(20);
+        warehouse.setStock(5);
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(warehouse)
+                .when().post("/warehouse")
+                .then()
+                .statusCode(400)
+                .body("error", is("Maximum number of warehouses reached for location: TILBURG-001"));
+    }
+
+    @Test
+    public void testListWarehousesByPage() {
+        // Seeded warehouses ordered by business unit code: MWH.001, MWH.012, MWH.023
+        // (the cursor skips the MW-xxx units created by the other tests)
+        given()
+                .queryParam("after", "MWH.")
+                .queryParam("size", 1)
+                .when().get("/warehouse/page")
+                .then()
+                .statusCode(200)
+                .body("items.size()", is(1))
+                .body("items[0].businessUnitCode", is("MWH.001"))
+                .body("nextCursor", is("MWH.001"));
+
+        given()
+                .queryParam("after", "MWH.001")
+                .queryParam("size", 1)
+                .when().get("/warehouse/page")
+                .then()
+                .statusCode(200)
+                .body("items[0].businessUnitCode", is("MWH.012"))
+                .body("nextCursor", is("MWH.012"));
+    }
+
+    @Test
+    public void testListWarehousesByPage_LastPageHasNoCursor() {
+        given()
+                .queryParam("after", "MWH.012")
+                .queryParam("size", 500)
+                .when().get("/warehouse/page")
+                .then()
+                .statusCode(200)
+                .body("items[0].businessUnitCode", is("MWH.023"))
+                .body("nextCursor", nullValue());
+    }
+
+    @Test
+    public void testListWarehousesByPage_InvalidSize() {
+        given()
+                .queryParam("size", 0)
+                .when().get("/warehouse/page")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    public void testStreamWarehouses() {
+        given()
+                .when().get("/warehouse/stream")
+                .then()
+                .statusCode(200)
+                .contentType(containsString("application/x-ndjson"))
+                .body(containsString("\"businessUnitCode\":\"MWH.001\""),
+                        containsString("\"businessUnitCode\":\"MWH.023\""));
+    }
+
+    @Test
+    public void testStatementBudget_CreateReplaceArchive() {
+        Warehouse warehouse = new Warehouse();
+        warehouse.setBusinessUnitCode("MW-006");
+        warehouse.setLocation("EINDHOVEN-001"); // maxWH=2, maxCapacity=70
+        warehouse.setCapacity(20);
+        warehouse.setStock(5);
+
+        SqlStatementRecorder.assertAtMost(2, "POST /warehouse", () -> given()
+                .contentType(ContentType.JSON)
+                .body(warehouse)
+                .when().post("/warehouse")
+                .then()
+                .statusCode(200));
+
+        SqlStatementRecorder.assertAtMost(1, "GET /warehouse/{id}", () -> given()
+                .when().get("/warehouse/MW-006")
+                .then()
+                .statusCode(200));
+
+        warehouse.setCapacity(30);
+        SqlStatementRecorder.assertAtMost(1, "POST /warehouse/{businessUnitCode}/replacement", () -> given()
+                .contentType(ContentType.JSON)
+                .body(warehouse)
+                .when().post("/warehouse/MW-006/replacement")
+                .then()
+                .statusCode(200));
+
+        SqlStatementRecorder.assertAtMost(2, "DELETE /warehouse/{id}", () -> given()
+                .when().delete("/warehouse/MW-006")
+                .then()
+                .statusCode(204));
+    }
+
+    @Test
+    public void testConditionalGet() {
+        Warehouse warehouse = new Warehouse();
+        warehouse.setBusinessUnitCode("MW-007");
+        warehouse.setLocation("HELMOND-001"); // maxWH=1, maxCapacity=45
+        warehouse.setCapacity(30);
+        warehouse.setStock(5);
+        given().contentType(ContentType.JSON).body(warehouse).when().post("/warehouse").then().statusCode(200);
+
+        String tag = given()
+                .when().get("/warehouse/MW-007")
+                .then()
+                .statusCode(200)
+                .header("ETag", notNullValue())
+                .extract().header("ETag");
+        String listTag = given()
+                .when().get("/warehouse")
+                .then()
+                .statusCode(200)
+                .header("ETag", notNullValue())
+                .extract().header("ETag");
+
+        SqlStatementRecorder.assertAtMost(1, "GET /warehouse/{id} (not modified)", () -> given()
+                .header("If-None-Match", tag)
+                .when().get("/warehouse/MW-007")
+                .then()
+                .statusCode(304)
+                .header("ETag", tag));
+        given().header("If-None-Match", listTag).when().get("/warehouse").then().statusCode(304);
+
+        warehouse.setCapacity(40);
+        given().contentType(ContentType.JSON).body(warehouse)
+                .when().post("/warehouse/MW-007/replacement").then().statusCode(200);
+
+        String replaced = given()
+                .header("If-None-Match", tag)
+                .when().get("/warehouse/MW-007")
+                .then()
+                .statusCode(200)
+                .body("capacity", is(40))
+                .extract().header("ETag");
+        assertNotEquals(tag, replaced);
+        given().header("If-None-Match", listTag).when().get("/warehouse").then().statusCode(200);
+    }
+
+    @Test
+    public void testConcurrentReplacements_NoneLost() throws Exception {
+        Warehouse warehouse = new Warehouse();
+        warehouse.setBusinessUnitCode("MW-008");
+        warehouse.setLocation("VETSBY-001"); // maxWH=1, maxCapacity=90
+        warehouse.setCapacity(10);
+        warehouse.setStock(5);
+        given().contentType(ContentType.JSON).body(warehouse).when().post("/warehouse").then().statusCode(200);
+        long before = warehouseStore.findVersion("MW-008");
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Callable<Integer>> replacements = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            Warehouse replacement = new Warehouse();
+            replacement.setLocation("VETSBY-001");
+            replacement.setCapacity(20 + i);
+            replacement.setStock(5);
+            replacements.add(() -> given().contentType(ContentType.JSON).body(replacement)
+                    .when().post("/warehouse/MW-008/replacement")
+                    .then().extract().statusCode());
+        }
+        int replaced = 0;
+        try {
+            for (Future<Integer> status : pool.invokeAll(replacements)) {
+                // a conflict that outlasts the retries is answered, never silently overwritten
+                assertTrue(status.get() == 200 || status.get() == 409, "status " + status.get());
+                if (status.get() == 200) {
+                    replaced++;
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        // every replacement that succeeded was applied on top of the one before it
+        assertTrue(replaced > 0);
+        assertEquals(before + replaced, warehouseStore.findVersion("MW-008"));
+    }
 }
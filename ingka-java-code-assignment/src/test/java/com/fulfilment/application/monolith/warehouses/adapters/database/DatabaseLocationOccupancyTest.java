@@ -0,0 +1,98 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import java.time.ZonedDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+public class DatabaseLocationOccupancyTest {
+
+    // allows 2 warehouses and is not used by the other tests
+    private static final String LOCATION = "ZWOLLE-002";
+
+    @Inject
+    DatabaseLocationOccupancy occupancy;
+
+    @Inject
+    WarehouseStore warehouseStore;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Test
+    public void testTryReserve_CountsStoredWarehousesUntilFull() {
+        try {
+            assertTrue(createIfReserved("DLO.1"));
+            assertTrue(createIfReserved("DLO.2"));
+            assertFalse(createIfReserved("DLO.3"));
+
+            // an archived warehouse no longer holds its slot
+            QuarkusTransaction.requiringNew().run(() -> warehouseStore.archive("DLO.2", null, ZonedDateTime.now()));
+            assertTrue(createIfReserved("DLO.3"));
+        } finally {
+            QuarkusTransaction.requiringNew().run(this::deleteTestRows);
+        }
+    }
+
+    @Test
+    public void testTryReserve_WaitsForAConcurrentReservation() throws Exception {
+        CountDownLatch reserved = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        try {
+            assertTrue(createIfReserved("DLO.1"));
+            // the last slot, held by a transaction that has not committed yet
+            CompletableFuture<Void> first = CompletableFuture.runAsync(
+                    () -> QuarkusTransaction.requiringNew().run(() -> {
+                        assertTrue(occupancy.tryReserve(LOCATION));
+                        warehouseStore.create(new Warehouse("DLO.2", LOCATION, 30, 5));
+                        reserved.countDown();
+                        await(commit);
+                    }));
+            assertTrue(reserved.await(10, TimeUnit.SECONDS));
+            CompletableFuture<Boolean> second = CompletableFuture.supplyAsync(
+                    () -> QuarkusTransaction.requiringNew().call(() -> occupancy.tryReserve(LOCATION)));
+
+            Thread.sleep(300);
+            assertFalse(second.isDone());
+            commit.countDown();
+            first.get(10, TimeUnit.SECONDS);
+            assertFalse(second.get(10, TimeUnit.SECONDS));
+        } finally {
+            commit.countDown();
+            QuarkusTransaction.requiringNew().run(this::deleteTestRows);
+        }
+    }
+
+    private boolean createIfReserved(String businessUnitCode) {
+        return QuarkusTransaction.requiringNew().call(() -> {
+            if (!occupancy.tryReserve(LOCATION)) {
+                return false;
+            }
+            warehouseStore.create(new Warehouse(businessUnitCode, LOCATION, 30, 5));
+            return true;
+        });
+    }
+
+    private void deleteTestRows() {
+        entityManager.createQuery("delete from DbWarehouse w where w.businessUnitCode like 'DLO.%'").executeUpdate();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
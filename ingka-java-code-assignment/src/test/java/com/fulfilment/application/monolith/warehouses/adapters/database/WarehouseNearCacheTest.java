@@ -0,0 +1,147 @@
+package com.fulfilment.application.monolith.warehouses.adapters.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fulfilment.application.monolith.cache.InvalidationBus;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class WarehouseNearCacheTest {
+
+    @Mock
+    TransactionSynchronizationRegistry transactions;
+
+    @Mock
+    InvalidationBus invalidationBus;
+
+    private final AtomicLong now = new AtomicLong();
+
+    private WarehouseNearCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new WarehouseNearCache(transactions, invalidationBus, true, 2, Duration.ofSeconds(30), now::get);
+    }
+
+    @Test
+    void testGet_ReturnsCopyOfLoadedWarehouse() {
+        cache.put(warehouse("MWH.001"), cache.loadToken());
+
+        Warehouse first = cache.get("MWH.001");
+        first.setStock(99);
+
+        assertEquals(10, cache.get("MWH.001").getStock());
+        assertNull(cache.get("MWH.002"));
+        assertEquals(2, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    void testGet_ExpiredEntryIsAMiss() {
+        cache.put(warehouse("MWH.001"), cache.loadToken());
+
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+
+        assertNull(cache.get("MWH.001"));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.evictionCount());
+    }
+
+    @Test
+    void testPut_EvictsOldestWhenFull() {
+        cache.put(warehouse("MWH.001"), cache.loadToken());
+        cache.put(warehouse("MWH.002"), cache.loadToken());
+        cache.put(warehouse("MWH.003"), cache.loadToken());
+
+        assertEquals(2, cache.size());
+        assertNull(cache.get("MWH.001"));
+        assertNotNull(cache.get("MWH.003"));
+        assertEquals(1, cache.evictionCount());
+    }
+
+    @Test
+    void testPut_LoadStartedBeforeInvalidationIsNotCached() {
+        long token = cache.loadToken();
+        cache.invalidate("MWH.001");
+
+        cache.put(warehouse("MWH.001"), token);
+
+        assertNull(cache.get("MWH.001"));
+    }
+
+    @Test
+    void testInvalidate_InTransaction_KeepsCodeUncachedUntilCompletion() {
+        when(transactions.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+        cache.put(warehouse("MWH.001"), cache.loadToken());
+
+        cache.invalidate("MWH.001");
+        ArgumentCaptor<Synchronization> completion = ArgumentCaptor.forClass(Synchronization.class);
+        verify(transactions).registerInterposedSynchronization(completion.capture());
+
+        // a lookup while the write is uncommitted is not cached
+        cache.put(warehouse("MWH.001"), cache.loadToken());
+        assertNull(cache.get("MWH.001"));
+
+        completion.getValue().afterCompletion(Status.STATUS_COMMITTED);
+        cache.put(warehouse("MWH.001"), cache.loadToken());
+        assertNotNull(cache.get("MWH.001"));
+    }
+
+    @Test
+    void testInvalidate_IsPublishedToOtherNodes() {
+        cache.invalidate("MWH.001");
+
+        verify(invalidationBus).publish("warehouse", "MWH.001");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testInvalidationFromAnotherNode_Evicts() {
+        ArgumentCaptor<Consumer<String>> listener = ArgumentCaptor.forClass(Consumer.class);
+        verify(invalidationBus).subscribe(eq("warehouse"), listener.capture());
+        cache.put(warehouse("MWH.001"), cache.loadToken());
+        cache.put(warehouse("MWH.002"), cache.loadToken());
+
+        listener.getValue().accept("MWH.001");
+        assertNull(cache.get("MWH.001"));
+        assertNotNull(cache.get("MWH.002"));
+
+        listener.getValue().accept(InvalidationBus.ALL);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testDisabled_NeverCaches() {
+        cache = new WarehouseNearCache(transactions, invalidationBus, false, 2, Duration.ofSeconds(30), now::get);
+
+        cache.put(warehouse("MWH.001"), cache.loadToken());
+        cache.invalidate("MWH.001");
+
+        assertNull(cache.get("MWH.001"));
+        verify(transactions, never()).registerInterposedSynchronization(any());
+        verify(invalidationBus, never()).publish(any(), any());
+    }
+
+    private static Warehouse warehouse(String businessUnitCode) {
+        return new Warehouse(businessUnitCode, "ZWOLLE-001", 100, 10);
+    }
+}
@@ -0,0 +1,247 @@
+package com.fulfilment.application.monolith.warehouses.adapters.memory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fulfilment.application.monolith.wal.WriteAheadLog;
+import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+public class InMemoryWarehouseStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testCreateFindAndCopies() {
+        InMemoryWarehouseStore store = new InMemoryWarehouseStore();
+        Warehouse warehouse = new Warehouse("MWH.1", "ZWOLLE-001", 40, 10);
+        store.create(warehouse);
+
+        Warehouse found = store.findByBusinessUnitCode("MWH.1");
+        assertEquals("ZWOLLE-001", found.getLocation());
+        assertNotNull(found.getCreationAt());
+
+        // neither the caller's object nor the returned one is the stored warehouse
+        warehouse.setLocation("AMSTERDAM-001");
+        found.setStock(99);
+        assertEquals("ZWOLLE-001", store.findByBusinessUnitCode("MWH.1").getLocation());
+        assertEquals(10, store.findByBusinessUnitCode("MWH.1").getStock());
+        assertNull(store.findByBusinessUnitCode("MWH.2"));
+    }
+
+    @Test
+    void testCreateDuplicate_Fails() {
+        InMemoryWarehouseStore store = new InMemoryWarehouseStore();
+        store.create(new Warehouse("MWH.1", "ZWOLLE-001", 40, 10));
+
+        assertThrows(IllegalStateException.class,
+                () -> store.create(new Warehouse("MWH.1", "AMSTERDAM-001", 40, 10)));
+        assertEquals("ZWOLLE-001", store.findByBusinessUnitCode("MWH.1").getLocation());
+    }
+
+    @Test
+    void testCountActiveByLocation_FollowsUpdatesArchivesAndRemovals() {
+        InMemoryWarehouseStore store = new InMemoryWarehouseStore();
+        store.create(new Warehouse("MWH.1", "ZWOLLE-001", 40, 10));
+        store.create(new Warehouse("MWH.2", "ZWOLLE-001", 40, 10));
+        store.create(new Warehouse("MWH.3", "AMSTERDAM-001", 40, 10));
+        assertEquals(Map.of("ZWOLLE-001", 2L, "AMSTERDAM-001", 1L), store.countActiveByLocation());
+
+        assertEquals(1, store.update(new Warehouse("MWH.2", "AMSTERDAM-001", 50, 10)));
+        assertEquals(Map.of("ZWOLLE-001", 1L, "AMSTERDAM-001", 2L), store.countActiveByLocation());
+
+        assertEquals(1, store.archive("MWH.3", ZonedDateTime.now()));
+        assertEquals(0, store.archive("MWH.3", ZonedDateTime.now()));
+        assertEquals(Map.of("ZWOLLE-001", 1L, "AMSTERDAM-001", 1L), store.countActiveByLocation());
+
+        store.remove(new Warehouse("MWH.1", null, null, null));
+        assertEquals(Map.of("AMSTERDAM-001", 1L), store.countActiveByLocation());
+        assertEquals(0, store.update(new Warehouse("MWH.1", "ZWOLLE-001", 40, 10)));
+    }
+
+    @Test
+    void testUpdateAndArchive_OnlyApplyToTheVersionGiven() {
+        InMemoryWarehouseStore store = new InMemoryWarehouseStore();
+        store.create(new Warehouse("MWH.1", "ZWOLLE-001", 40, 10));
+        Warehouse loaded = store.findByBusinessUnitCode("MWH.1");
+        assertEquals(0L, loaded.getVersion());
+
+        Warehouse replacement = new Warehouse("MWH.1", "AMSTERDAM-001", 40, 10);
+        replacement.setVersion(0L);
+        assertEquals(1, store.update(replacement));
+        assertEquals(1L, store.findVersion("MWH.1"));
+
+        // both were validated against version 0, which is gone
+        assertEquals(0, store.update(replacement));
+        assertEquals(0, store.archive("MWH.1", 0L, ZonedDateTime.now()));
+        assertEquals("AMSTERDAM-001", store.findByBusinessUnitCode("MWH.1").getLocation());
+
+        assertEquals(1, store.archive("MWH.1", 1L, ZonedDateTime.now()));
+        assertEquals(2L, store.findVersion("MWH.1"));
+    }
+
+    @Test
+    void testChanges_UndoneWhenTransactionRollsBack() {
+        TransactionSynchronizationRegistry transactions = mock(TransactionSynchronizationRegistry.class);
+        when(transactions.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+        InMemoryWarehouseStore store = new InMemoryWarehouseStore(log(), transactions);
+        store.create(new Warehouse("MWH.1", "ZWOLLE-001", 40, 10));
+        store.create(new Warehouse("MWH.2", "ZWOLLE-001", 40, 10));
+        store.update(new Warehouse("MWH.1", "AMSTERDAM-001", 60, 20));
+
+        ArgumentCaptor<Synchronization> synchronizations = ArgumentCaptor.forClass(Synchronization.class);
+        verify(transactions, times(3)).registerInterposedSynchronization(synchronizations.capture());
+        // the creation of MWH.1 commits, the creation of MWH.2 and the update of MWH.1 roll back
+        synchronizations.getAllValues().get(0).afterCompletion(Status.STATUS_COMMITTED);
+        synchronizations.getAllValues().get(1).afterCompletion(Status.STATUS_ROLLEDBACK);
+        synchronizations.getAllValues().get(2).afterCompletion(Status.STATUS_ROLLEDBACK);
+
+        assertNull(store.findByBusinessUnitCode("MWH.2"));
+        Warehouse restored = store.findByBusinessUnitCode("MWH.1");
+        assertEquals("ZWOLLE-001", restored.getLocation());
+        assertEquals(0L, restored.getVersion());
+        assertEquals(Map.of("ZWOLLE-001", 1L), store.countActiveByLocation());
+        // the undo is logged as well
+        assertEquals(List.of("MWH.1"), codes(new InMemoryWarehouseStore(log()).getAll()));
+    }
+
+    @Test
+    void testRollback_KeepsALaterChange() {
+        TransactionSynchronizationRegistry transactions = mock(TransactionSynchronizationRegistry.class);
+        when(transactions.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+        InMemoryWarehouseStore store = new InMemoryWarehouseStore(log(), transactions);
+        store.create(new Warehouse("MWH.1", "ZWOLLE-001", 40, 10));
+        store.update(new Warehouse("MWH.1", "AMSTERDAM-001", 60, 20));
+
+        ArgumentCaptor<Synchronization> synchronizations = ArgumentCaptor.forClass(Synchronization.class);
+        verify(transactions, times(2)).registerInterposedSynchronization(synchronizations.capture());
+        // the creation rolls back after the update of another transaction replaced it
+        synchronizations.getAllValues().get(0).afterCompletion(Status.STATUS_ROLLEDBACK);
+
+        assertEquals("AMSTERDAM-001", store.findByBusinessUnitCode("MWH.1").getLocation());
+    }
+
+    @Test
+    void testFindPage_OrderedByBusinessUnitCode() {
+        InMemoryWarehouseStore store = new InMemoryWarehouseStore();
+        for (String code : List.of("MWH.3", "MWH.1", "MWH.4", "MWH.2")) {
+            store.create(new Warehouse(code, "ZWOLLE-001", 40, 10));
+        }
+
+        assertEquals(List.of("MWH.1", "MWH.2"), codes(store.findPage(null, 2)));
+        assertEquals(List.of("MWH.3", "MWH.4"), codes(store.findPage("MWH.2", 2)));
+        assertEquals(List.of(), codes(store.findPage("MWH.4", 2)));
+        assertEquals(List.of("MWH.1", "MWH.2", "MWH.3", "MWH.4"), codes(store.getAll()));
+    }
+
+    @Test
+    void testConcurrentCreations_AllIndexed() throws Exception {
+        InMemoryWarehouseStore store = new InMemoryWarehouseStore(log());
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                String code = "MWH." + i;
+                String location = "LOC-" + (i % 4);
+                futures.add(pool.submit(() -> store.create(new Warehouse(code, location, 40, 10))));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(400, store.getAll().size());
+        assertEquals(Map.of("LOC-0", 100L, "LOC-1", 100L, "LOC-2", 100L, "LOC-3", 100L),
+                store.countActiveByLocation());
+        assertEquals(400, new InMemoryWarehouseStore(log()).getAll().size());
+    }
+
+    @Test
+    void testRecover_ReplaysTheLog() {
+        ZonedDateTime archivedAt = ZonedDateTime.parse("2026-01-02T10:15:30+01:00[Europe/Amsterdam]");
+        InMemoryWarehouseStore store = new InMemoryWarehouseStore(log());
+        store.create(new Warehouse("MWH.1", "ZWOLLE-001", 40, 10));
+        store.create(new Warehouse("MWH.2", "ZWOLLE-001", 40, 10));
+        store.create(new Warehouse("MWH.3", "AMSTERDAM-001", 40, 10));
+        store.update(new Warehouse("MWH.1", "AMSTERDAM-001", 60, 20));
+        store.archive("MWH.2", archivedAt);
+        store.remove(new Warehouse("MWH.3", null, null, null));
+
+        // no close: the state comes from the log alone
+        InMemoryWarehouseStore recovered = new InMemoryWarehouseStore(log());
+
+        assertEquals(List.of("MWH.1", "MWH.2"), codes(recovered.getAll()));
+        Warehouse replaced = recovered.findByBusinessUnitCode("MWH.1");
+        assertEquals("AMSTERDAM-001", replaced.getLocation());
+        assertEquals(60, replaced.getCapacity());
+        assertEquals(20, replaced.getStock());
+        assertEquals(store.findByBusinessUnitCode("MWH.1").getCreationAt(), replaced.getCreationAt());
+        assertEquals(archivedAt, recovered.findByBusinessUnitCode("MWH.2").getArchivedAt());
+        assertEquals(Map.of("AMSTERDAM-001", 1L), recovered.countActiveByLocation());
+    }
+
+    @Test
+    void testCompaction_KeepsStateAndEmptiesTheLog() throws IOException {
+        InMemoryWarehouseStore store = new InMemoryWarehouseStore(WriteAheadLog.in(dir, "warehouses",
+                WriteAheadLog.FsyncPolicy.NEVER, 1024));
+        for (int i = 0; i < 50; i++) {
+            store.create(new Warehouse("MWH." + i, "ZWOLLE-001", 40, 10));
+            store.update(new Warehouse("MWH." + i, "ZWOLLE-001", 40, 20));
+        }
+        assertEquals(true, Files.size(dir.resolve("warehouses.wal")) < 1024);
+        store.close();
+        assertEquals(0, Files.size(dir.resolve("warehouses.wal")));
+
+        InMemoryWarehouseStore recovered = new InMemoryWarehouseStore(log());
+        assertEquals(50, recovered.getAll().size());
+        assertEquals(20, recovered.findByBusinessUnitCode("MWH.49").getStock());
+    }
+
+    @Test
+    void testRecover_DiscardsATornRecord() throws IOException {
+        InMemoryWarehouseStore store = new InMemoryWarehouseStore(log());
+        store.create(new Warehouse("MWH.1", "ZWOLLE-001", 40, 10));
+        // a record header whose payload never made it to disk
+        Files.write(dir.resolve("warehouses.wal"), new byte[] {0, 0, 0, 64, 1, 2, 3, 4, 'P'},
+                StandardOpenOption.APPEND);
+
+        InMemoryWarehouseStore recovered = new InMemoryWarehouseStore(log());
+        recovered.create(new Warehouse("MWH.2", "ZWOLLE-001", 40, 10));
+
+        assertEquals(List.of("MWH.1", "MWH.2"), codes(new InMemoryWarehouseStore(log()).getAll()));
+    }
+
+    private WriteAheadLog log() {
+        return WriteAheadLog.in(dir, "warehouses", WriteAheadLog.FsyncPolicy.NEVER, Long.MAX_VALUE);
+    }
+
+    private static List<String> codes(List<Warehouse> warehouses) {
+        return warehouses.stream().map(Warehouse::getBusinessUnitCode).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,107 @@
+package com.fulfilment.application.monolith.warehouses.adapters.memory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import com.fulfilment.application.monolith.warehouses.domain.models.Location;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationResolver;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class LocationOccupancyRegistryTest {
+
+    @Mock
+    WarehouseStore warehouseStore;
+
+    @Mock
+    LocationResolver locationResolver;
+
+    @InjectMocks
+    LocationOccupancyRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        when(warehouseStore.countActiveByLocation()).thenReturn(Map.of("LOC1", 2L));
+        registry.seed();
+    }
+
+    @Test
+    void testSeed_LoadsActiveCounts() {
+        assertEquals(2, registry.occupancy("LOC1"));
+        assertEquals(0, registry.occupancy("LOC2"));
+    }
+
+    @Test
+    void testTryReserve_UntilFull() {
+        when(locationResolver.resolveByIdentifier("LOC1")).thenReturn(new Location("LOC1", 3, 100));
+
+        assertTrue(registry.tryReserve("LOC1"));
+        assertFalse(registry.tryReserve("LOC1"));
+        assertEquals(3, registry.occupancy("LOC1"));
+    }
+
+    @Test
+    void testTryReserve_UnknownLocation() {
+        when(locationResolver.resolveByIdentifier("NOWHERE")).thenReturn(null);
+
+        assertFalse(registry.tryReserve("NOWHERE"));
+    }
+
+    @Test
+    void testRelease_FreesSlot() {
+        when(locationResolver.resolveByIdentifier("LOC1")).thenReturn(new Location("LOC1", 2, 100));
+
+        assertFalse(registry.tryReserve("LOC1"));
+        registry.release("LOC1");
+        assertTrue(registry.tryReserve("LOC1"));
+    }
+
+    @Test
+    void testRelease_NeverGoesNegative() {
+        registry.release("LOC2");
+        registry.release("LOC1");
+        registry.release("LOC1");
+        registry.release("LOC1");
+
+        assertEquals(0, registry.occupancy("LOC1"));
+        assertEquals(0, registry.occupancy("LOC2"));
+    }
+
+    @Test
+    void testTryReserve_ConcurrentCallersNeverExceedMaximum() throws Exception {
+        when(locationResolver.resolveByIdentifier("LOC2")).thenReturn(new Location("LOC2", 5, 100));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Boolean>> attempts = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                attempts.add(() -> registry.tryReserve("LOC2"));
+            }
+            int granted = 0;
+            for (Future<Boolean> result : executor.invokeAll(attempts)) {
+                if (result.get()) {
+                    granted++;
+                }
+            }
+            assertEquals(5, granted);
+            assertEquals(5, registry.occupancy("LOC2"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
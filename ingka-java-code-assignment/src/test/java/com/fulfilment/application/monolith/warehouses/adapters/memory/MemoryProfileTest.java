@@ -0,0 +1,104 @@
+package com.fulfilment.application.monolith.warehouses.adapters.memory;
+
+import com.fulfilment.application.monolith.fulfillment.adapters.memory.InMemoryFulfillmentStore;
+import com.fulfilment.application.monolith.fulfillment.domain.ports.FulfillmentStore;
+import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import io.quarkus.arc.ClientProxy;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the application built with the {@code memory} profile: warehouses and associations go to the
+ * in-memory stores, products and stores still come from the database.
+ */
+@QuarkusTest
+@TestProfile(MemoryProfileTest.Memory.class)
+public class MemoryProfileTest {
+
+    public static class Memory implements QuarkusTestProfile {
+        @Override
+        public String getConfigProfile() {
+            return "test,memory";
+        }
+
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            try {
+                // a fresh log per run, so warehouses of an earlier run are not recovered
+                return Map.of("persistence.memory.wal.dir",
+                        Files.createTempDirectory(Path.of("target"), "memory-profile-wal").toString());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Inject
+    WarehouseStore warehouseStore;
+
+    @Inject
+    FulfillmentStore fulfillmentStore;
+
+    @Test
+    public void testStoresAreInMemory() {
+        assertTrue(ClientProxy.unwrap(warehouseStore) instanceof InMemoryWarehouseStore);
+        assertTrue(ClientProxy.unwrap(fulfillmentStore) instanceof InMemoryFulfillmentStore);
+    }
+
+    @Test
+    public void testCreateWarehouseAndAssociate() {
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"businessUnitCode\": \"MEM-001\", \"location\": \"ZWOLLE-001\", \"capacity\": 30, \"stock\": 5}")
+                .when().post("/warehouse")
+                .then()
+                .statusCode(200);
+
+        given()
+                .when().get("/warehouse/MEM-001")
+                .then()
+                .statusCode(200)
+                .body("location", is("ZWOLLE-001"));
+
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"productName\": \"KALLAX\", \"storeName\": \"HAARLEM\", \"warehouseBusinessUnitCode\": \"MEM-001\"}")
+                .when().post("/fulfillment")
+                .then()
+                .statusCode(201);
+
+        // MWH.001 only exists in the database
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"productName\": \"KALLAX\", \"storeName\": \"HAARLEM\", \"warehouseBusinessUnitCode\": \"MWH.001\"}")
+                .when().post("/fulfillment")
+                .then()
+                .statusCode(400);
+
+        // the stores are timed like the repositories they replace
+        given()
+                .when().get("/q/metrics")
+                .then()
+                .statusCode(200)
+                .body(allOf(
+                        containsString("port_calls_seconds_count{method=\"create\""
+                                + ",outcome=\"success\",port=\"WarehouseStore\"}"),
+                        containsString("port_calls_seconds_count{method=\"save\""
+                                + ",outcome=\"success\",port=\"FulfillmentStore\"}")));
+    }
+}
@@ -1,16 +1,22 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
-import static org.junit.jupiter.api.Assertions.assertNotNull;
-import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationOccupancy;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
+import java.time.ZonedDateTime;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -20,11 +26,19 @@ public class ArchiveWarehouseUseCaseTest {
     @Mock
     WarehouseStore warehouseStore;
 
-    @InjectMocks
+    @Mock
+    LocationOccupancy locationOccupancy;
+
     ArchiveWarehouseUseCase useCase;
 
+    @BeforeEach
+    void setUp() {
+        useCase = new ArchiveWarehouseUseCase(warehouseStore, locationOccupancy,
+                new ReplaceWarehouseUseCaseTest.DirectRetry(3));
+    }
+
     @Test
-    void testArchive_Success_SetsArchivedAtAndUpdates() {
+    void testArchive_Success_ArchivesInOneUpdateAndReleasesSlot() {
         // given
         Warehouse existing = new Warehouse();
         existing.setBusinessUnitCode("BU-001");
@@ -32,6 +46,25 @@ public class ArchiveWarehouseUseCaseTest {
         existing.setCapacity(100);
         existing.setStock(50);
 
+        when(warehouseStore.archive(eq("BU-001"), isNull(), any(ZonedDateTime.class))).thenReturn(1);
+
+        // when
+        useCase.archive(existing);
+
+        // then - archived by code without reading the warehouse again, and the location slot is freed
+        verify(warehouseStore).archive(eq("BU-001"), isNull(), any(ZonedDateTime.class));
+        verifyNoMoreInteractions(warehouseStore);
+        verify(locationOccupancy).release("ZWOLLE-001");
+    }
+
+    @Test
+    void testArchive_WithoutLocation_LooksItUpToReleaseSlot() {
+        // given
+        Warehouse existing = new Warehouse();
+        existing.setBusinessUnitCode("BU-001");
+        existing.setLocation("ZWOLLE-001");
+
+        when(warehouseStore.archive(eq("BU-001"), isNull(), any(ZonedDateTime.class))).thenReturn(1);
         when(warehouseStore.findByBusinessUnitCode("BU-001")).thenReturn(existing);
 
         Warehouse input = new Warehouse();
@@ -40,17 +73,46 @@ public class ArchiveWarehouseUseCaseTest {
         // when
         useCase.archive(input);
 
-        // then - archivedAt is set and update is called
-        verify(warehouseStore).update(argThat(w -> {
-            assertNotNull(w.getArchivedAt(), "archivedAt should be set");
-            return true;
-        }));
+        // then
+        verify(locationOccupancy).release("ZWOLLE-001");
+    }
+
+    @Test
+    void testArchive_WithoutLocation_RemovedBeforeLookup_NothingReleased() {
+        // given - the warehouse is gone by the time its location is read
+        when(warehouseStore.archive(eq("BU-001"), isNull(), any(ZonedDateTime.class))).thenReturn(1);
+        when(warehouseStore.findByBusinessUnitCode("BU-001")).thenReturn(null);
+
+        Warehouse input = new Warehouse();
+        input.setBusinessUnitCode("BU-001");
+
+        // when
+        useCase.archive(input);
+
+        // then
+        verifyNoInteractions(locationOccupancy);
     }
 
     @Test
-    void testArchive_WarehouseNotFound_NoUpdate() {
+    void testArchive_AlreadyArchived_DoesNotReleaseSlotTwice() {
+        // given - the warehouse is not active anymore
+        Warehouse existing = new Warehouse();
+        existing.setBusinessUnitCode("BU-001");
+        existing.setLocation("ZWOLLE-001");
+        existing.setArchivedAt(ZonedDateTime.now().minusDays(1));
+
+        // when
+        useCase.archive(existing);
+
+        // then
+        verifyNoInteractions(warehouseStore);
+        verifyNoInteractions(locationOccupancy);
+    }
+
+    @Test
+    void testArchive_WarehouseNotFound_NothingReleased() {
         // given
-        when(warehouseStore.findByBusinessUnitCode("NONEXISTENT")).thenReturn(null);
+        when(warehouseStore.archive(eq("NONEXISTENT"), isNull(), any(ZonedDateTime.class))).thenReturn(0);
 
         Warehouse input = new Warehouse();
         input.setBusinessUnitCode("NONEXISTENT");
@@ -58,8 +120,54 @@ public class ArchiveWarehouseUseCaseTest {
         // when
         useCase.archive(input);
 
-        // then - only findByBusinessUnitCode was called, no update
-        verify(warehouseStore).findByBusinessUnitCode("NONEXISTENT");
+        // then - only the archive statement was issued
+        verify(warehouseStore).archive(eq("NONEXISTENT"), isNull(), any(ZonedDateTime.class));
         verifyNoMoreInteractions(warehouseStore);
+        verifyNoInteractions(locationOccupancy);
+    }
+
+    @Test
+    void testArchive_ConcurrentlyMoved_ReadsAgainAndReleasesCurrentSlot() {
+        // given - a replacement moved the warehouse after the caller loaded it
+        Warehouse loaded = warehouseAt("ZWOLLE-001", 1L);
+        Warehouse moved = warehouseAt("AMSTERDAM-001", 2L);
+
+        when(warehouseStore.archive(eq("BU-001"), eq(1L), any(ZonedDateTime.class))).thenReturn(0);
+        when(warehouseStore.findByBusinessUnitCode("BU-001")).thenReturn(moved);
+        when(warehouseStore.archive(eq("BU-001"), eq(2L), any(ZonedDateTime.class))).thenReturn(1);
+
+        // when
+        useCase.archive(loaded);
+
+        // then - the slot freed is the one at the location the warehouse was archived at
+        verify(locationOccupancy).release("AMSTERDAM-001");
+        verify(locationOccupancy, never()).release("ZWOLLE-001");
+    }
+
+    @Test
+    void testArchive_ArchivedConcurrently_NothingReleased() {
+        // given - another request archived the warehouse after the caller loaded it
+        Warehouse archived = warehouseAt("ZWOLLE-001", 2L);
+        archived.setArchivedAt(ZonedDateTime.now());
+
+        when(warehouseStore.archive(eq("BU-001"), eq(1L), any(ZonedDateTime.class))).thenReturn(0);
+        when(warehouseStore.findByBusinessUnitCode("BU-001")).thenReturn(archived);
+
+        // when
+        useCase.archive(warehouseAt("ZWOLLE-001", 1L));
+
+        // then
+        verify(warehouseStore, times(1)).archive(eq("BU-001"), any(), any(ZonedDateTime.class));
+        verifyNoInteractions(locationOccupancy);
+    }
+
+    private Warehouse warehouseAt(String location, Long version) {
+        Warehouse warehouse = new Warehouse();
+        warehouse.setBusinessUnitCode("BU-001");
+        warehouse.setLocation(location);
+        warehouse.setCapacity(100);
+        warehouse.setStock(50);
+        warehouse.setVersion(version);
+        return warehouse;
     }
 }
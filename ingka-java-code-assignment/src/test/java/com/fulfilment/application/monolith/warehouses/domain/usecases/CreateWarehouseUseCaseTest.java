@@ -1,11 +1,15 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationOccupancy;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import com.fulfilment.application.monolith.warehouses.domain.validation.WarehouseValidator;
 import jakarta.validation.ValidationException;
@@ -25,6 +29,9 @@ public class CreateWarehouseUseCaseTest {
     @Mock
     WarehouseValidator warehouseValidator;
 
+    @Mock
+    LocationOccupancy locationOccupancy;
+
     @InjectMocks
     CreateWarehouseUseCase useCase;
 
@@ -41,12 +48,16 @@ public class CreateWarehouseUseCaseTest {
 
     @Test
     void testCreate_Success_ValidatesAndPersists() {
+        // given
+        when(locationOccupancy.tryReserve("ZWOLLE-001")).thenReturn(true);
+
         // when
         useCase.create(warehouse);
 
-        // then - validator called with isReplacement=false, then store persists
+        // then - validator called with isReplacement=false, slot reserved, then store persists
         verify(warehouseValidator).validate(warehouse, false);
         verify(warehouseStore).create(warehouse);
+        verify(locationOccupancy, never()).release("ZWOLLE-001");
     }
 
     @Test
@@ -58,5 +69,28 @@ public class CreateWarehouseUseCaseTest {
         // when / then
         assertThrows(ValidationException.class, () -> useCase.create(warehouse));
         verifyNoInteractions(warehouseStore);
+        verifyNoInteractions(locationOccupancy);
+    }
+
+    @Test
+    void testCreate_LocationFull_DoesNotPersist() {
+        // given
+        when(locationOccupancy.tryReserve("ZWOLLE-001")).thenReturn(false);
+
+        // when / then
+        ValidationException exception = assertThrows(ValidationException.class, () -> useCase.create(warehouse));
+        assertEquals("Maximum number of warehouses reached for location: ZWOLLE-001", exception.getMessage());
+        verifyNoInteractions(warehouseStore);
+    }
+
+    @Test
+    void testCreate_PersistFails_ReleasesSlot() {
+        // given
+        when(locationOccupancy.tryReserve("ZWOLLE-001")).thenReturn(true);
+        doThrow(new IllegalStateException("db down")).when(warehouseStore).create(warehouse);
+
+        // when / then
+        assertThrows(IllegalStateException.class, () -> useCase.create(warehouse));
+        verify(locationOccupancy).release("ZWOLLE-001");
     }
 }
@@ -1,18 +1,28 @@
 package com.fulfilment.application.monolith.warehouses.domain.usecases;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 
+import com.fulfilment.application.monolith.database.ConcurrentUpdateException;
+import com.fulfilment.application.monolith.database.OptimisticRetry;
 import com.fulfilment.application.monolith.warehouses.domain.models.Warehouse;
+import com.fulfilment.application.monolith.warehouses.domain.ports.LocationOccupancy;
 import com.fulfilment.application.monolith.warehouses.domain.ports.WarehouseStore;
 import com.fulfilment.application.monolith.warehouses.domain.validation.WarehouseValidator;
 import jakarta.validation.ValidationException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -25,13 +35,17 @@ public class ReplaceWarehouseUseCaseTest {
     @Mock
     WarehouseValidator warehouseValidator;
 
-    @InjectMocks
+    @Mock
+    LocationOccupancy locationOccupancy;
+
     ReplaceWarehouseUseCase useCase;
 
     private Warehouse newWarehouse;
 
     @BeforeEach
     void setUp() {
+        useCase = new ReplaceWarehouseUseCase(warehouseStore, warehouseValidator, locationOccupancy,
+                new DirectRetry(3));
         newWarehouse = new Warehouse();
         newWarehouse.setBusinessUnitCode("BU-EXISTING");
         newWarehouse.setLocation("ZWOLLE-001");
@@ -41,6 +55,9 @@ public class ReplaceWarehouseUseCaseTest {
 
     @Test
     void testReplace_Success_ValidatesAndUpdates() {
+        // given
+        when(warehouseStore.update(newWarehouse)).thenReturn(1);
+
         // when
         useCase.replace(newWarehouse);
 
@@ -59,4 +76,153 @@ public class ReplaceWarehouseUseCaseTest {
         assertThrows(ValidationException.class, () -> useCase.replace(newWarehouse));
         verifyNoInteractions(warehouseStore);
     }
+
+    @Test
+    void testReplace_LocationChanged_MovesSlot() {
+        // given - the existing warehouse lives in another location
+        when(warehouseValidator.validate(newWarehouse, true)).thenReturn(existingAt("AMSTERDAM-001"));
+        when(locationOccupancy.tryReserve("ZWOLLE-001")).thenReturn(true);
+        when(warehouseStore.update(newWarehouse)).thenReturn(1);
+
+        // when
+        useCase.replace(newWarehouse);
+
+        // then - slot reserved at the new location and released at the old one
+        verify(warehouseStore).update(newWarehouse);
+        verify(locationOccupancy).release("AMSTERDAM-001");
+    }
+
+    @Test
+    void testReplace_LocationChangedToFullLocation_DoesNotUpdate() {
+        // given
+        when(warehouseValidator.validate(newWarehouse, true)).thenReturn(existingAt("AMSTERDAM-001"));
+        when(locationOccupancy.tryReserve("ZWOLLE-001")).thenReturn(false);
+
+        // when / then
+        assertThrows(ValidationException.class, () -> useCase.replace(newWarehouse));
+        verifyNoInteractions(warehouseStore);
+        verify(locationOccupancy, never()).release("AMSTERDAM-001");
+    }
+
+    @Test
+    void testReplace_SameLocation_KeepsSlot() {
+        // given
+        when(warehouseValidator.validate(newWarehouse, true)).thenReturn(existingAt("ZWOLLE-001"));
+        when(warehouseStore.update(newWarehouse)).thenReturn(1);
+
+        // when
+        useCase.replace(newWarehouse);
+
+        // then
+        verify(warehouseStore).update(newWarehouse);
+        verifyNoInteractions(locationOccupancy);
+    }
+
+    @Test
+    void testReplace_WarehouseGoneBeforeUpdate_ReleasesReservedSlot() {
+        // given - the warehouse is removed between validation and the update
+        when(warehouseValidator.validate(newWarehouse, true)).thenReturn(existingAt("AMSTERDAM-001"));
+        when(locationOccupancy.tryReserve("ZWOLLE-001")).thenReturn(true);
+        when(warehouseStore.update(newWarehouse)).thenReturn(0);
+
+        // when / then
+        assertThrows(ValidationException.class, () -> useCase.replace(newWarehouse));
+        verify(locationOccupancy).release("ZWOLLE-001");
+        verify(locationOccupancy, never()).release("AMSTERDAM-001");
+    }
+
+    @Test
+    void testReplace_ConcurrentChange_RevalidatesAndRetries() {
+        // given - another replacement bumps the version between the first validation and its update
+        when(warehouseValidator.validate(newWarehouse, true))
+                .thenReturn(existingAt("ZWOLLE-001", 1L), existingAt("ZWOLLE-001", 2L));
+        when(warehouseStore.update(newWarehouse)).thenReturn(0, 1);
+
+        // when
+        useCase.replace(newWarehouse);
+
+        // then - validated twice, and the second update is made against the version read second
+        verify(warehouseValidator, times(2)).validate(newWarehouse, true);
+        verify(warehouseStore, times(2)).update(newWarehouse);
+        assertEquals(2L, newWarehouse.getVersion());
+    }
+
+    @Test
+    void testReplace_ConflictOnEveryAttempt_GivesUpAndReleasesReservedSlot() {
+        // given
+        when(warehouseValidator.validate(newWarehouse, true)).thenReturn(existingAt("AMSTERDAM-001", 1L));
+        when(locationOccupancy.tryReserve("ZWOLLE-001")).thenReturn(true);
+        when(warehouseStore.update(newWarehouse)).thenReturn(0);
+
+        // when / then - every attempt reserves and gives back the new slot, the old one is kept
+        assertThrows(ConcurrentUpdateException.class, () -> useCase.replace(newWarehouse));
+        verify(warehouseStore, times(3)).update(newWarehouse);
+        verify(locationOccupancy, times(3)).release("ZWOLLE-001");
+        verify(locationOccupancy, never()).release("AMSTERDAM-001");
+    }
+
+    @Test
+    void testReplace_CommitFails_ReleasesReservedSlot() {
+        // given - the attempt succeeds, but its transaction does not commit
+        useCase = new ReplaceWarehouseUseCase(warehouseStore, warehouseValidator, locationOccupancy,
+                new DirectRetry(3) {
+                    @Override
+                    protected <T> T inNewTransaction(Supplier<T> attempt) {
+                        return super.inNewTransaction(() -> {
+                            attempt.get();
+                            throw new IllegalStateException("commit failed");
+                        });
+                    }
+                });
+        when(warehouseValidator.validate(newWarehouse, true)).thenReturn(existingAt("AMSTERDAM-001"));
+        when(locationOccupancy.tryReserve("ZWOLLE-001")).thenReturn(true);
+        when(warehouseStore.update(newWarehouse)).thenReturn(1);
+
+        // when / then - the new slot is given back and the old one kept
+        assertThrows(IllegalStateException.class, () -> useCase.replace(newWarehouse));
+        verify(locationOccupancy).release("ZWOLLE-001");
+        verify(locationOccupancy, never()).release("AMSTERDAM-001");
+    }
+
+    private Warehouse existingAt(String location, Long version) {
+        Warehouse existing = existingAt(location);
+        existing.setVersion(version);
+        return existing;
+    }
+
+    private Warehouse existingAt(String location) {
+        Warehouse existing = new Warehouse();
+        existing.setBusinessUnitCode("BU-EXISTING");
+        existing.setLocation(location);
+        existing.setCapacity(100);
+        existing.setStock(50);
+        return existing;
+    }
+
+    // runs every attempt in the caller's thread, without a transaction or backoff; an attempt that throws
+    // counts as rolled back
+    static class DirectRetry extends OptimisticRetry {
+
+        private final List<Runnable> rollbackActions = new ArrayList<>();
+
+        DirectRetry(int maxAttempts) {
+            super(maxAttempts, Duration.ZERO, Duration.ZERO);
+        }
+
+        @Override
+        protected <T> T inNewTransaction(Supplier<T> attempt) {
+            rollbackActions.clear();
+            try {
+                return attempt.get();
+            } catch (RuntimeException e) {
+                rollbackActions.forEach(Runnable::run);
+                throw e;
+            }
+        }
+
+        @Override
+        public void onRollback(Runnable action) {
+            rollbackActions.add(action);
+        }
+    }
 }
@@ -2,6 +2,7 @@ package com.fulfilment.application.monolith.warehouses.domain.validation;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.when;
 
@@ -47,7 +48,6 @@ public class WarehouseBusinessValidatorTest {
     void testValidate_Success() {
         when(warehouseStore.findByBusinessUnitCode("BU001")).thenReturn(null);
         when(locationResolver.resolveByIdentifier("LOC1")).thenReturn(location);
-        when(warehouseStore.countByLocation("LOC1")).thenReturn(2L);
 
         assertDoesNotThrow(() -> validator.validate(warehouse, false));
     }
@@ -72,14 +72,16 @@ public class WarehouseBusinessValidatorTest {
     }
 
     @Test
-    void testValidate_MaxWarehouses() {
-        when(warehouseStore.findByBusinessUnitCode("BU001")).thenReturn(null);
+    void testValidate_Replacement_ReturnsExistingWarehouse() {
+        Warehouse existing = new Warehouse();
+        existing.setBusinessUnitCode("BU001");
+        existing.setLocation("LOC1");
+        existing.setStock(50);
+
+        when(warehouseStore.findByBusinessUnitCode("BU001")).thenReturn(existing);
         when(locationResolver.resolveByIdentifier("LOC1")).thenReturn(location);
-        when(warehouseStore.countByLocation("LOC1")).thenReturn(5L);
 
-        ValidationException exception = assertThrows(ValidationException.class,
-                () -> validator.validate(warehouse, false));
-        assertEquals("Maximum number of warehouses reached for location: LOC1", exception.getMessage());
+        assertSame(existing, validator.validate(warehouse, true));
     }
 
     @Test